@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.common.utils.CRC64;
+
+/**
+ * Compares the slice-by-16 CRC64 with the previous slice-by-8 one
+ * (LegacyCRC64) across buffer sizes, for byte arrays and direct buffers.
+ * The JDK's CRC32, which is an intrinsic, is there as a reference. The
+ * throughput is in updates per second; times the size it's the bytes per
+ * second. The combine benchmarks compare combining the CRC of a part of
+ * partSize bytes, which the previous class computed from scratch every time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CRC64Benchmark {
+
+    @State(Scope.Thread)
+    public static class Data {
+
+        @Param({ "64", "1024", "8192", "65536", "1048576" })
+        public int size;
+
+        byte[] bytes;
+        ByteBuffer direct;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            bytes = new byte[size];
+            new Random(1).nextBytes(bytes);
+            direct = ByteBuffer.allocateDirect(size);
+            direct.put(bytes);
+            direct.flip();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Parts {
+
+        @Param({ "8388608" })
+        public long partSize;
+
+        long crc1 = 0x1234567890abcdefL;
+        long crc2 = 0xfedcba0987654321L;
+    }
+
+    @Benchmark
+    public long legacy(Data data) {
+        LegacyCRC64 crc = new LegacyCRC64();
+        crc.update(data.bytes, 0, data.size);
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long sliceBy16(Data data) {
+        CRC64 crc = new CRC64();
+        crc.update(data.bytes, 0, data.size);
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long sliceBy16DirectBuffer(Data data) {
+        CRC64 crc = new CRC64();
+        data.direct.rewind();
+        crc.update(data.direct);
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long jdkCRC32(Data data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.bytes, 0, data.size);
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long combineLegacy(Parts parts) {
+        return LegacyCRC64.combine(parts.crc1, parts.crc2, parts.partSize);
+    }
+
+    @Benchmark
+    public long combine(Parts parts) {
+        return CRC64.combine(parts.crc1, parts.crc2, parts.partSize);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.crypto.CipherInputStream;
+import com.aliyun.oss.crypto.CryptoScheme;
+
+/**
+ * Reading an object through the AES-CTR CipherInputStream of the encryption
+ * client, against reading the same bytes without it. Each operation creates
+ * the cipher, as the encryption client does for every object, and reads
+ * size bytes through an 8KB buffer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CipherInputStreamBenchmark {
+
+    @Param({ "65536", "1048576" })
+    public int size;
+
+    private byte[] data;
+    private byte[] buffer;
+    private SecretKey key;
+    private byte[] iv;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        data = new byte[size];
+        new Random(1).nextBytes(data);
+        buffer = new byte[8192];
+
+        KeyGenerator generator = KeyGenerator.getInstance(CryptoScheme.AES_CTR.getKeyGeneratorAlgorithm());
+        generator.init(CryptoScheme.AES_CTR.getKeyLengthInBits(), new SecureRandom());
+        key = generator.generateKey();
+        iv = new byte[CryptoScheme.AES_CTR.getContentChiperIVLength()];
+        new SecureRandom().nextBytes(iv);
+    }
+
+    private long drain(InputStream in) throws IOException {
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            total += n;
+        }
+        in.close();
+        return total;
+    }
+
+    @Benchmark
+    public long plain() throws IOException {
+        return drain(new ByteArrayInputStream(data));
+    }
+
+    @Benchmark
+    public long aesCtr() throws IOException {
+        return drain(new CipherInputStream(new ByteArrayInputStream(data),
+                CryptoScheme.AES_CTR.createCryptoCipher(key, iv, Cipher.ENCRYPT_MODE, null)));
+    }
+}
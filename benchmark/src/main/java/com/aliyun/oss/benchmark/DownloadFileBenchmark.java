@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.aliyun.oss.model.DownloadFileRequest;
+
+/**
+ * Compares the downloadFile write paths for 1 to 16 part threads: every part
+ * opening the temporary file and writing it through an 8KB buffer, and all
+ * the parts sharing one FileChannel with positional writes from pooled
+ * direct buffers. The "megabytes" counter is the download throughput in
+ * MB/s. CRC checking is disabled to isolate the write path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+@State(Scope.Benchmark)
+public class DownloadFileBenchmark {
+
+    @Param({ "1", "2", "4", "8", "16" })
+    public int threads;
+
+    @Param({ "true", "false" })
+    public boolean sharedFileChannel;
+
+    @Param({ "268435456" })
+    public int objectSize;
+
+    @Param({ "8388608" })
+    public long partSize;
+
+    private LoopbackServer server;
+    private OSS client;
+    private File downloadFile;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long megabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new LoopbackServer(objectSize);
+
+        ClientBuilderConfiguration config = new ClientBuilderConfiguration();
+        config.setCrcCheckEnabled(false);
+        client = new OSSClientBuilder().build(server.getEndpoint(), new DefaultCredentialProvider("ak", "sk"),
+                config);
+        downloadFile = File.createTempFile("oss-download-benchmark", ".dat");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+        downloadFile.delete();
+    }
+
+    @Benchmark
+    public Object downloadFile(Bytes bytes) throws Throwable {
+        DownloadFileRequest request = new DownloadFileRequest("bucket", "key", downloadFile.getPath(), partSize,
+                threads, false);
+        request.setSharedFileChannel(sharedFileChannel);
+        Object result = client.downloadFile(request);
+        bytes.megabytes += objectSize / (1024 * 1024);
+        return result;
+    }
+}
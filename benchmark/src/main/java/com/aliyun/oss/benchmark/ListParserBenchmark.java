@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.common.parser.ResponseParseException;
+import com.aliyun.oss.internal.ResponseParsers;
+import com.aliyun.oss.internal.StreamingListParsers;
+import com.aliyun.oss.model.ListObjectsV2Result;
+import com.aliyun.oss.model.PartListing;
+import com.aliyun.oss.model.VersionListing;
+
+/**
+ * Compares the JDOM list parsers in ResponseParsers with the StAX parsers in
+ * StreamingListParsers on full pages. Run it with "-prof gc" to also compare
+ * the allocation rate (gc.alloc.rate.norm is the bytes allocated per page).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ListParserBenchmark {
+
+    @Param({ "JDOM", "STAX" })
+    public String parser;
+
+    @Param({ "1000" })
+    public int entries;
+
+    private byte[] listObjectsV2Body;
+    private byte[] listVersionsBody;
+    private byte[] listPartsBody;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        listObjectsV2Body = listObjectsV2Body(entries).getBytes(StandardCharsets.UTF_8);
+        listVersionsBody = listVersionsBody(entries).getBytes(StandardCharsets.UTF_8);
+        listPartsBody = listPartsBody(entries).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ListObjectsV2Result listObjectsV2() throws ResponseParseException {
+        ByteArrayInputStream in = new ByteArrayInputStream(listObjectsV2Body);
+        return "STAX".equals(parser) ? StreamingListParsers.parseListObjectsV2(in)
+                : ResponseParsers.parseListObjectsV2(in);
+    }
+
+    @Benchmark
+    public VersionListing listVersions() throws ResponseParseException {
+        ByteArrayInputStream in = new ByteArrayInputStream(listVersionsBody);
+        return "STAX".equals(parser) ? StreamingListParsers.parseListVersions(in)
+                : ResponseParsers.parseListVersions(in);
+    }
+
+    @Benchmark
+    public PartListing listParts() throws ResponseParseException {
+        ByteArrayInputStream in = new ByteArrayInputStream(listPartsBody);
+        return "STAX".equals(parser) ? StreamingListParsers.parseListParts(in)
+                : ResponseParsers.parseListParts(in);
+    }
+
+    static String listObjectsV2Body(int entries) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<ListBucketResult>\n")
+                .append("  <Name>benchmark-bucket</Name>\n  <Prefix>data/</Prefix>\n")
+                .append("  <MaxKeys>").append(entries).append("</MaxKeys>\n")
+                .append("  <Delimiter></Delimiter>\n  <IsTruncated>true</IsTruncated>\n")
+                .append("  <NextContinuationToken>ChJkYXRhL29iamVjdC0wMDAwOTk5EAA-</NextContinuationToken>\n")
+                .append("  <KeyCount>").append(entries).append("</KeyCount>\n");
+        for (int i = 0; i < entries; i++) {
+            sb.append("  <Contents>\n")
+                    .append("    <Key>data/2024/01/01/object-").append(String.format("%07d", i)).append(".parquet</Key>\n")
+                    .append("    <LastModified>2024-01-01T08:43:07.000Z</LastModified>\n")
+                    .append("    <ETag>\"5B3C1A2E053D763E1B002CC607C5A0FE\"</ETag>\n")
+                    .append("    <Type>Normal</Type>\n")
+                    .append("    <Size>").append(1024 + i).append("</Size>\n")
+                    .append("    <StorageClass>Standard</StorageClass>\n")
+                    .append("    <Owner>\n      <ID>1234512528586</ID>\n")
+                    .append("      <DisplayName>1234512528586</DisplayName>\n    </Owner>\n")
+                    .append("  </Contents>\n");
+        }
+        return sb.append("</ListBucketResult>\n").toString();
+    }
+
+    static String listVersionsBody(int entries) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<ListVersionsResult>\n")
+                .append("  <Name>benchmark-bucket</Name>\n  <Prefix>data%2F</Prefix>\n")
+                .append("  <KeyMarker></KeyMarker>\n  <VersionIdMarker></VersionIdMarker>\n")
+                .append("  <MaxKeys>").append(entries).append("</MaxKeys>\n")
+                .append("  <IsTruncated>true</IsTruncated>\n  <EncodingType>url</EncodingType>\n");
+        for (int i = 0; i < entries; i++) {
+            String element = i % 10 == 0 ? "DeleteMarker" : "Version";
+            sb.append("  <").append(element).append(">\n")
+                    .append("    <Key>data%2Fobject-").append(String.format("%07d", i)).append("</Key>\n")
+                    .append("    <VersionId>CAEQMxiBgMDNoP2D0BYiIDE3MWUxNzgxZDQxNTRiODI5OGYwZGMwNGY3MzZjN</VersionId>\n")
+                    .append("    <IsLatest>").append(i % 2 == 0).append("</IsLatest>\n")
+                    .append("    <LastModified>2024-01-01T08:43:07.000Z</LastModified>\n");
+            if (element.equals("Version")) {
+                sb.append("    <ETag>\"250F8A0AE989679A22926A875F0A2\"</ETag>\n")
+                        .append("    <Type>Normal</Type>\n")
+                        .append("    <Size>").append(1024 + i).append("</Size>\n")
+                        .append("    <StorageClass>Standard</StorageClass>\n");
+            }
+            sb.append("    <Owner>\n      <ID>1234512528586</ID>\n")
+                    .append("      <DisplayName>1234512528586</DisplayName>\n    </Owner>\n")
+                    .append("  </").append(element).append(">\n");
+        }
+        return sb.append("</ListVersionsResult>\n").toString();
+    }
+
+    static String listPartsBody(int entries) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<ListPartsResult>\n")
+                .append("  <Bucket>benchmark-bucket</Bucket>\n  <Key>multipart.data</Key>\n")
+                .append("  <UploadId>0004B999EF5A239BB9138C6227D69F95</UploadId>\n")
+                .append("  <PartNumberMarker></PartNumberMarker>\n")
+                .append("  <NextPartNumberMarker>").append(entries).append("</NextPartNumberMarker>\n")
+                .append("  <MaxParts>").append(entries).append("</MaxParts>\n")
+                .append("  <IsTruncated>false</IsTruncated>\n");
+        for (int i = 1; i <= entries; i++) {
+            sb.append("  <Part>\n")
+                    .append("    <PartNumber>").append(i).append("</PartNumber>\n")
+                    .append("    <LastModified>2024-01-01T08:43:07.000Z</LastModified>\n")
+                    .append("    <ETag>\"3349DC700140D7F86A0784842780\"</ETag>\n")
+                    .append("    <Size>6291456</Size>\n")
+                    .append("  </Part>\n");
+        }
+        return sb.append("</ListPartsResult>\n").toString();
+    }
+}
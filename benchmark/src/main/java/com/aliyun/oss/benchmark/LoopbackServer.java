@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A minimal OSS-like HTTP/1.1 server on the loopback interface, serving each
+ * keep-alive connection from its own thread so that it keeps up with
+ * thousands of concurrent client connections. GET returns a fixed payload
+ * (honoring a single "bytes=start-end" range), HEAD returns its headers, PUT
+ * and POST drain the request body, and DELETE returns 204. It does not verify
+ * signatures, so any credentials can be used.
+ */
+public class LoopbackServer {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final byte[] payload;
+    private final AtomicLong requests = new AtomicLong();
+    private volatile boolean stopped = false;
+
+    public LoopbackServer(int payloadSize) throws IOException {
+        this.payload = new byte[payloadSize];
+        new Random(0).nextBytes(this.payload);
+        this.serverSocket = new ServerSocket(0, 4096, InetAddress.getByName("127.0.0.1"));
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "loopback-server");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.execute(this::acceptLoop);
+    }
+
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public void stop() {
+        stopped = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!stopped) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!stopped) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+            while (!stopped) {
+                String requestLine = readLine(in);
+                if (requestLine == null) {
+                    break;
+                }
+                if (requestLine.isEmpty()) {
+                    continue;
+                }
+                String method = requestLine.substring(0, requestLine.indexOf(' '));
+                Map<String, String> headers = readHeaders(in);
+                drainBody(in, headers);
+                handle(method, headers, out);
+                out.flush();
+                if ("close".equalsIgnoreCase(headers.get("connection"))) {
+                    break;
+                }
+            }
+        } catch (SocketException e) {
+            // the client closed or aborted the connection
+        } catch (IOException e) {
+            if (!stopped) {
+                e.printStackTrace();
+            }
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private void handle(String method, Map<String, String> headers, OutputStream out) throws IOException {
+        long id = requests.incrementAndGet();
+        StringBuilder response = new StringBuilder();
+        byte[] body = null;
+        int offset = 0;
+        int length = 0;
+
+        if ("GET".equals(method)) {
+            int start = 0;
+            int end = payload.length - 1;
+            String range = headers.get("range");
+            if (range != null && range.startsWith("bytes=")) {
+                String[] bounds = range.substring("bytes=".length()).split("-", -1);
+                start = Integer.parseInt(bounds[0]);
+                if (!bounds[1].isEmpty()) {
+                    end = Math.min(end, Integer.parseInt(bounds[1]));
+                }
+                response.append("HTTP/1.1 206 Partial Content\r\n");
+                response.append("Content-Range: bytes ").append(start).append('-').append(end).append('/')
+                        .append(payload.length).append("\r\n");
+            } else {
+                response.append("HTTP/1.1 200 OK\r\n");
+            }
+            body = payload;
+            offset = start;
+            length = end - start + 1;
+            response.append("Content-Type: application/octet-stream\r\n");
+            response.append("Content-Length: ").append(length).append("\r\n");
+        } else if ("HEAD".equals(method)) {
+            response.append("HTTP/1.1 200 OK\r\n");
+            response.append("Content-Length: ").append(payload.length).append("\r\n");
+        } else if ("DELETE".equals(method)) {
+            response.append("HTTP/1.1 204 No Content\r\n");
+        } else {
+            response.append("HTTP/1.1 200 OK\r\n");
+            response.append("Content-Length: 0\r\n");
+        }
+        response.append("x-oss-request-id: ").append(Long.toHexString(id)).append("\r\n");
+        response.append("ETag: \"5B3C1A2E053D763E1B002CC607C5A0FE\"\r\n");
+        response.append("\r\n");
+
+        out.write(response.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (body != null) {
+            out.write(body, offset, length);
+        }
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                        line.substring(colon + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private static void drainBody(InputStream in, Map<String, String> headers) throws IOException {
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            while (true) {
+                String sizeLine = readLine(in);
+                if (sizeLine == null) {
+                    return;
+                }
+                int semicolon = sizeLine.indexOf(';');
+                long size = Long.parseLong(semicolon >= 0 ? sizeLine.substring(0, semicolon) : sizeLine, 16);
+                if (size == 0) {
+                    // trailers
+                    readHeaders(in);
+                    return;
+                }
+                skipFully(in, size);
+                readLine(in);
+            }
+        }
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            skipFully(in, Long.parseLong(contentLength));
+        }
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (n > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, n));
+            if (read == -1) {
+                throw new IOException("Unexpected end of request body");
+            }
+            n -= read;
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.common.comm.io.FixedLengthInputStream;
+import com.aliyun.oss.common.parser.RequestMarshallers;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.DeleteObjectsRequest;
+import com.aliyun.oss.model.PartETag;
+
+/**
+ * Marshalling of the largest request bodies the client sends: the
+ * CompleteMultipartUpload body of 1000 and 10000 parts, and the
+ * DeleteObjects body of 1000 keys (its maximum). Run it with "-prof gc" to
+ * also compare the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class MarshallerBenchmark {
+
+    @State(Scope.Thread)
+    public static class Parts {
+        @Param({ "1000", "10000" })
+        public int parts;
+
+        CompleteMultipartUploadRequest request;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<PartETag> partETags = new ArrayList<>();
+            for (int i = 1; i <= parts; i++) {
+                partETags.add(new PartETag(i, String.format("\"%032X\"", (long) i * 0x9E3779B97F4A7C15L)));
+            }
+            request = new CompleteMultipartUploadRequest("bucket", "path/to/large-object.dat", "upload-id",
+                    partETags);
+        }
+    }
+
+    private DeleteObjectsRequest deleteRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(String.format("logs/2024/01/%02d/app-%06d.log.gz", i % 31 + 1, i));
+        }
+        deleteRequest = new DeleteObjectsRequest("bucket").withKeys(keys);
+    }
+
+    @Benchmark
+    public FixedLengthInputStream completeMultipartUpload(Parts parts) {
+        return RequestMarshallers.completeMultipartUploadRequestMarshaller.marshall(parts.request);
+    }
+
+    @Benchmark
+    public byte[] deleteObjects() {
+        return RequestMarshallers.deleteObjectsRequestMarshaller.marshall(deleteRequest);
+    }
+}
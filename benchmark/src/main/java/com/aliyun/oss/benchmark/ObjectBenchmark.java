@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PutObjectResult;
+
+/**
+ * End to end putObject and getObject against the loopback server with the
+ * default client configuration (V1 signing, CRC computed), so it covers the
+ * whole synchronous path: building, signing, sending, parsing and reading
+ * the content. Add "-t 8" to run it with 8 threads sharing the client.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectBenchmark {
+
+    @Param({ "1024", "1048576" })
+    public int size;
+
+    private LoopbackServer server;
+    private OSS client;
+    private byte[] data;
+
+    @State(Scope.Thread)
+    public static class Buffer {
+        final byte[] bytes = new byte[64 * 1024];
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new LoopbackServer(size);
+        client = new OSSClientBuilder().build(server.getEndpoint(), new DefaultCredentialProvider("ak", "sk"));
+        data = server.getPayload();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public PutObjectResult putObject() {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(size);
+        return client.putObject("bucket", "path/to/object.dat", new ByteArrayInputStream(data), metadata);
+    }
+
+    @Benchmark
+    public long getObject(Buffer buffer) throws IOException {
+        OSSObject object = client.getObject("bucket", "path/to/object.dat");
+        long total = 0;
+        InputStream content = object.getObjectContent();
+        try {
+            int n;
+            while ((n = content.read(buffer.bytes)) != -1) {
+                total += n;
+            }
+        } finally {
+            object.close();
+        }
+        return total;
+    }
+}
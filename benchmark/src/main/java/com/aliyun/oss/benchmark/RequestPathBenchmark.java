@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.common.auth.DefaultCredentials;
+import com.aliyun.oss.common.comm.DefaultServiceClient;
+import com.aliyun.oss.common.comm.RequestMessage;
+import com.aliyun.oss.common.comm.SignVersion;
+import com.aliyun.oss.common.parser.ResponseParseException;
+import com.aliyun.oss.common.utils.HttpUtil;
+import com.aliyun.oss.internal.OSSRequestMessageBuilder;
+import com.aliyun.oss.internal.ResponseParsers;
+import com.aliyun.oss.internal.signer.OSSSignerBase;
+import com.aliyun.oss.internal.signer.OSSSignerParams;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.HttpMethod;
+
+/**
+ * The per-request CPU work of the client, without any I/O: building the
+ * request message of an UploadPart-like request with user metadata and
+ * query parameters, signing it with the V1 and V4 signers (the sign
+ * benchmarks include the build, so the signing cost is the difference),
+ * encoding the query string, converting the header charset, and parsing the
+ * object metadata from HeadObject response headers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestPathBenchmark {
+
+    private DefaultServiceClient serviceClient;
+    private URI endpoint;
+    private Map<String, String> headers;
+    private Map<String, String> parameters;
+    private Map<String, String> responseHeaders;
+    private OSSSignerParams v1Params;
+    private OSSSignerParams v4Params;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serviceClient = new DefaultServiceClient(new ClientConfiguration());
+        endpoint = URI.create("http://oss-cn-hangzhou.aliyuncs.com");
+
+        headers = new HashMap<>();
+        headers.put("Content-Type", "application/octet-stream");
+        headers.put("Content-Length", "8388608");
+        headers.put("Content-MD5", "1B2M2Y8AsgTpgAmY7PhCfg==");
+        headers.put("Cache-Control", "no-cache");
+        headers.put("x-oss-storage-class", "Standard");
+        headers.put("x-oss-meta-author", "作者");
+        headers.put("x-oss-meta-project", "benchmark");
+        headers.put("x-oss-meta-description", "a part of a large object");
+
+        parameters = new LinkedHashMap<>();
+        parameters.put("partNumber", "17");
+        parameters.put("uploadId", "0004B9895DBBB6EC98E36");
+        parameters.put("response-content-type", "text/plain; charset=utf-8");
+        parameters.put("response-content-disposition", "attachment; filename=\"report 2024.csv\"");
+
+        responseHeaders = new HashMap<>();
+        responseHeaders.put("Content-Type", "application/octet-stream");
+        responseHeaders.put("Content-Length", "8388608");
+        responseHeaders.put("Last-Modified", "Wed, 01 Jan 2025 00:00:00 GMT");
+        responseHeaders.put("ETag", "\"5B3C1A2E053D763E1B002CC607C5A0FE-2\"");
+        responseHeaders.put("Accept-Ranges", "bytes");
+        responseHeaders.put("x-oss-request-id", "5C3D9175B6FC201293AD4890");
+        responseHeaders.put("x-oss-object-type", "Multipart");
+        responseHeaders.put("x-oss-storage-class", "Standard");
+        responseHeaders.put("x-oss-hash-crc64ecma", "4327426744185291457");
+        responseHeaders.put("x-oss-server-time", "12");
+        responseHeaders.put("x-oss-meta-author", "author");
+        responseHeaders.put("x-oss-meta-project", "benchmark");
+
+        DefaultCredentials credentials = new DefaultCredentials("LTAI4Fbenchmark", "secret-access-key-of-benchmark");
+        v1Params = new OSSSignerParams("/bucket/path/to/object.dat", credentials);
+        v4Params = new OSSSignerParams("/bucket/path/to/object.dat", credentials);
+        v4Params.setProduct("oss");
+        v4Params.setRegion("cn-hangzhou");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serviceClient.shutdown();
+    }
+
+    private RequestMessage buildRequest() {
+        return new OSSRequestMessageBuilder(serviceClient).setEndpoint(endpoint).setMethod(HttpMethod.PUT)
+                .setBucket("bucket").setKey("path/to/object.dat").setHeaders(headers).setParameters(parameters)
+                .setInputSize(8388608).build();
+    }
+
+    @Benchmark
+    public RequestMessage build() {
+        return buildRequest();
+    }
+
+    @Benchmark
+    public RequestMessage signV1() {
+        RequestMessage request = buildRequest();
+        OSSSignerBase.createRequestSigner(SignVersion.V1, v1Params).sign(request);
+        return request;
+    }
+
+    @Benchmark
+    public RequestMessage signV4() {
+        RequestMessage request = buildRequest();
+        OSSSignerBase.createRequestSigner(SignVersion.V4, v4Params).sign(request);
+        return request;
+    }
+
+    @Benchmark
+    public String paramToQueryString() {
+        return HttpUtil.paramToQueryString(parameters, "utf-8");
+    }
+
+    @Benchmark
+    public Map<String, String> convertHeaderCharset() {
+        Map<String, String> converted = new HashMap<>(headers);
+        HttpUtil.convertHeaderCharsetToIso88591(converted);
+        return converted;
+    }
+
+    @Benchmark
+    public ObjectMetadata parseObjectMetadata() throws ResponseParseException {
+        return ResponseParsers.parseObjectMetadata(responseHeaders);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.aliyun.oss.common.comm.RequestTimeoutMode;
+import com.aliyun.oss.model.OSSObject;
+
+/**
+ * Compares the request timeout modes with 1024 threads sending requests
+ * concurrently. NONE is the baseline without request timeout, EXECUTOR hands
+ * each request to the TimeoutServiceClient thread pool and DEADLINE arms a
+ * shared timer wheel from the caller thread.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(1024)
+@State(Scope.Benchmark)
+public class RequestTimeoutBenchmark {
+
+    @Param({ "NONE", "EXECUTOR", "DEADLINE" })
+    public String mode;
+
+    @Param({ "4096" })
+    public int objectSize;
+
+    private LoopbackServer server;
+    private OSS client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new LoopbackServer(objectSize);
+
+        ClientBuilderConfiguration config = new ClientBuilderConfiguration();
+        config.setMaxConnections(2048);
+        config.setCrcCheckEnabled(false);
+        if (!"NONE".equals(mode)) {
+            config.setRequestTimeoutEnabled(true);
+            config.setRequestTimeout(30 * 1000);
+            config.setRequestTimeoutMode(RequestTimeoutMode.valueOf(mode));
+        }
+        client = new OSSClientBuilder().build(server.getEndpoint(), new DefaultCredentialProvider("ak", "sk"),
+                config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public long getObject() throws IOException {
+        OSSObject object = client.getObject("bucket", "key");
+        InputStream in = object.getObjectContent();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            total += n;
+        }
+        object.close();
+        return total;
+    }
+
+    @Benchmark
+    public Object headObject() {
+        return client.getObjectMetadata("bucket", "key");
+    }
+}
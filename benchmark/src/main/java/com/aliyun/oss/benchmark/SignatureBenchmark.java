@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.benchmark;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.aliyun.oss.common.auth.HmacSHA1Signature;
+import com.aliyun.oss.common.auth.HmacSHA256Signature;
+import com.aliyun.oss.common.comm.SignVersion;
+
+/**
+ * Signatures per second of HmacSHA1Signature and HmacSHA256Signature with
+ * the secret of one client, and presigned URLs per second of
+ * generatePresignedUrl with the V1 and V4 signers. Add "-t 8" to check the
+ * signers scale across threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignatureBenchmark {
+
+    private static final String SECRET = "secret-access-key-of-benchmark";
+    private static final String STRING_TO_SIGN = "GET\n\n\n1700000000\n/bucket/path/to/object.dat";
+
+    private final HmacSHA1Signature hmacSha1 = new HmacSHA1Signature();
+    private final HmacSHA256Signature hmacSha256 = new HmacSHA256Signature();
+    private final byte[] secretBytes = SECRET.getBytes(StandardCharsets.UTF_8);
+    private final byte[] dataBytes = STRING_TO_SIGN.getBytes(StandardCharsets.UTF_8);
+
+    @State(Scope.Benchmark)
+    public static class Presign {
+        @Param({ "V1", "V4" })
+        public SignVersion signVersion;
+
+        OSS client;
+        Date expiration;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ClientBuilderConfiguration config = new ClientBuilderConfiguration();
+            config.setSignatureVersion(signVersion);
+            client = OSSClientBuilder.create().endpoint("http://oss-cn-hangzhou.aliyuncs.com")
+                    .credentialsProvider(new DefaultCredentialProvider("LTAI4Fbenchmark", SECRET))
+                    .clientConfiguration(config).region("cn-hangzhou").build();
+            expiration = new Date(System.currentTimeMillis() + 3600 * 1000L);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            client.shutdown();
+        }
+    }
+
+    @Benchmark
+    public String hmacSha1() {
+        return hmacSha1.computeSignature(SECRET, STRING_TO_SIGN);
+    }
+
+    @Benchmark
+    public byte[] hmacSha256() {
+        return hmacSha256.computeHash(secretBytes, dataBytes);
+    }
+
+    @Benchmark
+    public URL generatePresignedUrl(Presign presign) {
+        return presign.client.generatePresignedUrl("bucket", "path/to/object.dat", presign.expiration);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+/**
+ * Callback of the asynchronous operations of {@link OSSAsync}. The methods are
+ * invoked from the I/O threads of the client, so implementations should
+ * return quickly and must not block.
+ *
+ * @param <T>
+ *            The result type of the operation.
+ */
+public interface AsyncHandler<T> {
+
+    /**
+     * Invoked when the operation completes successfully.
+     *
+     * @param result
+     *            The result of the operation.
+     */
+    public void onSuccess(T result);
+
+    /**
+     * Invoked when the operation fails. The exception is an
+     * {@link OSSException} for server side errors, or a
+     * {@link ClientException} for errors in the client such as network
+     * failures, an {@link InconsistentException} if the CRC check fails, or a
+     * {@link java.util.concurrent.CancellationException} if the operation was
+     * cancelled.
+     *
+     * @param exception
+     *            The cause of the failure.
+     */
+    public void onError(Exception exception);
+}
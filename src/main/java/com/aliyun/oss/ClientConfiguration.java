@@ -34,14 +34,20 @@ import javax.net.ssl.KeyManager;
 import javax.net.ssl.X509TrustManager;
 import java.security.SecureRandom;
 
+import org.apache.http.conn.DnsResolver;
+
 import com.aliyun.oss.common.auth.RequestSigner;
+import com.aliyun.oss.common.comm.AddressSelectionMode;
 import com.aliyun.oss.common.comm.IdleConnectionReaper;
 import com.aliyun.oss.common.comm.Protocol;
+import com.aliyun.oss.common.comm.RequestTimeoutMode;
+import com.aliyun.oss.common.comm.RetryMode;
 import com.aliyun.oss.common.comm.RetryStrategy;
 import com.aliyun.oss.common.comm.SignVersion;
 import com.aliyun.oss.common.utils.ResourceManager;
 import com.aliyun.oss.common.utils.VersionInfoUtils;
 import com.aliyun.oss.internal.OSSConstants;
+import com.aliyun.oss.metrics.MetricsListener;
 
 /**
  * Client configurations for accessing to OSS services.
@@ -62,6 +68,17 @@ public class ClientConfiguration {
     public static final int DEFAULT_THREAD_POOL_WAIT_TIME = 60 * 1000;
     public static final int DEFAULT_REQUEST_TIMEOUT = 5 * 60 * 1000;
     public static final long DEFAULT_SLOW_REQUESTS_THRESHOLD = 5 * 60 * 1000;
+    public static final long DEFAULT_MAX_RETRY_DELAY = 20 * 1000;
+    public static final int DEFAULT_RETRY_BUDGET_CAPACITY = 100;
+    public static final double DEFAULT_RETRY_BUDGET_RATIO = 0.1;
+    public static final int DEFAULT_INITIAL_CONCURRENCY_LIMIT = 16;
+    public static final long DEFAULT_CONCURRENCY_LIMIT_QUEUE_TIMEOUT = 60 * 1000;
+    public static final long DEFAULT_HEDGE_DELAY = 10;
+    public static final double DEFAULT_HEDGE_DELAY_PERCENTILE = 95;
+    public static final double DEFAULT_HEDGE_BUDGET_RATIO = 0.05;
+    public static final long DEFAULT_DNS_CACHE_TTL = 60 * 1000;
+    public static final long DEFAULT_ADDRESS_BLACKLIST_TIME = 30 * 1000;
+    public static final long DEFAULT_MAX_ASYNC_RESPONSE_SIZE = 64 * 1024 * 1024;
 
     public static final boolean DEFAULT_USE_REAPER = true;
 
@@ -96,6 +113,7 @@ public class ClientConfiguration {
 
     protected int requestTimeout = DEFAULT_REQUEST_TIMEOUT;
     protected boolean requestTimeoutEnabled = false;
+    protected RequestTimeoutMode requestTimeoutMode = RequestTimeoutMode.EXECUTOR;
     protected long slowRequestsThreshold = DEFAULT_SLOW_REQUESTS_THRESHOLD;
 
     protected Map<String, String> defaultHeaders = new LinkedHashMap<String, String>();
@@ -132,6 +150,41 @@ public class ClientConfiguration {
 
     private KeyStore keyStore = null;
 
+    private int maxConcurrentTransferParts = -1;
+
+    private MetricsListener metricsListener = null;
+
+    private boolean connectionPoolJmxEnabled = false;
+
+    private RetryMode retryMode = RetryMode.LEGACY;
+    private long maxRetryDelay = DEFAULT_MAX_RETRY_DELAY;
+    private int retryBudgetCapacity = DEFAULT_RETRY_BUDGET_CAPACITY;
+    private double retryBudgetRatio = DEFAULT_RETRY_BUDGET_RATIO;
+
+    private boolean concurrencyLimiterEnabled = false;
+    private int initialConcurrencyLimit = DEFAULT_INITIAL_CONCURRENCY_LIMIT;
+    private int maxConcurrencyLimit = -1;
+    private long concurrencyLimitQueueTimeout = DEFAULT_CONCURRENCY_LIMIT_QUEUE_TIMEOUT;
+
+    private int tlsSessionCacheSize = -1;
+    private long tlsSessionTimeout = -1;
+
+    private boolean bucketConnectionSharingEnabled = false;
+    private int maxConnectionsPerBucket = -1;
+
+    private boolean hedgingEnabled = false;
+    private long hedgeDelay = DEFAULT_HEDGE_DELAY;
+    private double hedgeDelayPercentile = DEFAULT_HEDGE_DELAY_PERCENTILE;
+    private double hedgeBudgetRatio = DEFAULT_HEDGE_BUDGET_RATIO;
+
+    private DnsResolver dnsResolver = null;
+    private boolean dnsCacheEnabled = false;
+    private long dnsCacheTtl = DEFAULT_DNS_CACHE_TTL;
+    private long addressBlacklistTime = DEFAULT_ADDRESS_BLACKLIST_TIME;
+    private AddressSelectionMode addressSelectionMode = AddressSelectionMode.ROUND_ROBIN;
+
+    private long maxAsyncResponseSize = DEFAULT_MAX_ASYNC_RESPONSE_SIZE;
+
     public ClientConfiguration() {
         super();
         AppendDefaultExcludeList(this.cnameExcludeList);
@@ -595,6 +648,29 @@ public class ClientConfiguration {
         this.requestTimeoutEnabled = requestTimeoutEnabled;
     }
 
+    /**
+     * Gets the mode of enforcing the request timeout. By default it's
+     * {@link RequestTimeoutMode#EXECUTOR}.
+     *
+     * @return the request timeout mode.
+     */
+    public RequestTimeoutMode getRequestTimeoutMode() {
+        return requestTimeoutMode;
+    }
+
+    /**
+     * Sets the mode of enforcing the request timeout, it takes effect only when
+     * the request timeout is enabled. {@link RequestTimeoutMode#DEADLINE}
+     * applies the timeout to the whole request including the response body,
+     * without handing the request to another thread.
+     *
+     * @param requestTimeoutMode
+     *            the request timeout mode.
+     */
+    public void setRequestTimeoutMode(RequestTimeoutMode requestTimeoutMode) {
+        this.requestTimeoutMode = requestTimeoutMode;
+    }
+
     /**
      * Sets the timeout value in millisecond. By default it's 5 min.
      *
@@ -1051,4 +1127,561 @@ public class ClientConfiguration {
     public void setKeyStore(KeyStore keyStore) {
         this.keyStore = keyStore;
     }
+
+    /**
+     * Gets the max number of parts that the resumable uploads and downloads
+     * of the client run at once, across all the transfers.
+     *
+     * @return The max number of concurrent transfer parts. By default it's the
+     *         max connection count.
+     */
+    public int getMaxConcurrentTransferParts() {
+        return maxConcurrentTransferParts > 0 ? maxConcurrentTransferParts : maxConnections;
+    }
+
+    /**
+     * Sets the max number of parts that the resumable uploads and downloads
+     * of the client run at once, across all the transfers. The task number of
+     * each transfer still limits its own parts.
+     *
+     * @param maxConcurrentTransferParts
+     *            The max number of concurrent transfer parts, or a value not
+     *            greater than zero to use the max connection count.
+     */
+    public void setMaxConcurrentTransferParts(int maxConcurrentTransferParts) {
+        this.maxConcurrentTransferParts = maxConcurrentTransferParts;
+    }
+
+    /**
+     * Gets the listener notified with the metrics of every operation.
+     *
+     * @return The metrics listener, null by default.
+     */
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Sets the listener notified with the metrics of every operation, such
+     * as a {@link com.aliyun.oss.metrics.MetricsRecorder}. No metrics are
+     * collected when it's null, which is the default.
+     *
+     * @param metricsListener
+     *            The metrics listener.
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * Gets the flag of registering the connection pool MBean. By default
+     * it's disabled.
+     *
+     * @return true enabled; false disabled.
+     */
+    public boolean isConnectionPoolJmxEnabled() {
+        return connectionPoolJmxEnabled;
+    }
+
+    /**
+     * Sets the flag of registering a {@link com.aliyun.oss.metrics.ConnectionPoolMXBean}
+     * with the leased, available and pending connection counts of the
+     * client in the platform MBean server. It's unregistered when the client
+     * is shut down.
+     *
+     * @param enabled
+     *            True if it's enabled; False if it's disabled.
+     */
+    public void setConnectionPoolJmxEnabled(boolean enabled) {
+        this.connectionPoolJmxEnabled = enabled;
+    }
+
+    /**
+     * Gets the retry mode. By default it's {@link RetryMode#LEGACY}.
+     *
+     * @return The retry mode.
+     */
+    public RetryMode getRetryMode() {
+        return retryMode;
+    }
+
+    /**
+     * Sets the retry mode. {@link RetryMode#ADAPTIVE} adds random jitter to
+     * the retry delays, backs off further on throttling responses and limits
+     * the retries of the client with a retry budget.
+     *
+     * @param retryMode
+     *            The retry mode.
+     */
+    public void setRetryMode(RetryMode retryMode) {
+        this.retryMode = retryMode;
+    }
+
+    /**
+     * Gets the max delay before a retry in the adaptive retry mode, in
+     * milliseconds. By default it's 20 seconds.
+     *
+     * @return The max retry delay in milliseconds.
+     */
+    public long getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    /**
+     * Sets the max delay before a retry in the adaptive retry mode, in
+     * milliseconds. It also caps the delay of a Retry-After header.
+     *
+     * @param maxRetryDelay
+     *            The max retry delay in milliseconds.
+     */
+    public void setMaxRetryDelay(long maxRetryDelay) {
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    /**
+     * Gets the capacity of the retry budget of the adaptive retry mode. By
+     * default it's 100 retries.
+     *
+     * @return The max number of tokens of the retry budget.
+     */
+    public int getRetryBudgetCapacity() {
+        return retryBudgetCapacity;
+    }
+
+    /**
+     * Sets the capacity of the retry budget of the adaptive retry mode, the
+     * number of retries a client may burst before requests succeed again. A
+     * throttled retry takes two tokens. It's read when the client is created.
+     *
+     * @param retryBudgetCapacity
+     *            The max number of tokens of the retry budget.
+     */
+    public void setRetryBudgetCapacity(int retryBudgetCapacity) {
+        this.retryBudgetCapacity = retryBudgetCapacity;
+    }
+
+    /**
+     * Gets the tokens added to the retry budget by each successful request.
+     * By default it's 0.1.
+     *
+     * @return The retry budget ratio.
+     */
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    /**
+     * Sets the tokens added to the retry budget by each successful request,
+     * which is the sustained fraction of retries to successful requests, such
+     * as 0.1 for one retry per ten successful requests. It's read when the
+     * client is created.
+     *
+     * @param retryBudgetRatio
+     *            The retry budget ratio.
+     */
+    public void setRetryBudgetRatio(double retryBudgetRatio) {
+        this.retryBudgetRatio = retryBudgetRatio;
+    }
+
+    /**
+     * Gets whether the in-flight requests of each endpoint and bucket are
+     * limited adaptively. By default it's disabled.
+     *
+     * @return True if the concurrency limiter is enabled.
+     */
+    public boolean isConcurrencyLimiterEnabled() {
+        return concurrencyLimiterEnabled;
+    }
+
+    /**
+     * Sets whether the in-flight requests of each endpoint and bucket are
+     * limited adaptively. The limit grows while the requests succeed within
+     * the slow requests threshold, and is halved when they are throttled or
+     * time out. A request counts as in flight until its response content is
+     * read to the end or closed, so the transfers of the objects being
+     * downloaded are limited as well. It's read when the client is created.
+     *
+     * @param enabled
+     *            True to enable the concurrency limiter.
+     */
+    public void setConcurrencyLimiterEnabled(boolean enabled) {
+        this.concurrencyLimiterEnabled = enabled;
+    }
+
+    /**
+     * Gets the concurrency limit of an endpoint and bucket before any request.
+     * By default it's 16.
+     *
+     * @return The initial concurrency limit.
+     */
+    public int getInitialConcurrencyLimit() {
+        return initialConcurrencyLimit;
+    }
+
+    /**
+     * Sets the concurrency limit of an endpoint and bucket before any request.
+     *
+     * @param initialConcurrencyLimit
+     *            The initial concurrency limit.
+     */
+    public void setInitialConcurrencyLimit(int initialConcurrencyLimit) {
+        this.initialConcurrencyLimit = initialConcurrencyLimit;
+    }
+
+    /**
+     * Gets the max concurrency limit of an endpoint and bucket. By default
+     * it's the max connections.
+     *
+     * @return The max concurrency limit.
+     */
+    public int getMaxConcurrencyLimit() {
+        return maxConcurrencyLimit > 0 ? maxConcurrencyLimit : maxConnections;
+    }
+
+    /**
+     * Sets the max concurrency limit of an endpoint and bucket.
+     *
+     * @param maxConcurrencyLimit
+     *            The max concurrency limit.
+     */
+    public void setMaxConcurrencyLimit(int maxConcurrencyLimit) {
+        this.maxConcurrencyLimit = maxConcurrencyLimit;
+    }
+
+    /**
+     * Gets the max time in milliseconds a request waits for the concurrency
+     * limiter. By default it's 60 seconds.
+     *
+     * @return The queue timeout in milliseconds.
+     */
+    public long getConcurrencyLimitQueueTimeout() {
+        return concurrencyLimitQueueTimeout;
+    }
+
+    /**
+     * Sets the max time in milliseconds a request waits for the concurrency
+     * limiter, 0 to fail the requests beyond the limit immediately.
+     *
+     * @param concurrencyLimitQueueTimeout
+     *            The queue timeout in milliseconds.
+     */
+    public void setConcurrencyLimitQueueTimeout(long concurrencyLimitQueueTimeout) {
+        this.concurrencyLimitQueueTimeout = concurrencyLimitQueueTimeout;
+    }
+
+    /**
+     * Gets the max number of cached TLS sessions. By default it's -1, the
+     * default of the JDK is kept.
+     *
+     * @return The TLS session cache size.
+     */
+    public int getTlsSessionCacheSize() {
+        return tlsSessionCacheSize;
+    }
+
+    /**
+     * Sets the max number of cached TLS sessions, which new connections to a
+     * host resume with an abbreviated handshake. The sessions are cached by
+     * the JDK anyway, it only needs to be set to change the default of the
+     * JDK. It's read when the client is created.
+     *
+     * @param tlsSessionCacheSize
+     *            The TLS session cache size, 0 for no limit, negative to keep
+     *            the default of the JDK.
+     */
+    public void setTlsSessionCacheSize(int tlsSessionCacheSize) {
+        this.tlsSessionCacheSize = tlsSessionCacheSize;
+    }
+
+    /**
+     * Gets the time in milliseconds a TLS session is cached. By default it's
+     * -1, the default of the JDK is kept.
+     *
+     * @return The TLS session timeout in milliseconds.
+     */
+    public long getTlsSessionTimeout() {
+        return tlsSessionTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds a TLS session is cached. It's read when
+     * the client is created.
+     *
+     * @param tlsSessionTimeout
+     *            The TLS session timeout in milliseconds, 0 for no limit,
+     *            negative to keep the default of the JDK.
+     */
+    public void setTlsSessionTimeout(long tlsSessionTimeout) {
+        this.tlsSessionTimeout = tlsSessionTimeout;
+    }
+
+    /**
+     * Gets whether the buckets of an endpoint share the connections. By
+     * default it's disabled.
+     *
+     * @return True if the buckets share the connections.
+     */
+    public boolean isBucketConnectionSharingEnabled() {
+        return bucketConnectionSharingEnabled;
+    }
+
+    /**
+     * Sets whether the buckets of an endpoint share the connections. The
+     * connections to a virtual hosted bucket of an OSS domain, such as
+     * bucket.oss-cn-hangzhou.aliyuncs.com, are made to the endpoint
+     * oss-cn-hangzhou.aliyuncs.com with the bucket in the Host header, so
+     * any idle connection of the endpoint is reused for any bucket. CName
+     * domains, which are not in the CName exclude list, keep their own
+     * connections. It's read when the client is created.
+     *
+     * @param enabled
+     *            True to share the connections between the buckets.
+     */
+    public void setBucketConnectionSharingEnabled(boolean enabled) {
+        this.bucketConnectionSharingEnabled = enabled;
+    }
+
+    /**
+     * Gets the max connections of a bucket when the buckets share the
+     * connections. By default it's -1, no limit besides the max connections.
+     *
+     * @return The max connections of a bucket.
+     */
+    public int getMaxConnectionsPerBucket() {
+        return maxConnectionsPerBucket;
+    }
+
+    /**
+     * Sets the max connections of a bucket when the buckets share the
+     * connections, so one bucket can't take all the connections. A request
+     * of a bucket at its max waits for a connection like for the pool, up to
+     * the connection request timeout.
+     *
+     * @param maxConnectionsPerBucket
+     *            The max connections of a bucket, 0 or negative for no limit.
+     */
+    public void setMaxConnectionsPerBucket(int maxConnectionsPerBucket) {
+        this.maxConnectionsPerBucket = maxConnectionsPerBucket;
+    }
+
+    /**
+     * Gets whether GET and HEAD requests are hedged. By default it's
+     * disabled.
+     *
+     * @return True if hedging is enabled.
+     */
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    /**
+     * Sets whether GET and HEAD requests are hedged. A request without a
+     * response header after the hedge delay is sent again on another
+     * connection, the first response wins and the other request is aborted.
+     * It's read when the client is created.
+     *
+     * @param enabled
+     *            True to enable hedging.
+     */
+    public void setHedgingEnabled(boolean enabled) {
+        this.hedgingEnabled = enabled;
+    }
+
+    /**
+     * Gets the min hedge delay in milliseconds. By default it's 10
+     * milliseconds.
+     *
+     * @return The min hedge delay in milliseconds.
+     */
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * Sets the min hedge delay in milliseconds. It's the hedge delay until the
+     * client has measured enough requests.
+     *
+     * @param hedgeDelay
+     *            The min hedge delay in milliseconds.
+     */
+    public void setHedgeDelay(long hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    /**
+     * Gets the percentile of the time to the response headers used as the
+     * hedge delay. By default it's 95.
+     *
+     * @return The hedge delay percentile.
+     */
+    public double getHedgeDelayPercentile() {
+        return hedgeDelayPercentile;
+    }
+
+    /**
+     * Sets the percentile of the time to the response headers used as the
+     * hedge delay, from 0 to 100.
+     *
+     * @param hedgeDelayPercentile
+     *            The hedge delay percentile.
+     */
+    public void setHedgeDelayPercentile(double hedgeDelayPercentile) {
+        this.hedgeDelayPercentile = hedgeDelayPercentile;
+    }
+
+    /**
+     * Gets the max fraction of extra requests sent as hedges. By default it's
+     * 0.05.
+     *
+     * @return The hedge budget ratio.
+     */
+    public double getHedgeBudgetRatio() {
+        return hedgeBudgetRatio;
+    }
+
+    /**
+     * Sets the max fraction of extra requests sent as hedges, such as 0.05
+     * for at most one hedge per twenty requests.
+     *
+     * @param hedgeBudgetRatio
+     *            The hedge budget ratio.
+     */
+    public void setHedgeBudgetRatio(double hedgeBudgetRatio) {
+        this.hedgeBudgetRatio = hedgeBudgetRatio;
+    }
+
+    /**
+     * Gets the resolver looking up the addresses of the hosts.
+     *
+     * @return The DNS resolver, or null for the resolver of the JVM.
+     */
+    public DnsResolver getDnsResolver() {
+        return dnsResolver;
+    }
+
+    /**
+     * Sets the resolver looking up the addresses of the hosts, such as a
+     * resolver querying a private DNS server. When the DNS cache is enabled,
+     * its lookups are cached. It's read when the client is created.
+     *
+     * @param dnsResolver
+     *            The DNS resolver, or null for the resolver of the JVM.
+     */
+    public void setDnsResolver(DnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+    }
+
+    /**
+     * Gets whether the addresses of the hosts are cached by the client. By
+     * default it's disabled.
+     *
+     * @return True if the DNS cache is enabled.
+     */
+    public boolean isDnsCacheEnabled() {
+        return dnsCacheEnabled;
+    }
+
+    /**
+     * Sets whether the addresses of the hosts are cached by the client. All
+     * the addresses of a host are cached for the DNS cache TTL and the new
+     * connections are spread over them by the address selection mode. An
+     * address which failed to connect is tried last for the address
+     * blacklist time. The connections of every address are shown in the
+     * connection pool stats. It's read when the client is created.
+     *
+     * @param enabled
+     *            True to enable the DNS cache.
+     */
+    public void setDnsCacheEnabled(boolean enabled) {
+        this.dnsCacheEnabled = enabled;
+    }
+
+    /**
+     * Gets the time in milliseconds the addresses of a host are cached. By
+     * default it's 60 seconds.
+     *
+     * @return The DNS cache TTL in milliseconds.
+     */
+    public long getDnsCacheTtl() {
+        return dnsCacheTtl;
+    }
+
+    /**
+     * Sets the time in milliseconds the addresses of a host are cached. The
+     * cached addresses are still used after it when the host can't be
+     * resolved.
+     *
+     * @param dnsCacheTtl
+     *            The DNS cache TTL in milliseconds.
+     */
+    public void setDnsCacheTtl(long dnsCacheTtl) {
+        this.dnsCacheTtl = dnsCacheTtl;
+    }
+
+    /**
+     * Gets the time in milliseconds an address which failed to connect is
+     * tried last. By default it's 30 seconds.
+     *
+     * @return The address blacklist time in milliseconds.
+     */
+    public long getAddressBlacklistTime() {
+        return addressBlacklistTime;
+    }
+
+    /**
+     * Sets the time in milliseconds an address which failed to connect is
+     * tried last, 0 to keep its order.
+     *
+     * @param addressBlacklistTime
+     *            The address blacklist time in milliseconds.
+     */
+    public void setAddressBlacklistTime(long addressBlacklistTime) {
+        this.addressBlacklistTime = addressBlacklistTime;
+    }
+
+    /**
+     * Gets how the new connections are spread over the addresses of a host.
+     * By default it's {@link AddressSelectionMode#ROUND_ROBIN}.
+     *
+     * @return The address selection mode.
+     */
+    public AddressSelectionMode getAddressSelectionMode() {
+        return addressSelectionMode;
+    }
+
+    /**
+     * Sets how the new connections are spread over the addresses of a host
+     * when the DNS cache is enabled.
+     *
+     * @param addressSelectionMode
+     *            The address selection mode.
+     */
+    public void setAddressSelectionMode(AddressSelectionMode addressSelectionMode) {
+        this.addressSelectionMode = addressSelectionMode;
+    }
+
+    /**
+     * Gets the max bytes of a response content buffered by the asynchronous
+     * client. By default it's 64MB.
+     *
+     * @return The max async response size in bytes.
+     */
+    public long getMaxAsyncResponseSize() {
+        return maxAsyncResponseSize;
+    }
+
+    /**
+     * Sets the max bytes of a response content buffered by the asynchronous
+     * client, such as the content of an object got by getObjectAsync. A
+     * larger response fails with a {@link ClientException} of error code
+     * {@link ClientErrorCode#RESPONSE_TOO_LARGE}, so larger objects should be
+     * got by ranges or by the synchronous client, which streams them.
+     *
+     * @param maxAsyncResponseSize
+     *            The max async response size in bytes, 0 or negative for no
+     *            limit.
+     */
+    public void setMaxAsyncResponseSize(long maxAsyncResponseSize) {
+        this.maxAsyncResponseSize = maxAsyncResponseSize;
+    }
 }
@@ -66,4 +66,14 @@ public interface ClientErrorCode {
      * Ssl exception
      */
     static final String SSL_EXCEPTION = "SslException";
+
+    /**
+     * No permit of the concurrency limiter within the queue timeout.
+     */
+    static final String CONCURRENCY_LIMIT_EXCEEDED = "ConcurrencyLimitExceeded";
+
+    /**
+     * The response content is larger than the max async response size.
+     */
+    static final String RESPONSE_TOO_LARGE = "ResponseTooLarge";
 }
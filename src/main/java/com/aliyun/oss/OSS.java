@@ -75,6 +75,21 @@ public interface OSS {
      */
     public String getConnectionPoolStats();
 
+    /**
+     * Opens connections to the endpoint and the hosts of the buckets in
+     * parallel before the requests need them, so the first requests don't
+     * pay for the DNS lookups and the TCP and TLS handshakes. The warm-up
+     * time and the opened connections are reported by
+     * {@link #getConnectionPoolStats()}.
+     *
+     * @param connectionsPerHost
+     *            The connections to open to each host.
+     * @param bucketNames
+     *            The buckets whose hosts are warmed up as well.
+     * @return The number of connections opened.
+     */
+    public int warmUpConnections(int connectionsPerHost, String... bucketNames);
+
     /**
      * Creates {@link Bucket} instance. The bucket name specified must be
      * globally unique and follow the naming rules from
@@ -1138,6 +1153,138 @@ public interface OSS {
      */
     public VersionListing listVersions(ListVersionsRequest listVersionsRequest)
     		throws OSSException, ClientException;
+
+    /**
+     * Lists all objects that match the {@link ListObjectsV2Request}, following
+     * the continuation tokens until the listing is complete.
+     * <p>
+     * The request for the next page is sent in the background while the
+     * caller iterates over the current page, and at most two pages are
+     * buffered ahead of the caller. Errors are thrown from the iterator when
+     * the caller reaches the page that couldn't be listed.
+     * </p>
+     *
+     * @param listObjectsV2Request
+     *            The {@link ListObjectsV2Request} instance that defines the
+     *            bucket name, the prefix and the other listing criteria. Its
+     *            continuation token, if any, is where the listing starts.
+     *
+     * @return An {@link Iterable} whose iterators each run a new listing.
+     *
+     * @throws ClientException
+     *             If any errors are encountered in the client while making the
+     *             request or handling the response.
+     * @throws OSSException
+     *             If any errors occurred in OSS while processing the
+     *             request.
+     */
+    public Iterable<OSSObjectSummary> listObjectsV2Iterable(ListObjectsV2Request listObjectsV2Request)
+            throws OSSException, ClientException;
+
+    /**
+     * Lists all objects that match the {@link ListObjectsV2Request}, following
+     * the continuation tokens until the listing is complete, with up to
+     * maxBufferedPages pages fetched ahead of the caller.
+     *
+     * @param listObjectsV2Request
+     *            The {@link ListObjectsV2Request} instance that defines the
+     *            bucket name, the prefix and the other listing criteria.
+     * @param maxBufferedPages
+     *            The max number of pages fetched but not yet reached by the
+     *            caller. It bounds the memory held by the iterator.
+     *
+     * @return An {@link Iterable} whose iterators each run a new listing.
+     *
+     * @throws ClientException
+     *             If any errors are encountered in the client while making the
+     *             request or handling the response.
+     * @throws OSSException
+     *             If any errors occurred in OSS while processing the
+     *             request.
+     */
+    public Iterable<OSSObjectSummary> listObjectsV2Iterable(ListObjectsV2Request listObjectsV2Request,
+            int maxBufferedPages) throws OSSException, ClientException;
+
+    /**
+     * Lists all versions and delete markers that match the
+     * {@link ListVersionsRequest}, following the key and version id markers
+     * until the listing is complete.
+     * <p>
+     * The request for the next page is sent in the background while the
+     * caller iterates over the current page, and at most two pages are
+     * buffered ahead of the caller. Errors are thrown from the iterator when
+     * the caller reaches the page that couldn't be listed.
+     * </p>
+     *
+     * @param listVersionsRequest
+     *            The request object containing all options for listing the
+     *            versions in a specified bucket.
+     *
+     * @return An {@link Iterable} whose iterators each run a new listing.
+     *
+     * @throws ClientException
+     *             If any errors are encountered in the client while making the
+     *             request or handling the response.
+     * @throws OSSException
+     *             If any errors occurred in OSS while processing the
+     *             request.
+     */
+    public Iterable<OSSVersionSummary> listVersionsIterable(ListVersionsRequest listVersionsRequest)
+            throws OSSException, ClientException;
+
+    /**
+     * Lists all versions and delete markers that match the
+     * {@link ListVersionsRequest}, with up to maxBufferedPages pages fetched
+     * ahead of the caller.
+     *
+     * @param listVersionsRequest
+     *            The request object containing all options for listing the
+     *            versions in a specified bucket.
+     * @param maxBufferedPages
+     *            The max number of pages fetched but not yet reached by the
+     *            caller. It bounds the memory held by the iterator.
+     *
+     * @return An {@link Iterable} whose iterators each run a new listing.
+     *
+     * @throws ClientException
+     *             If any errors are encountered in the client while making the
+     *             request or handling the response.
+     * @throws OSSException
+     *             If any errors occurred in OSS while processing the
+     *             request.
+     */
+    public Iterable<OSSVersionSummary> listVersionsIterable(ListVersionsRequest listVersionsRequest,
+            int maxBufferedPages) throws OSSException, ClientException;
+
+    /**
+     * Lists all objects under a prefix with several ListObjectsV2 requests
+     * running concurrently, which is much faster than following a single
+     * continuation token chain over a very large bucket.
+     * <p>
+     * The key space is divided into partitions: every common prefix found for
+     * the request's delimiter is listed on its own, and partitions with more
+     * pages are split at start-after boundaries while there is spare
+     * concurrency. At most maxConcurrentRequests requests are in flight.
+     * Every object is returned exactly once, in key order if the request
+     * asks for it.
+     * </p>
+     *
+     * @param parallelListObjectsRequest
+     *            The {@link ParallelListObjectsRequest} instance that defines
+     *            the bucket name, the prefix and the concurrency.
+     *
+     * @return A {@link ParallelObjectListing} that returns the objects as they
+     *         are listed and reports the progress of the listing.
+     *
+     * @throws ClientException
+     *             If any errors are encountered in the client while making the
+     *             request or handling the response.
+     * @throws OSSException
+     *             If any errors occurred in OSS while processing the
+     *             request.
+     */
+    public ParallelObjectListing listObjectsParallel(ParallelListObjectsRequest parallelListObjectsRequest)
+            throws OSSException, ClientException;
     
     /**
      * Uploads the file to the {@link Bucket} from the {@link InputStream}
@@ -1796,6 +1943,33 @@ public interface OSS {
      */
     public DeleteVersionsResult deleteVersions(DeleteVersionsRequest deleteVersionsRequest)
             throws OSSException, ClientException;
+
+    /**
+     * Deletes a large number of objects with DeleteObjects (or DeleteVersions)
+     * requests of up to 1000 keys each, sent in quiet mode with several
+     * requests in flight.
+     * <p>
+     * The keys are taken from the request's key iterator, key version
+     * iterator or prefix. The objects under a prefix are listed in parallel
+     * while they are deleted, so the first batches are deleted before the
+     * listing completes. The keys that could not be deleted don't stop the
+     * operation; they are returned in the result so they can be retried.
+     * </p>
+     *
+     * @param bulkDeleteRequest
+     *            A {@link BulkDeleteRequest} instance which specifies the
+     *            bucket, the keys or the prefix to delete and the concurrency.
+     *
+     * @return A {@link BulkDeleteResult} instance with the number of deleted
+     *         keys, the keys that failed and the deletion rate.
+     *
+     * @throws OSSException
+     *             If the listing of the prefix failed in OSS.
+     * @throws ClientException
+     *             If the listing of the prefix failed in the client, or the
+     *             calling thread is interrupted.
+     */
+    public BulkDeleteResult bulkDelete(BulkDeleteRequest bulkDeleteRequest) throws OSSException, ClientException;
     
     /**
      * Checks if a specific {@link OSSObject} exists under the specific
@@ -3739,6 +3913,140 @@ public interface OSS {
      */
     public DownloadFileResult downloadFile(DownloadFileRequest downloadFileRequest) throws Throwable;
 
+    /**
+     * Uploads every file under a local directory, with up to
+     * maxConcurrentFiles files in flight.
+     * <p>
+     * The directory tree is walked while the files are uploaded. Files
+     * smaller than the multipart threshold are uploaded with a single
+     * PutObject request, larger files like {@link #uploadFile}. With a
+     * manifest file, an upload that did not complete can be sent again and
+     * only uploads the files that are not recorded as uploaded, or have
+     * changed since. The files that failed don't stop the operation; they are
+     * returned in the result.
+     * </p>
+     *
+     * @param uploadDirectoryRequest
+     *            A {@link UploadDirectoryRequest} instance that specifies the
+     *            bucket, the local directory, the key prefix, the concurrency
+     *            and the manifest file.
+     * @return A {@link DirectoryTransferResult} instance with the number of
+     *         files and bytes uploaded, the files that failed and the rates.
+     * @throws OSSException
+     *             If the server side has any error.
+     * @throws ClientException
+     *             If the manifest could not be written, or the calling thread
+     *             is interrupted.
+     */
+    public DirectoryTransferResult uploadDirectory(UploadDirectoryRequest uploadDirectoryRequest)
+            throws OSSException, ClientException;
+
+    /**
+     * Downloads every object under a prefix to a local directory, with up to
+     * maxConcurrentFiles objects in flight.
+     * <p>
+     * The prefix is listed in parallel while the objects are downloaded.
+     * Objects smaller than the multipart threshold are downloaded with a
+     * single GetObject request, larger objects like {@link #downloadFile}.
+     * With a manifest file, a download that did not complete can be sent
+     * again and only downloads the objects that are not recorded as
+     * downloaded, or have changed since. The objects that failed don't stop
+     * the operation; they are returned in the result.
+     * </p>
+     *
+     * @param downloadDirectoryRequest
+     *            A {@link DownloadDirectoryRequest} instance that specifies the
+     *            bucket, the prefix, the local directory, the concurrency and
+     *            the manifest file.
+     * @return A {@link DirectoryTransferResult} instance with the number of
+     *         files and bytes downloaded, the files that failed and the rates.
+     * @throws OSSException
+     *             If the listing of the prefix failed in OSS.
+     * @throws ClientException
+     *             If the listing failed in the client, the manifest could not
+     *             be written, or the calling thread is interrupted.
+     */
+    public DirectoryTransferResult downloadDirectory(DownloadDirectoryRequest downloadDirectoryRequest)
+            throws OSSException, ClientException;
+
+    /**
+     * Creates an output stream that uploads the bytes written to it as an
+     * object, when the size is not known in advance.
+     * <p>
+     * Every part size bytes written is uploaded as a part of a multipart
+     * upload while the caller goes on writing, with up to maxPartsInFlight
+     * parts uploading at the same time; once they are all busy the writes
+     * wait. Closing the stream uploads the last part and completes the
+     * multipart upload. If less than one part is written, the object is put
+     * with a single request instead.
+     * </p>
+     *
+     * @param objectOutputStreamRequest
+     *            A {@link ObjectOutputStreamRequest} instance that specifies
+     *            the bucket, the key, the metadata, the part size and the
+     *            parts in flight.
+     * @return A {@link OSSObjectOutputStream} to write the object to.
+     * @throws OSSException
+     *             If the server side has any error.
+     * @throws ClientException
+     *             If the client side has any error.
+     */
+    public OSSObjectOutputStream createObjectOutputStream(ObjectOutputStreamRequest objectOutputStreamRequest)
+            throws OSSException, ClientException;
+
+    /**
+     * Creates an input stream over an object that downloads the blocks ahead
+     * of the reader, for fast sequential reads of large objects.
+     * <p>
+     * Unlike {@link #getObject(GetObjectRequest)}, which reads the whole
+     * object over one connection, the object is split into blocks of block
+     * size bytes and the next readAheadBlocks blocks are downloaded with
+     * concurrent ranged requests while the reader consumes the current one.
+     * The blocks are all requested with the ETag and version of the object
+     * found when the stream is created, so a concurrent overwrite fails the
+     * read instead of mixing the contents. When the CRC check is enabled,
+     * the CRC64 combined from the blocks is checked at the end of the object.
+     * </p>
+     *
+     * @param objectInputStreamRequest
+     *            A {@link ObjectInputStreamRequest} instance that specifies
+     *            the bucket, the key, the version, the block size and the
+     *            read ahead depth.
+     * @return A {@link OSSObjectInputStream} to read the object from. It must
+     *         be closed.
+     * @throws OSSException
+     *             If the server side has any error.
+     * @throws ClientException
+     *             If the client side has any error.
+     */
+    public OSSObjectInputStream createObjectInputStream(ObjectInputStreamRequest objectInputStreamRequest)
+            throws OSSException, ClientException;
+
+    /**
+     * Opens a random access channel over an object, for readers that do many
+     * small positioned reads, like the readers of columnar files.
+     * <p>
+     * The object metadata is read when the channel is opened. The object is
+     * then fetched in aligned blocks with ranged requests, adjacent missing
+     * blocks in one request, and the blocks are kept in a least recently used
+     * cache within the cache capacity. Sequential reads also fetch the next
+     * prefetch blocks. Every block is requested with the ETag of the object,
+     * so a concurrent overwrite fails the read instead of mixing contents.
+     * </p>
+     *
+     * @param objectChannelRequest
+     *            A {@link ObjectChannelRequest} instance that specifies the
+     *            bucket, the key, the version, the block size, the cache
+     *            capacity and the prefetch depth.
+     * @return A {@link OSSObjectChannel} to read the object from.
+     * @throws OSSException
+     *             If the server side has any error.
+     * @throws ClientException
+     *             If the client side has any error.
+     */
+    public OSSObjectChannel createObjectChannel(ObjectChannelRequest objectChannelRequest)
+            throws OSSException, ClientException;
+
     /**
      * Creates a live streaming channel. OSS could manage the RTMP inbound
      * stream by the "Live Channel". To store the RTMP stream into OSS, this
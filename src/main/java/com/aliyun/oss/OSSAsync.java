@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import java.util.concurrent.Future;
+
+import com.aliyun.oss.model.*;
+
+/**
+ * Asynchronous interface of Alibaba Cloud's OSS (Object Store Service).
+ * <p>
+ * Besides all the blocking operations of {@link OSS}, it provides variants of
+ * the most frequently used operations that return immediately with a
+ * {@link Future}. The requests are sent over non-blocking connections, so a
+ * large number of requests can be in flight without holding a thread for each
+ * of them. The result can be consumed either by waiting on the {@link Future},
+ * or by supplying an {@link AsyncHandler} that is notified on completion.
+ * </p>
+ * <p>
+ * Errors are reported through {@link Future#get()} as the cause of an
+ * {@link java.util.concurrent.ExecutionException} and through
+ * {@link AsyncHandler#onError(Exception)}. Errors in validating the request,
+ * such as an invalid bucket name, are thrown directly by the methods.
+ * </p>
+ */
+public interface OSSAsync extends OSS {
+
+    /**
+     * Gets the object asynchronously. The content of the returned
+     * {@link OSSObject} is buffered in memory, and the caller must close it
+     * after use. An object larger than
+     * {@link ClientConfiguration#getMaxAsyncResponseSize()} fails with a
+     * {@link ClientException} of error code
+     * {@link ClientErrorCode#RESPONSE_TOO_LARGE}.
+     *
+     * @param getObjectRequest
+     *            The {@link GetObjectRequest} instance.
+     * @return A {@link Future} of the {@link OSSObject}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<OSSObject> getObjectAsync(GetObjectRequest getObjectRequest) throws ClientException;
+
+    /**
+     * Gets the object asynchronously and notifies the handler on completion.
+     *
+     * @param getObjectRequest
+     *            The {@link GetObjectRequest} instance.
+     * @param handler
+     *            The {@link AsyncHandler} to notify, can be null.
+     * @return A {@link Future} of the {@link OSSObject}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<OSSObject> getObjectAsync(GetObjectRequest getObjectRequest, AsyncHandler<OSSObject> handler)
+            throws ClientException;
+
+    /**
+     * Uploads the file or input stream asynchronously.
+     *
+     * @param putObjectRequest
+     *            The {@link PutObjectRequest} instance.
+     * @return A {@link Future} of the {@link PutObjectResult}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<PutObjectResult> putObjectAsync(PutObjectRequest putObjectRequest) throws ClientException;
+
+    /**
+     * Uploads the file or input stream asynchronously and notifies the handler
+     * on completion.
+     *
+     * @param putObjectRequest
+     *            The {@link PutObjectRequest} instance.
+     * @param handler
+     *            The {@link AsyncHandler} to notify, can be null.
+     * @return A {@link Future} of the {@link PutObjectResult}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<PutObjectResult> putObjectAsync(PutObjectRequest putObjectRequest,
+            AsyncHandler<PutObjectResult> handler) throws ClientException;
+
+    /**
+     * Gets the metadata of the object asynchronously.
+     *
+     * @param headObjectRequest
+     *            The {@link HeadObjectRequest} instance.
+     * @return A {@link Future} of the {@link ObjectMetadata}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<ObjectMetadata> headObjectAsync(HeadObjectRequest headObjectRequest) throws ClientException;
+
+    /**
+     * Gets the metadata of the object asynchronously and notifies the handler
+     * on completion.
+     *
+     * @param headObjectRequest
+     *            The {@link HeadObjectRequest} instance.
+     * @param handler
+     *            The {@link AsyncHandler} to notify, can be null.
+     * @return A {@link Future} of the {@link ObjectMetadata}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<ObjectMetadata> headObjectAsync(HeadObjectRequest headObjectRequest,
+            AsyncHandler<ObjectMetadata> handler) throws ClientException;
+
+    /**
+     * Deletes the object asynchronously.
+     *
+     * @param genericRequest
+     *            The {@link GenericRequest} instance with the bucket name and
+     *            object key.
+     * @return A {@link Future} of the {@link VoidResult}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<VoidResult> deleteObjectAsync(GenericRequest genericRequest) throws ClientException;
+
+    /**
+     * Deletes the object asynchronously and notifies the handler on
+     * completion.
+     *
+     * @param genericRequest
+     *            The {@link GenericRequest} instance with the bucket name and
+     *            object key.
+     * @param handler
+     *            The {@link AsyncHandler} to notify, can be null.
+     * @return A {@link Future} of the {@link VoidResult}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<VoidResult> deleteObjectAsync(GenericRequest genericRequest, AsyncHandler<VoidResult> handler)
+            throws ClientException;
+
+    /**
+     * Lists objects under the bucket asynchronously.
+     *
+     * @param listObjectsV2Request
+     *            The {@link ListObjectsV2Request} instance.
+     * @return A {@link Future} of the {@link ListObjectsV2Result}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<ListObjectsV2Result> listObjectsV2Async(ListObjectsV2Request listObjectsV2Request)
+            throws ClientException;
+
+    /**
+     * Lists objects under the bucket asynchronously and notifies the handler
+     * on completion.
+     *
+     * @param listObjectsV2Request
+     *            The {@link ListObjectsV2Request} instance.
+     * @param handler
+     *            The {@link AsyncHandler} to notify, can be null.
+     * @return A {@link Future} of the {@link ListObjectsV2Result}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<ListObjectsV2Result> listObjectsV2Async(ListObjectsV2Request listObjectsV2Request,
+            AsyncHandler<ListObjectsV2Result> handler) throws ClientException;
+
+    /**
+     * Uploads a part of a multipart upload asynchronously.
+     *
+     * @param request
+     *            The {@link UploadPartRequest} instance.
+     * @return A {@link Future} of the {@link UploadPartResult}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<UploadPartResult> uploadPartAsync(UploadPartRequest request) throws ClientException;
+
+    /**
+     * Uploads a part of a multipart upload asynchronously and notifies the
+     * handler on completion.
+     *
+     * @param request
+     *            The {@link UploadPartRequest} instance.
+     * @param handler
+     *            The {@link AsyncHandler} to notify, can be null.
+     * @return A {@link Future} of the {@link UploadPartResult}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<UploadPartResult> uploadPartAsync(UploadPartRequest request, AsyncHandler<UploadPartResult> handler)
+            throws ClientException;
+
+    /**
+     * Completes a multipart upload asynchronously.
+     *
+     * @param request
+     *            The {@link CompleteMultipartUploadRequest} instance.
+     * @return A {@link Future} of the {@link CompleteMultipartUploadResult}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<CompleteMultipartUploadResult> completeMultipartUploadAsync(CompleteMultipartUploadRequest request)
+            throws ClientException;
+
+    /**
+     * Completes a multipart upload asynchronously and notifies the handler on
+     * completion.
+     *
+     * @param request
+     *            The {@link CompleteMultipartUploadRequest} instance.
+     * @param handler
+     *            The {@link AsyncHandler} to notify, can be null.
+     * @return A {@link Future} of the {@link CompleteMultipartUploadResult}.
+     * @throws ClientException
+     *             If the request is invalid.
+     */
+    public Future<CompleteMultipartUploadResult> completeMultipartUploadAsync(CompleteMultipartUploadRequest request,
+            AsyncHandler<CompleteMultipartUploadResult> handler) throws ClientException;
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import java.util.concurrent.Future;
+
+import com.aliyun.oss.common.auth.CredentialsProvider;
+import com.aliyun.oss.common.comm.AsyncServiceClient;
+import com.aliyun.oss.model.*;
+
+/**
+ * The entry point class of OSS that implements the {@link OSSAsync} interface.
+ * The blocking operations are inherited from {@link OSSClient}, while the
+ * asynchronous operations are sent by an {@link AsyncServiceClient}.
+ */
+public class OSSAsyncClient extends OSSClient implements OSSAsync {
+
+    /**
+     * Uses the specified {@link CredentialsProvider}, client configuration and
+     * OSS endpoint to create a new {@link OSSAsyncClient} instance.
+     *
+     * @param endpoint
+     *            OSS services Endpoint.
+     * @param credsProvider
+     *            Credentials provider.
+     * @param config
+     *            client configuration.
+     */
+    public OSSAsyncClient(String endpoint, CredentialsProvider credsProvider, ClientConfiguration config) {
+        super(endpoint, new AsyncServiceClient(config == null ? new ClientConfiguration() : config), credsProvider);
+    }
+
+    @Override
+    public Future<OSSObject> getObjectAsync(GetObjectRequest getObjectRequest) throws ClientException {
+        return getObjectAsync(getObjectRequest, null);
+    }
+
+    @Override
+    public Future<OSSObject> getObjectAsync(GetObjectRequest getObjectRequest, AsyncHandler<OSSObject> handler)
+            throws ClientException {
+        return getObjectOperation().getObjectAsync(getObjectRequest, handler);
+    }
+
+    @Override
+    public Future<PutObjectResult> putObjectAsync(PutObjectRequest putObjectRequest) throws ClientException {
+        return putObjectAsync(putObjectRequest, null);
+    }
+
+    @Override
+    public Future<PutObjectResult> putObjectAsync(PutObjectRequest putObjectRequest,
+            AsyncHandler<PutObjectResult> handler) throws ClientException {
+        return getObjectOperation().putObjectAsync(putObjectRequest, handler);
+    }
+
+    @Override
+    public Future<ObjectMetadata> headObjectAsync(HeadObjectRequest headObjectRequest) throws ClientException {
+        return headObjectAsync(headObjectRequest, null);
+    }
+
+    @Override
+    public Future<ObjectMetadata> headObjectAsync(HeadObjectRequest headObjectRequest,
+            AsyncHandler<ObjectMetadata> handler) throws ClientException {
+        return getObjectOperation().headObjectAsync(headObjectRequest, handler);
+    }
+
+    @Override
+    public Future<VoidResult> deleteObjectAsync(GenericRequest genericRequest) throws ClientException {
+        return deleteObjectAsync(genericRequest, null);
+    }
+
+    @Override
+    public Future<VoidResult> deleteObjectAsync(GenericRequest genericRequest, AsyncHandler<VoidResult> handler)
+            throws ClientException {
+        return getObjectOperation().deleteObjectAsync(genericRequest, handler);
+    }
+
+    @Override
+    public Future<ListObjectsV2Result> listObjectsV2Async(ListObjectsV2Request listObjectsV2Request)
+            throws ClientException {
+        return listObjectsV2Async(listObjectsV2Request, null);
+    }
+
+    @Override
+    public Future<ListObjectsV2Result> listObjectsV2Async(ListObjectsV2Request listObjectsV2Request,
+            AsyncHandler<ListObjectsV2Result> handler) throws ClientException {
+        return getBucketOperation().listObjectsV2Async(listObjectsV2Request, handler);
+    }
+
+    @Override
+    public Future<UploadPartResult> uploadPartAsync(UploadPartRequest request) throws ClientException {
+        return uploadPartAsync(request, null);
+    }
+
+    @Override
+    public Future<UploadPartResult> uploadPartAsync(UploadPartRequest request, AsyncHandler<UploadPartResult> handler)
+            throws ClientException {
+        return getMultipartOperation().uploadPartAsync(request, handler);
+    }
+
+    @Override
+    public Future<CompleteMultipartUploadResult> completeMultipartUploadAsync(CompleteMultipartUploadRequest request)
+            throws ClientException {
+        return completeMultipartUploadAsync(request, null);
+    }
+
+    @Override
+    public Future<CompleteMultipartUploadResult> completeMultipartUploadAsync(CompleteMultipartUploadRequest request,
+            AsyncHandler<CompleteMultipartUploadResult> handler) throws ClientException {
+        return getMultipartOperation().completeMultipartUploadAsync(request, handler);
+    }
+}
@@ -38,6 +38,7 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +51,7 @@ import com.aliyun.oss.common.comm.*;
 import com.aliyun.oss.common.utils.BinaryUtil;
 import com.aliyun.oss.common.utils.DateUtil;
 import com.aliyun.oss.internal.*;
+import com.aliyun.oss.internal.signer.OSSV4Signer;
 import com.aliyun.oss.model.*;
 import com.aliyun.oss.model.SetBucketCORSRequest.CORSRule;
 import com.aliyun.oss.model.InventoryConfiguration;
@@ -59,6 +61,9 @@ import com.aliyun.oss.model.InventoryConfiguration;
  */
 public class OSSClient implements OSS {
 
+    /* The default number of listing pages fetched ahead of the caller */
+    private static final int DEFAULT_LIST_BUFFERED_PAGES = 2;
+
     /* The default credentials provider */
     private CredentialsProvider credsProvider;
 
@@ -75,8 +80,13 @@ public class OSSClient implements OSS {
     private CORSOperation corsOperation;
     private OSSUploadOperation uploadOperation;
     private OSSDownloadOperation downloadOperation;
+    private OSSBulkDeleteOperation bulkDeleteOperation;
+    private OSSDirectoryTransferOperation directoryTransferOperation;
     private LiveChannelOperation liveChannelOperation;
 
+    /* The scheduler of the uploadFile and downloadFile part tasks */
+    private TransferScheduler transferScheduler;
+
     /**Gets the inner multipartOperation, used for subclass to do implement opreation.
      * @return  the {@link OSSMultipartOperation} instance.
      */
@@ -84,6 +94,13 @@ public class OSSClient implements OSS {
         return multipartOperation;
     }
 
+    /**Gets the inner bucketOperation, used for subclass to do implement opreation.
+     * @return  the {@link OSSBucketOperation} instance.
+     */
+    public OSSBucketOperation getBucketOperation() {
+        return bucketOperation;
+    }
+
     /**Gets the inner objectOperation, used for subclass to do implement opreation.
      * @return  the {@link OSSObjectOperation} instance.
      */
@@ -96,6 +113,9 @@ public class OSSClient implements OSS {
      *            the {@link OSSDownloadOperation} instance.
      */
     public void setDownloadOperation(OSSDownloadOperation downloadOperation) {
+        if (downloadOperation != null && downloadOperation.getTransferScheduler() == null) {
+            downloadOperation.setTransferScheduler(transferScheduler);
+        }
         this.downloadOperation = downloadOperation;
     }
 
@@ -104,9 +124,22 @@ public class OSSClient implements OSS {
      *            the {@link OSSUploadOperation} instance.
      */
     public void setUploadOperation(OSSUploadOperation uploadOperation) {
+        if (uploadOperation != null && uploadOperation.getTransferScheduler() == null) {
+            uploadOperation.setTransferScheduler(transferScheduler);
+        }
         this.uploadOperation = uploadOperation;
     }
 
+    /**
+     * Gets the scheduler that runs the part tasks of {@link #uploadFile} and
+     * {@link #downloadFile}, with its queue depth and active part metrics.
+     *
+     * @return the {@link TransferScheduler} of the client.
+     */
+    public TransferScheduler getTransferScheduler() {
+        return transferScheduler;
+    }
+
     /**
      * Uses the default OSS Endpoint(http://oss-cn-hangzhou.aliyuncs.com) and
      * Access Id/Access Key to create a new {@link OSSClient} instance.
@@ -224,18 +257,39 @@ public class OSSClient implements OSS {
      *            client configuration.
      */
     public OSSClient(String endpoint, CredentialsProvider credsProvider, ClientConfiguration config) {
+        this(endpoint, newServiceClient(config == null ? new ClientConfiguration() : config), credsProvider);
+    }
+
+    /**
+     * Uses the specified {@link CredentialsProvider}, service client and OSS
+     * endpoint to create a new {@link OSSClient} instance, used for subclass
+     * to supply its own {@link ServiceClient}.
+     *
+     * @param endpoint
+     *            OSS services Endpoint.
+     * @param serviceClient
+     *            service client that sends the requests.
+     * @param credsProvider
+     *            Credentials provider.
+     */
+    protected OSSClient(String endpoint, ServiceClient serviceClient, CredentialsProvider credsProvider) {
         this.credsProvider = credsProvider;
-        config = config == null ? new ClientConfiguration() : config;
-        if (config.isRequestTimeoutEnabled()) {
-            this.serviceClient = new TimeoutServiceClient(config);
-        } else {
-            this.serviceClient = new DefaultServiceClient(config);
-        }
+        this.serviceClient = serviceClient;
         initOperations();
         setEndpoint(endpoint);
         initDefaultsByEndpoint();
     }
 
+    private static ServiceClient newServiceClient(ClientConfiguration config) {
+        if (config.isRequestTimeoutEnabled()) {
+            if (config.getRequestTimeoutMode() == RequestTimeoutMode.DEADLINE) {
+                return new DeadlineServiceClient(config);
+            }
+            return new TimeoutServiceClient(config);
+        }
+        return new DefaultServiceClient(config);
+    }
+
     /**
      * Gets OSS services Endpoint.
      * 
@@ -324,8 +378,15 @@ public class OSSClient implements OSS {
         this.objectOperation = new OSSObjectOperation(this.serviceClient, this.credsProvider);
         this.multipartOperation = new OSSMultipartOperation(this.serviceClient, this.credsProvider);
         this.corsOperation = new CORSOperation(this.serviceClient, this.credsProvider);
+        this.transferScheduler = new TransferScheduler(
+                this.serviceClient.getClientConfiguration().getMaxConcurrentTransferParts());
         this.uploadOperation = new OSSUploadOperation(this.multipartOperation);
+        this.uploadOperation.setTransferScheduler(this.transferScheduler);
         this.downloadOperation = new OSSDownloadOperation(objectOperation);
+        this.downloadOperation.setTransferScheduler(this.transferScheduler);
+        this.bulkDeleteOperation = new OSSBulkDeleteOperation(this.objectOperation, this.bucketOperation);
+        this.directoryTransferOperation = new OSSDirectoryTransferOperation(this.objectOperation,
+                this.bucketOperation, this.uploadOperation, this.downloadOperation);
         this.liveChannelOperation = new LiveChannelOperation(this.serviceClient, this.credsProvider);
     }
 
@@ -407,7 +468,11 @@ public class OSSClient implements OSS {
             throw new IllegalArgumentException("creds should not be null.");
         }
 
+        Credentials oldCreds = this.credsProvider.getCredentials();
         this.credsProvider.setCredentials(creds);
+        if (oldCreds != null) {
+            OSSV4Signer.invalidateSigningKeys(oldCreds.getAccessKeyId());
+        }
     }
 
     @Override
@@ -599,6 +664,36 @@ public class OSSClient implements OSS {
         return bucketOperation.listVersions(listVersionsRequest);
     }
 
+    @Override
+    public Iterable<OSSObjectSummary> listObjectsV2Iterable(ListObjectsV2Request listObjectsV2Request)
+            throws OSSException, ClientException {
+        return bucketOperation.listObjectsV2Iterable(listObjectsV2Request, DEFAULT_LIST_BUFFERED_PAGES);
+    }
+
+    @Override
+    public Iterable<OSSObjectSummary> listObjectsV2Iterable(ListObjectsV2Request listObjectsV2Request,
+            int maxBufferedPages) throws OSSException, ClientException {
+        return bucketOperation.listObjectsV2Iterable(listObjectsV2Request, maxBufferedPages);
+    }
+
+    @Override
+    public Iterable<OSSVersionSummary> listVersionsIterable(ListVersionsRequest listVersionsRequest)
+            throws OSSException, ClientException {
+        return bucketOperation.listVersionsIterable(listVersionsRequest, DEFAULT_LIST_BUFFERED_PAGES);
+    }
+
+    @Override
+    public Iterable<OSSVersionSummary> listVersionsIterable(ListVersionsRequest listVersionsRequest,
+            int maxBufferedPages) throws OSSException, ClientException {
+        return bucketOperation.listVersionsIterable(listVersionsRequest, maxBufferedPages);
+    }
+
+    @Override
+    public ParallelObjectListing listObjectsParallel(ParallelListObjectsRequest parallelListObjectsRequest)
+            throws OSSException, ClientException {
+        return bucketOperation.listObjectsParallel(parallelListObjectsRequest);
+    }
+
     @Override
     public PutObjectResult putObject(String bucketName, String key, InputStream input)
             throws OSSException, ClientException {
@@ -783,6 +878,11 @@ public class OSSClient implements OSS {
         return objectOperation.deleteVersions(deleteVersionsRequest);
     }
 
+    @Override
+    public BulkDeleteResult bulkDelete(BulkDeleteRequest bulkDeleteRequest) throws OSSException, ClientException {
+        return bulkDeleteOperation.bulkDelete(bulkDeleteRequest);
+    }
+
     @Override
     public boolean doesObjectExist(String bucketName, String key) throws OSSException, ClientException {
         return doesObjectExist(new GenericRequest(bucketName, key));
@@ -1454,6 +1554,37 @@ public class OSSClient implements OSS {
         return downloadOperation.downloadFile(downloadFileRequest);
     }
 
+    @Override
+    public DirectoryTransferResult uploadDirectory(UploadDirectoryRequest uploadDirectoryRequest)
+            throws OSSException, ClientException {
+        return directoryTransferOperation.uploadDirectory(uploadDirectoryRequest);
+    }
+
+    @Override
+    public DirectoryTransferResult downloadDirectory(DownloadDirectoryRequest downloadDirectoryRequest)
+            throws OSSException, ClientException {
+        return directoryTransferOperation.downloadDirectory(downloadDirectoryRequest);
+    }
+
+    @Override
+    public OSSObjectOutputStream createObjectOutputStream(ObjectOutputStreamRequest objectOutputStreamRequest)
+            throws OSSException, ClientException {
+        return new MultipartObjectOutputStream(objectOperation, multipartOperation, transferScheduler,
+                objectOutputStreamRequest);
+    }
+
+    @Override
+    public OSSObjectInputStream createObjectInputStream(ObjectInputStreamRequest objectInputStreamRequest)
+            throws OSSException, ClientException {
+        return new ReadAheadObjectInputStream(objectOperation, transferScheduler, objectInputStreamRequest);
+    }
+
+    @Override
+    public OSSObjectChannel createObjectChannel(ObjectChannelRequest objectChannelRequest)
+            throws OSSException, ClientException {
+        return new CachedObjectChannel(objectOperation, objectChannelRequest);
+    }
+
     @Override
     public CreateLiveChannelResult createLiveChannel(CreateLiveChannelRequest createLiveChannelRequest)
             throws OSSException, ClientException {
@@ -2170,6 +2301,7 @@ public class OSSClient implements OSS {
     @Override
     public void shutdown() {
         try {
+            transferScheduler.shutdown();
             serviceClient.shutdown();
         } catch (Exception e) {
             logException("shutdown throw exception: ", e);
@@ -2184,4 +2316,12 @@ public class OSSClient implements OSS {
         }
         return "";
     }
+
+    @Override
+    public int warmUpConnections(int connectionsPerHost, String... bucketNames) {
+        for (String bucketName : bucketNames) {
+            ensureBucketNameValid(bucketName);
+        }
+        return serviceClient.warmUpConnections(getEndpoint(), Arrays.asList(bucketNames), connectionsPerHost);
+    }
 }
@@ -129,13 +129,31 @@ public class OSSClientBuilder implements OSSBuilder {
         }
 
         public OSS build() {
+            checkParameters();
+            return configure(new OSSClient(endpoint, credentialsProvider, clientConfiguration));
+        }
+
+        /**
+         * Builds an {@link OSSAsync} client, which sends requests of the
+         * asynchronous operations without blocking the caller thread.
+         *
+         * @return An instance that implements the {@link OSSAsync}.
+         */
+        public OSSAsync buildAsync() {
+            checkParameters();
+            return configure(new OSSAsyncClient(endpoint, credentialsProvider, clientConfiguration));
+        }
+
+        private void checkParameters() {
             assertParameterNotNull(endpoint, "endpoint");
             assertParameterNotNull(credentialsProvider, "credentialsProvider");
             assertParameterNotNull(clientConfiguration, "clientConfiguration");
             if (SignVersion.V4.equals(clientConfiguration.getSignatureVersion())) {
                 assertParameterNotNull(region, "region");
             }
-            OSSClient client = new OSSClient(endpoint, credentialsProvider, clientConfiguration);
+        }
+
+        private <T extends OSSClient> T configure(T client) {
             if (!StringUtils.isNullOrEmpty(region)) {
                 client.setRegion(region);
             }
@@ -233,6 +233,76 @@ public class OSSEncryptionClient extends OSSClient {
                 + "long contentLength, Map<String, String> requestHeaders, boolean useChunkEncoding)");
     }
 
+    /**
+     * Note: This method is disabled in encryption client.
+     *
+     * @deprecated please use normal oss client method
+     *     {@link OSSClient#uploadDirectory(UploadDirectoryRequest uploadDirectoryRequest)}.
+     */
+    @Override
+    @Deprecated
+    public DirectoryTransferResult uploadDirectory(UploadDirectoryRequest uploadDirectoryRequest)
+            throws ClientException {
+        throw new ClientException("Encryption client error, this method is disabled in encryption client." +
+                "Please use normal oss client method {@link OSSClient#uploadDirectory(UploadDirectoryRequest uploadDirectoryRequest)}");
+    }
+
+    /**
+     * Note: This method is disabled in encryption client.
+     *
+     * @deprecated please use normal oss client method
+     *     {@link OSSClient#downloadDirectory(DownloadDirectoryRequest downloadDirectoryRequest)}.
+     */
+    @Override
+    @Deprecated
+    public DirectoryTransferResult downloadDirectory(DownloadDirectoryRequest downloadDirectoryRequest)
+            throws ClientException {
+        throw new ClientException("Encryption client error, this method is disabled in encryption client." +
+                "Please use normal oss client method {@link OSSClient#downloadDirectory(DownloadDirectoryRequest downloadDirectoryRequest)}");
+    }
+
+    /**
+     * Note: This method is disabled in encryption client.
+     *
+     * @deprecated please use normal oss client method
+     *     {@link OSSClient#createObjectOutputStream(ObjectOutputStreamRequest objectOutputStreamRequest)}.
+     */
+    @Override
+    @Deprecated
+    public OSSObjectOutputStream createObjectOutputStream(ObjectOutputStreamRequest objectOutputStreamRequest)
+            throws ClientException {
+        throw new ClientException("Encryption client error, this method is disabled in encryption client." +
+                "Please use normal oss client method {@link OSSClient#createObjectOutputStream(ObjectOutputStreamRequest objectOutputStreamRequest)}");
+    }
+
+    /**
+     * Note: This method is disabled in encryption client.
+     *
+     * @deprecated please use normal oss client method
+     *     {@link OSSClient#createObjectInputStream(ObjectInputStreamRequest objectInputStreamRequest)}.
+     */
+    @Override
+    @Deprecated
+    public OSSObjectInputStream createObjectInputStream(ObjectInputStreamRequest objectInputStreamRequest)
+            throws ClientException {
+        throw new ClientException("Encryption client error, this method is disabled in encryption client." +
+                "Please use normal oss client method {@link OSSClient#createObjectInputStream(ObjectInputStreamRequest objectInputStreamRequest)}");
+    }
+
+    /**
+     * Note: This method is disabled in encryption client.
+     *
+     * @deprecated please use normal oss client method
+     *     {@link OSSClient#createObjectChannel(ObjectChannelRequest objectChannelRequest)}.
+     */
+    @Override
+    @Deprecated
+    public OSSObjectChannel createObjectChannel(ObjectChannelRequest objectChannelRequest)
+            throws ClientException {
+        throw new ClientException("Encryption client error, this method is disabled in encryption client." +
+                "Please use normal oss client method {@link OSSClient#createObjectChannel(ObjectChannelRequest objectChannelRequest)}");
+    }
+
 
     private final class OSSDirectImpl implements OSSDirect {
         @Override
@@ -23,12 +23,23 @@ import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The interface to compute the signature of the data.
  */
 public abstract class ServiceSignature {
 
+    /* The initialized Mac of each algorithm, per thread. */
+    private static final ThreadLocal<Map<String, KeyedMac>> threadMacs = new ThreadLocal<Map<String, KeyedMac>>() {
+        @Override
+        protected Map<String, KeyedMac> initialValue() {
+            return new HashMap<String, KeyedMac>();
+        }
+    };
+
     /**
      * Gets the algorithm of signature.
      * 
@@ -95,26 +106,22 @@ public abstract class ServiceSignature {
 
     protected byte[] sign(byte[] key, byte[] data, Mac macInstance, Object lock, String algorithm) {
         try {
-            // Because Mac.getInstance(String) calls a synchronized method, it
-            // could block on
-            // invoked concurrently, so use prototype pattern to improve perf.
-            if (macInstance == null) {
-                synchronized (lock) {
-                    if (macInstance == null) {
-                        macInstance = Mac.getInstance(algorithm);
-                    }
-                }
+            // Every thread keeps a Mac per algorithm, initialized with the
+            // last key. Signing with the same key again, which is the common
+            // case of one client's secret, skips the clone and the key
+            // schedule; doFinal resets the Mac for the next use.
+            Map<String, KeyedMac> macs = threadMacs.get();
+            KeyedMac keyedMac = macs.get(algorithm);
+            if (keyedMac == null) {
+                keyedMac = new KeyedMac(newMac(macInstance, lock, algorithm));
+                macs.put(algorithm, keyedMac);
             }
-
-            Mac mac;
-            try {
-                mac = (Mac) macInstance.clone();
-            } catch (CloneNotSupportedException e) {
-                // If it is not clonable, create a new one.
-                mac = Mac.getInstance(algorithm);
+            if (keyedMac.key == null || !Arrays.equals(keyedMac.key, key)) {
+                keyedMac.key = null;
+                keyedMac.mac.init(new SecretKeySpec(key, algorithm));
+                keyedMac.key = key.clone();
             }
-            mac.init(new SecretKeySpec(key, algorithm));
-            return mac.doFinal(data);
+            return keyedMac.mac.doFinal(data);
         } catch (NoSuchAlgorithmException ex) {
             throw new RuntimeException("Unsupported algorithm: " + algorithm, ex);
         } catch (InvalidKeyException ex) {
@@ -122,4 +129,33 @@ public abstract class ServiceSignature {
         }
     }
 
+    private static Mac newMac(Mac macInstance, Object lock, String algorithm) throws NoSuchAlgorithmException {
+        // Because Mac.getInstance(String) calls a synchronized method, it
+        // could block on
+        // invoked concurrently, so use prototype pattern to improve perf.
+        if (macInstance == null) {
+            synchronized (lock) {
+                if (macInstance == null) {
+                    macInstance = Mac.getInstance(algorithm);
+                }
+            }
+        }
+
+        try {
+            return (Mac) macInstance.clone();
+        } catch (CloneNotSupportedException e) {
+            // If it is not clonable, create a new one.
+            return Mac.getInstance(algorithm);
+        }
+    }
+
+    private static final class KeyedMac {
+        final Mac mac;
+        byte[] key;
+
+        KeyedMac(Mac mac) {
+            this.mac = mac;
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+/**
+ * Represents how {@link CachingDnsResolver} orders the addresses of a host
+ * for new connections, set by
+ * {@link com.aliyun.oss.ClientConfiguration#setAddressSelectionMode(AddressSelectionMode)}.
+ * In both modes the addresses which recently failed to connect come last.
+ */
+public enum AddressSelectionMode {
+
+    /**
+     * Each new connection starts with the next address of the host, so the
+     * connections are spread evenly over the addresses.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Each new connection starts with the address with the fewest open
+     * connections, taking the addresses in turn when they are even, so the
+     * connections even out after connections to an address were closed.
+     */
+    LEAST_CONNECTIONS
+}
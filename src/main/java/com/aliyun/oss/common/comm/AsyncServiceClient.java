@@ -0,0 +1,450 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static com.aliyun.oss.common.utils.CodingUtils.assertParameterNotNull;
+import static com.aliyun.oss.common.utils.LogUtils.getLog;
+import static com.aliyun.oss.common.utils.LogUtils.logException;
+import static com.aliyun.oss.internal.OSSUtils.COMMON_RESOURCE_MANAGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.ContentTooLongException;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.ManagedNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+
+import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.ClientErrorCode;
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.ServiceException;
+import com.aliyun.oss.common.utils.ExceptionFactory;
+import com.aliyun.oss.common.utils.LogUtils;
+import com.aliyun.oss.metrics.RequestMetrics;
+import com.aliyun.oss.internal.OSSConstants;
+
+/**
+ * Service client that, in addition to the blocking requests of
+ * {@link DefaultServiceClient}, sends requests over a non-blocking
+ * {@link CloseableHttpAsyncClient}. The signing, request/response handlers
+ * and retry strategy are shared with the blocking path, so a request sent by
+ * {@link #sendRequestAsync} behaves exactly like one sent by
+ * {@link #sendRequest} except that no caller thread is held while waiting.
+ *
+ * <p>
+ * Note that the response body of an asynchronous request is buffered in
+ * memory before the callback is invoked.
+ * </p>
+ */
+public class AsyncServiceClient extends DefaultServiceClient {
+
+    /* The interval in milliseconds to poll the concurrency limiter for a permit. */
+    private static final long PERMIT_POLL_INTERVAL = 10;
+
+    protected CloseableHttpAsyncClient httpAsyncClient;
+    protected PoolingNHttpClientConnectionManager asyncConnectionManager;
+    protected ScheduledExecutorService scheduler;
+
+    public AsyncServiceClient(ClientConfiguration config) {
+        super(config);
+        this.asyncConnectionManager = createAsyncConnectionManager();
+        this.httpAsyncClient = createHttpAsyncClient(this.asyncConnectionManager);
+        this.scheduler = createScheduler();
+        this.httpAsyncClient.start();
+
+        if (config.isUseReaper()) {
+            final long idleTime = config.getIdleConnectionTime();
+            this.scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    asyncConnectionManager.closeExpiredConnections();
+                    asyncConnectionManager.closeIdleConnections(idleTime, TimeUnit.MILLISECONDS);
+                }
+            }, idleTime, idleTime, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Send HTTP request with specified context to OSS without blocking the
+     * caller thread. Retries are scheduled on an internal timer rather than
+     * by sleeping.
+     *
+     * @param request
+     *            a request message.
+     * @param context
+     *            http request context.
+     * @param callback
+     *            callback notified when the request completes, fails or is
+     *            cancelled, can be null.
+     *
+     * @return A {@link Future} of the {@link ResponseMessage}. Cancelling it
+     *         aborts the in-flight HTTP request.
+     */
+    public Future<ResponseMessage> sendRequestAsync(RequestMessage request, ExecutionContext context,
+            FutureCallback<ResponseMessage> callback) {
+
+        assertParameterNotNull(request, "request");
+        assertParameterNotNull(context, "context");
+
+        AsyncRequestExecution execution = new AsyncRequestExecution(request, context, callback);
+        execution.start();
+        return execution.future;
+    }
+
+    protected PoolingNHttpClientConnectionManager createAsyncConnectionManager() {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom().setConnectTimeout(config.getConnectionTimeout())
+                .setSoTimeout(config.getSocketTimeout()).setTcpNoDelay(true).build();
+
+        Registry<SchemeIOSessionStrategy> sessionStrategyRegistry = RegistryBuilder.<SchemeIOSessionStrategy> create()
+                .register(Protocol.HTTP.toString(), NoopIOSessionStrategy.INSTANCE)
+                .register(Protocol.HTTPS.toString(),
+                        new SSLIOSessionStrategy(createSSLContext(), createHostnameVerifier()))
+                .build();
+
+        try {
+            PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(ioReactorConfig), ManagedNHttpClientConnectionFactory.INSTANCE,
+                    sessionStrategyRegistry, dnsResolver != null ? dnsResolver : config.getDnsResolver());
+            connectionManager.setDefaultMaxPerRoute(config.getMaxConnections());
+            connectionManager.setMaxTotal(config.getMaxConnections());
+            return connectionManager;
+        } catch (IOReactorException e) {
+            throw new ClientException(e.getMessage(), e);
+        }
+    }
+
+    protected CloseableHttpAsyncClient createHttpAsyncClient(PoolingNHttpClientConnectionManager connectionManager) {
+        return HttpAsyncClients.custom().setConnectionManager(connectionManager)
+                .setUserAgent(this.config.getUserAgent()).setDefaultRequestConfig(this.requestConfig).build();
+    }
+
+    protected ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "oss-async-scheduler");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    @Override
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+        try {
+            this.httpAsyncClient.close();
+        } catch (IOException e) {
+            logException("Unexpected io exception when trying to close http async client: ", e);
+        }
+        super.shutdown();
+    }
+
+    @Override
+    public String getConnectionPoolStats() {
+        return super.getConnectionPoolStats() + ", async " + asyncConnectionManager.getTotalStats().toString();
+    }
+
+    @Override
+    public PoolStats getConnectionPoolTotalStats() {
+        PoolStats stats = super.getConnectionPoolTotalStats();
+        if (asyncConnectionManager == null) {
+            return stats;
+        }
+        PoolStats async = asyncConnectionManager.getTotalStats();
+        if (stats == null) {
+            return async;
+        }
+        return new PoolStats(stats.getLeased() + async.getLeased(), stats.getPending() + async.getPending(),
+                stats.getAvailable() + async.getAvailable(), stats.getMax() + async.getMax());
+    }
+
+    /**
+     * The future handed out to callers, cancelling it aborts the in-flight
+     * attempt.
+     */
+    private static class ResponseFuture extends BasicFuture<ResponseMessage> {
+        private volatile Future<HttpResponse> inflight;
+
+        ResponseFuture(FutureCallback<ResponseMessage> callback) {
+            super(callback);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<HttpResponse> f = this.inflight;
+            if (cancelled && f != null) {
+                f.cancel(true);
+            }
+            return cancelled;
+        }
+    }
+
+    /**
+     * Drives one request through its attempts, it is the callback of each
+     * attempt and resubmits itself on the scheduler for retries.
+     */
+    private class AsyncRequestExecution implements FutureCallback<HttpResponse>, Runnable {
+        private final RequestMessage request;
+        private final ExecutionContext context;
+        private final RetryStrategy retryStrategy;
+        private final ResponseFuture future;
+
+        private InputStream requestContent;
+        private Request httpRequest;
+        private String poolStatsInfo;
+        private long startTime;
+        private int retries = 0;
+        private ConcurrencyLimiter.Permit permit;
+        private long permitWaitStart;
+
+        AsyncRequestExecution(RequestMessage request, ExecutionContext context,
+                FutureCallback<ResponseMessage> callback) {
+            this.request = request;
+            this.context = context;
+            this.retryStrategy = context.getRetryStrategy() != null ? context.getRetryStrategy()
+                    : getDefaultRetryStrategy();
+            this.future = new ResponseFuture(callback);
+        }
+
+        void start() {
+            RequestMetrics metrics = context.getMetrics();
+            try {
+                long signStart = System.nanoTime();
+                signRequest(request, context);
+                if (metrics != null) {
+                    metrics.markSigned(System.nanoTime() - signStart);
+                    metrics.setBytesSent(request.getContent() != null ? request.getContentLength() : 0);
+                }
+            } catch (Exception ex) {
+                fail(ex);
+                return;
+            }
+
+            requestContent = request.getContent();
+            if (requestContent != null && requestContent.markSupported()) {
+                requestContent.mark(OSSConstants.DEFAULT_STREAM_BUFFER_SIZE);
+            }
+            run();
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+
+            try {
+                if (concurrencyLimiter != null && !acquirePermit()) {
+                    return;
+                }
+
+                if (retries > 0 && requestContent != null && requestContent.markSupported()) {
+                    try {
+                        requestContent.reset();
+                        request.setContent(requestContent);
+                    } catch (IOException ex) {
+                        logException("Failed to reset the request input stream: ", ex);
+                        throw new ClientException("Failed to reset the request input stream: ", ex);
+                    }
+                }
+
+                handleRequest(request, context.getResquestHandlers());
+                httpRequest = buildRequest(request, context);
+
+                HttpRequestBase httpRequestBase = httpRequestFactory.createHttpRequest(httpRequest, context);
+                setProxyAuthorizationIfNeed(httpRequestBase);
+
+                poolStatsInfo = config.isLogConnectionPoolStatsEnable()
+                        ? "Connection pool stats " + getConnectionPoolStats() : "";
+                startTime = System.currentTimeMillis();
+                if (context.getMetrics() != null) {
+                    context.getMetrics().markAttemptStarted(retries);
+                }
+                future.inflight = httpAsyncClient.execute(HttpAsyncMethods.create(httpRequestBase),
+                        new BoundedAsyncResponseConsumer(config.getMaxAsyncResponseSize()), createHttpContext(), this);
+            } catch (Exception ex) {
+                onError(ex, null);
+            }
+        }
+
+        @Override
+        public void completed(HttpResponse httpResponse) {
+            ResponseMessage response = null;
+            try {
+                response = buildResponse(httpRequest, httpResponse);
+                releasePermit(permit, response, null, System.currentTimeMillis() - startTime);
+                RequestMetrics metrics = context.getMetrics();
+                if (metrics != null) {
+                    metrics.markFirstByte();
+                    metrics.setStatusCode(response.getStatusCode());
+                    metrics.setBytesReceived(response.getContentLength());
+                }
+
+                long duration = System.currentTimeMillis() - startTime;
+                if (duration > config.getSlowRequestsThreshold()) {
+                    LogUtils.getLog().warn(formatSlowRequestLog(request, response, duration) + poolStatsInfo);
+                }
+
+                handleResponse(response, context.getResponseHandlers());
+            } catch (Exception ex) {
+                onError(ex, response);
+                return;
+            }
+
+            if (config.getRetryMode() == RetryMode.ADAPTIVE) {
+                retryBudget.onSuccess();
+            }
+
+            closeRequest();
+            try {
+                if (!future.completed(response)) {
+                    closeResponseSilently(response);
+                }
+            } catch (RuntimeException ex) {
+                logException("Unexpected exception thrown by the response callback: ", ex);
+            }
+        }
+
+        @Override
+        public void failed(Exception ex) {
+            if (ex instanceof ContentTooLongException) {
+                ex = new ClientException(ex.getMessage(), ClientErrorCode.RESPONSE_TOO_LARGE, null, ex);
+            } else if (ex instanceof IOException) {
+                ex = ExceptionFactory.createNetworkException((IOException) ex);
+            }
+            onError(ex, null);
+        }
+
+        @Override
+        public void cancelled() {
+            releasePermit(permit, null, null, 0);
+            closeRequest();
+            future.cancel(false);
+        }
+
+        /*
+         * Takes a permit of the concurrency limiter, or polls for one on the
+         * scheduler rather than blocking the caller or the I/O thread.
+         */
+        private boolean acquirePermit() {
+            String key = getConcurrencyLimitKey(request);
+            permit = concurrencyLimiter.tryAcquire(key);
+            if (permit != null) {
+                permitWaitStart = 0;
+                return true;
+            }
+
+            long now = System.currentTimeMillis();
+            if (permitWaitStart == 0) {
+                permitWaitStart = now;
+            }
+            if (now - permitWaitStart >= config.getConcurrencyLimitQueueTimeout()) {
+                onError(new ClientException("The concurrency limit " + concurrencyLimiter.getLimit(key) + " of "
+                        + key + " is reached.", ClientErrorCode.CONCURRENCY_LIMIT_EXCEEDED, null), null);
+                return false;
+            }
+            try {
+                scheduler.schedule(this, PERMIT_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rex) {
+                fail(new ClientException(rex.getMessage(), rex));
+            }
+            return false;
+        }
+
+        private void onError(Exception ex, ResponseMessage response) {
+            releasePermit(permit, response, ex, 0);
+            if (ex instanceof ServiceException) {
+                logException("[Server]Unable to execute HTTP request: ", ex,
+                        request.getOriginalRequest().isLogEnabled());
+                closeResponseSilently(response);
+                adjustTickOffset((ServiceException) ex);
+            } else if (ex instanceof ClientException) {
+                logException("[Client]Unable to execute HTTP request: ", ex,
+                        request.getOriginalRequest().isLogEnabled());
+                closeResponseSilently(response);
+            } else {
+                logException("[Unknown]Unable to execute HTTP request: ", ex,
+                        request.getOriginalRequest().isLogEnabled());
+                closeResponseSilently(response);
+                fail(new ClientException(
+                        COMMON_RESOURCE_MANAGER.getFormattedString("ConnectionError", ex.getMessage()), ex));
+                return;
+            }
+
+            if (future.isDone() || !shouldRetry(ex, request, response, retries, retryStrategy, context)) {
+                fail(ex);
+                return;
+            }
+
+            retries++;
+            long delay = getRetryDelay(retries, retryStrategy, ex, response);
+            getLog().debug("An retriable error request will be retried after " + delay + "(ms) with attempt times: "
+                    + retries);
+            try {
+                scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rex) {
+                fail(ex);
+            }
+        }
+
+        private void fail(Exception ex) {
+            closeRequest();
+            try {
+                future.failed(ex);
+            } catch (RuntimeException rex) {
+                logException("Unexpected exception thrown by the response callback: ", rex);
+            }
+        }
+
+        private void closeRequest() {
+            try {
+                request.close();
+            } catch (IOException ex) {
+                logException("Unexpected io exception when trying to close http request: ", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.http.ContentTooLongException;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.BasicAsyncResponseConsumer;
+
+/**
+ * Buffers the content of an asynchronous response in memory up to a max
+ * size. A response whose Content-Length is over the max fails before its
+ * content is read, and a response of unknown length fails as soon as the
+ * max is exceeded, rather than exhausting the heap.
+ */
+class BoundedAsyncResponseConsumer extends BasicAsyncResponseConsumer {
+
+    private final long maxSize;
+    private long received;
+
+    /**
+     * @param maxSize
+     *            The max bytes of content buffered, 0 or negative for no
+     *            limit.
+     */
+    BoundedAsyncResponseConsumer(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+        if (maxSize > 0 && entity.getContentLength() > maxSize) {
+            throw tooLong(entity.getContentLength());
+        }
+        super.onEntityEnclosed(entity, contentType);
+    }
+
+    @Override
+    protected void onContentReceived(final ContentDecoder decoder, IOControl ioctrl) throws IOException {
+        if (maxSize <= 0) {
+            super.onContentReceived(decoder, ioctrl);
+            return;
+        }
+        super.onContentReceived(new ContentDecoder() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                int n = decoder.read(dst);
+                if (n > 0) {
+                    received += n;
+                    if (received > maxSize) {
+                        throw tooLong(received);
+                    }
+                }
+                return n;
+            }
+
+            @Override
+            public boolean isCompleted() {
+                return decoder.isCompleted();
+            }
+        }, ioctrl);
+    }
+
+    private ContentTooLongException tooLong(long size) {
+        return new ContentTooLongException("The response content of at least " + size
+                + " bytes exceeds the max async response size of " + maxSize + " bytes.");
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * A connection pool shared by the buckets of an endpoint. The requests to
+ * a virtual hosted bucket, such as bucket.oss-cn-hangzhou.aliyuncs.com, are
+ * routed to the endpoint oss-cn-hangzhou.aliyuncs.com by the
+ * {@link EndpointRoutePlanner}, with the bucket host kept in the Host
+ * header, so the connections of all the buckets are pooled together and
+ * reused in LIFO order. The connections of a bucket may be capped so one hot
+ * bucket can't take the whole pool.
+ *
+ * <p>
+ * The bucket of a request is passed as the user token of its
+ * {@link HttpClientContext}, see {@link #setBucket(HttpClientContext, String)}.
+ * The token is not kept with the pooled connections.
+ * </p>
+ */
+class BucketAwareConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final int maxConnectionsPerBucket;
+    private final ConcurrentMap<String, Semaphore> bucketPermits = new ConcurrentHashMap<String, Semaphore>();
+    private final ConcurrentMap<HttpClientConnection, Semaphore> leasedPermits = new ConcurrentHashMap<HttpClientConnection, Semaphore>();
+
+    BucketAwareConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry, DnsResolver dnsResolver,
+            int maxConnectionsPerBucket) {
+        super(socketFactoryRegistry, dnsResolver);
+        this.maxConnectionsPerBucket = maxConnectionsPerBucket;
+    }
+
+    /**
+     * Sets the bucket of the request sent with the context.
+     */
+    static void setBucket(HttpClientContext context, String bucket) {
+        if (bucket != null) {
+            context.setUserToken(new BucketToken(bucket));
+        }
+    }
+
+    private static String getBucket(Object state) {
+        return state instanceof BucketToken ? ((BucketToken) state).bucket : null;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        String bucket = getBucket(state);
+        if (bucket == null) {
+            return super.requestConnection(route, state);
+        }
+
+        final ConnectionRequest request = super.requestConnection(route, null);
+        final Semaphore permits = getPermits(bucket);
+        if (permits == null) {
+            return request;
+        }
+        return new ConnectionRequest() {
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                if (timeout > 0) {
+                    if (!permits.tryAcquire(timeout, tunit)) {
+                        throw new ConnectionPoolTimeoutException("Timeout waiting for a connection of the bucket");
+                    }
+                    timeout = Math.max(1, tunit.toNanos(timeout) - (System.nanoTime() - start));
+                    tunit = TimeUnit.NANOSECONDS;
+                } else {
+                    permits.acquire();
+                }
+
+                HttpClientConnection conn = null;
+                try {
+                    conn = request.get(timeout, tunit);
+                    leasedPermits.put(conn, permits);
+                    return conn;
+                } finally {
+                    if (conn == null) {
+                        permits.release();
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection managedConn, Object state, long keepalive, TimeUnit tunit) {
+        Semaphore permits = leasedPermits.remove(managedConn);
+        if (permits != null) {
+            permits.release();
+        }
+        super.releaseConnection(managedConn, getBucket(state) != null ? null : state, keepalive, tunit);
+    }
+
+    private Semaphore getPermits(String bucket) {
+        if (maxConnectionsPerBucket <= 0) {
+            return null;
+        }
+        Semaphore permits = bucketPermits.get(bucket);
+        if (permits == null) {
+            Semaphore newPermits = new Semaphore(maxConnectionsPerBucket, true);
+            permits = bucketPermits.putIfAbsent(bucket, newPermits);
+            if (permits == null) {
+                permits = newPermits;
+            }
+        }
+        return permits;
+    }
+
+    private static final class BucketToken {
+        private final String bucket;
+
+        BucketToken(String bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    /**
+     * Routes the requests to a virtual hosted bucket of an OSS domain to its
+     * endpoint. A host is only routed to its endpoint if it's the bucket of
+     * the request followed by a domain of the CName exclude list, the domains
+     * served by OSS, whose certificate covers the bucket hosts as well. Other
+     * hosts, such as a CName, keep their route.
+     */
+    static class EndpointRoutePlanner extends DefaultRoutePlanner {
+        private final List<String> domains;
+
+        EndpointRoutePlanner(List<String> domains) {
+            super(null);
+            this.domains = domains;
+        }
+
+        @Override
+        public HttpRoute determineRoute(HttpHost host, HttpRequest request, HttpContext context)
+                throws HttpException {
+            String bucket = getBucket(context.getAttribute(HttpClientContext.USER_TOKEN));
+            String endpoint = bucket != null && host != null ? getEndpointHost(host.getHostName(), bucket) : null;
+            if (endpoint != null) {
+                host = new HttpHost(endpoint, host.getPort(), host.getSchemeName());
+            }
+            return super.determineRoute(host, request, context);
+        }
+
+        String getEndpointHost(String host, String bucket) {
+            if (host.length() <= bucket.length() + 1 || !host.regionMatches(true, 0, bucket, 0, bucket.length())
+                    || host.charAt(bucket.length()) != '.') {
+                return null;
+            }
+            if (bucket.indexOf('.') >= 0) {
+                return null;
+            }
+            String endpoint = host.substring(bucket.length() + 1);
+            for (String domain : domains) {
+                if (endpoint.toLowerCase().endsWith("." + domain.toLowerCase())) {
+                    return endpoint;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static com.aliyun.oss.common.utils.LogUtils.getLog;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * A {@link DnsResolver} which caches all the addresses of a host and orders
+ * them for every new connection, so the connections to an endpoint with
+ * several addresses are spread over all of them instead of the first one.
+ * The connection pool tries the addresses in order until one connects, so
+ * an address which failed to connect is put last for the blacklist time and
+ * the new connections don't wait for its connection timeout.
+ *
+ * <p>
+ * The connections are tracked by the socket factories returned by
+ * {@link #track(ConnectionSocketFactory)}, which count the open connections
+ * of every address and report the addresses which failed to connect.
+ * </p>
+ */
+public class CachingDnsResolver implements DnsResolver {
+
+    private final DnsResolver resolver;
+    private final long ttlNanos;
+    private final long blacklistNanos;
+    private final AddressSelectionMode selectionMode;
+
+    private final ConcurrentMap<String, CacheEntry> cache = new ConcurrentHashMap<String, CacheEntry>();
+    private final ConcurrentMap<InetAddress, Long> blacklist = new ConcurrentHashMap<InetAddress, Long>();
+    private final Map<Socket, InetAddress> connections = new HashMap<Socket, InetAddress>();
+
+    /**
+     * Creates a resolver.
+     *
+     * @param resolver
+     *            The resolver looking up the addresses of a host.
+     * @param ttl
+     *            The time in milliseconds the addresses of a host are cached.
+     * @param blacklistTime
+     *            The time in milliseconds an address which failed to connect
+     *            is tried last.
+     * @param selectionMode
+     *            How the addresses are ordered for new connections.
+     */
+    public CachingDnsResolver(DnsResolver resolver, long ttl, long blacklistTime,
+            AddressSelectionMode selectionMode) {
+        this.resolver = resolver;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttl));
+        this.blacklistNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blacklistTime));
+        this.selectionMode = selectionMode;
+    }
+
+    /**
+     * Gets the addresses of the host in the order they should be connected
+     * to. The addresses are looked up again when the cached ones expired, and
+     * the expired ones are used while the host can't be resolved.
+     */
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long now = System.nanoTime();
+        CacheEntry entry = cache.get(host);
+        if (entry == null || now - entry.resolvedTime >= ttlNanos) {
+            try {
+                InetAddress[] addresses = resolver.resolve(host);
+                if (addresses == null || addresses.length == 0) {
+                    throw new UnknownHostException(host);
+                }
+                entry = new CacheEntry(addresses, now);
+            } catch (UnknownHostException e) {
+                if (entry == null) {
+                    throw e;
+                }
+                getLog().warn("Unable to resolve " + host + ", the cached addresses are used: " + e.getMessage());
+                entry = new CacheEntry(entry.addresses, now);
+            }
+            cache.put(host, entry);
+        }
+        return order(entry, now);
+    }
+
+    private InetAddress[] order(CacheEntry entry, long now) {
+        InetAddress[] addresses = entry.addresses;
+        int next = entry.next.getAndIncrement() & Integer.MAX_VALUE;
+        if (addresses.length == 1) {
+            return addresses.clone();
+        }
+
+        List<InetAddress> available = new ArrayList<InetAddress>(addresses.length);
+        List<InetAddress> blacklisted = new ArrayList<InetAddress>();
+        for (int i = 0; i < addresses.length; i++) {
+            InetAddress address = addresses[(next + i) % addresses.length];
+            if (isBlacklisted(address, now)) {
+                blacklisted.add(address);
+            } else {
+                available.add(address);
+            }
+        }
+
+        if (selectionMode == AddressSelectionMode.LEAST_CONNECTIONS && available.size() > 1) {
+            final Map<InetAddress, Integer> counts = getConnectionCounts();
+            Collections.sort(available, new Comparator<InetAddress>() {
+                @Override
+                public int compare(InetAddress a, InetAddress b) {
+                    return getCount(counts, a) - getCount(counts, b);
+                }
+            });
+        }
+        Collections.sort(blacklisted, new Comparator<InetAddress>() {
+            @Override
+            public int compare(InetAddress a, InetAddress b) {
+                return getExpiry(a).compareTo(getExpiry(b));
+            }
+        });
+
+        available.addAll(blacklisted);
+        return available.toArray(new InetAddress[available.size()]);
+    }
+
+    private static int getCount(Map<InetAddress, Integer> counts, InetAddress address) {
+        Integer count = counts.get(address);
+        return count != null ? count : 0;
+    }
+
+    private Long getExpiry(InetAddress address) {
+        Long expiry = blacklist.get(address);
+        return expiry != null ? expiry : Long.valueOf(0);
+    }
+
+    private boolean isBlacklisted(InetAddress address, long now) {
+        Long expiry = blacklist.get(address);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry - now > 0) {
+            return true;
+        }
+        blacklist.remove(address, expiry);
+        return false;
+    }
+
+    /**
+     * Gets whether the address is tried last because it failed to connect
+     * within the blacklist time.
+     *
+     * @param address
+     *            The address.
+     * @return True if the address is blacklisted.
+     */
+    public boolean isBlacklisted(InetAddress address) {
+        return isBlacklisted(address, System.nanoTime());
+    }
+
+    /**
+     * Puts the address last for the blacklist time.
+     *
+     * @param address
+     *            The address which failed to connect.
+     */
+    public void blacklist(InetAddress address) {
+        if (blacklistNanos > 0) {
+            blacklist.put(address, System.nanoTime() + blacklistNanos);
+        }
+    }
+
+    /**
+     * Removes the cached addresses of all the hosts, they are looked up
+     * again by the next new connection.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the number of open connections to every address, including the
+     * connections being connected.
+     *
+     * @return The connection counts by address.
+     */
+    public Map<InetAddress, Integer> getConnectionCounts() {
+        Map<InetAddress, Integer> counts = new LinkedHashMap<InetAddress, Integer>();
+        synchronized (connections) {
+            removeClosedConnections();
+            for (InetAddress address : connections.values()) {
+                counts.put(address, getCount(counts, address) + 1);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of tracked sockets, including the closed ones not
+     * removed yet.
+     */
+    int getTrackedSocketCount() {
+        synchronized (connections) {
+            return connections.size();
+        }
+    }
+
+    /**
+     * Gets the connection counts by address as a string, such as
+     * "addresses [10.0.0.1: 8; 10.0.0.2: 7]".
+     *
+     * @return The connection counts, or an empty string if there's no
+     *         connection.
+     */
+    public String getConnectionStats() {
+        Map<InetAddress, Integer> counts = getConnectionCounts();
+        if (counts.isEmpty()) {
+            return "";
+        }
+        StringBuilder stats = new StringBuilder("addresses [");
+        for (Map.Entry<InetAddress, Integer> count : counts.entrySet()) {
+            if (stats.length() > "addresses [".length()) {
+                stats.append("; ");
+            }
+            stats.append(count.getKey().getHostAddress()).append(": ").append(count.getValue());
+        }
+        return stats.append("]").toString();
+    }
+
+    /**
+     * Wraps the socket factory to count the connections it opens by address
+     * and blacklist the addresses it fails to connect to.
+     *
+     * @param factory
+     *            The socket factory of a scheme.
+     * @return The socket factory tracking the connections.
+     */
+    public ConnectionSocketFactory track(ConnectionSocketFactory factory) {
+        if (factory instanceof LayeredConnectionSocketFactory) {
+            return new LayeredTrackingSocketFactory((LayeredConnectionSocketFactory) factory);
+        }
+        return new TrackingSocketFactory(factory);
+    }
+
+    private void addConnection(Socket socket, InetAddress address) {
+        if (socket != null) {
+            synchronized (connections) {
+                // The pool closes the connections without telling the socket
+                // factory, so the closed ones are removed with every new one.
+                removeClosedConnections();
+                connections.put(socket, address);
+            }
+        }
+    }
+
+    private void removeClosedConnections() {
+        Iterator<Socket> it = connections.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().isClosed()) {
+                it.remove();
+            }
+        }
+    }
+
+    private void removeConnection(Socket socket) {
+        if (socket != null) {
+            synchronized (connections) {
+                connections.remove(socket);
+            }
+        }
+    }
+
+    private static final class CacheEntry {
+        private final InetAddress[] addresses;
+        private final long resolvedTime;
+        private final AtomicInteger next = new AtomicInteger();
+
+        CacheEntry(InetAddress[] addresses, long resolvedTime) {
+            this.addresses = addresses;
+            this.resolvedTime = resolvedTime;
+        }
+    }
+
+    private class TrackingSocketFactory implements ConnectionSocketFactory {
+        private final ConnectionSocketFactory factory;
+
+        TrackingSocketFactory(ConnectionSocketFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public Socket createSocket(HttpContext context) throws IOException {
+            return factory.createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress,
+                InetSocketAddress localAddress, HttpContext context) throws IOException {
+            InetAddress address = remoteAddress.getAddress();
+            addConnection(sock, address);
+            Socket connected;
+            try {
+                connected = factory.connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+            } catch (IOException e) {
+                removeConnection(sock);
+                if (sock == null || !sock.isConnected()) {
+                    blacklist(address);
+                }
+                throw e;
+            }
+            if (connected != sock) {
+                removeConnection(sock);
+                addConnection(connected, address);
+            }
+            blacklist.remove(address);
+            return connected;
+        }
+    }
+
+    private class LayeredTrackingSocketFactory extends TrackingSocketFactory
+            implements LayeredConnectionSocketFactory {
+        private final LayeredConnectionSocketFactory factory;
+
+        LayeredTrackingSocketFactory(LayeredConnectionSocketFactory factory) {
+            super(factory);
+            this.factory = factory;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            return factory.createLayeredSocket(socket, target, port, context);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.aliyun.oss.ClientErrorCode;
+import com.aliyun.oss.ClientException;
+
+/**
+ * An adaptive limit of the in-flight requests of a client, kept separately
+ * for each endpoint and bucket. The limit is adjusted with AIMD: a healthy
+ * request adds one permit per window of requests while the limit is in use,
+ * a throttled or timed out request halves it, at most once per window so a
+ * burst of failures started under the same limit only counts once.
+ *
+ * <p>
+ * Requests beyond the limit wait for a permit up to the queue timeout, and
+ * fail with {@link ClientErrorCode#CONCURRENCY_LIMIT_EXCEEDED} if there is
+ * still none.
+ * </p>
+ */
+public class ConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.5;
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<String, Limit>();
+
+    /**
+     * @param initialLimit
+     *            The limit of an endpoint and bucket before any request.
+     * @param maxLimit
+     *            The max limit.
+     */
+    public ConcurrencyLimiter(int initialLimit, int maxLimit) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.initialLimit = Math.max(1, Math.min(initialLimit, this.maxLimit));
+    }
+
+    /**
+     * Takes a permit of the key, waiting for one if the limit is reached.
+     *
+     * @param key
+     *            The endpoint and bucket of the request.
+     * @param timeoutMillis
+     *            The max time to wait for a permit, 0 to fail immediately.
+     * @return The permit, which must be released.
+     * @throws ClientException
+     *             If no permit is available within the timeout or the thread
+     *             is interrupted.
+     */
+    public Permit acquire(String key, long timeoutMillis) throws ClientException {
+        return getOrCreate(key).acquire(key, timeoutMillis);
+    }
+
+    /**
+     * Takes a permit of the key if one is available.
+     *
+     * @param key
+     *            The endpoint and bucket of the request.
+     * @return The permit, or null if the limit is reached.
+     */
+    public Permit tryAcquire(String key) {
+        return getOrCreate(key).tryAcquire();
+    }
+
+    /**
+     * Gets the current limit of the in-flight requests of the key.
+     *
+     * @param key
+     *            The endpoint and bucket.
+     * @return The limit.
+     */
+    public int getLimit(String key) {
+        return getOrCreate(key).getLimit();
+    }
+
+    /**
+     * Gets the number of the in-flight requests of the key.
+     *
+     * @param key
+     *            The endpoint and bucket.
+     * @return The number of permits taken.
+     */
+    public int getInFlight(String key) {
+        return getOrCreate(key).getInFlight();
+    }
+
+    private Limit getOrCreate(String key) {
+        Limit limit = limits.get(key);
+        if (limit == null) {
+            Limit newLimit = new Limit(initialLimit, maxLimit);
+            limit = limits.putIfAbsent(key, newLimit);
+            if (limit == null) {
+                limit = newLimit;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * A permit of an in-flight request. Only the first release counts.
+     */
+    public static class Permit {
+        private final Limit limit;
+        private final long window;
+        private final boolean inUse;
+        private boolean released;
+
+        private Permit(Limit limit, long window, boolean inUse) {
+            this.limit = limit;
+            this.window = window;
+            this.inUse = inUse;
+        }
+
+        /**
+         * Releases the permit of a healthy request, growing the limit.
+         */
+        public void success() {
+            release(Limit.SUCCESS);
+        }
+
+        /**
+         * Releases the permit of a throttled or timed out request, cutting
+         * the limit.
+         */
+        public void dropped() {
+            release(Limit.DROPPED);
+        }
+
+        /**
+         * Releases the permit without changing the limit.
+         */
+        public void ignore() {
+            release(Limit.IGNORED);
+        }
+
+        private void release(int outcome) {
+            synchronized (limit) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                limit.release(this, outcome);
+            }
+        }
+    }
+
+    private static class Limit {
+        static final int SUCCESS = 0;
+        static final int DROPPED = 1;
+        static final int IGNORED = 2;
+
+        private final int maxLimit;
+        private double limit;
+        private int inFlight;
+        private long window;
+
+        Limit(int initialLimit, int maxLimit) {
+            this.limit = initialLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        synchronized Permit tryAcquire() {
+            if (inFlight >= (int) limit) {
+                return null;
+            }
+            return newPermit();
+        }
+
+        synchronized Permit acquire(String key, long timeoutMillis) throws ClientException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (inFlight >= (int) limit) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    throw new ClientException("The concurrency limit " + (int) limit + " of " + key
+                            + " is reached.", ClientErrorCode.CONCURRENCY_LIMIT_EXCEEDED, null);
+                }
+                try {
+                    wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ClientException(e.getMessage(), e);
+                }
+            }
+            return newPermit();
+        }
+
+        private Permit newPermit() {
+            inFlight++;
+            // Only grow a limit in use, an idle client would grow it unbounded.
+            return new Permit(this, window, inFlight * 2 >= limit);
+        }
+
+        synchronized void release(Permit permit, int outcome) {
+            if (outcome == SUCCESS && permit.inUse) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            } else if (outcome == DROPPED && permit.window == window) {
+                limit = Math.max(1, limit * BACKOFF_RATIO);
+                window++;
+            }
+            inFlight--;
+            notifyAll();
+        }
+
+        synchronized int getLimit() {
+            return (int) limit;
+        }
+
+        synchronized int getInFlight() {
+            return inFlight;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import org.apache.http.pool.PoolStats;
+
+import com.aliyun.oss.metrics.ConnectionPoolMXBean;
+
+/**
+ * The {@link ConnectionPoolMXBean} of a service client.
+ */
+class ConnectionPoolMBean implements ConnectionPoolMXBean {
+
+    private final ServiceClient client;
+
+    ConnectionPoolMBean(ServiceClient client) {
+        this.client = client;
+    }
+
+    private PoolStats stats() {
+        PoolStats stats = client.getConnectionPoolTotalStats();
+        return stats != null ? stats : new PoolStats(0, 0, 0, 0);
+    }
+
+    @Override
+    public int getLeased() {
+        return stats().getLeased();
+    }
+
+    @Override
+    public int getAvailable() {
+        return stats().getAvailable();
+    }
+
+    @Override
+    public int getPending() {
+        return stats().getPending();
+    }
+
+    @Override
+    public int getMax() {
+        return stats().getMax();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static com.aliyun.oss.common.utils.LogUtils.getLog;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+
+import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.common.utils.ExceptionFactory;
+import com.aliyun.oss.common.utils.HashedWheelTimer;
+
+/**
+ * Implementation of {@link ServiceClient} that enforces a deadline on the whole
+ * request. Unlike {@link TimeoutServiceClient}, the request is sent from the
+ * caller thread, and a timer shared by all the clients aborts it once the
+ * deadline passes. The deadline covers connecting, the TLS handshake, waiting
+ * for the response and reading the response body, it is cancelled when the
+ * response content is read to the end or closed.
+ */
+public class DeadlineServiceClient extends DefaultServiceClient {
+
+    private static final class TimerHolder {
+        static final HashedWheelTimer TIMER = new HashedWheelTimer("oss-request-deadline-timer", 10,
+                TimeUnit.MILLISECONDS, 512);
+    }
+
+    public DeadlineServiceClient(ClientConfiguration config) {
+        super(config);
+    }
+
+    protected HashedWheelTimer getTimer() {
+        return TimerHolder.TIMER;
+    }
+
+    @Override
+    public ResponseMessage sendRequestCore(ServiceClient.Request request, ExecutionContext context) throws IOException {
+        HttpRequestBase httpRequest = httpRequestFactory.createHttpRequest(request, context);
+        setProxyAuthorizationIfNeed(httpRequest);
+        HttpClientContext httpContext = createHttpContext(context);
+        setBucket(httpContext, request);
+
+        RequestDeadline deadline = new RequestDeadline(httpRequest, this.config.getRequestTimeout());
+        deadline.timeout = getTimer().newTimeout(deadline, this.config.getRequestTimeout(), TimeUnit.MILLISECONDS);
+
+        CloseableHttpResponse httpResponse = null;
+        try {
+            httpResponse = httpClient.execute(httpRequest, httpContext);
+        } catch (IOException ex) {
+            httpRequest.abort();
+            deadline.cancel();
+            if (deadline.isExpired()) {
+                throw deadline.createTimeoutException(ex);
+            }
+            throw ExceptionFactory.createNetworkException(ex);
+        }
+
+        ResponseMessage response = null;
+        try {
+            response = buildResponse(request, httpResponse);
+        } catch (IOException ex) {
+            httpRequest.abort();
+            deadline.cancel();
+            if (deadline.isExpired()) {
+                throw deadline.createTimeoutException(ex);
+            }
+            throw ex;
+        }
+
+        if (response.isSuccessful() && response.getContent() != null) {
+            response.setContent(new DeadlineInputStream(response.getContent(), deadline));
+        } else {
+            deadline.cancel();
+        }
+        return response;
+    }
+
+    /**
+     * Aborts the request when it expires.
+     */
+    private static class RequestDeadline implements Runnable {
+        private final HttpRequestBase httpRequest;
+        private final int requestTimeout;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        RequestDeadline(HttpRequestBase httpRequest, int requestTimeout) {
+            this.httpRequest = httpRequest;
+            this.requestTimeout = requestTimeout;
+        }
+
+        @Override
+        public void run() {
+            getLog().warn("[Deadline]The request exceeded its deadline of " + requestTimeout + "ms, abort it: "
+                    + httpRequest.getRequestLine());
+            httpRequest.abort();
+        }
+
+        void cancel() {
+            HashedWheelTimer.Timeout t = this.timeout;
+            if (t != null) {
+                t.cancel();
+            }
+        }
+
+        boolean isExpired() {
+            HashedWheelTimer.Timeout t = this.timeout;
+            return t != null && t.isExpired();
+        }
+
+        ClientException createTimeoutException(Exception cause) {
+            return new ClientException("The request exceeded its deadline of " + requestTimeout + "ms.",
+                    OSSErrorCode.REQUEST_TIMEOUT, "Unknown", cause);
+        }
+    }
+
+    /**
+     * Keeps the deadline armed while the response body is being read.
+     */
+    private static class DeadlineInputStream extends FilterInputStream {
+        private final RequestDeadline deadline;
+
+        DeadlineInputStream(InputStream in, RequestDeadline deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = super.read();
+                if (b == -1) {
+                    deadline.cancel();
+                }
+                return b;
+            } catch (IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                int n = super.read(b, off, len);
+                if (n == -1) {
+                    deadline.cancel();
+                }
+                return n;
+            } catch (IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            try {
+                return super.skip(n);
+            } catch (IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            deadline.cancel();
+            super.close();
+        }
+
+        private IOException translate(IOException e) {
+            if (!deadline.isExpired()) {
+                return e;
+            }
+            SocketTimeoutException ex = new SocketTimeoutException(
+                    "The request exceeded its deadline of " + deadline.requestTimeout + "ms.");
+            ex.initCause(e);
+            return ex;
+        }
+    }
+}
@@ -22,19 +22,34 @@ package com.aliyun.oss.common.comm;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
+import java.net.URI;
 import java.security.KeyStore;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.net.ssl.*;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.auth.AUTH;
 import org.apache.http.auth.AuthScope;
@@ -43,12 +58,16 @@ import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.DnsResolver;
 import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.HttpRoutePlanner;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.DefaultHostnameVerifier;
@@ -58,8 +77,12 @@ import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.pool.PoolStats;
 
 import com.aliyun.oss.ClientConfiguration;
 import com.aliyun.oss.ClientErrorCode;
@@ -70,6 +93,8 @@ import com.aliyun.oss.common.utils.ExceptionFactory;
 import com.aliyun.oss.common.utils.HttpHeaders;
 import com.aliyun.oss.common.utils.HttpUtil;
 import com.aliyun.oss.common.utils.IOUtils;
+import com.aliyun.oss.common.utils.LogUtils;
+import com.aliyun.oss.internal.OSSUtils;
 
 /**
  * Default implementation of {@link ServiceClient}.
@@ -77,6 +102,8 @@ import com.aliyun.oss.common.utils.IOUtils;
 public class DefaultServiceClient extends ServiceClient {
     protected static HttpRequestFactory httpRequestFactory = new HttpRequestFactory();
 	private static Method setNormalizeUriMethod = null;
+    private static final AtomicInteger clientIds = new AtomicInteger();
+    private static final int WARM_UP_THREADS = 32;
 
     protected CloseableHttpClient httpClient;
     protected HttpClientConnectionManager connectionManager;
@@ -84,6 +111,10 @@ public class DefaultServiceClient extends ServiceClient {
     protected CredentialsProvider credentialsProvider;
     protected HttpHost proxyHttpHost;
     protected AuthCache authCache;
+    protected ObjectName connectionPoolMBeanName;
+    protected RequestHedger requestHedger;
+    protected volatile String warmUpStats;
+    protected CachingDnsResolver dnsResolver;
 
     public DefaultServiceClient(ClientConfiguration config) {
         super(config);
@@ -125,14 +156,26 @@ public class DefaultServiceClient extends ServiceClient {
         }
 
         this.requestConfig = requestConfigBuilder.build();
+
+        if (config.isConnectionPoolJmxEnabled()) {
+            registerConnectionPoolMBean();
+        }
+        if (config.isHedgingEnabled()) {
+            this.requestHedger = new RequestHedger(config);
+        }
     }
 
     @Override
     public ResponseMessage sendRequestCore(ServiceClient.Request request, ExecutionContext context) throws IOException {
         HttpRequestBase httpRequest = httpRequestFactory.createHttpRequest(request, context);
         setProxyAuthorizationIfNeed(httpRequest);
-        HttpClientContext httpContext = createHttpContext();
+        HttpClientContext httpContext = createHttpContext(context);
         httpContext.setRequestConfig(this.requestConfig);
+        setBucket(httpContext, request);
+
+        if (requestHedger != null && requestHedger.isHedgeable(request)) {
+            return new HedgedExecution(request, context, httpRequest).execute(httpContext);
+        }
 
         CloseableHttpResponse httpResponse = null;
         try {
@@ -147,12 +190,19 @@ public class DefaultServiceClient extends ServiceClient {
 
     protected static ResponseMessage buildResponse(ServiceClient.Request request, CloseableHttpResponse httpResponse)
             throws IOException {
+        return buildResponse(request, (HttpResponse) httpResponse);
+    }
+
+    protected static ResponseMessage buildResponse(ServiceClient.Request request, HttpResponse httpResponse)
+            throws IOException {
 
         assert (httpResponse != null);
 
         ResponseMessage response = new ResponseMessage(request);
         response.setUrl(request.getUri());
-        response.setHttpResponse(httpResponse);
+        if (httpResponse instanceof CloseableHttpResponse) {
+            response.setHttpResponse((CloseableHttpResponse) httpResponse);
+        }
 
         if (httpResponse.getStatusLine() != null) {
             response.setStatusCode(httpResponse.getStatusLine().getStatusCode());
@@ -185,6 +235,138 @@ public class DefaultServiceClient extends ServiceClient {
         response.setContent(new ByteArrayInputStream(contentBytes));
     }
 
+    /**
+     * Sends a hedgeable request in the caller thread, and its hedge in a
+     * thread of the {@link RequestHedger} if there is no response after the
+     * hedge delay. The first response wins and the other request is aborted,
+     * the caller returns the response of whichever won.
+     */
+    private class HedgedExecution implements Runnable {
+        private final ServiceClient.Request request;
+        private final ExecutionContext context;
+        private final HttpRequestBase primary;
+        private final long startTime = System.nanoTime();
+
+        private HttpRequestBase hedge;
+        private boolean primaryDone;
+        private boolean hedgeDone;
+        private CloseableHttpResponse hedgeResponse;
+
+        HedgedExecution(ServiceClient.Request request, ExecutionContext context, HttpRequestBase primary) {
+            this.request = request;
+            this.context = context;
+            this.primary = primary;
+        }
+
+        ResponseMessage execute(HttpClientContext httpContext) throws IOException {
+            Future<?> trigger = requestHedger.schedule(this, requestHedger.getHedgeDelay());
+
+            CloseableHttpResponse httpResponse;
+            try {
+                httpResponse = httpClient.execute(primary, httpContext);
+            } catch (IOException ex) {
+                trigger.cancel(false);
+                primary.abort();
+                CloseableHttpResponse response = awaitHedge();
+                if (response == null) {
+                    throw ExceptionFactory.createNetworkException(ex);
+                }
+                return buildHedgeResponse(response);
+            }
+            trigger.cancel(false);
+
+            HttpRequestBase loser;
+            synchronized (this) {
+                primaryDone = true;
+                if (hedgeResponse != null) {
+                    closeQuietly(httpResponse);
+                    return buildHedgeResponse(hedgeResponse);
+                }
+                loser = hedge;
+            }
+            if (loser != null) {
+                loser.abort();
+            }
+            requestHedger.record(System.nanoTime() - startTime);
+            return buildResponse(request, httpResponse);
+        }
+
+        /*
+         * Waits for the hedge in flight after the primary request failed.
+         */
+        private synchronized CloseableHttpResponse awaitHedge() throws IOException {
+            primaryDone = true;
+            while (hedge != null && !hedgeDone) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    hedge.abort();
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(e.getMessage());
+                }
+            }
+            return hedgeResponse;
+        }
+
+        private ResponseMessage buildHedgeResponse(CloseableHttpResponse response) throws IOException {
+            // The primary request took at least as long as the hedge delay and the hedge.
+            requestHedger.record(System.nanoTime() - startTime);
+            requestHedger.hedgeWon();
+            if (context.getMetrics() != null) {
+                context.getMetrics().markHedgeWon();
+                context.getMetrics().markFirstByte();
+            }
+            return buildResponse(request, response);
+        }
+
+        @Override
+        public void run() {
+            HttpRequestBase hedgeRequest;
+            synchronized (this) {
+                if (primaryDone || !requestHedger.tryAcquire()) {
+                    return;
+                }
+                hedgeRequest = httpRequestFactory.createHttpRequest(request, context);
+                setProxyAuthorizationIfNeed(hedgeRequest);
+                hedge = hedgeRequest;
+            }
+            if (context.getMetrics() != null) {
+                context.getMetrics().markHedged();
+            }
+
+            CloseableHttpResponse response = null;
+            try {
+                HttpClientContext httpContext = createHttpContext();
+                setBucket(httpContext, request);
+                response = httpClient.execute(hedgeRequest, httpContext);
+            } catch (Exception ex) {
+                LogUtils.getLog().debug("The hedged request failed: " + ex.getMessage());
+            }
+
+            boolean won;
+            synchronized (this) {
+                won = response != null && !primaryDone;
+                if (won) {
+                    hedgeResponse = response;
+                }
+                hedgeDone = true;
+                notifyAll();
+            }
+            if (won) {
+                primary.abort();
+            } else if (response != null) {
+                closeQuietly(response);
+            }
+        }
+    }
+
+    private static void closeQuietly(CloseableHttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+        }
+    }
+
     private static class DefaultRetryStrategy extends RetryStrategy {
 
         @Override
@@ -232,12 +414,56 @@ public class DefaultServiceClient extends ServiceClient {
     }
 
     protected CloseableHttpClient createHttpClient(HttpClientConnectionManager connectionManager) {
-        return HttpClients.custom().setConnectionManager(connectionManager).setUserAgent(this.config.getUserAgent())
-                .disableContentCompression().disableAutomaticRetries().build();
+        HttpClientBuilder builder = HttpClients.custom().setConnectionManager(connectionManager)
+                .setUserAgent(this.config.getUserAgent()).disableContentCompression().disableAutomaticRetries()
+                .setRequestExecutor(new TimingHttpRequestExecutor());
+        if (connectionManager instanceof BucketAwareConnectionManager) {
+            builder.setRoutePlanner(
+                    new BucketAwareConnectionManager.EndpointRoutePlanner(config.getCnameExcludeList()));
+        }
+        return builder.build();
     }
 
     protected HttpClientConnectionManager createHttpClientConnectionManager() {
-        SSLConnectionSocketFactory sslSocketFactory = null;
+        SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(createSSLContext(),
+                createHostnameVerifier());
+
+        ConnectionSocketFactory plainSocketFactory = PlainConnectionSocketFactory.getSocketFactory();
+        ConnectionSocketFactory secureSocketFactory = sslSocketFactory;
+        DnsResolver resolver = config.getDnsResolver();
+        if (config.isDnsCacheEnabled()) {
+            this.dnsResolver = new CachingDnsResolver(
+                    resolver != null ? resolver : SystemDefaultDnsResolver.INSTANCE, config.getDnsCacheTtl(),
+                    config.getAddressBlacklistTime(), config.getAddressSelectionMode());
+            resolver = this.dnsResolver;
+            plainSocketFactory = this.dnsResolver.track(plainSocketFactory);
+            secureSocketFactory = this.dnsResolver.track(secureSocketFactory);
+        }
+
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory> create()
+                .register(Protocol.HTTP.toString(), plainSocketFactory)
+                .register(Protocol.HTTPS.toString(), secureSocketFactory).build();
+
+        PoolingHttpClientConnectionManager connectionManager;
+        if (config.isBucketConnectionSharingEnabled()) {
+            connectionManager = new BucketAwareConnectionManager(socketFactoryRegistry, resolver,
+                    config.getMaxConnectionsPerBucket());
+        } else {
+            connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry, resolver);
+        }
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnections());
+        connectionManager.setMaxTotal(config.getMaxConnections());
+        connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivity());
+        connectionManager.setDefaultSocketConfig(
+                SocketConfig.custom().setSoTimeout(config.getSocketTimeout()).setTcpNoDelay(true).build());
+        if (config.isUseReaper()) {
+            IdleConnectionReaper.setIdleConnectionTime(config.getIdleConnectionTime());
+            IdleConnectionReaper.registerConnectionManager(connectionManager);
+        }
+        return connectionManager;
+    }
+
+    protected SSLContext createSSLContext() {
         try {
             List<TrustManager> trustManagerList = new ArrayList<TrustManager>();
             X509TrustManager[] trustManagers = config.getX509TrustManagers();
@@ -270,36 +496,27 @@ public class DefaultServiceClient extends ServiceClient {
 
             SSLContext sslContext = SSLContext.getInstance("TLS");
             sslContext.init(keyManagers, new TrustManager[]{compositeX509TrustManager}, config.getSecureRandom());
-
-            HostnameVerifier hostnameVerifier = null;
-            if (!config.isVerifySSLEnable()) {
-                hostnameVerifier = new NoopHostnameVerifier();
-            } else if (config.getHostnameVerifier() != null) {
-                hostnameVerifier = config.getHostnameVerifier();
-            } else {
-                hostnameVerifier = new DefaultHostnameVerifier();
+            // The TLS sessions are cached by the JDK, only the limits set explicitly replace its defaults.
+            SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+            if (sessionContext != null && config.getTlsSessionCacheSize() >= 0) {
+                sessionContext.setSessionCacheSize(config.getTlsSessionCacheSize());
+            }
+            if (sessionContext != null && config.getTlsSessionTimeout() >= 0) {
+                sessionContext.setSessionTimeout((int) (config.getTlsSessionTimeout() / 1000));
             }
-            sslSocketFactory = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
+            return sslContext;
         } catch (Exception e) {
             throw new ClientException(e.getMessage());
         }
+    }
 
-        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory> create()
-                .register(Protocol.HTTP.toString(), PlainConnectionSocketFactory.getSocketFactory())
-                .register(Protocol.HTTPS.toString(), sslSocketFactory).build();
-
-        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
-                socketFactoryRegistry);
-        connectionManager.setDefaultMaxPerRoute(config.getMaxConnections());
-        connectionManager.setMaxTotal(config.getMaxConnections());
-        connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivity());
-        connectionManager.setDefaultSocketConfig(
-                SocketConfig.custom().setSoTimeout(config.getSocketTimeout()).setTcpNoDelay(true).build());
-        if (config.isUseReaper()) {
-            IdleConnectionReaper.setIdleConnectionTime(config.getIdleConnectionTime());
-            IdleConnectionReaper.registerConnectionManager(connectionManager);
+    protected HostnameVerifier createHostnameVerifier() {
+        if (!config.isVerifySSLEnable()) {
+            return new NoopHostnameVerifier();
+        } else if (config.getHostnameVerifier() != null) {
+            return config.getHostnameVerifier();
         }
-        return connectionManager;
+        return new DefaultHostnameVerifier();
     }
 
     protected HttpClientContext createHttpContext() {
@@ -312,7 +529,29 @@ public class DefaultServiceClient extends ServiceClient {
         return httpContext;
     }
 
-    private void setProxyAuthorizationIfNeed(HttpRequestBase httpRequest) {
+    /**
+     * Creates the HTTP context of a request, it carries the metrics of the
+     * request to the request executor.
+     */
+    protected HttpClientContext createHttpContext(ExecutionContext context) {
+        HttpClientContext httpContext = createHttpContext();
+        if (context.getMetrics() != null) {
+            httpContext.setAttribute(TimingHttpRequestExecutor.METRICS_ATTRIBUTE, context.getMetrics());
+        }
+        return httpContext;
+    }
+
+    /**
+     * Sets the bucket of the request to the HTTP context, which the bucket
+     * aware connection pool routes and caps the connections by.
+     */
+    protected void setBucket(HttpClientContext httpContext, ServiceClient.Request request) {
+        if (this.connectionManager instanceof BucketAwareConnectionManager) {
+            BucketAwareConnectionManager.setBucket(httpContext, request.getBucket());
+        }
+    }
+
+    protected void setProxyAuthorizationIfNeed(HttpRequestBase httpRequest) {
         if (this.credentialsProvider != null) {
             String auth = this.config.getProxyUsername() + ":" + this.config.getProxyPassword();
             byte[] encodedAuth = Base64.encodeBase64(auth.getBytes());
@@ -321,8 +560,30 @@ public class DefaultServiceClient extends ServiceClient {
         }
     }
 
+    /**
+     * Gets the cached addresses and the connections of every address.
+     *
+     * @return The DNS resolver, or null if the DNS cache is not enabled.
+     */
+    public CachingDnsResolver getDnsResolver() {
+        return dnsResolver;
+    }
+
+    /**
+     * Gets the state of the hedged requests.
+     *
+     * @return The request hedger, or null if hedging is not enabled.
+     */
+    public RequestHedger getRequestHedger() {
+        return requestHedger;
+    }
+
     @Override
     public void shutdown() {
+        if (requestHedger != null) {
+            requestHedger.shutdown();
+        }
+        unregisterConnectionPoolMBean();
         IdleConnectionReaper.removeConnectionManager(this.connectionManager);
         this.connectionManager.shutdown();
     }
@@ -331,11 +592,178 @@ public class DefaultServiceClient extends ServiceClient {
     public String getConnectionPoolStats() {
         if (connectionManager != null && connectionManager instanceof PoolingHttpClientConnectionManager) {
             PoolingHttpClientConnectionManager conn = (PoolingHttpClientConnectionManager)connectionManager;
-            return conn.getTotalStats().toString();
+            String stats = conn.getTotalStats().toString();
+            if (dnsResolver != null && dnsResolver.getConnectionStats().length() > 0) {
+                stats += ", " + dnsResolver.getConnectionStats();
+            }
+            return warmUpStats != null ? stats + ", " + warmUpStats : stats;
         }
         return "";
     }
 
+    /**
+     * Opens the connections to the endpoint and the hosts of the buckets in
+     * parallel, including the TLS handshakes, and returns them to the pool.
+     * The hosts of the buckets are the endpoint itself when the buckets share
+     * the connections. The connections are not opened through a proxy.
+     *
+     * @param endpoint
+     *            The endpoint.
+     * @param bucketNames
+     *            The buckets, can be empty.
+     * @param connectionsPerHost
+     *            The connections to open to each host, at most the max
+     *            connections.
+     * @return The number of connections opened.
+     */
+    @Override
+    public int warmUpConnections(URI endpoint, List<String> bucketNames, int connectionsPerHost) {
+        if (!(connectionManager instanceof PoolingHttpClientConnectionManager) || connectionsPerHost <= 0) {
+            return 0;
+        }
+        long startTime = System.currentTimeMillis();
+        final PoolingHttpClientConnectionManager pool = (PoolingHttpClientConnectionManager) connectionManager;
+        int perRoute = Math.min(connectionsPerHost, config.getMaxConnections());
+
+        List<HttpRoute> routes = new ArrayList<HttpRoute>();
+        for (HttpRoute route : getWarmUpRoutes(endpoint, bucketNames)) {
+            if (route.getProxyHost() != null) {
+                LogUtils.getLog().warn("Connections through a proxy are not warmed up: " + route);
+            } else if (!routes.contains(route)) {
+                routes.add(route);
+            }
+        }
+        if (routes.isEmpty()) {
+            return 0;
+        }
+
+        // Hold all the connections until they are open, so each task opens a new one.
+        int total = Math.min(routes.size() * perRoute, config.getMaxConnections());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(total, WARM_UP_THREADS));
+        List<Future<HttpClientConnection>> futures = new ArrayList<Future<HttpClientConnection>>();
+        for (int i = 0; i < total; i++) {
+            final HttpRoute route = routes.get(i / perRoute);
+            futures.add(executor.submit(new Callable<HttpClientConnection>() {
+                @Override
+                public HttpClientConnection call() throws Exception {
+                    return openConnection(pool, route);
+                }
+            }));
+        }
+        executor.shutdown();
+
+        int opened = 0;
+        List<HttpClientConnection> connections = new ArrayList<HttpClientConnection>();
+        for (Future<HttpClientConnection> future : futures) {
+            try {
+                HttpClientConnection conn = future.get();
+                connections.add(conn);
+                if (conn.isOpen()) {
+                    opened++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                LogUtils.getLog().warn("Unable to warm up a connection: " + e.getCause().getMessage());
+            }
+        }
+        for (HttpClientConnection conn : connections) {
+            pool.releaseConnection(conn, null, config.getIdleConnectionTime(), TimeUnit.MILLISECONDS);
+        }
+
+        this.warmUpStats = "warm-up [opened: " + opened + "; requested: " + total + "; time: "
+                + (System.currentTimeMillis() - startTime) + "ms]";
+        return opened;
+    }
+
+    private List<HttpRoute> getWarmUpRoutes(URI endpoint, List<String> bucketNames) {
+        List<URI> uris = new ArrayList<URI>();
+        uris.add(endpoint);
+        for (String bucketName : bucketNames) {
+            uris.add(OSSUtils.determineFinalEndpoint(endpoint, bucketName, config));
+        }
+
+        HttpRoutePlanner routePlanner = connectionManager instanceof BucketAwareConnectionManager
+                ? new BucketAwareConnectionManager.EndpointRoutePlanner(config.getCnameExcludeList())
+                : new DefaultRoutePlanner(null);
+        List<HttpRoute> routes = new ArrayList<HttpRoute>();
+        for (int i = 0; i < uris.size(); i++) {
+            URI uri = uris.get(i);
+            HttpClientContext httpContext = createHttpContext();
+            if (i > 0 && connectionManager instanceof BucketAwareConnectionManager) {
+                BucketAwareConnectionManager.setBucket(httpContext, bucketNames.get(i - 1));
+            }
+            try {
+                routes.add(routePlanner.determineRoute(new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme()),
+                        new HttpGet(uri), httpContext));
+            } catch (HttpException e) {
+                throw new ClientException(e.getMessage(), e);
+            }
+        }
+        return routes;
+    }
+
+    private HttpClientConnection openConnection(PoolingHttpClientConnectionManager pool, HttpRoute route)
+            throws Exception {
+        HttpClientConnection conn = pool.requestConnection(route, null).get(config.getConnectionRequestTimeout(),
+                TimeUnit.MILLISECONDS);
+        try {
+            if (!conn.isOpen()) {
+                HttpClientContext httpContext = createHttpContext();
+                pool.connect(conn, route, config.getConnectionTimeout(), httpContext);
+                pool.routeComplete(conn, route, httpContext);
+            }
+            return conn;
+        } catch (Exception e) {
+            pool.releaseConnection(conn, null, 0, TimeUnit.MILLISECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    public PoolStats getConnectionPoolTotalStats() {
+        if (connectionManager instanceof PoolingHttpClientConnectionManager) {
+            return ((PoolingHttpClientConnectionManager) connectionManager).getTotalStats();
+        }
+        return null;
+    }
+
+    protected void registerConnectionPoolMBean() {
+        try {
+            ObjectName name = new ObjectName("com.aliyun.oss:type=ConnectionPool,name=oss-client-"
+                    + clientIds.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new ConnectionPoolMBean(this), name);
+            this.connectionPoolMBeanName = name;
+        } catch (Exception e) {
+            LogUtils.getLog().warn("Unable to register the connection pool MBean: " + e.getMessage());
+        }
+    }
+
+    protected void unregisterConnectionPoolMBean() {
+        if (connectionPoolMBeanName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(connectionPoolMBeanName)) {
+                server.unregisterMBean(connectionPoolMBeanName);
+            }
+        } catch (Exception e) {
+            LogUtils.getLog().warn("Unable to unregister the connection pool MBean: " + e.getMessage());
+        }
+        connectionPoolMBeanName = null;
+    }
+
+    /**
+     * Gets the JMX name of the connection pool MBean of the client.
+     *
+     * @return The object name, or null if it's not registered.
+     */
+    public ObjectName getConnectionPoolMBeanName() {
+        return connectionPoolMBeanName;
+    }
+
     private static Method getClassMethd(Class<?> clazz, String methodName) {
         try {
             Method[] method = clazz.getDeclaredMethods();
@@ -25,6 +25,7 @@ import java.util.List;
 import com.aliyun.oss.common.auth.Credentials;
 import com.aliyun.oss.common.auth.RequestSigner;
 import com.aliyun.oss.internal.OSSConstants;
+import com.aliyun.oss.metrics.RequestMetrics;
 
 /**
  * HTTP request context.
@@ -50,6 +51,9 @@ public class ExecutionContext {
 
     private Credentials credentials;
 
+    /* The metrics of the request, null if no metrics listener is set. */
+    private RequestMetrics metrics;
+
     public RetryStrategy getRetryStrategy() {
         return retryStrategy;
     }
@@ -130,4 +134,12 @@ public class ExecutionContext {
         this.credentials = credentials;
     }
 
+    public RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(RequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Content of a response which holds the concurrency limiter permit of its
+ * request until the content is read to the end, closed or aborted, so the
+ * limit bounds the transfers of the response bodies, such as the objects
+ * being downloaded, and not only the waits for the response headers.
+ */
+class PermitInputStream extends FilterInputStream {
+
+    private final ServiceClient client;
+    private final ConcurrencyLimiter.Permit permit;
+    private final ResponseMessage response;
+    private final long duration;
+
+    PermitInputStream(InputStream in, ServiceClient client, ConcurrencyLimiter.Permit permit,
+            ResponseMessage response, long duration) {
+        super(in);
+        this.client = client;
+        this.permit = permit;
+        this.response = response;
+        this.duration = duration;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == -1) {
+            release();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n == -1) {
+            release();
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Releases the permit with the outcome of the response headers, the
+     * permit is released only once.
+     */
+    void release() {
+        client.releasePermit(permit, response, null, duration);
+    }
+}
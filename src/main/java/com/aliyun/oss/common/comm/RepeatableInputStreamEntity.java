@@ -80,6 +80,9 @@ public class RepeatableInputStreamEntity extends BasicHttpEntity {
      */
     public static class NoAutoClosedInputStreamEntity extends AbstractHttpEntity {
         private final static int BUFFER_SIZE = 2048;
+        // Large bodies such as file parts are copied in bigger chunks to cut
+        // down the read calls on the source.
+        private final static int LARGE_BUFFER_SIZE = 64 * 1024;
 
         private final InputStream content;
         private final long length;
@@ -111,7 +114,8 @@ public class RepeatableInputStreamEntity extends BasicHttpEntity {
             }
             InputStream instream = this.content;
 
-            byte[] buffer = new byte[BUFFER_SIZE];
+            int bufferSize = (int) Math.max(BUFFER_SIZE, Math.min(this.length, LARGE_BUFFER_SIZE));
+            byte[] buffer = new byte[bufferSize];
             int l;
             if (this.length < 0) {
                 // consume until EOF
@@ -122,7 +126,7 @@ public class RepeatableInputStreamEntity extends BasicHttpEntity {
                 // consume no more than length
                 long remaining = this.length;
                 while (remaining > 0) {
-                    l = instream.read(buffer, 0, (int) Math.min(BUFFER_SIZE, remaining));
+                    l = instream.read(buffer, 0, (int) Math.min(bufferSize, remaining));
                     if (l == -1) {
                         break;
                     }
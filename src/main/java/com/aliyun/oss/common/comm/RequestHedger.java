@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.HttpMethod;
+import com.aliyun.oss.metrics.LatencyHistogram;
+
+/**
+ * The shared state of hedged requests: the threads sending the hedges, the
+ * hedge budget and the latency the hedge delay is derived from.
+ *
+ * <p>
+ * A GET or HEAD request without a response header after the hedge delay is
+ * sent again on another connection, the first response wins and the other
+ * request is aborted. The hedge delay is the configured percentile of the
+ * recent time to the response headers, but not less than the configured
+ * min delay. The hedges are limited by a {@link RetryBudget}, every hedgeable
+ * request adds the hedge budget ratio of a hedge.
+ * </p>
+ */
+public class RequestHedger {
+
+    /* The samples needed before the hedge delay follows the latency. */
+    static final int MIN_SAMPLES = 100;
+    /* The samples of a latency window, older samples are dropped. */
+    static final int WINDOW_SAMPLES = 10000;
+    static final int BUDGET_CAPACITY = 10;
+
+    private static final AtomicInteger threadIds = new AtomicInteger();
+
+    private final long minDelayNanos;
+    private final double percentile;
+    private final RetryBudget budget;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+
+    private volatile LatencyHistogram latency = new LatencyHistogram();
+    private volatile LatencyHistogram previousLatency;
+
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWonCount = new AtomicLong();
+
+    public RequestHedger(ClientConfiguration config) {
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.getHedgeDelay());
+        this.percentile = config.getHedgeDelayPercentile();
+        this.budget = new RetryBudget(BUDGET_CAPACITY, config.getHedgeBudgetRatio());
+
+        ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "oss-hedge-" + threadIds.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+        this.scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        this.executor = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Gets whether the request is an idempotent read that may be hedged.
+     */
+    public boolean isHedgeable(ServiceClient.Request request) {
+        return (request.getMethod() == HttpMethod.GET || request.getMethod() == HttpMethod.HEAD)
+                && request.getContent() == null;
+    }
+
+    /**
+     * Gets the delay after which a request without a response is hedged.
+     *
+     * @return The hedge delay in nanoseconds.
+     */
+    public long getHedgeDelay() {
+        LatencyHistogram histogram = latency;
+        if (histogram.getTotalCount() < MIN_SAMPLES) {
+            histogram = previousLatency;
+            if (histogram == null) {
+                return minDelayNanos;
+            }
+        }
+        return Math.max(minDelayNanos, histogram.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Gets the number of hedges sent.
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * Gets the number of hedges whose response was used.
+     */
+    public long getHedgeWonCount() {
+        return hedgeWonCount.get();
+    }
+
+    /**
+     * Gets the number of hedges not sent because the hedge budget was
+     * exhausted.
+     */
+    public long getHedgeBudgetExhaustedCount() {
+        return budget.getExhaustedCount();
+    }
+
+    Future<?> schedule(final Runnable hedge, long delayNanos) {
+        return scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(hedge);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    boolean tryAcquire() {
+        if (!budget.tryAcquire(false)) {
+            return false;
+        }
+        hedgeCount.incrementAndGet();
+        return true;
+    }
+
+    void hedgeWon() {
+        hedgeWonCount.incrementAndGet();
+    }
+
+    /**
+     * Records the time to the response headers of a hedgeable request.
+     */
+    void record(long nanos) {
+        budget.onSuccess();
+        LatencyHistogram histogram = latency;
+        histogram.record(nanos);
+        if (histogram.getTotalCount() >= WINDOW_SAMPLES) {
+            synchronized (this) {
+                if (latency == histogram) {
+                    previousLatency = histogram;
+                    latency = new LatencyHistogram();
+                }
+            }
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+/**
+ * Represents how the request timeout is enforced when it is enabled by
+ * {@link com.aliyun.oss.ClientConfiguration#setRequestTimeoutEnabled(boolean)}.
+ */
+public enum RequestTimeoutMode {
+
+    /**
+     * Sends each request from a thread pool and waits for its response with a
+     * timeout. The timeout covers the time until the response headers are
+     * received.
+     */
+    EXECUTOR,
+
+    /**
+     * Sends each request from the caller thread and aborts it from a shared
+     * timer once its deadline passes. The deadline covers the whole request,
+     * including connecting, the TLS handshake, waiting for the response and
+     * reading the response body.
+     */
+    DEADLINE
+}
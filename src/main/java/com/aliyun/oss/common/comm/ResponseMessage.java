@@ -38,6 +38,9 @@ public class ResponseMessage extends HttpMesssage {
     // For convenience of logging invalid response
     private String errorResponseAsString;
 
+    // The content holding the concurrency limiter permit of the request.
+    private PermitInputStream permitContent;
+
     public ResponseMessage(ServiceClient.Request request) {
         this.request = request;
     }
@@ -79,11 +82,21 @@ public class ResponseMessage extends HttpMesssage {
     }
 
     public void abort() throws IOException {
-        if (httpResponse != null) {
-            httpResponse.close();
+        try {
+            if (httpResponse != null) {
+                httpResponse.close();
+            }
+        } finally {
+            if (permitContent != null) {
+                permitContent.release();
+            }
         }
     }
 
+    void setPermitContent(PermitInputStream permitContent) {
+        this.permitContent = permitContent;
+    }
+
     public CloseableHttpResponse getHttpResponse() {
         return httpResponse;
     }
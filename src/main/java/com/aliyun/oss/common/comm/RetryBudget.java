@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that caps the retries of a client as a fraction of its
+ * successful requests. Each successful request adds the ratio of a token,
+ * up to the capacity, and each retry takes a token, or two for a throttled
+ * request. A retry is not attempted when the bucket is empty, the error of
+ * the failed attempt is returned instead.
+ *
+ * <p>
+ * The bucket starts full, so a client that just started can retry up to the
+ * capacity before any request succeeded.
+ * </p>
+ */
+public class RetryBudget {
+
+    /* Tokens are counted in thousandths so the ratio needs no floating point. */
+    private static final long SCALE = 1000;
+
+    private final long capacity;
+    private final long refill;
+    private final AtomicLong tokens;
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    /**
+     * Creates a full budget.
+     *
+     * @param capacity
+     *            The max number of tokens.
+     * @param ratio
+     *            The tokens added by each successful request, such as 0.1 for
+     *            one retry per ten successful requests.
+     */
+    public RetryBudget(int capacity, double ratio) {
+        this.capacity = capacity * SCALE;
+        this.refill = Math.round(ratio * SCALE);
+        this.tokens = new AtomicLong(this.capacity);
+    }
+
+    /**
+     * Takes the tokens of a retry.
+     *
+     * @param throttled
+     *            Whether the failed attempt was throttled by the server.
+     * @return True if the retry may be attempted; false if the budget is
+     *         exhausted.
+     */
+    public boolean tryAcquire(boolean throttled) {
+        long cost = throttled ? 2 * SCALE : SCALE;
+        long current;
+        do {
+            current = tokens.get();
+            if (current < cost) {
+                exhausted.incrementAndGet();
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - cost));
+        retries.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Refills the budget after a successful request.
+     */
+    public void onSuccess() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(capacity, current + refill)));
+    }
+
+    public double getAvailableTokens() {
+        return (double) tokens.get() / SCALE;
+    }
+
+    /**
+     * @return The number of retries the budget allowed.
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * @return The number of retries refused because the budget was
+     *         exhausted.
+     */
+    public long getExhaustedCount() {
+        return exhausted.get();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+/**
+ * Represents how failed requests are retried, set by
+ * {@link com.aliyun.oss.ClientConfiguration#setRetryMode(RetryMode)}. In
+ * both modes the {@link RetryStrategy} decides which errors are retried, up
+ * to the max error retry count.
+ */
+public enum RetryMode {
+
+    /**
+     * Each request waits the delay of {@link RetryStrategy#getPauseDelay(int)}
+     * between attempts, 300ms doubled with every retry by default, and
+     * retries independently of the other requests.
+     */
+    LEGACY,
+
+    /**
+     * Retries wait a random delay between 0 and the exponential delay, capped
+     * by the max retry delay, so the retries of concurrent requests don't
+     * come back in lockstep. Throttling responses (429 and 503, or a
+     * Retry-After header) are retried after at least half the exponential
+     * delay and the Retry-After delay. Every retry spends a token from a
+     * {@link RetryBudget} shared by the client, which successful requests
+     * refill, so retries stay a bounded fraction of the successful traffic
+     * when the service is overloaded.
+     */
+    ADAPTIVE
+}
@@ -28,13 +28,17 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.net.URI;
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
 
 import com.aliyun.oss.common.utils.DateUtil;
 import org.apache.http.HttpMessage;
+import org.apache.http.pool.PoolStats;
 
 import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.ClientErrorCode;
 import com.aliyun.oss.ClientException;
 import com.aliyun.oss.HttpMethod;
 import com.aliyun.oss.ServiceException;
@@ -43,16 +47,49 @@ import com.aliyun.oss.common.utils.HttpUtil;
 import com.aliyun.oss.common.utils.LogUtils;
 import com.aliyun.oss.common.utils.HttpHeaders;
 import com.aliyun.oss.internal.OSSConstants;
+import com.aliyun.oss.metrics.RequestMetrics;
 
 /**
  * Abstract service client that provides interfaces to access OSS services.
  */
 public abstract class ServiceClient {
 
+    private static final Random retryJitter = new Random();
+
     protected ClientConfiguration config;
 
+    /* The retry budget of the adaptive retry mode, shared by all the requests. */
+    protected RetryBudget retryBudget;
+
+    /* The adaptive limit of in-flight requests, null unless it's enabled. */
+    protected ConcurrencyLimiter concurrencyLimiter;
+
     protected ServiceClient(ClientConfiguration config) {
         this.config = config;
+        this.retryBudget = new RetryBudget(config.getRetryBudgetCapacity(), config.getRetryBudgetRatio());
+        if (config.isConcurrencyLimiterEnabled()) {
+            this.concurrencyLimiter = new ConcurrencyLimiter(config.getInitialConcurrencyLimit(),
+                    config.getMaxConcurrencyLimit());
+        }
+    }
+
+    /**
+     * Gets the retry budget of the client, it limits the retries in the
+     * {@link RetryMode#ADAPTIVE} retry mode.
+     *
+     * @return The retry budget.
+     */
+    public RetryBudget getRetryBudget() {
+        return this.retryBudget;
+    }
+
+    /**
+     * Gets the concurrency limiter of the client.
+     *
+     * @return The concurrency limiter, or null if it's not enabled.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return this.concurrencyLimiter;
     }
 
     public ClientConfiguration getClientConfiguration() {
@@ -102,13 +139,14 @@ public abstract class ServiceClient {
         RetryStrategy retryStrategy = context.getRetryStrategy() != null ? context.getRetryStrategy()
                 : this.getDefaultRetryStrategy();
 
-        // Sign the request if a signer provided.
-        if (context.getSigner() != null && !request.isUseUrlSignature()) {
-            context.getSigner().sign(request);
-        }
-
-        for (RequestSigner signer : context.getSignerHandlers()) {
-            signer.sign(request);
+        RequestMetrics metrics = context.getMetrics();
+        if (metrics != null) {
+            long signStart = System.nanoTime();
+            signRequest(request, context);
+            metrics.markSigned(System.nanoTime() - signStart);
+            metrics.setBytesSent(request.getContent() != null ? request.getContentLength() : 0);
+        } else {
+            signRequest(request, context);
         }
 
         InputStream requestContent = request.getContent();
@@ -117,12 +155,16 @@ public abstract class ServiceClient {
         }
 
         int retries = 0;
+        long retryDelay = 0;
         ResponseMessage response = null;
+        ConcurrencyLimiter.Permit permit = null;
 
         while (true) {
             try {
+                response = null;
+                permit = null;
                 if (retries > 0) {
-                    pause(retries, retryStrategy);
+                    pause(retries, retryDelay);
                     if (requestContent != null && requestContent.markSupported()) {
                         try {
                             requestContent.reset();
@@ -148,8 +190,20 @@ public abstract class ServiceClient {
 
                 // Step 3. Send HTTP request to OSS.
                 String poolStatsInfo = config.isLogConnectionPoolStatsEnable()? "Connection pool stats " + getConnectionPoolStats():"";
+                if (concurrencyLimiter != null) {
+                    permit = concurrencyLimiter.acquire(getConcurrencyLimitKey(request),
+                            config.getConcurrencyLimitQueueTimeout());
+                }
                 long startTime = System.currentTimeMillis();
+                if (metrics != null) {
+                    metrics.markAttemptStarted(retries);
+                }
                 response = sendRequestCore(httpRequest, context);
+                holdPermit(permit, response, System.currentTimeMillis() - startTime);
+                if (metrics != null) {
+                    metrics.setStatusCode(response.getStatusCode());
+                    metrics.setBytesReceived(response.getContentLength());
+                }
                 long duration = System.currentTimeMillis() - startTime;
                 if (duration > config.getSlowRequestsThreshold()) {
                     LogUtils.getLog().warn(formatSlowRequestLog(request, response, duration) + poolStatsInfo);
@@ -158,6 +212,9 @@ public abstract class ServiceClient {
                 // Step 4. Preprocess HTTP response.
                 handleResponse(response, context.getResponseHandlers());
 
+                if (config.getRetryMode() == RetryMode.ADAPTIVE) {
+                    retryBudget.onSuccess();
+                }
                 return response;
             } catch (ServiceException sex) {
                 logException("[Server]Unable to execute HTTP request: ", sex,
@@ -167,26 +224,31 @@ public abstract class ServiceClient {
                 // finally block because if the request is successful,
                 // the response should be returned to the callers.
                 closeResponseSilently(response);
+                releasePermit(permit, response, sex, 0);
 
                 adjustTickOffset(sex);
 
-                if (!shouldRetry(sex, request, response, retries, retryStrategy)) {
+                if (!shouldRetry(sex, request, response, retries, retryStrategy, context)) {
                     throw sex;
                 }
+                retryDelay = getRetryDelay(retries + 1, retryStrategy, sex, response);
             } catch (ClientException cex) {
                 logException("[Client]Unable to execute HTTP request: ", cex,
                         request.getOriginalRequest().isLogEnabled());
 
                 closeResponseSilently(response);
+                releasePermit(permit, response, cex, 0);
 
-                if (!shouldRetry(cex, request, response, retries, retryStrategy)) {
+                if (!shouldRetry(cex, request, response, retries, retryStrategy, context)) {
                     throw cex;
                 }
+                retryDelay = getRetryDelay(retries + 1, retryStrategy, cex, response);
             } catch (Exception ex) {
                 logException("[Unknown]Unable to execute HTTP request: ", ex,
                         request.getOriginalRequest().isLogEnabled());
 
                 closeResponseSilently(response);
+                releasePermit(permit, response, ex, 0);
 
                 throw new ClientException(
                         COMMON_RESOURCE_MANAGER.getFormattedString("ConnectionError", ex.getMessage()), ex);
@@ -196,6 +258,17 @@ public abstract class ServiceClient {
         }
     }
 
+    protected void signRequest(RequestMessage request, ExecutionContext context) throws ClientException {
+        // Sign the request if a signer provided.
+        if (context.getSigner() != null && !request.isUseUrlSignature()) {
+            context.getSigner().sign(request);
+        }
+
+        for (RequestSigner signer : context.getSignerHandlers()) {
+            signer.sign(request);
+        }
+    }
+
     /**
      * Implements the core logic to send requests to Aliyun OSS services.
      *
@@ -212,11 +285,12 @@ public abstract class ServiceClient {
      */
     protected abstract ResponseMessage sendRequestCore(Request request, ExecutionContext context) throws IOException;
 
-    private Request buildRequest(RequestMessage requestMessage, ExecutionContext context) throws ClientException {
+    protected Request buildRequest(RequestMessage requestMessage, ExecutionContext context) throws ClientException {
 
         Request request = new Request();
         request.setMethod(requestMessage.getMethod());
         request.setUseChunkEncoding(requestMessage.isUseChunkEncoding());
+        request.setBucket(requestMessage.getBucket());
 
         if (requestMessage.isUseUrlSignature()) {
             request.setUrl(requestMessage.getAbsoluteUrl().toString());
@@ -283,23 +357,21 @@ public abstract class ServiceClient {
         return request;
     }
 
-    private void handleResponse(ResponseMessage response, List<ResponseHandler> responseHandlers)
+    protected void handleResponse(ResponseMessage response, List<ResponseHandler> responseHandlers)
             throws ServiceException, ClientException {
         for (ResponseHandler h : responseHandlers) {
             h.handle(response);
         }
     }
 
-    private void handleRequest(RequestMessage message, List<RequestHandler> resquestHandlers)
+    protected void handleRequest(RequestMessage message, List<RequestHandler> resquestHandlers)
             throws ServiceException, ClientException {
         for (RequestHandler h : resquestHandlers) {
             h.handle(message);
         }
     }
 
-    private void pause(int retries, RetryStrategy retryStrategy) throws ClientException {
-
-        long delay = retryStrategy.getPauseDelay(retries);
+    private void pause(int retries, long delay) throws ClientException {
 
         getLog().debug(
                 "An retriable error request will be retried after " + delay + "(ms) with attempt times: " + retries);
@@ -311,7 +383,7 @@ public abstract class ServiceClient {
         }
     }
 
-    private boolean shouldRetry(Exception exception, RequestMessage request, ResponseMessage response, int retries,
+    protected boolean shouldRetry(Exception exception, RequestMessage request, ResponseMessage response, int retries,
             RetryStrategy retryStrategy) {
 
         if (retries >= config.getMaxErrorRetry()) {
@@ -329,7 +401,131 @@ public abstract class ServiceClient {
         return false;
     }
 
-    private void closeResponseSilently(ResponseMessage response) {
+    /**
+     * Decides whether to retry like {@link #shouldRetry(Exception, RequestMessage, ResponseMessage, int, RetryStrategy)},
+     * in the adaptive retry mode it also retries throttled requests and
+     * takes the retry from the retry budget.
+     */
+    protected boolean shouldRetry(Exception exception, RequestMessage request, ResponseMessage response, int retries,
+            RetryStrategy retryStrategy, ExecutionContext context) {
+        if (config.getRetryMode() != RetryMode.ADAPTIVE) {
+            return shouldRetry(exception, request, response, retries, retryStrategy);
+        }
+
+        boolean throttled = isThrottled(response);
+        if (throttled) {
+            if (retries >= config.getMaxErrorRetry() || !request.isRepeatable()) {
+                return false;
+            }
+        } else if (!shouldRetry(exception, request, response, retries, retryStrategy)) {
+            return false;
+        }
+
+        if (!retryBudget.tryAcquire(throttled)) {
+            getLog().debug("Not retrying on " + exception.getClass().getName() + ", the retry budget is exhausted");
+            if (context.getMetrics() != null) {
+                context.getMetrics().markRetryBudgetExhausted();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the delay before a retry. In the adaptive retry mode, it's a
+     * random delay up to the delay of the retry strategy, capped by the max
+     * retry delay, and for a throttled request at least half of it and the
+     * Retry-After delay.
+     */
+    protected long getRetryDelay(int retries, RetryStrategy retryStrategy, Exception exception,
+            ResponseMessage response) {
+        if (config.getRetryMode() != RetryMode.ADAPTIVE) {
+            return retryStrategy.getPauseDelay(retries);
+        }
+
+        long ceiling = Math.max(0, Math.min(config.getMaxRetryDelay(), retryStrategy.getPauseDelay(retries)));
+        if (!isThrottled(response)) {
+            return (long) (retryJitter.nextDouble() * (ceiling + 1));
+        }
+        long delay = ceiling / 2 + (long) (retryJitter.nextDouble() * (ceiling - ceiling / 2 + 1));
+        long retryAfter = getRetryAfter(response);
+        if (retryAfter > delay) {
+            delay = Math.min(retryAfter, config.getMaxRetryDelay());
+        }
+        return delay;
+    }
+
+    protected static String getConcurrencyLimitKey(RequestMessage request) {
+        String host = request.getEndpoint() != null ? request.getEndpoint().getHost() : null;
+        return request.getBucket() != null ? host + "/" + request.getBucket() : host;
+    }
+
+    /**
+     * Holds the permit of the request until its response content is read to
+     * the end or closed, or releases it now if the response has no content.
+     */
+    protected void holdPermit(ConcurrencyLimiter.Permit permit, ResponseMessage response, long duration) {
+        if (permit == null) {
+            return;
+        }
+        if (response.getContent() == null) {
+            releasePermit(permit, response, null, duration);
+            return;
+        }
+        PermitInputStream content = new PermitInputStream(response.getContent(), this, permit, response, duration);
+        response.setContent(content);
+        response.setPermitContent(content);
+    }
+
+    /**
+     * Releases the permit of the concurrency limiter after an attempt. The
+     * limit grows on a successful response within the slow requests threshold
+     * and is cut on a throttled response or a timeout.
+     */
+    protected void releasePermit(ConcurrencyLimiter.Permit permit, ResponseMessage response, Exception exception,
+            long duration) {
+        if (permit == null) {
+            return;
+        }
+        if (response != null) {
+            if (isThrottled(response)) {
+                permit.dropped();
+            } else if (response.getStatusCode() < 400 && duration <= config.getSlowRequestsThreshold()) {
+                permit.success();
+            } else {
+                permit.ignore();
+            }
+        } else if (exception instanceof ClientException
+                && (ClientErrorCode.SOCKET_TIMEOUT.equals(((ClientException) exception).getErrorCode())
+                        || ClientErrorCode.CONNECTION_TIMEOUT.equals(((ClientException) exception).getErrorCode()))) {
+            permit.dropped();
+        } else {
+            permit.ignore();
+        }
+    }
+
+    private static boolean isThrottled(ResponseMessage response) {
+        if (response == null) {
+            return false;
+        }
+        int statusCode = response.getStatusCode();
+        return statusCode == 429 || statusCode == 503 || getRetryAfter(response) > 0;
+    }
+
+    /* The delay of the Retry-After header in milliseconds, only the seconds form. */
+    private static long getRetryAfter(ResponseMessage response) {
+        String value = response.getHeaders().get(HttpHeaders.RETRY_AFTER);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    protected void closeResponseSilently(ResponseMessage response) {
         if (response != null) {
             try {
                 response.close();
@@ -339,14 +535,14 @@ public abstract class ServiceClient {
         }
     }
 
-    private String formatSlowRequestLog(RequestMessage request, ResponseMessage response, long useTimesMs) {
+    protected String formatSlowRequestLog(RequestMessage request, ResponseMessage response, long useTimesMs) {
         return String.format(
                 "Request cost %d seconds, endpoint %s, resourcePath %s, " + "method %s, Date '%s', statusCode %d, requestId %s.",
                 useTimesMs / 1000, request.getEndpoint(), request.getResourcePath(), request.getMethod(), request.getHeaders().get(HttpHeaders.DATE),
                 response.getStatusCode(), response.getRequestId());
     }
 
-    private void adjustTickOffset(ServiceException exception) {
+    protected void adjustTickOffset(ServiceException exception) {
         if (!this.config.isEnableAutoCorrectClockSkew()) {
             return;
         }
@@ -370,6 +566,33 @@ public abstract class ServiceClient {
         return "";
     };
 
+    /**
+     * Opens connections to the endpoint and the hosts of the buckets before
+     * they are needed.
+     *
+     * @param endpoint
+     *            The endpoint.
+     * @param bucketNames
+     *            The buckets, can be empty.
+     * @param connectionsPerHost
+     *            The connections to open to each host.
+     * @return The number of connections opened, 0 if the client has no
+     *         connection pool.
+     */
+    public int warmUpConnections(URI endpoint, List<String> bucketNames, int connectionsPerHost) {
+        return 0;
+    }
+
+    /**
+     * Gets the total statistics of the connection pool.
+     *
+     * @return The pool statistics, or null if the client has no connection
+     *         pool.
+     */
+    public PoolStats getConnectionPoolTotalStats() {
+        return null;
+    }
+
     /**
      * Wrapper class based on {@link HttpMessage} that represents HTTP request
      * message to OSS.
@@ -379,6 +602,7 @@ public abstract class ServiceClient {
         private HttpMethod method;
         private boolean useUrlSignature = false;
         private boolean useChunkEncoding = false;
+        private String bucket;
 
         public String getUri() {
             return this.uri;
@@ -411,5 +635,13 @@ public abstract class ServiceClient {
         public void setUseChunkEncoding(boolean useChunkEncoding) {
             this.useChunkEncoding = useChunkEncoding;
         }
+
+        public String getBucket() {
+            return bucket;
+        }
+
+        public void setBucket(String bucket) {
+            this.bucket = bucket;
+        }
     }
 }
@@ -63,6 +63,10 @@ public class TimeoutServiceClient extends DefaultServiceClient {
         HttpRequestBase httpRequest = httpRequestFactory.createHttpRequest(request, context);
         HttpClientContext httpContext = HttpClientContext.create();
         httpContext.setRequestConfig(this.requestConfig);
+        if (context.getMetrics() != null) {
+            httpContext.setAttribute(TimingHttpRequestExecutor.METRICS_ATTRIBUTE, context.getMetrics());
+        }
+        setBucket(httpContext, request);
 
         CloseableHttpResponse httpResponse = null;
         HttpRequestTask httpRequestTask = new HttpRequestTask(httpRequest, httpContext);
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import java.io.IOException;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import com.aliyun.oss.metrics.RequestMetrics;
+
+/**
+ * Request executor of the HTTP client that marks the phases of the request
+ * in the {@link RequestMetrics} found in the HTTP context. The executor runs
+ * once the connection is leased, and receives the response headers with the
+ * first bytes of the response.
+ */
+class TimingHttpRequestExecutor extends HttpRequestExecutor {
+
+    static final String METRICS_ATTRIBUTE = "oss.request.metrics";
+
+    private static RequestMetrics getMetrics(HttpContext context) {
+        Object metrics = context.getAttribute(METRICS_ATTRIBUTE);
+        return metrics instanceof RequestMetrics ? (RequestMetrics) metrics : null;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context)
+            throws IOException, HttpException {
+        RequestMetrics metrics = getMetrics(context);
+        if (metrics != null) {
+            metrics.markConnectionLeased();
+        }
+        return super.execute(request, conn, context);
+    }
+
+    @Override
+    protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+            throws IOException, HttpException {
+        HttpResponse response = super.doSendRequest(request, conn, context);
+        RequestMetrics metrics = getMetrics(context);
+        if (metrics != null) {
+            metrics.markRequestSent();
+        }
+        return response;
+    }
+
+    @Override
+    protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+            throws HttpException, IOException {
+        HttpResponse response = super.doReceiveResponse(request, conn, context);
+        RequestMetrics metrics = getMetrics(context);
+        if (metrics != null) {
+            metrics.markFirstByte();
+        }
+        return response;
+    }
+}
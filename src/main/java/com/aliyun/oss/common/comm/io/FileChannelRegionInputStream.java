@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A repeatable input stream over a region of a file, read through a
+ * {@link FileChannel} that may be shared with other streams. Reads are
+ * positional, so the channel's own position is never touched, and
+ * {@link #reset()} rewinds without reopening or seeking the file. Closing
+ * the stream does not close the channel.
+ */
+public class FileChannelRegionInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long offset;
+    private final long length;
+    private final boolean memoryMapped;
+
+    private ByteBuffer mappedRegion = null;
+    private long pos = 0;
+    private long markPos = 0;
+
+    /**
+     * Creates a stream over the given region of the channel.
+     *
+     * @param channel
+     *            The channel of the file to read.
+     * @param offset
+     *            The position in the file where the region starts.
+     * @param length
+     *            The length of the region.
+     * @param memoryMapped
+     *            True to read the region from a read-only memory mapping
+     *            rather than with positional reads. Regions larger than 2GB
+     *            always use positional reads.
+     */
+    public FileChannelRegionInputStream(FileChannel channel, long offset, long length, boolean memoryMapped) {
+        this.channel = channel;
+        this.offset = offset;
+        this.length = length;
+        this.memoryMapped = memoryMapped && length <= Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos >= length) {
+            return -1;
+        }
+
+        int n = (int) Math.min(len, length - pos);
+        if (memoryMapped) {
+            if (mappedRegion == null) {
+                mappedRegion = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            }
+            ByteBuffer view = mappedRegion.duplicate();
+            view.position((int) pos);
+            view.get(b, off, n);
+        } else {
+            n = channel.read(ByteBuffer.wrap(b, off, n), offset + pos);
+            if (n == -1) {
+                return -1;
+            }
+        }
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long skipped = Math.min(n, length - pos);
+        pos += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(length - pos, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        markPos = pos;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        pos = markPos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mappedRegion = null;
+    }
+
+}
@@ -19,6 +19,9 @@
 
 package com.aliyun.oss.common.utils;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.Checksum;
 
 /**
@@ -30,8 +33,12 @@ public class CRC64 implements Checksum {
 
     private final static long POLY = (long) 0xc96c5795d7870f42L; // ECMA-182
 
-    /* CRC64 calculation table. */
-    private final static long[][] table;
+    /*
+     * CRC64 calculation tables, Tk being the CRC of a byte followed by k zero
+     * bytes. They are separate arrays rather than rows of one, which saves
+     * the row loads and index arithmetic in the slice-by-16 loops.
+     */
+    private final static long[] T0, T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15;
 
     /* Current CRC value. */
     private long value;
@@ -42,7 +49,7 @@ public class CRC64 implements Checksum {
          * Nested tables as described by Mark Adler:
          * http://stackoverflow.com/a/20579405/58962
          */
-        table = new long[8][256];
+        long[][] table = new long[16][256];
 
         for (int n = 0; n < 256; n++)
         {
@@ -61,16 +68,33 @@ public class CRC64 implements Checksum {
             table[0][n] = crc;
         }
 
-        /* generate nested CRC table for future slice-by-8 lookup */
+        /* generate nested CRC table for future slice-by-16 lookup */
         for (int n = 0; n < 256; n++)
         {
             long crc = table[0][n];
-            for (int k = 1; k < 8; k++)
+            for (int k = 1; k < 16; k++)
             {
                 crc = table[0][(int) (crc & 0xff)] ^ (crc >>> 8);
                 table[k][n] = crc;
             }
         }
+
+        T0 = table[0];
+        T1 = table[1];
+        T2 = table[2];
+        T3 = table[3];
+        T4 = table[4];
+        T5 = table[5];
+        T6 = table[6];
+        T7 = table[7];
+        T8 = table[8];
+        T9 = table[9];
+        T10 = table[10];
+        T11 = table[11];
+        T12 = table[12];
+        T13 = table[13];
+        T14 = table[14];
+        T15 = table[15];
     }
 
     public CRC64() {
@@ -140,44 +164,107 @@ public class CRC64 implements Checksum {
      *          the byte.
      **/
     public void update(byte b) {
-        this.update(new byte[]{b}, 0, 1);
+        this.update((int) b);
     }
 
     @Override
     public void update(int b) {
-        this.update(new byte[]{(byte)b}, 0, 1);
+        long crc = ~this.value;
+        crc = T0[(int) ((crc ^ b) & 0xff)] ^ (crc >>> 8);
+        this.value = ~crc;
     }
 
     @Override
     public void update(byte[] b, int off, int len) {
-        this.value = ~this.value;
+        long crc = ~this.value;
 
-        /* fast middle processing, 8 bytes (aligned!) per loop */
+        /* fast middle processing, 16 bytes per loop */
 
         int idx = off;
-        while (len >= 8)
+        while (len >= 16)
         {
-            value = table[7][(int) (value & 0xff ^ (b[idx] & 0xff))]
-                    ^ table[6][(int) ((value >>> 8) & 0xff ^ (b[idx + 1] & 0xff))]
-                    ^ table[5][(int) ((value >>> 16) & 0xff ^ (b[idx + 2] & 0xff))]
-                    ^ table[4][(int) ((value >>> 24) & 0xff ^ (b[idx + 3] & 0xff))]
-                    ^ table[3][(int) ((value >>> 32) & 0xff ^ (b[idx + 4] & 0xff))]
-                    ^ table[2][(int) ((value >>> 40) & 0xff ^ (b[idx + 5] & 0xff))]
-                    ^ table[1][(int) ((value >>> 48) & 0xff ^ (b[idx + 6] & 0xff))]
-                    ^ table[0][(int) ((value >>> 56) ^ b[idx + 7] & 0xff)];
-            idx += 8;
-            len -= 8;
+            crc = T15[(int) crc & 0xff ^ b[idx] & 0xff]
+                    ^ T14[(int) (crc >>> 8) & 0xff ^ b[idx + 1] & 0xff]
+                    ^ T13[(int) (crc >>> 16) & 0xff ^ b[idx + 2] & 0xff]
+                    ^ T12[(int) (crc >>> 24) & 0xff ^ b[idx + 3] & 0xff]
+                    ^ T11[(int) (crc >>> 32) & 0xff ^ b[idx + 4] & 0xff]
+                    ^ T10[(int) (crc >>> 40) & 0xff ^ b[idx + 5] & 0xff]
+                    ^ T9[(int) (crc >>> 48) & 0xff ^ b[idx + 6] & 0xff]
+                    ^ T8[(int) (crc >>> 56) ^ b[idx + 7] & 0xff]
+                    ^ T7[b[idx + 8] & 0xff]
+                    ^ T6[b[idx + 9] & 0xff]
+                    ^ T5[b[idx + 10] & 0xff]
+                    ^ T4[b[idx + 11] & 0xff]
+                    ^ T3[b[idx + 12] & 0xff]
+                    ^ T2[b[idx + 13] & 0xff]
+                    ^ T1[b[idx + 14] & 0xff]
+                    ^ T0[b[idx + 15] & 0xff];
+            idx += 16;
+            len -= 16;
         }
 
-        /* process remaining bytes (can't be larger than 8) */
+        /* process remaining bytes (can't be larger than 16) */
         while (len > 0)
         {
-            value = table[0][(int) ((this.value ^ b[idx]) & 0xff)] ^ (this.value >>> 8);
+            crc = T0[(int) ((crc ^ b[idx]) & 0xff)] ^ (crc >>> 8);
             idx++;
             len--;
         }
 
-        this.value = ~this.value;
+        this.value = ~crc;
+    }
+
+    /**
+     * Update CRC64 with the remaining bytes of a buffer, from its position to
+     * its limit. The position is moved to the limit.
+     * @param buffer
+     *          the heap or direct buffer.
+     **/
+    public void update(ByteBuffer buffer) {
+        int pos = buffer.position();
+        int limit = buffer.limit();
+        if (pos >= limit) {
+            return;
+        }
+        if (buffer.hasArray()) {
+            update(buffer.array(), buffer.arrayOffset() + pos, limit - pos);
+            buffer.position(limit);
+            return;
+        }
+
+        /* direct buffers are read 8 bytes at a time, in the CRC's byte order */
+        ByteBuffer words = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        long crc = ~this.value;
+        int idx = pos;
+        while (limit - idx >= 16)
+        {
+            long w0 = words.getLong(idx) ^ crc;
+            long w1 = words.getLong(idx + 8);
+            crc = T15[(int) w0 & 0xff]
+                    ^ T14[(int) (w0 >>> 8) & 0xff]
+                    ^ T13[(int) (w0 >>> 16) & 0xff]
+                    ^ T12[(int) (w0 >>> 24) & 0xff]
+                    ^ T11[(int) (w0 >>> 32) & 0xff]
+                    ^ T10[(int) (w0 >>> 40) & 0xff]
+                    ^ T9[(int) (w0 >>> 48) & 0xff]
+                    ^ T8[(int) (w0 >>> 56)]
+                    ^ T7[(int) w1 & 0xff]
+                    ^ T6[(int) (w1 >>> 8) & 0xff]
+                    ^ T5[(int) (w1 >>> 16) & 0xff]
+                    ^ T4[(int) (w1 >>> 24) & 0xff]
+                    ^ T3[(int) (w1 >>> 32) & 0xff]
+                    ^ T2[(int) (w1 >>> 40) & 0xff]
+                    ^ T1[(int) (w1 >>> 48) & 0xff]
+                    ^ T0[(int) (w1 >>> 56)];
+            idx += 16;
+        }
+        while (idx < limit)
+        {
+            crc = T0[(int) ((crc ^ words.get(idx)) & 0xff)] ^ (crc >>> 8);
+            idx++;
+        }
+        this.value = ~crc;
+        buffer.position(limit);
     }
 
     @Override
@@ -190,6 +277,12 @@ public class CRC64 implements Checksum {
                                             * of CRC)
                                             */
 
+    /* Max number of block lengths whose zeros operator is cached. */
+    private static final int MAX_CACHED_OPERATORS = 64;
+
+    /* Zeros operators of the block lengths combined recently. */
+    private static final ConcurrentHashMap<Long, long[]> operators = new ConcurrentHashMap<Long, long[]>();
+
     private static long gf2MatrixTimes(long[] mat, long vec) {
         long sum = 0;
         int idx = 0;
@@ -207,6 +300,72 @@ public class CRC64 implements Checksum {
             square[n] = gf2MatrixTimes(mat, mat[n]);
     }
 
+    /*
+     * Operators applying 2^k zero bytes to a CRC, for k from 0 to 63, built
+     * once on the first combine.
+     */
+    private static class ZerosOperators {
+        static final long[][] POWERS = new long[GF2_DIM][];
+
+        static {
+            long[] odd = new long[GF2_DIM];
+            long[] even = new long[GF2_DIM];
+
+            // put operator for one zero bit in odd
+            odd[0] = POLY; // CRC-64 polynomial
+            long row = 1;
+            for (int n = 1; n < GF2_DIM; n++) {
+                odd[n] = row;
+                row <<= 1;
+            }
+
+            // two zero bits in even, four in odd, one zero byte in even
+            gf2MatrixSquare(even, odd);
+            gf2MatrixSquare(odd, even);
+            gf2MatrixSquare(even, odd);
+
+            POWERS[0] = even;
+            for (int k = 1; k < GF2_DIM; k++) {
+                POWERS[k] = new long[GF2_DIM];
+                gf2MatrixSquare(POWERS[k], POWERS[k - 1]);
+            }
+        }
+    }
+
+    /*
+     * Return the operator applying len zero bytes to a CRC. The operators of
+     * the lengths seen recently, typically the part sizes of a multipart
+     * transfer, are cached, so applying one is a single matrix times vector.
+     */
+    private static long[] zerosOperator(long len) {
+        Long key = Long.valueOf(len);
+        long[] operator = operators.get(key);
+        if (operator != null) {
+            return operator;
+        }
+
+        operator = null;
+        for (int k = 0; len != 0; k++, len >>>= 1) {
+            if ((len & 1) == 1) {
+                long[] power = ZerosOperators.POWERS[k];
+                if (operator == null) {
+                    operator = power.clone();
+                } else {
+                    long[] product = new long[GF2_DIM];
+                    for (int n = 0; n < GF2_DIM; n++)
+                        product[n] = gf2MatrixTimes(power, operator[n]);
+                    operator = product;
+                }
+            }
+        }
+
+        if (operators.size() >= MAX_CACHED_OPERATORS) {
+            operators.clear();
+        }
+        operators.put(key, operator);
+        return operator;
+    }
+
     /*
      * Return the CRC-64 of two sequential blocks, where summ1 is the CRC-64 of
      * the first block, summ2 is the CRC-64 of the second block, and len2 is the
@@ -220,57 +379,7 @@ public class CRC64 implements Checksum {
      * @return a {@link CRC64} of two sequential blocks.
      */
     static public CRC64 combine(CRC64 summ1, CRC64 summ2, long len2) {
-        // degenerate case.
-        if (len2 == 0)
-            return new CRC64(summ1.getValue());
-
-        int n;
-        long row;
-        long[] even = new long[GF2_DIM]; // even-power-of-two zeros operator
-        long[] odd = new long[GF2_DIM]; // odd-power-of-two zeros operator
-
-        // put operator for one zero bit in odd
-        odd[0] = POLY; // CRC-64 polynomial
-
-        row = 1;
-        for (n = 1; n < GF2_DIM; n++) {
-            odd[n] = row;
-            row <<= 1;
-        }
-
-        // put operator for two zero bits in even
-        gf2MatrixSquare(even, odd);
-
-        // put operator for four zero bits in odd
-        gf2MatrixSquare(odd, even);
-
-        // apply len2 zeros to crc1 (first square will put the operator for one
-        // zero byte, eight zero bits, in even)
-        long crc1 = summ1.getValue();
-        long crc2 = summ2.getValue();
-        do {
-            // apply zeros operator for this bit of len2
-            gf2MatrixSquare(even, odd);
-            if ((len2 & 1) == 1)
-                crc1 = gf2MatrixTimes(even, crc1);
-            len2 >>>= 1;
-
-            // if no more bits set, then done
-            if (len2 == 0)
-                break;
-
-            // another iteration of the loop with odd and even swapped
-            gf2MatrixSquare(odd, even);
-            if ((len2 & 1) == 1)
-                crc1 = gf2MatrixTimes(odd, crc1);
-            len2 >>>= 1;
-
-            // if no more bits set, then done
-        } while (len2 != 0);
-
-        // return combined crc.
-        crc1 ^= crc2;
-        return new CRC64(crc1);
+        return new CRC64(combine(summ1.getValue(), summ2.getValue(), len2));
     }
 
     /*
@@ -290,51 +399,8 @@ public class CRC64 implements Checksum {
         if (len2 == 0)
             return crc1;
 
-        int n;
-        long row;
-        long[] even = new long[GF2_DIM]; // even-power-of-two zeros operator
-        long[] odd = new long[GF2_DIM]; // odd-power-of-two zeros operator
-
-        // put operator for one zero bit in odd
-        odd[0] = POLY; // CRC-64 polynomial
-
-        row = 1;
-        for (n = 1; n < GF2_DIM; n++) {
-            odd[n] = row;
-            row <<= 1;
-        }
-
-        // put operator for two zero bits in even
-        gf2MatrixSquare(even, odd);
-
-        // put operator for four zero bits in odd
-        gf2MatrixSquare(odd, even);
-
-        // apply len2 zeros to crc1 (first square will put the operator for one
-        // zero byte, eight zero bits, in even)
-        do {
-            // apply zeros operator for this bit of len2
-            gf2MatrixSquare(even, odd);
-            if ((len2 & 1) == 1)
-                crc1 = gf2MatrixTimes(even, crc1);
-            len2 >>>= 1;
-
-            // if no more bits set, then done
-            if (len2 == 0)
-                break;
-
-            // another iteration of the loop with odd and even swapped
-            gf2MatrixSquare(odd, even);
-            if ((len2 & 1) == 1)
-                crc1 = gf2MatrixTimes(odd, crc1);
-            len2 >>>= 1;
-
-            // if no more bits set, then done
-        } while (len2 != 0);
-
-        // return combined crc.
-        crc1 ^= crc2;
-        return crc1;
+        // apply len2 zeros to crc1, and return combined crc.
+        return gf2MatrixTimes(zerosOperator(len2), crc1) ^ crc2;
     }
 
-}
\ No newline at end of file
+}
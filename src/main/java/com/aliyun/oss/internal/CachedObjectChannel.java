@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import static com.aliyun.oss.common.utils.CodingUtils.assertParameterNotNull;
+import static com.aliyun.oss.common.utils.CodingUtils.assertTrue;
+import static com.aliyun.oss.common.utils.IOUtils.safeClose;
+import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameValid;
+import static com.aliyun.oss.internal.OSSUtils.ensureObjectKeyValid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.common.utils.IOUtils;
+import com.aliyun.oss.model.GenericRequest;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.OSSObjectChannel;
+import com.aliyun.oss.model.ObjectChannelRequest;
+import com.aliyun.oss.model.ObjectMetadata;
+
+/**
+ * The {@link OSSObjectChannel} implementation.
+ * <p>
+ * A read looks up the blocks it covers in an access ordered map. The blocks
+ * missing next to each other are fetched with one ranged request, which is
+ * extended by the prefetch blocks when the read starts where the previous
+ * one ended. The least recently used blocks are evicted once the cached
+ * bytes exceed the capacity; the blocks of the current read are held until
+ * it's copied, so a read larger than the cache still works.
+ * </p>
+ */
+public class CachedObjectChannel extends OSSObjectChannel {
+
+    private final OSSObjectOperation objectOperation;
+    private final ObjectChannelRequest request;
+    private final ObjectMetadata objectMetadata;
+    private final String eTag;
+    private final String versionId;
+    private final long objectLength;
+    private final int blockSize;
+    private final long cacheCapacity;
+    private final int prefetchBlocks;
+
+    private final LinkedHashMap<Long, byte[]> blocks = new LinkedHashMap<Long, byte[]>(16, 0.75f, true);
+    private long cachedBytes;
+    private long position;
+    private long lastReadEnd = -1;
+    private boolean open = true;
+
+    private long cacheHits;
+    private long cacheMisses;
+    private long requestCount;
+
+    public CachedObjectChannel(OSSObjectOperation objectOperation, ObjectChannelRequest request) {
+        assertParameterNotNull(request, "objectChannelRequest");
+        assertParameterNotNull(request.getBucketName(), "bucketName");
+        ensureBucketNameValid(request.getBucketName());
+        assertParameterNotNull(request.getKey(), "key");
+        ensureObjectKeyValid(request.getKey());
+        assertTrue(request.getBlockSize() >= ObjectChannelRequest.MIN_BLOCK_SIZE,
+                "The block size should be at least " + ObjectChannelRequest.MIN_BLOCK_SIZE + ".");
+        assertTrue(request.getCacheCapacity() >= request.getBlockSize(),
+                "The cache capacity should be at least one block.");
+        assertTrue(request.getPrefetchBlocks() >= 0, "The prefetch blocks should not be negative.");
+
+        this.objectOperation = objectOperation;
+        this.request = request;
+        this.blockSize = request.getBlockSize();
+        this.cacheCapacity = request.getCacheCapacity();
+        this.prefetchBlocks = request.getPrefetchBlocks();
+
+        GenericRequest metadataRequest = new GenericRequest(request.getBucketName(), request.getKey(),
+                request.getVersionId());
+        OSSBucketOperation.copyRequestSettings(request, metadataRequest);
+        this.objectMetadata = objectOperation.getObjectMetadata(metadataRequest);
+        this.eTag = objectMetadata.getETag();
+        this.versionId = request.getVersionId() != null ? request.getVersionId() : objectMetadata.getVersionId();
+        this.objectLength = objectMetadata.getContentLength();
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        int n = read(dst, position);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst, long position) throws IOException {
+        ensureOpen();
+        assertTrue(position >= 0, "The position should not be negative.");
+        if (position >= objectLength) {
+            return -1;
+        }
+        int length = (int) Math.min(dst.remaining(), objectLength - position);
+        if (length == 0) {
+            return 0;
+        }
+
+        long firstBlock = position / blockSize;
+        long lastBlock = (position + length - 1) / blockSize;
+        byte[][] readBlocks = new byte[(int) (lastBlock - firstBlock + 1)][];
+        boolean sequential = position == lastReadEnd;
+
+        long missingStart = -1;
+        for (long index = firstBlock; index <= lastBlock; index++) {
+            byte[] block = blocks.get(index);
+            if (block != null) {
+                cacheHits++;
+                readBlocks[(int) (index - firstBlock)] = block;
+                if (missingStart >= 0) {
+                    fetch(missingStart, index - 1, index - 1, firstBlock, readBlocks);
+                    missingStart = -1;
+                }
+            } else {
+                cacheMisses++;
+                if (missingStart < 0) {
+                    missingStart = index;
+                }
+            }
+        }
+        if (missingStart >= 0) {
+            long blockCount = (objectLength + blockSize - 1) / blockSize;
+            long fetchEnd = sequential ? Math.min(blockCount - 1, lastBlock + prefetchBlocks) : lastBlock;
+            fetch(missingStart, lastBlock, fetchEnd, firstBlock, readBlocks);
+        }
+
+        int copied = 0;
+        long offset = position;
+        for (byte[] block : readBlocks) {
+            int blockOffset = (int) (offset % blockSize);
+            int n = Math.min(length - copied, block.length - blockOffset);
+            dst.put(block, blockOffset, n);
+            copied += n;
+            offset += n;
+        }
+        lastReadEnd = position + length;
+        return length;
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized OSSObjectChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        assertTrue(newPosition >= 0, "The position should not be negative.");
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return objectLength;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() {
+        open = false;
+        blocks.clear();
+        cachedBytes = 0;
+    }
+
+    @Override
+    public ObjectMetadata getObjectMetadata() {
+        return objectMetadata;
+    }
+
+    @Override
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    @Override
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    @Override
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * Fetches the blocks from first to last with one request and caches them.
+     * The blocks up to lastRead are also put in the blocks of the read.
+     */
+    private void fetch(long first, long lastRead, long last, long firstBlock, byte[][] readBlocks) {
+        long start = first * blockSize;
+        long end = Math.min(objectLength, (last + 1) * blockSize) - 1;
+
+        GetObjectRequest getObjectRequest = new GetObjectRequest(request.getBucketName(), request.getKey());
+        OSSBucketOperation.copyRequestSettings(request, getObjectRequest);
+        getObjectRequest.setRange(start, end);
+        if (eTag != null) {
+            getObjectRequest.setMatchingETagConstraints(Collections.singletonList(eTag));
+        }
+        if (versionId != null) {
+            getObjectRequest.setVersionId(versionId);
+        }
+
+        requestCount++;
+        OSSObject ossObject = objectOperation.getObject(getObjectRequest);
+        InputStream content = ossObject.getObjectContent();
+        try {
+            if (ossObject.getObjectMetadata().getContentLength() != end - start + 1) {
+                throw new ClientException("The range " + start + "-" + end + " of the object has "
+                        + ossObject.getObjectMetadata().getContentLength() + " bytes.");
+            }
+            for (long index = first; index <= last; index++) {
+                byte[] block = new byte[(int) (Math.min(objectLength, (index + 1) * blockSize) - index * blockSize)];
+                if (IOUtils.readNBytes(content, block, 0, block.length) != block.length) {
+                    throw new ClientException("The range " + start + "-" + end + " of the object ended early.");
+                }
+                if (index <= lastRead) {
+                    readBlocks[(int) (index - firstBlock)] = block;
+                }
+                cache(index, block);
+            }
+        } catch (IOException e) {
+            throw new ClientException("Cannot read the range " + start + "-" + end + " of the object.", e);
+        } finally {
+            safeClose(content);
+        }
+    }
+
+    private void cache(long index, byte[] block) {
+        byte[] previous = blocks.put(index, block);
+        if (previous != null) {
+            cachedBytes -= previous.length;
+        }
+        cachedBytes += block.length;
+        Iterator<byte[]> eldest = blocks.values().iterator();
+        while (cachedBytes > cacheCapacity && eldest.hasNext()) {
+            cachedBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+}
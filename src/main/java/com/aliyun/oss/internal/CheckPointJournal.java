@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The checkpoint file of the resumable upload and download.
+ * <p>
+ * The file starts with a snapshot of the whole checkpoint, followed by one
+ * small record per completed part:
+ * </p>
+ * <pre>
+ * "OSSCPJ01" | int snapshot length | serialized checkpoint
+ * int record length | record | int CRC32 of the record
+ * ...
+ * </pre>
+ * <p>
+ * A part completion costs a single append of a few dozen bytes, instead of
+ * a rewrite of the whole checkpoint. The records are replayed on the
+ * snapshot when the checkpoint is loaded, and folded into a new snapshot
+ * when it is written again. A record that was torn by a crash fails its
+ * CRC and ends the replay, so that part is transferred again. A file
+ * without the magic is a checkpoint written by an older version, which is
+ * the serialized checkpoint alone.
+ * </p>
+ */
+final class CheckPointJournal {
+
+    private static final byte[] MAGIC = { 'O', 'S', 'S', 'C', 'P', 'J', '0', '1' };
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final String checkpointFile;
+    private FileOutputStream out;
+
+    /**
+     * The snapshot and the records read from a checkpoint file.
+     */
+    static final class Content {
+        final Object snapshot;
+        final List<byte[]> records;
+
+        Content(Object snapshot, List<byte[]> records) {
+            this.snapshot = snapshot;
+            this.records = records;
+        }
+    }
+
+    CheckPointJournal(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Appends a record, opening the file on the first append. The record
+     * goes to the file in a single write.
+     */
+    synchronized void append(byte[] record) throws IOException {
+        if (out == null) {
+            out = new FileOutputStream(checkpointFile, true);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(record.length + 8);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(record.length);
+        data.write(record);
+        data.writeInt(crc32(record));
+        out.write(bytes.toByteArray());
+    }
+
+    synchronized void close() throws IOException {
+        if (out != null) {
+            try {
+                out.close();
+            } finally {
+                out = null;
+            }
+        }
+    }
+
+    /**
+     * Replaces the checkpoint file with a snapshot and no records.
+     */
+    static void writeSnapshot(String checkpointFile, Object snapshot) throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        ObjectOutputStream objectOut = new ObjectOutputStream(serialized);
+        objectOut.writeObject(snapshot);
+        objectOut.close();
+
+        FileOutputStream fileOut = new FileOutputStream(checkpointFile);
+        try {
+            DataOutputStream data = new DataOutputStream(fileOut);
+            data.write(MAGIC);
+            data.writeInt(serialized.size());
+            serialized.writeTo(data);
+            data.flush();
+        } finally {
+            fileOut.close();
+        }
+    }
+
+    static Content read(String checkpointFile) throws IOException, ClassNotFoundException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(checkpointFile)));
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            int read = 0;
+            while (read < magic.length) {
+                int n = in.read(magic, read, magic.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            if (read < magic.length || !Arrays.equals(magic, MAGIC)) {
+                return new Content(readLegacy(checkpointFile), new ArrayList<byte[]>());
+            }
+
+            byte[] serialized = new byte[in.readInt()];
+            in.readFully(serialized);
+            CheckPointObjectInputStream objectIn = new CheckPointObjectInputStream(
+                    new ByteArrayInputStream(serialized));
+            Object snapshot = objectIn.readObject();
+            objectIn.close();
+
+            return new Content(snapshot, readRecords(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    private static Object readLegacy(String checkpointFile) throws IOException, ClassNotFoundException {
+        FileInputStream fileIn = new FileInputStream(checkpointFile);
+        try {
+            CheckPointObjectInputStream in = new CheckPointObjectInputStream(fileIn);
+            Object snapshot = in.readObject();
+            in.close();
+            return snapshot;
+        } finally {
+            fileIn.close();
+        }
+    }
+
+    private static List<byte[]> readRecords(DataInputStream in) throws IOException {
+        List<byte[]> records = new ArrayList<byte[]>();
+        try {
+            while (true) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_RECORD_LENGTH) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                in.readFully(record);
+                if (in.readInt() != crc32(record)) {
+                    break;
+                }
+                records.add(record);
+            }
+        } catch (EOFException e) {
+            // The end of the file, or a record torn by a crash.
+        }
+        return records;
+    }
+
+    private static int crc32(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.aliyun.oss.common.comm.ResponseMessage;
+import com.aliyun.oss.metrics.MetricsListener;
+import com.aliyun.oss.metrics.RequestMetrics;
+
+/**
+ * Content of a response kept open for the caller, such as the content of
+ * an object. It counts the bytes read and completes the metrics of the
+ * operation at the end of the content or when it's closed.
+ */
+class MetricsInputStream extends FilterInputStream {
+
+    private final MetricsListener listener;
+    private final RequestMetrics metrics;
+    private final ResponseMessage response;
+    private long bytesRead;
+
+    MetricsInputStream(ResponseMessage response, MetricsListener listener, RequestMetrics metrics) {
+        super(response.getContent());
+        this.listener = listener;
+        this.metrics = metrics;
+        this.response = response;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == -1) {
+            complete();
+        } else {
+            bytesRead++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n == -1) {
+            complete();
+        } else {
+            bytesRead += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        bytesRead += skipped;
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            complete();
+        }
+    }
+
+    private void complete() {
+        metrics.setBytesReceived(bytesRead);
+        OSSOperation.completeMetrics(listener, metrics, response, null);
+    }
+}
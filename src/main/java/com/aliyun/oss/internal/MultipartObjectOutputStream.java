@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import static com.aliyun.oss.common.utils.CodingUtils.assertParameterNotNull;
+import static com.aliyun.oss.common.utils.CodingUtils.assertTrue;
+import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameValid;
+import static com.aliyun.oss.internal.OSSUtils.ensureObjectKeyValid;
+import static com.aliyun.oss.common.utils.LogUtils.logException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadResult;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.OSSObjectOutputStream;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.ObjectOutputStreamRequest;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.PutObjectResult;
+import com.aliyun.oss.model.UploadPartRequest;
+
+/**
+ * The {@link OSSObjectOutputStream} implementation.
+ * <p>
+ * The writer fills a part buffer; a full buffer is handed to an upload task
+ * and the writer continues with a free buffer. There are at most
+ * maxPartsInFlight + 1 buffers, so when none is free the writer waits for
+ * the oldest part in flight, which also brings up its failure early. The
+ * multipart upload is only initiated with the first full part, so a small
+ * object is put with a single request on close.
+ * </p>
+ */
+public class MultipartObjectOutputStream extends OSSObjectOutputStream {
+
+    private static final int MAX_PART_NUMBER = 10000;
+
+    private final OSSObjectOperation objectOperation;
+    private final OSSMultipartOperation multipartOperation;
+    private final TransferScheduler transferScheduler;
+    private final ObjectOutputStreamRequest request;
+    private final int partSize;
+    private final int maxBuffers;
+
+    private final ConcurrentLinkedQueue<byte[]> freeBuffers = new ConcurrentLinkedQueue<byte[]>();
+    private int allocatedBuffers;
+    private byte[] buffer;
+    private int position;
+    private long bytesWritten;
+
+    private ExecutorService executor;
+    private String uploadId;
+    private int nextPartNumber = 1;
+    private final LinkedList<Future<PartETag>> partsInFlight = new LinkedList<Future<PartETag>>();
+    private final List<PartETag> partETags = new ArrayList<PartETag>();
+
+    private boolean closed;
+    private boolean aborted;
+    private String eTag;
+    private Long clientCRC;
+
+    public MultipartObjectOutputStream(OSSObjectOperation objectOperation, OSSMultipartOperation multipartOperation,
+            TransferScheduler transferScheduler, ObjectOutputStreamRequest request) {
+
+        assertParameterNotNull(request, "objectOutputStreamRequest");
+        assertParameterNotNull(request.getBucketName(), "bucketName");
+        ensureBucketNameValid(request.getBucketName());
+        assertParameterNotNull(request.getKey(), "key");
+        ensureObjectKeyValid(request.getKey());
+        assertTrue(request.getPartSize() >= ObjectOutputStreamRequest.MIN_PART_SIZE,
+                "The part size should be at least " + ObjectOutputStreamRequest.MIN_PART_SIZE + ".");
+        assertTrue(request.getMaxPartsInFlight() > 0, "The max parts in flight should be greater than 0.");
+
+        this.objectOperation = objectOperation;
+        this.multipartOperation = multipartOperation;
+        this.transferScheduler = transferScheduler;
+        this.request = request;
+        this.partSize = request.getPartSize();
+        this.maxBuffers = request.getMaxPartsInFlight() + 1;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (buffer == null) {
+            buffer = acquireBuffer();
+        }
+        buffer[position++] = (byte) b;
+        bytesWritten++;
+        if (position == partSize) {
+            submitPart();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureOpen();
+        while (len > 0) {
+            if (buffer == null) {
+                buffer = acquireBuffer();
+            }
+            int n = Math.min(len, partSize - position);
+            System.arraycopy(b, off, buffer, position, n);
+            position += n;
+            bytesWritten += n;
+            off += n;
+            len -= n;
+            if (position == partSize) {
+                submitPart();
+            }
+        }
+    }
+
+    /**
+     * Does nothing: the bytes of a part are only uploaded once the part is
+     * full or the stream is closed.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (uploadId == null) {
+                putObject();
+            } else {
+                if (position > 0) {
+                    submitPart();
+                }
+                while (!partsInFlight.isEmpty()) {
+                    awaitPart(partsInFlight.removeFirst());
+                }
+                completeMultipartUpload();
+            }
+        } catch (IOException e) {
+            fail();
+            throw e;
+        } catch (RuntimeException e) {
+            fail();
+            throw e;
+        }
+        release();
+    }
+
+    @Override
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Future<PartETag> part : partsInFlight) {
+            part.cancel(false);
+        }
+        abortMultipartUpload();
+        release();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    @Override
+    public int getPartCount() {
+        return nextPartNumber - 1;
+    }
+
+    @Override
+    public String getETag() {
+        return eTag;
+    }
+
+    @Override
+    public Long getClientCRC() {
+        return clientCRC;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The stream is closed.");
+        }
+    }
+
+    /**
+     * Takes a free buffer, allocates a new one, or waits for the oldest part
+     * in flight to give its buffer back.
+     */
+    private byte[] acquireBuffer() throws IOException {
+        while (!partsInFlight.isEmpty() && partsInFlight.getFirst().isDone()) {
+            awaitPartOrFail(partsInFlight.removeFirst());
+        }
+        while (true) {
+            byte[] free = freeBuffers.poll();
+            if (free != null) {
+                return free;
+            }
+            if (allocatedBuffers < maxBuffers) {
+                allocatedBuffers++;
+                return new byte[partSize];
+            }
+            awaitPartOrFail(partsInFlight.removeFirst());
+        }
+    }
+
+    private void submitPart() throws IOException {
+        try {
+            if (uploadId == null) {
+                initiateMultipartUpload();
+            }
+            if (nextPartNumber > MAX_PART_NUMBER) {
+                throw new ClientException("The object has more than " + MAX_PART_NUMBER
+                        + " parts, a larger part size is needed.");
+            }
+
+            final int partNumber = nextPartNumber++;
+            final byte[] data = buffer;
+            final int length = position;
+            buffer = null;
+            position = 0;
+
+            partsInFlight.add(executor.submit(new Callable<PartETag>() {
+                @Override
+                public PartETag call() throws Exception {
+                    try {
+                        UploadPartRequest uploadPartRequest = new UploadPartRequest(request.getBucketName(),
+                                request.getKey(), uploadId, partNumber, new ByteArrayInputStream(data, 0, length),
+                                length);
+                        OSSBucketOperation.copyRequestSettings(request, uploadPartRequest);
+                        return multipartOperation.uploadPart(uploadPartRequest).getPartETag();
+                    } finally {
+                        freeBuffers.add(data);
+                    }
+                }
+            }));
+        } catch (RuntimeException e) {
+            fail();
+            throw e;
+        }
+    }
+
+    private void awaitPartOrFail(Future<PartETag> part) throws IOException {
+        try {
+            awaitPart(part);
+        } catch (IOException e) {
+            fail();
+            throw e;
+        } catch (RuntimeException e) {
+            fail();
+            throw e;
+        }
+    }
+
+    private void awaitPart(Future<PartETag> part) throws IOException {
+        try {
+            partETags.add(part.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a part upload.");
+        } catch (CancellationException e) {
+            throw new ClientException("The part upload is cancelled.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OSSException) {
+                throw (OSSException) cause;
+            } else if (cause instanceof ClientException) {
+                throw (ClientException) cause;
+            }
+            throw new ClientException(cause);
+        }
+    }
+
+    /**
+     * Closes the stream after a failure, aborting the upload.
+     */
+    private void fail() {
+        closed = true;
+        for (Future<PartETag> part : partsInFlight) {
+            part.cancel(false);
+        }
+        abortMultipartUpload();
+        release();
+    }
+
+    private void initiateMultipartUpload() {
+        InitiateMultipartUploadRequest initiateRequest = new InitiateMultipartUploadRequest(request.getBucketName(),
+                request.getKey(), copyMetadata(request.getObjectMetadata()));
+        OSSBucketOperation.copyRequestSettings(request, initiateRequest);
+        uploadId = multipartOperation.initiateMultipartUpload(initiateRequest).getUploadId();
+
+        int maxPartsInFlight = request.getMaxPartsInFlight();
+        executor = transferScheduler != null ? transferScheduler.newTransfer(0, maxPartsInFlight)
+                : Executors.newFixedThreadPool(maxPartsInFlight);
+    }
+
+    private void completeMultipartUpload() {
+        Collections.sort(partETags, new Comparator<PartETag>() {
+            @Override
+            public int compare(PartETag p1, PartETag p2) {
+                return p1.getPartNumber() - p2.getPartNumber();
+            }
+        });
+        CompleteMultipartUploadRequest completeRequest = new CompleteMultipartUploadRequest(request.getBucketName(),
+                request.getKey(), uploadId, partETags);
+        OSSBucketOperation.copyRequestSettings(request, completeRequest);
+        CompleteMultipartUploadResult result = multipartOperation.completeMultipartUpload(completeRequest);
+        eTag = result.getETag();
+        clientCRC = result.getClientCRC();
+    }
+
+    private void putObject() {
+        ObjectMetadata metadata = copyMetadata(request.getObjectMetadata());
+        metadata.setContentLength(position);
+        byte[] data = buffer != null ? buffer : new byte[0];
+        PutObjectRequest putObjectRequest = new PutObjectRequest(request.getBucketName(), request.getKey(),
+                new ByteArrayInputStream(data, 0, position), metadata);
+        OSSBucketOperation.copyRequestSettings(request, putObjectRequest);
+        PutObjectResult result = objectOperation.putObject(putObjectRequest);
+        eTag = result.getETag();
+        clientCRC = result.getClientCRC();
+    }
+
+    private void abortMultipartUpload() {
+        if (uploadId == null || eTag != null || aborted) {
+            return;
+        }
+        aborted = true;
+        try {
+            AbortMultipartUploadRequest abortRequest = new AbortMultipartUploadRequest(request.getBucketName(),
+                    request.getKey(), uploadId);
+            OSSBucketOperation.copyRequestSettings(request, abortRequest);
+            multipartOperation.abortMultipartUpload(abortRequest);
+        } catch (Exception e) {
+            logException("Failed to abort the multipart upload " + uploadId + ": ", e);
+        }
+    }
+
+    private void release() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        buffer = null;
+        freeBuffers.clear();
+    }
+
+    /**
+     * Copies the metadata so that setting the content length doesn't change
+     * the caller's instance.
+     */
+    private static ObjectMetadata copyMetadata(ObjectMetadata metadata) {
+        ObjectMetadata copy = new ObjectMetadata();
+        if (metadata != null) {
+            for (Map.Entry<String, Object> header : metadata.getRawMetadata().entrySet()) {
+                copy.setHeader(header.getKey(), header.getValue());
+            }
+            copy.setUserMetadata(metadata.getUserMetadata());
+        }
+        return copy;
+    }
+}
@@ -21,6 +21,7 @@ package com.aliyun.oss.internal;
 
 import static com.aliyun.oss.common.parser.RequestMarshallers.*;
 import static com.aliyun.oss.common.utils.CodingUtils.assertParameterNotNull;
+import static com.aliyun.oss.common.utils.CodingUtils.assertTrue;
 import static com.aliyun.oss.internal.OSSUtils.OSS_RESOURCE_MANAGER;
 import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameValid;
 import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameCreationValid;
@@ -32,10 +33,13 @@ import static com.aliyun.oss.internal.ResponseParsers.listAccessPointsResponsePa
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
+import com.aliyun.oss.AsyncHandler;
 import com.aliyun.oss.ClientException;
 import com.aliyun.oss.HttpMethod;
 import com.aliyun.oss.OSSErrorCode;
@@ -347,6 +351,23 @@ public class OSSBucketOperation extends OSSOperation {
      */
     public ListObjectsV2Result listObjectsV2(ListObjectsV2Request listObjectsV2Request) throws OSSException, ClientException {
 
+        RequestMessage request = createListObjectsV2Request(listObjectsV2Request);
+        return doOperation(request, listObjectsV2ResponseParser, request.getBucket(), null, true);
+    }
+
+    /**
+     * List objects under the specified bucket asynchronously.
+     */
+    public Future<ListObjectsV2Result> listObjectsV2Async(ListObjectsV2Request listObjectsV2Request,
+            AsyncHandler<ListObjectsV2Result> handler) throws ClientException {
+
+        RequestMessage request = createListObjectsV2Request(listObjectsV2Request);
+        return doOperationAsync(request, listObjectsV2ResponseParser, request.getBucket(), null, true, null, null,
+                handler);
+    }
+
+    private RequestMessage createListObjectsV2Request(ListObjectsV2Request listObjectsV2Request) {
+
         assertParameterNotNull(listObjectsV2Request, "listObjectsRequest");
 
         String bucketName = listObjectsV2Request.getBucketName();
@@ -363,7 +384,7 @@ public class OSSBucketOperation extends OSSOperation {
                 .setMethod(HttpMethod.GET).setBucket(bucketName).setHeaders(headers).setParameters(params)
                 .setOriginalRequest(listObjectsV2Request).build();
 
-        return doOperation(request, listObjectsV2ResponseParser, bucketName, null, true);
+        return request;
     }
 
     /**
@@ -390,6 +411,139 @@ public class OSSBucketOperation extends OSSOperation {
         return doOperation(request, listVersionsReponseParser, bucketName, null, true);
     }
 
+    /**
+     * Lists all objects under the specified bucket that match the request,
+     * fetching the next page in the background while the current one is
+     * consumed.
+     */
+    public Iterable<OSSObjectSummary> listObjectsV2Iterable(final ListObjectsV2Request listObjectsV2Request,
+            final int maxBufferedPages) {
+
+        assertParameterNotNull(listObjectsV2Request, "listObjectsV2Request");
+        assertParameterNotNull(listObjectsV2Request.getBucketName(), "bucketName");
+        ensureBucketNameValid(listObjectsV2Request.getBucketName());
+        assertTrue(maxBufferedPages > 0, "The max buffered pages should be greater than 0.");
+
+        return new Iterable<OSSObjectSummary>() {
+            @Override
+            public Iterator<OSSObjectSummary> iterator() {
+                return new ObjectSummaryIterator(listObjectsV2Request, maxBufferedPages);
+            }
+        };
+    }
+
+    /**
+     * Lists all versions under the specified bucket that match the request,
+     * fetching the next page in the background while the current one is
+     * consumed.
+     */
+    public Iterable<OSSVersionSummary> listVersionsIterable(final ListVersionsRequest listVersionsRequest,
+            final int maxBufferedPages) {
+
+        assertParameterNotNull(listVersionsRequest, "listVersionsRequest");
+        assertParameterNotNull(listVersionsRequest.getBucketName(), "bucketName");
+        ensureBucketNameValid(listVersionsRequest.getBucketName());
+        assertTrue(maxBufferedPages > 0, "The max buffered pages should be greater than 0.");
+
+        return new Iterable<OSSVersionSummary>() {
+            @Override
+            public Iterator<OSSVersionSummary> iterator() {
+                return new VersionSummaryIterator(listVersionsRequest, maxBufferedPages);
+            }
+        };
+    }
+
+    /**
+     * Lists all objects under the specified bucket and prefix with several
+     * ListObjectsV2 requests running concurrently.
+     */
+    public ParallelObjectListing listObjectsParallel(ParallelListObjectsRequest parallelListObjectsRequest) {
+
+        assertParameterNotNull(parallelListObjectsRequest, "parallelListObjectsRequest");
+        assertParameterNotNull(parallelListObjectsRequest.getBucketName(), "bucketName");
+        ensureBucketNameValid(parallelListObjectsRequest.getBucketName());
+        assertTrue(parallelListObjectsRequest.getMaxConcurrentRequests() > 0,
+                "The max concurrent requests should be greater than 0.");
+        assertTrue(parallelListObjectsRequest.getMaxBufferedObjects() > 0,
+                "The max buffered objects should be greater than 0.");
+
+        return new ParallelListObjectsEngine(this, parallelListObjectsRequest);
+    }
+
+    private class ObjectSummaryIterator extends PrefetchingListIterator<OSSObjectSummary> {
+
+        private final ListObjectsV2Request original;
+        private String continuationToken;
+        private boolean truncated = true;
+
+        ObjectSummaryIterator(ListObjectsV2Request original, int maxBufferedPages) {
+            super(maxBufferedPages);
+            this.original = original;
+            this.continuationToken = original.getContinuationToken();
+        }
+
+        @Override
+        protected List<OSSObjectSummary> fetchNextPage() {
+            ListObjectsV2Request request = new ListObjectsV2Request(original.getBucketName(), original.getPrefix(),
+                    continuationToken, original.getStartAfter(), original.getDelimiter(), original.getMaxKeys(),
+                    original.getEncodingType(), original.isFetchOwner());
+            copyRequestSettings(original, request);
+
+            ListObjectsV2Result result = listObjectsV2(request);
+            truncated = result.isTruncated() && result.getNextContinuationToken() != null;
+            continuationToken = result.getNextContinuationToken();
+            return result.getObjectSummaries();
+        }
+
+        @Override
+        protected boolean hasMorePages() {
+            return truncated;
+        }
+    }
+
+    private class VersionSummaryIterator extends PrefetchingListIterator<OSSVersionSummary> {
+
+        private final ListVersionsRequest original;
+        private String keyMarker;
+        private String versionIdMarker;
+        private boolean truncated = true;
+
+        VersionSummaryIterator(ListVersionsRequest original, int maxBufferedPages) {
+            super(maxBufferedPages);
+            this.original = original;
+            this.keyMarker = original.getKeyMarker();
+            this.versionIdMarker = original.getVersionIdMarker();
+        }
+
+        @Override
+        protected List<OSSVersionSummary> fetchNextPage() {
+            ListVersionsRequest request = new ListVersionsRequest(original.getBucketName(), original.getPrefix(),
+                    keyMarker, versionIdMarker, original.getDelimiter(), original.getMaxResults());
+            request.setEncodingType(original.getEncodingType());
+            copyRequestSettings(original, request);
+
+            VersionListing result = listVersions(request);
+            truncated = result.isTruncated() && result.getNextKeyMarker() != null;
+            keyMarker = result.getNextKeyMarker();
+            versionIdMarker = result.getNextVersionIdMarker();
+            return result.getVersionSummaries();
+        }
+
+        @Override
+        protected boolean hasMorePages() {
+            return truncated;
+        }
+    }
+
+    static void copyRequestSettings(GenericRequest from, GenericRequest to) {
+        to.setRequestPayer(from.getRequestPayer());
+        to.setEndpoint(from.getEndpoint());
+        to.setLogEnabled(from.isLogEnabled());
+        to.setHeaders(from.getHeaders());
+        to.setParameters(from.getParameters());
+        to.setAdditionalHeaderNames(from.getAdditionalHeaderNames());
+    }
+
     /**
      * Set bucket logging.
      */
@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import static com.aliyun.oss.common.utils.CodingUtils.assertParameterNotNull;
+import static com.aliyun.oss.common.utils.CodingUtils.assertTrue;
+import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameValid;
+import static com.aliyun.oss.internal.OSSUtils.validateObjectKey;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.BulkDeleteFailure;
+import com.aliyun.oss.model.BulkDeleteRequest;
+import com.aliyun.oss.model.BulkDeleteResult;
+import com.aliyun.oss.model.DeleteObjectsRequest;
+import com.aliyun.oss.model.DeleteObjectsResult;
+import com.aliyun.oss.model.DeleteVersionsRequest;
+import com.aliyun.oss.model.DeleteVersionsRequest.KeyVersion;
+import com.aliyun.oss.model.DeleteVersionsResult;
+import com.aliyun.oss.model.DeleteVersionsResult.DeletedVersion;
+import com.aliyun.oss.model.ListVersionsRequest;
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.OSSVersionSummary;
+import com.aliyun.oss.model.ParallelListObjectsRequest;
+import com.aliyun.oss.model.ParallelObjectListing;
+
+/**
+ * OSSBulkDeleteOperation
+ * <p>
+ * The keys are read on the calling thread and packed into batches, which
+ * are deleted in quiet mode on a bounded executor. The caller blocks once
+ * maxConcurrentBatches batches are in flight, so a prefix listing running
+ * in the background is consumed no faster than the keys are deleted, and
+ * deletion starts with the first full batch instead of after the listing.
+ * </p>
+ */
+public class OSSBulkDeleteOperation {
+
+    private static final int MAX_VERSIONS_PER_PAGE = 1000;
+    private static final int MAX_BUFFERED_VERSION_PAGES = 2;
+
+    private static final AtomicInteger operationNumber = new AtomicInteger(1);
+
+    private final OSSObjectOperation objectOperation;
+    private final OSSBucketOperation bucketOperation;
+
+    public OSSBulkDeleteOperation(OSSObjectOperation objectOperation, OSSBucketOperation bucketOperation) {
+        this.objectOperation = objectOperation;
+        this.bucketOperation = bucketOperation;
+    }
+
+    public BulkDeleteResult bulkDelete(BulkDeleteRequest bulkDeleteRequest) throws OSSException, ClientException {
+
+        assertParameterNotNull(bulkDeleteRequest, "bulkDeleteRequest");
+
+        String bucketName = bulkDeleteRequest.getBucketName();
+        assertParameterNotNull(bucketName, "bucketName");
+        ensureBucketNameValid(bucketName);
+
+        int sources = (bulkDeleteRequest.getPrefix() != null ? 1 : 0)
+                + (bulkDeleteRequest.getKeys() != null ? 1 : 0)
+                + (bulkDeleteRequest.getKeyVersions() != null ? 1 : 0);
+        assertTrue(sources == 1, "Exactly one of prefix, keys and key versions should be specified.");
+        assertTrue(!bulkDeleteRequest.isAllVersions() || bulkDeleteRequest.getPrefix() != null,
+                "All versions can only be deleted under a prefix.");
+        assertTrue(bulkDeleteRequest.getBatchSize() > 0
+                && bulkDeleteRequest.getBatchSize() <= DeleteObjectsRequest.DELETE_OBJECTS_ONETIME_LIMIT,
+                "The batch size should be between 1 and " + DeleteObjectsRequest.DELETE_OBJECTS_ONETIME_LIMIT + ".");
+        assertTrue(bulkDeleteRequest.getMaxConcurrentBatches() > 0,
+                "The max concurrent batches should be greater than 0.");
+        assertTrue(bulkDeleteRequest.getMaxConcurrentListRequests() > 0,
+                "The max concurrent list requests should be greater than 0.");
+
+        return new BulkDelete(bulkDeleteRequest).execute();
+    }
+
+    private class BulkDelete {
+
+        private final BulkDeleteRequest request;
+        private final boolean versioned;
+        private final int maxConcurrentBatches;
+        private final Semaphore batchPermits;
+        private final ThreadPoolExecutor executor;
+        private final long startTime = System.currentTimeMillis();
+
+        private final List<BulkDeleteFailure> failures = new ArrayList<BulkDeleteFailure>();
+        private long deletedCount;
+        private long requestCount;
+
+        BulkDelete(BulkDeleteRequest request) {
+            this.request = request;
+            this.versioned = request.getKeyVersions() != null || request.isAllVersions();
+            this.maxConcurrentBatches = request.getMaxConcurrentBatches();
+            this.batchPermits = new Semaphore(maxConcurrentBatches);
+
+            final String threadPrefix = "oss-bulk-delete-" + operationNumber.getAndIncrement() + "-";
+            this.executor = new ThreadPoolExecutor(maxConcurrentBatches, maxConcurrentBatches, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, threadPrefix + threadNumber.getAndIncrement());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        BulkDeleteResult execute() {
+            ParallelObjectListing listing = null;
+            try {
+                Iterator<KeyVersion> source;
+                if (request.getKeyVersions() != null) {
+                    source = request.getKeyVersions();
+                } else if (request.getKeys() != null) {
+                    source = new KeyAdapter(request.getKeys());
+                } else if (request.isAllVersions()) {
+                    ListVersionsRequest listVersionsRequest = new ListVersionsRequest(request.getBucketName(),
+                            request.getPrefix(), null, null, null, MAX_VERSIONS_PER_PAGE);
+                    OSSBucketOperation.copyRequestSettings(request, listVersionsRequest);
+                    source = new VersionSummaryAdapter(bucketOperation
+                            .listVersionsIterable(listVersionsRequest, MAX_BUFFERED_VERSION_PAGES).iterator());
+                } else {
+                    ParallelListObjectsRequest listRequest = new ParallelListObjectsRequest(request.getBucketName(),
+                            request.getPrefix()).withMaxConcurrentRequests(request.getMaxConcurrentListRequests());
+                    OSSBucketOperation.copyRequestSettings(request, listRequest);
+                    listing = bucketOperation.listObjectsParallel(listRequest);
+                    source = new ObjectSummaryAdapter(listing);
+                }
+
+                List<KeyVersion> batch = new ArrayList<KeyVersion>(request.getBatchSize());
+                while (source.hasNext()) {
+                    KeyVersion keyVersion = source.next();
+                    String key = keyVersion.getKey();
+                    if (key == null || key.equals("") || !validateObjectKey(key)) {
+                        keyRejected(keyVersion);
+                        continue;
+                    }
+                    batch.add(keyVersion);
+                    if (batch.size() == request.getBatchSize()) {
+                        submit(batch);
+                        batch = new ArrayList<KeyVersion>(request.getBatchSize());
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    submit(batch);
+                }
+            } finally {
+                if (listing != null) {
+                    listing.close();
+                }
+                batchPermits.acquireUninterruptibly(maxConcurrentBatches);
+                executor.shutdown();
+            }
+
+            synchronized (this) {
+                return new BulkDeleteResult(deletedCount, new ArrayList<BulkDeleteFailure>(failures), requestCount,
+                        System.currentTimeMillis() - startTime);
+            }
+        }
+
+        private void submit(final List<KeyVersion> batch) {
+            try {
+                batchPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting for a delete batch to complete.", e);
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        deleteBatch(batch);
+                    } finally {
+                        batchPermits.release();
+                    }
+                }
+            });
+        }
+
+        private void deleteBatch(List<KeyVersion> batch) {
+            try {
+                List<BulkDeleteFailure> notDeleted = new ArrayList<BulkDeleteFailure>();
+                if (versioned) {
+                    DeleteVersionsRequest deleteVersionsRequest = new DeleteVersionsRequest(request.getBucketName());
+                    OSSBucketOperation.copyRequestSettings(request, deleteVersionsRequest);
+                    deleteVersionsRequest.setQuiet(true);
+                    deleteVersionsRequest.setKeys(batch);
+                    DeleteVersionsResult result = objectOperation.deleteVersions(deleteVersionsRequest);
+                    // In quiet mode only the versions that failed are listed.
+                    for (DeletedVersion version : result.getDeletedVersions()) {
+                        notDeleted.add(new BulkDeleteFailure(version.getKey(), version.getVersionId(), null,
+                                "The version is not deleted."));
+                    }
+                } else {
+                    List<String> keys = new ArrayList<String>(batch.size());
+                    for (KeyVersion keyVersion : batch) {
+                        keys.add(keyVersion.getKey());
+                    }
+                    DeleteObjectsRequest deleteObjectsRequest = new DeleteObjectsRequest(request.getBucketName());
+                    OSSBucketOperation.copyRequestSettings(request, deleteObjectsRequest);
+                    deleteObjectsRequest.setQuiet(true);
+                    deleteObjectsRequest.setKeys(keys);
+                    DeleteObjectsResult result = objectOperation.deleteObjects(deleteObjectsRequest);
+                    // In quiet mode only the objects that failed are listed.
+                    if (result.getDeletedObjects() != null) {
+                        for (String key : result.getDeletedObjects()) {
+                            notDeleted.add(new BulkDeleteFailure(key, null, null, "The object is not deleted."));
+                        }
+                    }
+                }
+                batchCompleted(batch.size() - notDeleted.size(), notDeleted);
+            } catch (OSSException e) {
+                batchFailed(batch, e.getErrorCode(), e.getErrorMessage());
+            } catch (ClientException e) {
+                batchFailed(batch, e.getErrorCode(), e.getMessage());
+            } catch (RuntimeException e) {
+                batchFailed(batch, null, e.toString());
+            }
+        }
+
+        private synchronized void keyRejected(KeyVersion keyVersion) {
+            failures.add(new BulkDeleteFailure(keyVersion.getKey(), keyVersion.getVersion(),
+                    OSSErrorCode.INVALID_OBJECT_NAME, "Illegal object key " + keyVersion.getKey()));
+        }
+
+        private synchronized void batchCompleted(int deleted, List<BulkDeleteFailure> notDeleted) {
+            requestCount++;
+            deletedCount += deleted;
+            failures.addAll(notDeleted);
+        }
+
+        private synchronized void batchFailed(List<KeyVersion> batch, String errorCode, String errorMessage) {
+            requestCount++;
+            for (KeyVersion keyVersion : batch) {
+                failures.add(new BulkDeleteFailure(keyVersion.getKey(), keyVersion.getVersion(), errorCode,
+                        errorMessage));
+            }
+        }
+    }
+
+    private static class KeyAdapter implements Iterator<KeyVersion> {
+
+        private final Iterator<String> keys;
+
+        KeyAdapter(Iterator<String> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return keys.hasNext();
+        }
+
+        @Override
+        public KeyVersion next() {
+            return new KeyVersion(keys.next());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class ObjectSummaryAdapter implements Iterator<KeyVersion> {
+
+        private final Iterator<OSSObjectSummary> summaries;
+
+        ObjectSummaryAdapter(Iterator<OSSObjectSummary> summaries) {
+            this.summaries = summaries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return summaries.hasNext();
+        }
+
+        @Override
+        public KeyVersion next() {
+            return new KeyVersion(summaries.next().getKey());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class VersionSummaryAdapter implements Iterator<KeyVersion> {
+
+        private final Iterator<OSSVersionSummary> summaries;
+
+        VersionSummaryAdapter(Iterator<OSSVersionSummary> summaries) {
+            this.summaries = summaries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return summaries.hasNext();
+        }
+
+        @Override
+        public KeyVersion next() {
+            OSSVersionSummary summary = summaries.next();
+            return new KeyVersion(summary.getKey(), summary.getVersionId());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
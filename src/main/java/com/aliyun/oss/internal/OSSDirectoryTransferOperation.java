@@ -0,0 +1,516 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import static com.aliyun.oss.common.utils.CodingUtils.assertParameterNotNull;
+import static com.aliyun.oss.common.utils.CodingUtils.assertTrue;
+import static com.aliyun.oss.common.utils.LogUtils.getLog;
+import static com.aliyun.oss.internal.OSSConstants.DEFAULT_CHARSET_NAME;
+import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameValid;
+import static com.aliyun.oss.internal.OSSUtils.validateObjectKey;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.common.utils.BinaryUtil;
+import com.aliyun.oss.model.DirectoryTransferFailure;
+import com.aliyun.oss.model.DirectoryTransferResult;
+import com.aliyun.oss.model.DownloadDirectoryRequest;
+import com.aliyun.oss.model.DownloadFileRequest;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.ParallelListObjectsRequest;
+import com.aliyun.oss.model.ParallelObjectListing;
+import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.UploadDirectoryRequest;
+import com.aliyun.oss.model.UploadFileRequest;
+
+/**
+ * OSSDirectoryTransferOperation
+ * <p>
+ * The local tree (one directory listing at a time) or the remote prefix
+ * (listed in parallel in the background) is walked on the calling thread,
+ * and every file is transferred on a bounded executor. The caller blocks
+ * once maxConcurrentFiles files are in flight. Small files take a single
+ * PutObject or GetObject request; files from the multipart threshold on
+ * take the resumable upload or download, whose parts run on the client's
+ * transfer scheduler.
+ * </p>
+ * <p>
+ * The manifest is a {@link CheckPointJournal}: a snapshot identifying the
+ * transfer, followed by one record (key, size, last modified time or ETag)
+ * per file transferred. A file is skipped when its record still matches.
+ * </p>
+ */
+public class OSSDirectoryTransferOperation {
+
+    private static final AtomicInteger operationNumber = new AtomicInteger(1);
+
+    private final OSSObjectOperation objectOperation;
+    private final OSSBucketOperation bucketOperation;
+    private final OSSUploadOperation uploadOperation;
+    private final OSSDownloadOperation downloadOperation;
+
+    public OSSDirectoryTransferOperation(OSSObjectOperation objectOperation, OSSBucketOperation bucketOperation,
+            OSSUploadOperation uploadOperation, OSSDownloadOperation downloadOperation) {
+        this.objectOperation = objectOperation;
+        this.bucketOperation = bucketOperation;
+        this.uploadOperation = uploadOperation;
+        this.downloadOperation = downloadOperation;
+    }
+
+    public DirectoryTransferResult uploadDirectory(final UploadDirectoryRequest uploadDirectoryRequest)
+            throws OSSException, ClientException {
+
+        assertParameterNotNull(uploadDirectoryRequest, "uploadDirectoryRequest");
+
+        final String bucketName = uploadDirectoryRequest.getBucketName();
+        assertParameterNotNull(bucketName, "bucketName");
+        ensureBucketNameValid(bucketName);
+        assertParameterNotNull(uploadDirectoryRequest.getLocalDirectory(), "localDirectory");
+        final File root = new File(uploadDirectoryRequest.getLocalDirectory());
+        assertTrue(root.isDirectory(), "The local directory " + root + " does not exist.");
+        assertOptionsValid(uploadDirectoryRequest.getMultipartThreshold(), uploadDirectoryRequest.getPartSize(),
+                uploadDirectoryRequest.getTaskNum(), uploadDirectoryRequest.getMaxConcurrentFiles());
+
+        String keyPrefix = uploadDirectoryRequest.getKeyPrefix() != null ? uploadDirectoryRequest.getKeyPrefix() : "";
+        final String manifestFile = uploadDirectoryRequest.getManifestFile();
+        String identity = "upload\n" + bucketName + "\n" + keyPrefix + "\n" + root.getAbsolutePath();
+
+        DirectoryTransfer transfer = new DirectoryTransfer(uploadDirectoryRequest.getMaxConcurrentFiles(),
+                manifestFile, identity);
+        try {
+            LocalFileIterator files = new LocalFileIterator(root);
+            while (files.hasNext()) {
+                LocalFile localFile = files.next();
+                final String key = keyPrefix + localFile.relativePath;
+                final File file = localFile.file;
+                final long size = file.length();
+                String tag = String.valueOf(file.lastModified());
+
+                transfer.submit(key, file, size, tag, new FileTask() {
+                    @Override
+                    public void run() throws Throwable {
+                        if (size < uploadDirectoryRequest.getMultipartThreshold()) {
+                            PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, key, file);
+                            OSSBucketOperation.copyRequestSettings(uploadDirectoryRequest, putObjectRequest);
+                            objectOperation.putObject(putObjectRequest);
+                        } else {
+                            UploadFileRequest uploadFileRequest = new UploadFileRequest(bucketName, key,
+                                    file.getPath(), uploadDirectoryRequest.getPartSize(),
+                                    uploadDirectoryRequest.getTaskNum());
+                            OSSBucketOperation.copyRequestSettings(uploadDirectoryRequest, uploadFileRequest);
+                            if (manifestFile != null) {
+                                uploadFileRequest.setEnableCheckpoint(true);
+                                uploadFileRequest.setCheckpointFile(checkpointFile(manifestFile, key, ".ucp"));
+                            }
+                            uploadOperation.uploadFile(uploadFileRequest);
+                        }
+                    }
+                });
+            }
+        } finally {
+            transfer.finish();
+        }
+        return transfer.getResult();
+    }
+
+    public DirectoryTransferResult downloadDirectory(final DownloadDirectoryRequest downloadDirectoryRequest)
+            throws OSSException, ClientException {
+
+        assertParameterNotNull(downloadDirectoryRequest, "downloadDirectoryRequest");
+
+        final String bucketName = downloadDirectoryRequest.getBucketName();
+        assertParameterNotNull(bucketName, "bucketName");
+        ensureBucketNameValid(bucketName);
+        assertParameterNotNull(downloadDirectoryRequest.getLocalDirectory(), "localDirectory");
+        assertOptionsValid(downloadDirectoryRequest.getMultipartThreshold(), downloadDirectoryRequest.getPartSize(),
+                downloadDirectoryRequest.getTaskNum(), downloadDirectoryRequest.getMaxConcurrentFiles());
+        assertTrue(downloadDirectoryRequest.getMaxConcurrentListRequests() > 0,
+                "The max concurrent list requests should be greater than 0.");
+
+        File root = new File(downloadDirectoryRequest.getLocalDirectory());
+        String rootPath;
+        try {
+            if (!root.isDirectory() && !root.mkdirs()) {
+                throw new ClientException("Failed to create the local directory " + root);
+            }
+            rootPath = root.getCanonicalPath() + File.separator;
+        } catch (IOException e) {
+            throw new ClientException("Failed to resolve the local directory " + root, e);
+        }
+
+        String prefix = downloadDirectoryRequest.getPrefix() != null ? downloadDirectoryRequest.getPrefix() : "";
+        final String manifestFile = downloadDirectoryRequest.getManifestFile();
+        String identity = "download\n" + bucketName + "\n" + prefix + "\n" + rootPath;
+
+        DirectoryTransfer transfer = new DirectoryTransfer(downloadDirectoryRequest.getMaxConcurrentFiles(),
+                manifestFile, identity);
+        ParallelObjectListing listing = null;
+        try {
+            ParallelListObjectsRequest listRequest = new ParallelListObjectsRequest(bucketName, prefix)
+                    .withMaxConcurrentRequests(downloadDirectoryRequest.getMaxConcurrentListRequests());
+            OSSBucketOperation.copyRequestSettings(downloadDirectoryRequest, listRequest);
+            listing = bucketOperation.listObjectsParallel(listRequest);
+
+            while (listing.hasNext()) {
+                OSSObjectSummary summary = listing.next();
+                final String key = summary.getKey();
+                String relativePath = key.substring(prefix.length());
+                if (relativePath.length() == 0) {
+                    continue;
+                }
+
+                final File file = new File(rootPath + relativePath);
+                if (!isInside(file, rootPath)) {
+                    transfer.rejected(key, file, "The key " + key + " resolves outside of the local directory.");
+                    continue;
+                }
+
+                final long size = summary.getSize();
+                final boolean directory = key.endsWith("/");
+                transfer.submit(key, file, size, summary.getETag(), new FileTask() {
+                    @Override
+                    public void run() throws Throwable {
+                        File parent = directory ? file : file.getParentFile();
+                        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                            throw new ClientException("Failed to create the local directory " + parent);
+                        }
+                        if (directory) {
+                            return;
+                        }
+
+                        if (size < downloadDirectoryRequest.getMultipartThreshold()) {
+                            GetObjectRequest getObjectRequest = new GetObjectRequest(bucketName, key);
+                            OSSBucketOperation.copyRequestSettings(downloadDirectoryRequest, getObjectRequest);
+                            objectOperation.getObject(getObjectRequest, file);
+                        } else {
+                            DownloadFileRequest downloadFileRequest = new DownloadFileRequest(bucketName, key,
+                                    file.getPath(), downloadDirectoryRequest.getPartSize(),
+                                    downloadDirectoryRequest.getTaskNum(), manifestFile != null,
+                                    manifestFile != null ? checkpointFile(manifestFile, key, ".dcp") : null);
+                            OSSBucketOperation.copyRequestSettings(downloadDirectoryRequest, downloadFileRequest);
+                            downloadOperation.downloadFile(downloadFileRequest);
+                        }
+                    }
+                });
+            }
+        } finally {
+            if (listing != null) {
+                listing.close();
+            }
+            transfer.finish();
+        }
+        return transfer.getResult();
+    }
+
+    private static void assertOptionsValid(long multipartThreshold, long partSize, int taskNum,
+            int maxConcurrentFiles) {
+        assertTrue(multipartThreshold > 0, "The multipart threshold should be greater than 0.");
+        assertTrue(partSize > 0, "The part size should be greater than 0.");
+        assertTrue(taskNum > 0, "The task number should be greater than 0.");
+        assertTrue(maxConcurrentFiles > 0, "The max concurrent files should be greater than 0.");
+    }
+
+    private static boolean isInside(File file, String rootPath) {
+        try {
+            return file.getCanonicalPath().startsWith(rootPath)
+                    || (file.getCanonicalPath() + File.separator).equals(rootPath);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String checkpointFile(String manifestFile, String key, String suffix) {
+        try {
+            return manifestFile + "." + BinaryUtil.encodeMD5(key.getBytes(DEFAULT_CHARSET_NAME)) + suffix;
+        } catch (IOException e) {
+            throw new ClientException(e);
+        }
+    }
+
+    /**
+     * The transfer of one file, run on the executor.
+     */
+    private interface FileTask {
+        void run() throws Throwable;
+    }
+
+    private class DirectoryTransfer {
+
+        private final int maxConcurrentFiles;
+        private final Semaphore filePermits;
+        private final ThreadPoolExecutor executor;
+        private final long startTime = System.currentTimeMillis();
+
+        private final String manifestFile;
+        private final Map<String, String> transferredBefore = new HashMap<String, String>();
+        private CheckPointJournal manifest;
+
+        private final List<DirectoryTransferFailure> failures = new ArrayList<DirectoryTransferFailure>();
+        private long transferredFiles;
+        private long transferredBytes;
+        private long skippedFiles;
+        private long elapsedMillis;
+
+        DirectoryTransfer(int maxConcurrentFiles, String manifestFile, String identity) {
+            this.maxConcurrentFiles = maxConcurrentFiles;
+            this.filePermits = new Semaphore(maxConcurrentFiles);
+            this.manifestFile = manifestFile;
+            if (manifestFile != null) {
+                openManifest(identity);
+            }
+
+            final String threadPrefix = "oss-directory-transfer-" + operationNumber.getAndIncrement() + "-";
+            this.executor = new ThreadPoolExecutor(maxConcurrentFiles, maxConcurrentFiles, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, threadPrefix + threadNumber.getAndIncrement());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        /**
+         * Loads the files transferred by an earlier run of the same transfer,
+         * or starts a new manifest.
+         */
+        private void openManifest(String identity) {
+            try {
+                if (new File(manifestFile).exists()) {
+                    try {
+                        CheckPointJournal.Content content = CheckPointJournal.read(manifestFile);
+                        if (identity.equals(content.snapshot)) {
+                            for (byte[] record : content.records) {
+                                DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+                                String key = in.readUTF();
+                                transferredBefore.put(key, in.readLong() + ":" + in.readUTF());
+                            }
+                        }
+                    } catch (Exception e) {
+                        transferredBefore.clear();
+                    }
+                }
+                if (transferredBefore.isEmpty()) {
+                    CheckPointJournal.writeSnapshot(manifestFile, identity);
+                }
+            } catch (IOException e) {
+                throw new ClientException("Failed to write the manifest " + manifestFile, e);
+            }
+            manifest = new CheckPointJournal(manifestFile);
+        }
+
+        void submit(final String key, final File file, final long size, final String tag, final FileTask task) {
+            if (!validateObjectKey(key)) {
+                rejected(key, file, "Illegal object key " + key);
+                return;
+            }
+            String record = transferredBefore.get(key);
+            if (record != null && record.equals(size + ":" + tag)) {
+                synchronized (this) {
+                    skippedFiles++;
+                }
+                return;
+            }
+
+            try {
+                filePermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting for a file transfer to complete.", e);
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                        transferred(key, size, tag);
+                    } catch (OSSException e) {
+                        failed(key, file, e.getErrorCode(), e.getErrorMessage());
+                    } catch (ClientException e) {
+                        failed(key, file, e.getErrorCode(), e.getMessage());
+                    } catch (Throwable e) {
+                        failed(key, file, null, e.toString());
+                    } finally {
+                        filePermits.release();
+                    }
+                }
+            });
+        }
+
+        synchronized void rejected(String key, File file, String errorMessage) {
+            failures.add(new DirectoryTransferFailure(key, file.getPath(), OSSErrorCode.INVALID_OBJECT_NAME,
+                    errorMessage));
+        }
+
+        private void transferred(String key, long size, String tag) throws IOException {
+            if (manifest != null) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream record = new DataOutputStream(bytes);
+                record.writeUTF(key);
+                record.writeLong(size);
+                record.writeUTF(tag != null ? tag : "");
+                manifest.append(bytes.toByteArray());
+            }
+            synchronized (this) {
+                transferredFiles++;
+                transferredBytes += size;
+            }
+        }
+
+        private synchronized void failed(String key, File file, String errorCode, String errorMessage) {
+            failures.add(new DirectoryTransferFailure(key, file.getPath(), errorCode, errorMessage));
+        }
+
+        /**
+         * Waits for the files in flight, then deletes the manifest if every
+         * file was transferred.
+         */
+        void finish() {
+            filePermits.acquireUninterruptibly(maxConcurrentFiles);
+            executor.shutdown();
+            synchronized (this) {
+                elapsedMillis = System.currentTimeMillis() - startTime;
+            }
+
+            if (manifest != null) {
+                try {
+                    manifest.close();
+                } catch (IOException e) {
+                    // The records appended so far are still in the file.
+                }
+                synchronized (this) {
+                    if (failures.isEmpty()) {
+                        new File(manifestFile).delete();
+                    }
+                }
+            }
+        }
+
+        synchronized DirectoryTransferResult getResult() {
+            return new DirectoryTransferResult(transferredFiles, transferredBytes, skippedFiles,
+                    new ArrayList<DirectoryTransferFailure>(failures), elapsedMillis);
+        }
+    }
+
+    private static class LocalFile {
+        private final File file;
+        private final String relativePath;
+
+        LocalFile(File file, String relativePath) {
+            this.file = file;
+            this.relativePath = relativePath;
+        }
+    }
+
+    /**
+     * Walks the regular files under a directory depth first, in name order.
+     * Only the listings of the directories on the current path are held.
+     */
+    private static class LocalFileIterator implements Iterator<LocalFile> {
+
+        private final LinkedList<LocalFile> pending = new LinkedList<LocalFile>();
+        /* The canonical paths of the directories walked, so a symbolic link
+           to a directory already walked, such as an ancestor, isn't walked
+           again. */
+        private final Set<String> visited = new HashSet<String>();
+        private LocalFile next;
+
+        LocalFileIterator(File root) {
+            pushChildren(root, "");
+        }
+
+        private void pushChildren(File directory, String relativeDirectory) {
+            try {
+                if (!visited.add(directory.getCanonicalPath())) {
+                    getLog().warn("Skipping the directory already uploaded: " + directory.getPath());
+                    return;
+                }
+            } catch (IOException e) {
+                getLog().warn("Skipping the directory which can't be resolved: " + directory.getPath());
+                return;
+            }
+            File[] children = directory.listFiles();
+            if (children == null) {
+                return;
+            }
+            Arrays.sort(children);
+            for (int i = children.length - 1; i >= 0; i--) {
+                pending.addFirst(new LocalFile(children[i], relativeDirectory + children[i].getName()));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !pending.isEmpty()) {
+                LocalFile candidate = pending.removeFirst();
+                if (candidate.file.isDirectory()) {
+                    pushChildren(candidate.file, candidate.relativePath + "/");
+                } else if (candidate.file.isFile()) {
+                    next = candidate;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public LocalFile next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LocalFile current = next;
+            next = null;
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
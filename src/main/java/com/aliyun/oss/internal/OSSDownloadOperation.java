@@ -26,16 +26,23 @@ import static com.aliyun.oss.internal.OSSConstants.KB;
 import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameValid;
 import static com.aliyun.oss.internal.OSSUtils.ensureObjectKeyValid;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -70,6 +77,9 @@ import com.aliyun.oss.model.SimplifiedObjectMeta;
  */
 public class OSSDownloadOperation {
 
+    // The direct buffers the parts are written to the shared channel with.
+    private static final DirectBufferPool partBufferPool = new DirectBufferPool(512 * KB, 16);
+
     protected OSSObject getObjectWrap(GetObjectRequest getObjectRequest){
         return objectOperation.getObject(getObjectRequest);
     }
@@ -87,24 +97,61 @@ public class OSSDownloadOperation {
          * Loads the checkpoint data from the checkpoint file.
          */
         public synchronized void load(String cpFile) throws IOException, ClassNotFoundException {
-            FileInputStream fileIn = new FileInputStream(cpFile);
-            CheckPointObjectInputStream in = new CheckPointObjectInputStream(fileIn);
-            DownloadCheckPoint dcp = (DownloadCheckPoint) in.readObject();
+            CheckPointJournal.Content content = CheckPointJournal.read(cpFile);
+            DownloadCheckPoint dcp = (DownloadCheckPoint) content.snapshot;
             assign(dcp);
-            in.close();
-            fileIn.close();
+            // Replays the completed parts on a snapshot that is intact.
+            if (!content.records.isEmpty() && this.md5 == hashCode()) {
+                for (byte[] record : content.records) {
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+                    DownloadPart downloadPart = downloadParts.get(in.readInt());
+                    downloadPart.length = in.readLong();
+                    downloadPart.crc = in.readLong();
+                    downloadPart.isCompleted = true;
+                }
+                this.md5 = hashCode();
+            }
         }
 
         /**
-         * Writes the checkpoint data to the checkpoint file.
+         * Writes the checkpoint data to the checkpoint file, folding the
+         * journaled parts into it.
          */
         public synchronized void dump(String cpFile) throws IOException {
+            closeJournal();
             this.md5 = hashCode();
-            FileOutputStream fileOut = new FileOutputStream(cpFile);
-            ObjectOutputStream outStream = new ObjectOutputStream(fileOut);
-            outStream.writeObject(this);
-            outStream.close();
-            fileOut.close();
+            CheckPointJournal.writeSnapshot(cpFile, this);
+        }
+
+        /**
+         * Appends the part download completion to the checkpoint file, which
+         * must hold a snapshot written by {@link #dump(String)}.
+         */
+        public void journal(String cpFile, int index) throws IOException {
+            CheckPointJournal journal;
+            synchronized (this) {
+                if (this.journal == null) {
+                    this.journal = new CheckPointJournal(cpFile);
+                }
+                journal = this.journal;
+            }
+            DownloadPart downloadPart = downloadParts.get(index);
+            ByteArrayOutputStream record = new ByteArrayOutputStream(20);
+            DataOutputStream out = new DataOutputStream(record);
+            out.writeInt(index);
+            out.writeLong(downloadPart.length);
+            out.writeLong(downloadPart.crc);
+            journal.append(record.toByteArray());
+        }
+
+        /**
+         * Closes the checkpoint file opened by the journal.
+         */
+        public synchronized void closeJournal() throws IOException {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
         }
 
         /**
@@ -179,6 +226,7 @@ public class OSSDownloadOperation {
         public String objectKey; // object key
         public ObjectStat objectStat; // object state
         public ArrayList<DownloadPart> downloadParts; // download parts list.
+        private transient CheckPointJournal journal; // appends the completed parts.
 
     }
 
@@ -361,6 +409,21 @@ public class OSSDownloadOperation {
         this.objectOperation = objectOperation;
     }
 
+    public TransferScheduler getTransferScheduler() {
+        return transferScheduler;
+    }
+
+    /**
+     * Sets the scheduler that runs the part tasks. Without a scheduler every
+     * transfer runs its parts on a thread pool of its own.
+     *
+     * @param transferScheduler
+     *            The transfer scheduler of the client.
+     */
+    public void setTransferScheduler(TransferScheduler transferScheduler) {
+        this.transferScheduler = transferScheduler;
+    }
+
     public DownloadFileResult downloadFile(DownloadFileRequest downloadFileRequest) throws Throwable {
         assertParameterNotNull(downloadFileRequest, "downloadFileRequest");
 
@@ -425,8 +488,22 @@ public class OSSDownloadOperation {
         ProgressListener listener = downloadFileRequest.getProgressListener();
         ProgressPublisher.publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
 
+        // The part completions are journaled after this snapshot.
+        if (downloadFileRequest.isEnableCheckpoint()) {
+            downloadCheckPoint.dump(downloadFileRequest.getCheckpointFile());
+        }
+
         // Concurrently download parts.
-        DownloadResult downloadResult = download(downloadCheckPoint, downloadFileRequest);
+        DownloadResult downloadResult;
+        try {
+            downloadResult = download(downloadCheckPoint, downloadFileRequest);
+        } finally {
+            downloadCheckPoint.closeJournal();
+        }
+        // Compacts the journal into a single snapshot.
+        if (downloadFileRequest.isEnableCheckpoint()) {
+            downloadCheckPoint.dump(downloadFileRequest.getCheckpointFile());
+        }
         Long serverCRC = null;
         for (PartResult partResult : downloadResult.getPartResults()) {
             if (partResult.getServerCRC() != null) {
@@ -517,7 +594,9 @@ public class OSSDownloadOperation {
             throws Throwable {
         DownloadResult downloadResult = new DownloadResult();
         ArrayList<PartResult> taskResults = new ArrayList<PartResult>();
-        ExecutorService service = Executors.newFixedThreadPool(downloadFileRequest.getTaskNum());
+        ExecutorService service = transferScheduler != null
+                ? transferScheduler.newTransfer(downloadFileRequest.getPriority(), downloadFileRequest.getTaskNum())
+                : Executors.newFixedThreadPool(downloadFileRequest.getTaskNum());
         ArrayList<Future<PartResult>> futures = new ArrayList<Future<PartResult>>();
         List<Task> tasks = new ArrayList<Task>();
         ProgressListener listener = downloadFileRequest.getProgressListener();
@@ -538,23 +617,37 @@ public class OSSDownloadOperation {
         ProgressPublisher.publishResponseBytesTransferred(listener, completedLength);
         downloadFileRequest.setProgressListener(null);
 
-        // Concurrently download parts.
-        for (int i = 0; i < downloadCheckPoint.downloadParts.size(); i++) {
-            if (!downloadCheckPoint.downloadParts.get(i).isCompleted) {
-                Task task = new Task(i, "download-" + i, downloadCheckPoint, i, downloadFileRequest, objectOperation,
-                        listener);
-                futures.add(service.submit(task));
-                tasks.add(task);
-            } else {
-                taskResults.add(new PartResult(i + 1, downloadCheckPoint.downloadParts.get(i).start,
-                        downloadCheckPoint.downloadParts.get(i).end, downloadCheckPoint.downloadParts.get(i).length,
-                        downloadCheckPoint.downloadParts.get(i).crc));
-            }
+        // All the parts write to one channel of the temp file.
+        RandomAccessFile output = null;
+        FileChannel channel = null;
+        if (downloadFileRequest.isSharedFileChannel()) {
+            output = new RandomAccessFile(downloadFileRequest.getTempDownloadFile(), "rw");
+            channel = output.getChannel();
         }
-        service.shutdown();
 
-        // Waiting for all parts download,
-        service.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        try {
+            // Concurrently download parts.
+            for (int i = 0; i < downloadCheckPoint.downloadParts.size(); i++) {
+                if (!downloadCheckPoint.downloadParts.get(i).isCompleted) {
+                    Task task = new Task(i, "download-" + i, downloadCheckPoint, i, downloadFileRequest,
+                            objectOperation, listener, channel);
+                    futures.add(service.submit(task));
+                    tasks.add(task);
+                } else {
+                    taskResults.add(new PartResult(i + 1, downloadCheckPoint.downloadParts.get(i).start,
+                            downloadCheckPoint.downloadParts.get(i).end, downloadCheckPoint.downloadParts.get(i).length,
+                            downloadCheckPoint.downloadParts.get(i).crc));
+                }
+            }
+            service.shutdown();
+
+            // Waiting for all parts download,
+            service.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        } finally {
+            if (output != null) {
+                output.close();
+            }
+        }
         for (Future<PartResult> future : futures) {
             try {
                 PartResult tr = future.get();
@@ -592,6 +685,13 @@ public class OSSDownloadOperation {
         public Task(int id, String name, DownloadCheckPoint downloadCheckPoint, int partIndex,
                 DownloadFileRequest downloadFileRequest, OSSObjectOperation objectOperation,
                 ProgressListener progressListener) {
+            this(id, name, downloadCheckPoint, partIndex, downloadFileRequest, objectOperation, progressListener,
+                    null);
+        }
+
+        public Task(int id, String name, DownloadCheckPoint downloadCheckPoint, int partIndex,
+                DownloadFileRequest downloadFileRequest, OSSObjectOperation objectOperation,
+                ProgressListener progressListener, FileChannel channel) {
             this.id = id;
             this.name = name;
             this.downloadCheckPoint = downloadCheckPoint;
@@ -599,6 +699,7 @@ public class OSSDownloadOperation {
             this.downloadFileRequest = downloadFileRequest;
             this.objectOperation = objectOperation;
             this.progressListener = progressListener;
+            this.channel = channel;
         }
 
         @Override
@@ -611,8 +712,10 @@ public class OSSDownloadOperation {
                 DownloadPart downloadPart = downloadCheckPoint.downloadParts.get(partIndex);
                 tr = new PartResult(partIndex + 1, downloadPart.start, downloadPart.end);
 
-                output = new RandomAccessFile(downloadFileRequest.getTempDownloadFile(), "rw");
-                output.seek(downloadPart.fileStart);
+                if (channel == null) {
+                    output = new RandomAccessFile(downloadFileRequest.getTempDownloadFile(), "rw");
+                    output.seek(downloadPart.fileStart);
+                }
 
                 GetObjectRequest getObjectRequest = new GetObjectRequest(downloadFileRequest.getBucketName(),
                         downloadFileRequest.getKey());
@@ -642,10 +745,14 @@ public class OSSDownloadOperation {
                 objectMetadata = ossObj.getObjectMetadata();
                 content = ossObj.getObjectContent();
 
-                byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-                int bytesRead = 0;
-                while ((bytesRead = IOUtils.readNBytes(content, buffer, 0, buffer.length)) > 0) {
-                    output.write(buffer, 0, bytesRead);
+                if (channel != null) {
+                    writeToChannel(content, channel, downloadPart.fileStart);
+                } else {
+                    byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+                    int bytesRead = 0;
+                    while ((bytesRead = IOUtils.readNBytes(content, buffer, 0, buffer.length)) > 0) {
+                        output.write(buffer, 0, bytesRead);
+                    }
                 }
 
                 if (objectOperation.getInnerClient().getClientConfiguration().isCrcCheckEnabled()) {
@@ -658,7 +765,7 @@ public class OSSDownloadOperation {
                 }
                 downloadCheckPoint.update(partIndex, true);
                 if (downloadFileRequest.isEnableCheckpoint()) {
-                    downloadCheckPoint.dump(downloadFileRequest.getCheckpointFile());
+                    downloadCheckPoint.journal(downloadFileRequest.getCheckpointFile(), partIndex);
                 }
                 ProgressPublisher.publishResponseBytesTransferred(progressListener,
                         (downloadPart.end - downloadPart.start + 1));
@@ -691,6 +798,31 @@ public class OSSDownloadOperation {
         private OSSObjectOperation objectOperation;
         private ObjectMetadata objectMetadata;
         private ProgressListener progressListener;
+        private FileChannel channel;
+    }
+
+    /**
+     * Copies the part content to the shared channel at the part's position,
+     * with one positional write per pooled direct buffer.
+     */
+    private static void writeToChannel(InputStream content, FileChannel channel, long position) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(content);
+        ByteBuffer buffer = partBufferPool.acquire();
+        try {
+            int bytesRead = 0;
+            while (bytesRead >= 0) {
+                bytesRead = source.read(buffer);
+                if (bytesRead < 0 || !buffer.hasRemaining()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    buffer.clear();
+                }
+            }
+        } finally {
+            partBufferPool.release(buffer);
+        }
     }
 
     private ArrayList<DownloadPart> splitFile(long start, long objectSize, long partSize) {
@@ -829,4 +961,5 @@ public class OSSDownloadOperation {
     }
 
     private OSSObjectOperation objectOperation;
+    private TransferScheduler transferScheduler;
 }
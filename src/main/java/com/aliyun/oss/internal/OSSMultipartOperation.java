@@ -55,7 +55,9 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
+import com.aliyun.oss.AsyncHandler;
 import com.aliyun.oss.ClientException;
 import com.aliyun.oss.HttpMethod;
 import com.aliyun.oss.OSSException;
@@ -65,6 +67,8 @@ import com.aliyun.oss.common.comm.ResponseHandler;
 import com.aliyun.oss.common.comm.ResponseMessage;
 import com.aliyun.oss.common.comm.ServiceClient;
 import com.aliyun.oss.common.comm.io.FixedLengthInputStream;
+import com.aliyun.oss.common.parser.ResponseParseException;
+import com.aliyun.oss.common.parser.ResponseParser;
 import com.aliyun.oss.common.utils.CRC64;
 import com.aliyun.oss.common.utils.HttpUtil;
 import com.aliyun.oss.event.ProgressEventType;
@@ -147,6 +151,71 @@ public class OSSMultipartOperation extends OSSOperation {
     public CompleteMultipartUploadResult completeMultipartUpload(
             CompleteMultipartUploadRequest completeMultipartUploadRequest) throws OSSException, ClientException {
 
+        RequestMessage request = createCompleteMultipartUploadRequest(completeMultipartUploadRequest);
+        ResponseParser<CompleteMultipartUploadResult> parser = createCompleteMultipartUploadParser(
+                completeMultipartUploadRequest);
+
+        if (!isNeedReturnResponse(completeMultipartUploadRequest)) {
+            return doOperation(request, parser, request.getBucket(), request.getKey(), true);
+        } else {
+            return doOperation(request, parser, request.getBucket(), request.getKey(), true, null,
+                    createCallbackResponseHandlers());
+        }
+    }
+
+    /**
+     * Complete multipart upload asynchronously.
+     */
+    public Future<CompleteMultipartUploadResult> completeMultipartUploadAsync(
+            CompleteMultipartUploadRequest completeMultipartUploadRequest,
+            AsyncHandler<CompleteMultipartUploadResult> handler) throws ClientException {
+
+        RequestMessage request = createCompleteMultipartUploadRequest(completeMultipartUploadRequest);
+        ResponseParser<CompleteMultipartUploadResult> parser = createCompleteMultipartUploadParser(
+                completeMultipartUploadRequest);
+
+        List<ResponseHandler> reponseHandlers = isNeedReturnResponse(completeMultipartUploadRequest)
+                ? createCallbackResponseHandlers() : null;
+        return doOperationAsync(request, parser, request.getBucket(), request.getKey(), true, null, reponseHandlers,
+                handler);
+    }
+
+    private static List<ResponseHandler> createCallbackResponseHandlers() {
+        List<ResponseHandler> reponseHandlers = new ArrayList<ResponseHandler>();
+        reponseHandlers.add(new OSSCallbackErrorResponseHandler());
+        return reponseHandlers;
+    }
+
+    /**
+     * Wraps the response parser so that the client CRC calculated from the
+     * parts is checked against the server CRC of the completed object.
+     */
+    private ResponseParser<CompleteMultipartUploadResult> createCompleteMultipartUploadParser(
+            CompleteMultipartUploadRequest completeMultipartUploadRequest) {
+        final ResponseParser<CompleteMultipartUploadResult> parser = !isNeedReturnResponse(
+                completeMultipartUploadRequest) ? completeMultipartUploadResponseParser
+                        : completeMultipartUploadProcessResponseParser;
+        final List<PartETag> partETags = completeMultipartUploadRequest.getPartETags();
+        final boolean crcCheckEnabled = getInnerClient().getClientConfiguration().isCrcCheckEnabled();
+
+        return new ResponseParser<CompleteMultipartUploadResult>() {
+            @Override
+            public CompleteMultipartUploadResult parse(ResponseMessage response) throws ResponseParseException {
+                CompleteMultipartUploadResult result = parser.parse(response);
+                if (partETags != null) {
+                    result.setClientCRC(calcObjectCRCFromParts(partETags));
+                }
+                if (crcCheckEnabled) {
+                    OSSUtils.checkChecksum(result.getClientCRC(), result.getServerCRC(), result.getRequestId());
+                }
+                return result;
+            }
+        };
+    }
+
+    private RequestMessage createCompleteMultipartUploadRequest(
+            CompleteMultipartUploadRequest completeMultipartUploadRequest) {
+
         assertParameterNotNull(completeMultipartUploadRequest, "completeMultipartUploadRequest");
 
         String key = completeMultipartUploadRequest.getKey();
@@ -189,25 +258,7 @@ public class OSSMultipartOperation extends OSSOperation {
                 .setInputStreamWithLength(requestInstream)
                 .setOriginalRequest(completeMultipartUploadRequest).build();
 
-        List<ResponseHandler> reponseHandlers = new ArrayList<ResponseHandler>();
-        reponseHandlers.add(new OSSCallbackErrorResponseHandler());
-
-        CompleteMultipartUploadResult result = null;
-        if (!isNeedReturnResponse(completeMultipartUploadRequest)) {
-            result = doOperation(request, completeMultipartUploadResponseParser, bucketName, key, true);
-        } else {
-            result = doOperation(request, completeMultipartUploadProcessResponseParser, bucketName, key, true, null,
-                    reponseHandlers);
-        }
-
-        if (partETags != null) {
-            result.setClientCRC(calcObjectCRCFromParts(partETags));
-        }
-        if (getInnerClient().getClientConfiguration().isCrcCheckEnabled()) {
-            OSSUtils.checkChecksum(result.getClientCRC(), result.getServerCRC(), result.getRequestId());
-        }
-
-        return result;
+        return request;
     }
 
     /**
@@ -319,6 +370,65 @@ public class OSSMultipartOperation extends OSSOperation {
      */
     public UploadPartResult uploadPart(UploadPartRequest uploadPartRequest) throws OSSException, ClientException {
 
+        RequestMessage request = createUploadPartRequest(uploadPartRequest);
+        ResponseParser<UploadPartResult> parser = createUploadPartParser(uploadPartRequest);
+
+        final ProgressListener listener = uploadPartRequest.getProgressListener();
+        UploadPartResult result = null;
+        try {
+            publishProgress(listener, ProgressEventType.TRANSFER_PART_STARTED_EVENT);
+            result = doOperation(request, parser, request.getBucket(), request.getKey());
+            publishProgress(listener, ProgressEventType.TRANSFER_PART_COMPLETED_EVENT);
+        } catch (RuntimeException e) {
+            publishProgress(listener, ProgressEventType.TRANSFER_PART_FAILED_EVENT);
+            throw e;
+        }
+
+        return result;
+    }
+
+    /**
+     * Upload part asynchronously.
+     */
+    public Future<UploadPartResult> uploadPartAsync(UploadPartRequest uploadPartRequest,
+            AsyncHandler<UploadPartResult> handler) throws ClientException {
+
+        RequestMessage request = createUploadPartRequest(uploadPartRequest);
+        ResponseParser<UploadPartResult> parser = createUploadPartParser(uploadPartRequest);
+
+        final ProgressListener listener = uploadPartRequest.getProgressListener();
+        publishProgress(listener, ProgressEventType.TRANSFER_PART_STARTED_EVENT);
+        return doOperationAsync(request, parser, request.getBucket(), request.getKey(), false, null, null,
+                new ProgressPublishingHandler<UploadPartResult>(listener,
+                        ProgressEventType.TRANSFER_PART_COMPLETED_EVENT, ProgressEventType.TRANSFER_PART_FAILED_EVENT,
+                        handler));
+    }
+
+    private ResponseParser<UploadPartResult> createUploadPartParser(final UploadPartRequest uploadPartRequest) {
+        final boolean crcCheckEnabled = getInnerClient().getClientConfiguration().isCrcCheckEnabled();
+
+        return new ResponseParser<UploadPartResult>() {
+            @Override
+            public UploadPartResult parse(ResponseMessage response) throws ResponseParseException {
+                UploadPartResult result = new UploadPartResult();
+                result.setPartNumber(uploadPartRequest.getPartNumber());
+                result.setETag(trimQuotes(response.getHeaders().get(OSSHeaders.ETAG)));
+                result.setRequestId(response.getRequestId());
+                result.setPartSize(uploadPartRequest.getPartSize());
+                result.setResponse(response);
+                ResponseParsers.setCRC(result, response);
+
+                if (crcCheckEnabled) {
+                    OSSUtils.checkChecksum(result.getClientCRC(), result.getServerCRC(), result.getRequestId());
+                }
+
+                return result;
+            }
+        };
+    }
+
+    private RequestMessage createUploadPartRequest(UploadPartRequest uploadPartRequest) {
+
         assertParameterNotNull(uploadPartRequest, "uploadPartRequest");
 
         String key = uploadPartRequest.getKey();
@@ -365,30 +475,7 @@ public class OSSMultipartOperation extends OSSOperation {
                 .setUseChunkEncoding(uploadPartRequest.isUseChunkEncoding()).setOriginalRequest(uploadPartRequest)
                 .build();
 
-        final ProgressListener listener = uploadPartRequest.getProgressListener();
-        ResponseMessage response = null;
-        try {
-            publishProgress(listener, ProgressEventType.TRANSFER_PART_STARTED_EVENT);
-            response = doOperation(request, emptyResponseParser, bucketName, key);
-            publishProgress(listener, ProgressEventType.TRANSFER_PART_COMPLETED_EVENT);
-        } catch (RuntimeException e) {
-            publishProgress(listener, ProgressEventType.TRANSFER_PART_FAILED_EVENT);
-            throw e;
-        }
-
-        UploadPartResult result = new UploadPartResult();
-        result.setPartNumber(partNumber);
-        result.setETag(trimQuotes(response.getHeaders().get(OSSHeaders.ETAG)));
-        result.setRequestId(response.getRequestId());
-        result.setPartSize(uploadPartRequest.getPartSize());
-        result.setResponse(response);
-        ResponseParsers.setCRC(result, response);
-
-        if (getInnerClient().getClientConfiguration().isCrcCheckEnabled()) {
-            OSSUtils.checkChecksum(result.getClientCRC(), result.getServerCRC(), result.getRequestId());
-        }
-
-        return result;
+        return request;
     }
 
     /**
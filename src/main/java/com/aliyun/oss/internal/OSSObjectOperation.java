@@ -52,6 +52,7 @@ import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.Future;
 import java.util.zip.CheckedInputStream;
 
 import com.aliyun.oss.common.auth.Credentials;
@@ -63,6 +64,7 @@ import com.aliyun.oss.internal.signer.OSSSignerParams;
 import com.aliyun.oss.internal.signer.OSSV4Signer;
 import com.aliyun.oss.model.*;
 
+import com.aliyun.oss.AsyncHandler;
 import com.aliyun.oss.ClientException;
 import com.aliyun.oss.HttpMethod;
 import com.aliyun.oss.OSSErrorCode;
@@ -70,8 +72,10 @@ import com.aliyun.oss.OSSException;
 import com.aliyun.oss.common.auth.CredentialsProvider;
 import com.aliyun.oss.common.comm.RequestMessage;
 import com.aliyun.oss.common.comm.ResponseHandler;
+import com.aliyun.oss.common.comm.ResponseMessage;
 import com.aliyun.oss.common.comm.ServiceClient;
 import com.aliyun.oss.common.comm.io.RepeatableFileInputStream;
+import com.aliyun.oss.common.parser.ResponseParseException;
 import com.aliyun.oss.common.parser.ResponseParser;
 import com.aliyun.oss.common.utils.BinaryUtil;
 import com.aliyun.oss.common.utils.CRC64;
@@ -116,6 +120,34 @@ public class OSSObjectOperation extends OSSOperation {
         return result;
     }
 
+    /**
+     * Upload input stream or file to oss asynchronously.
+     */
+    public Future<PutObjectResult> putObjectAsync(PutObjectRequest putObjectRequest,
+            AsyncHandler<PutObjectResult> handler) throws ClientException {
+
+        assertParameterNotNull(putObjectRequest, "putObjectRequest");
+
+        final ResponseParser<PutObjectResult> parser = !isNeedReturnResponse(putObjectRequest)
+                ? putObjectReponseParser : putObjectProcessReponseParser;
+        RequestMessage request = createWriteObjectRequest(WriteMode.OVERWRITE, putObjectRequest);
+
+        final ProgressListener listener = putObjectRequest.getProgressListener();
+        publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
+        return doOperationAsync(request, new ResponseParser<PutObjectResult>() {
+            @Override
+            public PutObjectResult parse(ResponseMessage response) throws ResponseParseException {
+                PutObjectResult result = parser.parse(response);
+                if (isCrcCheckEnabled()) {
+                    OSSUtils.checkChecksum(result.getClientCRC(), result.getServerCRC(), result.getRequestId());
+                }
+                return result;
+            }
+        }, request.getBucket(), request.getKey(), true, null, createWriteObjectResponseHandlers(putObjectRequest),
+                new ProgressPublishingHandler<PutObjectResult>(listener, ProgressEventType.TRANSFER_COMPLETED_EVENT,
+                        ProgressEventType.TRANSFER_FAILED_EVENT, handler));
+    }
+
     /**
      * Upload input stream to oss by using url signature.
      */
@@ -298,6 +330,51 @@ public class OSSObjectOperation extends OSSOperation {
 
         assertParameterNotNull(getObjectRequest, "getObjectRequest");
 
+        RequestMessage request = createGetObjectRequest(getObjectRequest);
+        String bucketName = request.getBucket();
+        String key = request.getKey();
+
+        final ProgressListener listener = getObjectRequest.getProgressListener();
+        OSSObject ossObject = null;
+        try {
+            publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
+            ossObject = doOperation(request, new GetObjectResponseParser(bucketName, key), bucketName, key, true);
+            wrapObjectContent(ossObject, listener);
+        } catch (RuntimeException e) {
+            publishProgress(listener, ProgressEventType.TRANSFER_FAILED_EVENT);
+            throw e;
+        }
+
+        return ossObject;
+    }
+
+    /**
+     * Pull an object from oss asynchronously.
+     */
+    public Future<OSSObject> getObjectAsync(GetObjectRequest getObjectRequest, AsyncHandler<OSSObject> handler)
+            throws ClientException {
+
+        assertParameterNotNull(getObjectRequest, "getObjectRequest");
+
+        RequestMessage request = createGetObjectRequest(getObjectRequest);
+        String bucketName = request.getBucket();
+        String key = request.getKey();
+
+        final ProgressListener listener = getObjectRequest.getProgressListener();
+        final GetObjectResponseParser parser = new GetObjectResponseParser(bucketName, key);
+        publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
+        return doOperationAsync(request, new ResponseParser<OSSObject>() {
+            @Override
+            public OSSObject parse(ResponseMessage response) throws ResponseParseException {
+                OSSObject ossObject = parser.parse(response);
+                wrapObjectContent(ossObject, listener);
+                return ossObject;
+            }
+        }, bucketName, key, true, null, null, new ProgressPublishingHandler<OSSObject>(listener, null,
+                ProgressEventType.TRANSFER_FAILED_EVENT, handler));
+    }
+
+    private RequestMessage createGetObjectRequest(GetObjectRequest getObjectRequest) {
         String bucketName = null;
         String key = null;
         RequestMessage request = null;
@@ -340,27 +417,20 @@ public class OSSObjectOperation extends OSSOperation {
             request.setHeaders(getObjectRequest.getHeaders());
         }
 
-        final ProgressListener listener = getObjectRequest.getProgressListener();
-        OSSObject ossObject = null;
-        try {
-            publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
-            ossObject = doOperation(request, new GetObjectResponseParser(bucketName, key), bucketName, key, true);
-            InputStream instream = ossObject.getObjectContent();
-            ProgressInputStream progressInputStream = new ProgressInputStream(instream, listener) {
-                @Override
-                protected void onEOF() {
-                    publishProgress(getListener(), ProgressEventType.TRANSFER_COMPLETED_EVENT);
-                };
-            };
-            CRC64 crc = new CRC64();
-            CheckedInputStream checkedInputstream = new CheckedInputStream(progressInputStream, crc);
-            ossObject.setObjectContent(checkedInputstream);
-        } catch (RuntimeException e) {
-            publishProgress(listener, ProgressEventType.TRANSFER_FAILED_EVENT);
-            throw e;
-        }
+        return request;
+    }
 
-        return ossObject;
+    private static void wrapObjectContent(OSSObject ossObject, ProgressListener listener) {
+        InputStream instream = ossObject.getObjectContent();
+        ProgressInputStream progressInputStream = new ProgressInputStream(instream, listener) {
+            @Override
+            protected void onEOF() {
+                publishProgress(getListener(), ProgressEventType.TRANSFER_COMPLETED_EVENT);
+            };
+        };
+        CRC64 crc = new CRC64();
+        CheckedInputStream checkedInputstream = new CheckedInputStream(progressInputStream, crc);
+        ossObject.setObjectContent(checkedInputstream);
     }
 
     /**
@@ -497,6 +567,23 @@ public class OSSObjectOperation extends OSSOperation {
      */
     public VoidResult deleteObject(GenericRequest genericRequest) throws OSSException, ClientException {
 
+        RequestMessage request = createDeleteObjectRequest(genericRequest);
+        return doOperation(request, requestIdResponseParser, request.getBucket(), request.getKey());
+    }
+
+    /**
+     * Delete an object asynchronously.
+     */
+    public Future<VoidResult> deleteObjectAsync(GenericRequest genericRequest, AsyncHandler<VoidResult> handler)
+            throws ClientException {
+
+        RequestMessage request = createDeleteObjectRequest(genericRequest);
+        return doOperationAsync(request, requestIdResponseParser, request.getBucket(), request.getKey(), false, null,
+                null, handler);
+    }
+
+    private RequestMessage createDeleteObjectRequest(GenericRequest genericRequest) {
+
         assertParameterNotNull(genericRequest, "genericRequest");
 
         String bucketName = genericRequest.getBucketName();
@@ -514,7 +601,7 @@ public class OSSObjectOperation extends OSSOperation {
                 .setMethod(HttpMethod.DELETE).setBucket(bucketName).setKey(key).setHeaders(headers).setOriginalRequest(genericRequest)
                 .build();
 
-        return doOperation(request, requestIdResponseParser, bucketName, key);
+        return request;
     }
 
     /**
@@ -608,6 +695,23 @@ public class OSSObjectOperation extends OSSOperation {
      */
     public ObjectMetadata headObject(HeadObjectRequest headObjectRequest) throws OSSException, ClientException {
 
+        RequestMessage request = createHeadObjectRequest(headObjectRequest);
+        return doOperation(request, headObjectResponseParser, request.getBucket(), request.getKey());
+    }
+
+    /**
+     * Get head information asynchronously.
+     */
+    public Future<ObjectMetadata> headObjectAsync(HeadObjectRequest headObjectRequest,
+            AsyncHandler<ObjectMetadata> handler) throws ClientException {
+
+        RequestMessage request = createHeadObjectRequest(headObjectRequest);
+        return doOperationAsync(request, headObjectResponseParser, request.getBucket(), request.getKey(), false, null,
+                null, handler);
+    }
+
+    private RequestMessage createHeadObjectRequest(HeadObjectRequest headObjectRequest) {
+
         assertParameterNotNull(headObjectRequest, "headObjectRequest");
 
         String bucketName = headObjectRequest.getBucketName();
@@ -639,7 +743,7 @@ public class OSSObjectOperation extends OSSOperation {
                 .setMethod(HttpMethod.HEAD).setBucket(bucketName).setKey(key).setHeaders(headers).setParameters(params)
                 .setOriginalRequest(headObjectRequest).build();
 
-        return doOperation(request, headObjectResponseParser, bucketName, key);
+        return request;
     }
 
     public VoidResult setObjectAcl(SetObjectAclRequest setObjectAclRequest) throws OSSException, ClientException {
@@ -1115,6 +1219,35 @@ public class OSSObjectOperation extends OSSOperation {
     private <RequestType extends PutObjectRequest, ResponseType> ResponseType writeObjectInternal(WriteMode mode,
             RequestType originalRequest, ResponseParser<ResponseType> responseParser) {
 
+        RequestMessage httpRequest = createWriteObjectRequest(mode, originalRequest);
+        String bucketName = httpRequest.getBucket();
+        String key = httpRequest.getKey();
+
+        final ProgressListener listener = originalRequest.getProgressListener();
+        ResponseType result = null;
+        try {
+            publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
+            result = doOperation(httpRequest, responseParser, bucketName, key, true, null,
+                    createWriteObjectResponseHandlers(originalRequest));
+            publishProgress(listener, ProgressEventType.TRANSFER_COMPLETED_EVENT);
+        } catch (RuntimeException e) {
+            publishProgress(listener, ProgressEventType.TRANSFER_FAILED_EVENT);
+            throw e;
+        }
+        return result;
+    }
+
+    private static List<ResponseHandler> createWriteObjectResponseHandlers(PutObjectRequest originalRequest) {
+        if (originalRequest.getCallback() == null) {
+            return null;
+        }
+        List<ResponseHandler> reponseHandlers = new ArrayList<ResponseHandler>();
+        reponseHandlers.add(new OSSCallbackErrorResponseHandler());
+        return reponseHandlers;
+    }
+
+    private RequestMessage createWriteObjectRequest(WriteMode mode, PutObjectRequest originalRequest) {
+
         final String bucketName = originalRequest.getBucketName();
         final String key = originalRequest.getKey();
         InputStream originalInputStream = originalRequest.getInputStream();
@@ -1179,24 +1312,7 @@ public class OSSObjectOperation extends OSSOperation {
                 .setInputSize(determineInputStreamLength(repeatableInputStream, metadata.getContentLength()))
                 .setOriginalRequest(originalRequest).build();
 
-        List<ResponseHandler> reponseHandlers = new ArrayList<ResponseHandler>();
-        reponseHandlers.add(new OSSCallbackErrorResponseHandler());
-
-        final ProgressListener listener = originalRequest.getProgressListener();
-        ResponseType result = null;
-        try {
-            publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
-            if (originalRequest.getCallback() == null) {
-                result = doOperation(httpRequest, responseParser, bucketName, key, true);
-            } else {
-                result = doOperation(httpRequest, responseParser, bucketName, key, true, null, reponseHandlers);
-            }
-            publishProgress(listener, ProgressEventType.TRANSFER_COMPLETED_EVENT);
-        } catch (RuntimeException e) {
-            publishProgress(listener, ProgressEventType.TRANSFER_FAILED_EVENT);
-            throw e;
-        }
-        return result;
+        return httpRequest;
     }
 
     private boolean isCrcCheckEnabled() {
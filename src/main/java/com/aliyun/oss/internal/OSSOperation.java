@@ -21,11 +21,16 @@ package com.aliyun.oss.internal;
 
 import static com.aliyun.oss.common.utils.CodingUtils.assertParameterNotNull;
 import static com.aliyun.oss.common.utils.LogUtils.logException;
+import static com.aliyun.oss.event.ProgressPublisher.publishProgress;
 import static com.aliyun.oss.internal.OSSConstants.DEFAULT_CHARSET_NAME;
 import static com.aliyun.oss.internal.OSSUtils.safeCloseResponse;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
 
 import com.aliyun.core.tracing.*;
 import com.aliyun.oss.*;
@@ -36,13 +41,20 @@ import com.aliyun.oss.common.comm.*;
 import com.aliyun.oss.common.parser.ResponseParseException;
 import com.aliyun.oss.common.parser.ResponseParser;
 import com.aliyun.oss.common.utils.ExceptionFactory;
+import com.aliyun.oss.event.ProgressEventType;
+import com.aliyun.oss.event.ProgressListener;
 import com.aliyun.oss.internal.ResponseParsers.EmptyResponseParser;
 import com.aliyun.oss.internal.ResponseParsers.RequestIdResponseParser;
 import com.aliyun.oss.internal.signer.OSSSignerBase;
 import com.aliyun.oss.internal.signer.OSSSignerParams;
+import com.aliyun.oss.metrics.MetricsListener;
+import com.aliyun.oss.metrics.RequestMetrics;
+import com.aliyun.oss.model.GenericRequest;
 import com.aliyun.oss.model.WebServiceRequest;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Span;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
 
 /**
  * Abstract base class that provides some common functionalities for OSS
@@ -160,6 +172,145 @@ public abstract class OSSOperation {
             boolean keepResponseOpen, List<RequestHandler> requestHandlers, List<ResponseHandler> reponseHandlers)
             throws OSSException, ClientException {
 
+        Span span = startSpan(request, bucketName);
+        MetricsListener listener = client.getClientConfiguration().getMetricsListener();
+        RequestMetrics metrics = createMetrics(listener, request, bucketName, key);
+        ExecutionContext context = createExecutionContext(request, bucketName, key, requestHandlers, reponseHandlers);
+        context.setMetrics(metrics);
+
+        ResponseMessage response = null;
+        Exception failure = null;
+        boolean completedOnRead = false;
+        try {
+            response = send(request, context, keepResponseOpen);
+            if (metrics != null && keepResponseOpen && response.getContent() != null) {
+                response.setContent(new MetricsInputStream(response, listener, metrics));
+                completedOnRead = true;
+            }
+            return parser.parse(response);
+        } catch (ResponseParseException rpe) {
+            OSSException oe = ExceptionFactory.createInvalidResponseException(response.getRequestId(), rpe.getMessage(),
+                    rpe);
+            logException("Unable to parse response error: ", rpe);
+            if (span != null) {
+                span.setAttribute("alibaba.cloud.error.code", "ParseResponseError");
+            }
+            failure = oe;
+            throw oe;
+        } catch (OSSException e) {
+            if (span != null) {
+                span.setAttribute("alibaba.cloud.error.code", e.getErrorCode());
+                span.setAttribute("alibaba.cloud.request_id", e.getRequestId());
+            }
+            failure = e;
+            throw e;
+        } catch (ClientException ce) {
+            if (span != null) {
+                span.setAttribute("alibaba.cloud.error.code", ce.getErrorCode());
+            }
+            failure = ce;
+            throw ce;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            if (span != null) {
+                if (response != null) {
+                    span.setAttribute("alibaba.cloud.request_id", response.getRequestId());
+                    span.setAttribute("http.response.status_code", String.valueOf(response.getStatusCode()));
+                }
+                span.end();
+            }
+            if (metrics != null && (failure != null || !completedOnRead)) {
+                completeMetrics(listener, metrics, response, failure);
+            }
+        }
+    }
+
+    /**
+     * Sends the request without blocking the caller thread when the inner
+     * client is an {@link AsyncServiceClient}, otherwise the operation is
+     * executed synchronously and a completed future is returned. The parser
+     * runs on the I/O thread once the response is received.
+     */
+    protected <T> Future<T> doOperationAsync(RequestMessage request, final ResponseParser<T> parser,
+            String bucketName, String key, final boolean keepResponseOpen, List<RequestHandler> requestHandlers,
+            List<ResponseHandler> reponseHandlers, AsyncHandler<T> handler) {
+
+        final OperationFuture<T> future = new OperationFuture<T>(handler);
+        if (!(client instanceof AsyncServiceClient)) {
+            try {
+                future.completed(doOperation(request, parser, bucketName, key, keepResponseOpen, requestHandlers,
+                        reponseHandlers));
+            } catch (RuntimeException e) {
+                future.failed(e);
+            }
+            return future;
+        }
+
+        final Span span = startSpan(request, bucketName);
+        final MetricsListener listener = client.getClientConfiguration().getMetricsListener();
+        final RequestMetrics metrics = createMetrics(listener, request, bucketName, key);
+        ExecutionContext context;
+        try {
+            context = createExecutionContext(request, bucketName, key, requestHandlers, reponseHandlers);
+            context.setMetrics(metrics);
+        } catch (RuntimeException e) {
+            endSpan(span, null, e);
+            completeMetrics(listener, metrics, null, e);
+            future.failed(e);
+            return future;
+        }
+
+        future.inner = ((AsyncServiceClient) client).sendRequestAsync(request, context,
+                new FutureCallback<ResponseMessage>() {
+                    @Override
+                    public void completed(ResponseMessage response) {
+                        T result;
+                        try {
+                            result = parser.parse(response);
+                        } catch (ResponseParseException rpe) {
+                            logException("Unable to parse response error: ", rpe);
+                            OSSException oe = ExceptionFactory.createInvalidResponseException(
+                                    response.getRequestId(), rpe.getMessage(), rpe);
+                            safeCloseResponse(response);
+                            endSpan(span, response, oe);
+                            completeMetrics(listener, metrics, response, oe);
+                            future.failed(oe);
+                            return;
+                        } catch (RuntimeException e) {
+                            safeCloseResponse(response);
+                            endSpan(span, response, e);
+                            completeMetrics(listener, metrics, response, e);
+                            future.failed(e);
+                            return;
+                        }
+                        if (!keepResponseOpen) {
+                            safeCloseResponse(response);
+                        }
+                        endSpan(span, response, null);
+                        completeMetrics(listener, metrics, response, null);
+                        future.completed(result);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        endSpan(span, null, ex);
+                        completeMetrics(listener, metrics, null, ex);
+                        future.failed(ex);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        endSpan(span, null, null);
+                        completeMetrics(listener, metrics, null, null);
+                        future.cancel(false);
+                    }
+                });
+        return future;
+    }
+
+    private Span startSpan(RequestMessage request, String bucketName) {
         Span span = null;
         if (client.getClientConfiguration().isTracerEnabled()){
             AlibabaCloudTracer alibabaCloudTracer = AlibabaCloudTracerProvider.getInstance().getTracer();
@@ -176,7 +327,98 @@ public abstract class OSSOperation {
                 span = alibabaCloudSpanBuilder.setAllAttributes(attributes).startSpan();
             }
         }
+        return span;
+    }
 
+    private static void endSpan(Span span, ResponseMessage response, Exception e) {
+        if (span == null) {
+            return;
+        }
+        if (e instanceof OSSException) {
+            span.setAttribute("alibaba.cloud.error.code", ((OSSException) e).getErrorCode());
+            span.setAttribute("alibaba.cloud.request_id", ((OSSException) e).getRequestId());
+        } else if (e instanceof ClientException) {
+            span.setAttribute("alibaba.cloud.error.code", ((ClientException) e).getErrorCode());
+        }
+        if (response != null) {
+            span.setAttribute("alibaba.cloud.request_id", response.getRequestId());
+            span.setAttribute("http.response.status_code", String.valueOf(response.getStatusCode()));
+        }
+        span.end();
+    }
+
+    private static RequestMetrics createMetrics(MetricsListener listener, RequestMessage request, String bucketName,
+            String key) {
+        if (listener == null) {
+            return null;
+        }
+        return new RequestMetrics(getOperationName(request), bucketName, key, request.getMethod());
+    }
+
+    private static String getOperationName(RequestMessage request) {
+        WebServiceRequest originalRequest = request.getOriginalRequest();
+        if (originalRequest != null && originalRequest.getClass() != GenericRequest.class
+                && originalRequest.getClass() != WebServiceRequest.class) {
+            String name = originalRequest.getClass().getSimpleName();
+            if (name.endsWith("Request") && name.length() > "Request".length()) {
+                return name.substring(0, name.length() - "Request".length());
+            }
+        }
+        // Plain generic requests are named after the method, the resource and
+        // the valueless subresources (e.g. acl, objectMeta) in sorted order, so
+        // that DeleteObject and DeleteBucket differ and the name is stable.
+        String method = request.getMethod().name();
+        StringBuilder name = new StringBuilder();
+        name.append(method.charAt(0)).append(method.substring(1).toLowerCase());
+        if (request.getKey() != null && request.getKey().length() > 0) {
+            name.append("Object");
+        } else if (request.getBucket() != null) {
+            name.append("Bucket");
+        } else {
+            name.append("Service");
+        }
+        char separator = '?';
+        for (Map.Entry<String, String> param : new TreeMap<String, String>(request.getParameters()).entrySet()) {
+            if (param.getValue() == null || param.getValue().length() == 0) {
+                name.append(separator).append(param.getKey());
+                separator = '&';
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * Completes the metrics of an operation and notifies the listener, only
+     * the first call for the metrics has an effect.
+     */
+    static void completeMetrics(MetricsListener listener, RequestMetrics metrics, ResponseMessage response,
+            Exception e) {
+        if (metrics == null || !metrics.markCompleted()) {
+            return;
+        }
+        if (response != null) {
+            metrics.setStatusCode(response.getStatusCode());
+            metrics.setRequestId(response.getRequestId());
+        }
+        if (e != null) {
+            String errorCode = null;
+            if (e instanceof OSSException) {
+                errorCode = ((OSSException) e).getErrorCode();
+                metrics.setRequestId(((OSSException) e).getRequestId());
+            } else if (e instanceof ClientException) {
+                errorCode = ((ClientException) e).getErrorCode();
+            }
+            metrics.setErrorCode(errorCode != null ? errorCode : e.getClass().getSimpleName());
+        }
+        try {
+            listener.requestCompleted(metrics);
+        } catch (RuntimeException ex) {
+            logException("Unexpected exception thrown by the metrics listener: ", ex);
+        }
+    }
+
+    private ExecutionContext createExecutionContext(RequestMessage request, String bucketName, String key,
+            List<RequestHandler> requestHandlers, List<ResponseHandler> reponseHandlers) {
         final WebServiceRequest originalRequest = request.getOriginalRequest();
         request.getHeaders().putAll(client.getClientConfiguration().getDefaultHeaders());
         request.getHeaders().putAll(originalRequest.getHeaders());
@@ -208,39 +450,7 @@ public abstract class OSSOperation {
                 context.addSignerHandler(signer);
             }
         }
-
-        ResponseMessage response = null;
-        try {
-            response = send(request, context, keepResponseOpen);
-            return parser.parse(response);
-        } catch (ResponseParseException rpe) {
-            OSSException oe = ExceptionFactory.createInvalidResponseException(response.getRequestId(), rpe.getMessage(),
-                    rpe);
-            logException("Unable to parse response error: ", rpe);
-            if (span != null) {
-                span.setAttribute("alibaba.cloud.error.code", "ParseResponseError");
-            }
-            throw oe;
-        } catch (OSSException e) {
-            if (span != null) {
-                span.setAttribute("alibaba.cloud.error.code", e.getErrorCode());
-                span.setAttribute("alibaba.cloud.request_id", e.getRequestId());
-            }
-            throw e;
-        } catch (ClientException ce) {
-            if (span != null) {
-                span.setAttribute("alibaba.cloud.error.code", ce.getErrorCode());
-            }
-            throw ce;
-        } finally {
-            if (span != null) {
-                if (response != null) {
-                    span.setAttribute("alibaba.cloud.request_id", response.getRequestId());
-                    span.setAttribute("http.response.status_code", String.valueOf(response.getStatusCode()));
-                }
-                span.end();
-            }
-        }
+        return context;
     }
 
     private RequestSigner createSigner(String bucketName, String key, Credentials creds, ClientConfiguration config) {
@@ -288,4 +498,94 @@ public abstract class OSSOperation {
     protected boolean isRetryablePostRequest(WebServiceRequest request) {
         return false;
     }
+
+    /**
+     * Future of an asynchronous operation, cancelling it also cancels the
+     * underlying request.
+     */
+    protected static class OperationFuture<T> extends BasicFuture<T> {
+        private volatile Future<?> inner;
+
+        public OperationFuture(AsyncHandler<T> handler) {
+            super(handler != null ? new AsyncHandlerCallback<T>(handler) : null);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> f = this.inner;
+            if (cancelled && f != null) {
+                f.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+    }
+
+    private static class AsyncHandlerCallback<T> implements FutureCallback<T> {
+        private final AsyncHandler<T> handler;
+
+        AsyncHandlerCallback(AsyncHandler<T> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void completed(T result) {
+            try {
+                handler.onSuccess(result);
+            } catch (RuntimeException e) {
+                logException("Unexpected exception thrown by the async handler: ", e);
+            }
+        }
+
+        @Override
+        public void failed(Exception ex) {
+            try {
+                handler.onError(ex);
+            } catch (RuntimeException e) {
+                logException("Unexpected exception thrown by the async handler: ", e);
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            failed(new CancellationException());
+        }
+    }
+
+    /**
+     * Wraps an {@link AsyncHandler} to publish the transfer progress events
+     * that the synchronous operations publish around the request.
+     */
+    protected static class ProgressPublishingHandler<T> implements AsyncHandler<T> {
+        private final ProgressListener listener;
+        private final ProgressEventType completedEventType;
+        private final ProgressEventType failedEventType;
+        private final AsyncHandler<T> delegate;
+
+        public ProgressPublishingHandler(ProgressListener listener, ProgressEventType completedEventType,
+                ProgressEventType failedEventType, AsyncHandler<T> delegate) {
+            this.listener = listener;
+            this.completedEventType = completedEventType;
+            this.failedEventType = failedEventType;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onSuccess(T result) {
+            if (completedEventType != null) {
+                publishProgress(listener, completedEventType);
+            }
+            if (delegate != null) {
+                delegate.onSuccess(result);
+            }
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            publishProgress(listener, failedEventType);
+            if (delegate != null) {
+                delegate.onError(exception);
+            }
+        }
+    }
 }
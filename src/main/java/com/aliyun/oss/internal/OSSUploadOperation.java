@@ -25,14 +25,18 @@ import static com.aliyun.oss.common.utils.LogUtils.logException;
 import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameValid;
 import static com.aliyun.oss.internal.OSSUtils.ensureObjectKeyValid;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -47,6 +51,7 @@ import java.util.concurrent.TimeUnit;
 import com.aliyun.oss.ClientException;
 import com.aliyun.oss.InconsistentException;
 import com.aliyun.oss.OSSException;
+import com.aliyun.oss.common.comm.io.FileChannelRegionInputStream;
 import com.aliyun.oss.common.utils.CRC64;
 import com.aliyun.oss.event.ProgressEventType;
 import com.aliyun.oss.event.ProgressListener;
@@ -102,24 +107,63 @@ public class OSSUploadOperation {
          * Gets the checkpoint data from the checkpoint file.
          */
         public synchronized void load(String cpFile) throws IOException, ClassNotFoundException {
-            FileInputStream fileIn = new FileInputStream(cpFile);
-            CheckPointObjectInputStream in = new CheckPointObjectInputStream(fileIn);
-            UploadCheckPoint ucp = (UploadCheckPoint) in.readObject();
+            CheckPointJournal.Content content = CheckPointJournal.read(cpFile);
+            UploadCheckPoint ucp = (UploadCheckPoint) content.snapshot;
             assign(ucp);
-            in.close();
-            fileIn.close();
+            // Replays the completed parts on a snapshot that is intact.
+            if (!content.records.isEmpty() && this.md5 == hashCode()) {
+                for (byte[] record : content.records) {
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+                    int partIndex = in.readInt();
+                    int partNumber = in.readInt();
+                    long crc = in.readLong();
+                    String eTag = in.readUTF();
+                    uploadParts.get(partIndex).crc = crc;
+                    update(partIndex, new PartETag(partNumber, eTag), true);
+                }
+                this.md5 = hashCode();
+            }
         }
 
         /**
-         * Writes the checkpoint data to the checkpoint file.
+         * Writes the checkpoint data to the checkpoint file, folding the
+         * journaled parts into it.
          */
         public synchronized void dump(String cpFile) throws IOException {
+            closeJournal();
             this.md5 = hashCode();
-            FileOutputStream fileOut = new FileOutputStream(cpFile);
-            ObjectOutputStream outStream = new ObjectOutputStream(fileOut);
-            outStream.writeObject(this);
-            outStream.close();
-            fileOut.close();
+            CheckPointJournal.writeSnapshot(cpFile, this);
+        }
+
+        /**
+         * Appends the part upload completion to the checkpoint file, which
+         * must hold a snapshot written by {@link #dump(String)}.
+         */
+        public void journal(String cpFile, int partIndex, PartETag partETag) throws IOException {
+            CheckPointJournal journal;
+            synchronized (this) {
+                if (this.journal == null) {
+                    this.journal = new CheckPointJournal(cpFile);
+                }
+                journal = this.journal;
+            }
+            ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(record);
+            out.writeInt(partIndex);
+            out.writeInt(partETag.getPartNumber());
+            out.writeLong(uploadParts.get(partIndex).crc);
+            out.writeUTF(partETag.getETag());
+            journal.append(record.toByteArray());
+        }
+
+        /**
+         * Closes the checkpoint file opened by the journal.
+         */
+        public synchronized void closeJournal() throws IOException {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
         }
 
         /**
@@ -195,6 +239,7 @@ public class OSSUploadOperation {
         public ArrayList<UploadPart> uploadParts;
         public ArrayList<PartETag> partETags;
         public long originPartSize;
+        private transient CheckPointJournal journal;
     }
 
     static class FileStat implements Serializable {
@@ -320,6 +365,21 @@ public class OSSUploadOperation {
         this.multipartOperation = multipartOperation;
     }
 
+    public TransferScheduler getTransferScheduler() {
+        return transferScheduler;
+    }
+
+    /**
+     * Sets the scheduler that runs the part tasks. Without a scheduler every
+     * transfer runs its parts on a thread pool of its own.
+     *
+     * @param transferScheduler
+     *            The transfer scheduler of the client.
+     */
+    public void setTransferScheduler(TransferScheduler transferScheduler) {
+        this.transferScheduler = transferScheduler;
+    }
+
     public UploadFileResult uploadFile(UploadFileRequest uploadFileRequest) throws Throwable {
         assertParameterNotNull(uploadFileRequest, "uploadFileRequest");
 
@@ -374,8 +434,23 @@ public class OSSUploadOperation {
         ProgressListener listener = uploadFileRequest.getProgressListener();
         ProgressPublisher.publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
 
+        // The part completions are journaled after this snapshot.
+        if (uploadFileRequest.isEnableCheckpoint()) {
+            uploadCheckPoint.dump(uploadFileRequest.getCheckpointFile());
+        }
+
         // Concurrently upload parts.
-        List<PartResult> partResults = upload(uploadCheckPoint, uploadFileRequest);
+        List<PartResult> partResults;
+        try {
+            partResults = upload(uploadCheckPoint, uploadFileRequest);
+        } finally {
+            uploadCheckPoint.closeJournal();
+        }
+        // Compacts the journal, so completing the upload can be resumed
+        // from a single snapshot.
+        if (uploadFileRequest.isEnableCheckpoint()) {
+            uploadCheckPoint.dump(uploadFileRequest.getCheckpointFile());
+        }
         for (PartResult partResult : partResults) {
             if (partResult.isFailed()) {
                 ProgressPublisher.publishProgress(listener, ProgressEventType.TRANSFER_PART_FAILED_EVENT);
@@ -458,7 +533,9 @@ public class OSSUploadOperation {
     private ArrayList<PartResult> upload(UploadCheckPoint uploadCheckPoint, UploadFileRequest uploadFileRequest)
             throws Throwable {
         ArrayList<PartResult> taskResults = new ArrayList<PartResult>();
-        ExecutorService service = Executors.newFixedThreadPool(uploadFileRequest.getTaskNum());
+        ExecutorService service = transferScheduler != null
+                ? transferScheduler.newTransfer(uploadFileRequest.getPriority(), uploadFileRequest.getTaskNum())
+                : Executors.newFixedThreadPool(uploadFileRequest.getTaskNum());
         ArrayList<Future<PartResult>> futures = new ArrayList<Future<PartResult>>();
         ProgressListener listener = uploadFileRequest.getProgressListener();
 
@@ -477,20 +554,34 @@ public class OSSUploadOperation {
         ProgressPublisher.publishRequestBytesTransferred(listener, completedLength);
         uploadFileRequest.setProgressListener(null);
 
-        // Upload parts.
-        for (int i = 0; i < uploadCheckPoint.uploadParts.size(); i++) {
-            if (!uploadCheckPoint.uploadParts.get(i).isCompleted) {
-                futures.add(service.submit(new Task(i, "upload-" + i, uploadCheckPoint, i, uploadFileRequest,
-                        multipartOperation, listener)));
-            } else {
-                taskResults.add(new PartResult(i + 1, uploadCheckPoint.uploadParts.get(i).offset,
-                        uploadCheckPoint.uploadParts.get(i).size, uploadCheckPoint.uploadParts.get(i).crc));
+        // All the parts read from one channel of the upload file.
+        RandomAccessFile input = null;
+        FileChannel channel = null;
+        if (uploadFileRequest.isSharedFileChannel()) {
+            input = new RandomAccessFile(uploadCheckPoint.uploadFile, "r");
+            channel = input.getChannel();
+        }
+
+        try {
+            // Upload parts.
+            for (int i = 0; i < uploadCheckPoint.uploadParts.size(); i++) {
+                if (!uploadCheckPoint.uploadParts.get(i).isCompleted) {
+                    futures.add(service.submit(new Task(i, "upload-" + i, uploadCheckPoint, i, uploadFileRequest,
+                            multipartOperation, listener, channel)));
+                } else {
+                    taskResults.add(new PartResult(i + 1, uploadCheckPoint.uploadParts.get(i).offset,
+                            uploadCheckPoint.uploadParts.get(i).size, uploadCheckPoint.uploadParts.get(i).crc));
+                }
             }
-        }
-        service.shutdown();
+            service.shutdown();
 
-        // Waiting for parts upload complete.
-        service.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+            // Waiting for parts upload complete.
+            service.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        } finally {
+            if (input != null) {
+                input.close();
+            }
+        }
         for (Future<PartResult> future : futures) {
             try {
                 PartResult tr = future.get();
@@ -518,6 +609,13 @@ public class OSSUploadOperation {
         public Task(int id, String name, UploadCheckPoint uploadCheckPoint, int partIndex,
                 UploadFileRequest uploadFileRequest, OSSMultipartOperation multipartOperation,
                 ProgressListener progressListener) {
+            this(id, name, uploadCheckPoint, partIndex, uploadFileRequest, multipartOperation, progressListener,
+                    null);
+        }
+
+        public Task(int id, String name, UploadCheckPoint uploadCheckPoint, int partIndex,
+                UploadFileRequest uploadFileRequest, OSSMultipartOperation multipartOperation,
+                ProgressListener progressListener, FileChannel channel) {
             this.id = id;
             this.name = name;
             this.uploadCheckPoint = uploadCheckPoint;
@@ -525,6 +623,7 @@ public class OSSUploadOperation {
             this.uploadFileRequest = uploadFileRequest;
             this.multipartOperation = multipartOperation;
             this.progressListener = progressListener;
+            this.channel = channel;
         }
 
         @Override
@@ -536,8 +635,13 @@ public class OSSUploadOperation {
                 UploadPart uploadPart = uploadCheckPoint.uploadParts.get(partIndex);
                 tr = new PartResult(partIndex + 1, uploadPart.offset, uploadPart.size);
 
-                instream = new FileInputStream(uploadCheckPoint.uploadFile);
-                instream.skip(uploadPart.offset);
+                if (channel != null) {
+                    instream = new FileChannelRegionInputStream(channel, uploadPart.offset, uploadPart.size,
+                            uploadFileRequest.isMemoryMapped());
+                } else {
+                    instream = new FileInputStream(uploadCheckPoint.uploadFile);
+                    instream.skip(uploadPart.offset);
+                }
 
                 UploadPartRequest uploadPartRequest = new UploadPartRequest();
                 uploadPartRequest.setBucketName(uploadFileRequest.getBucketName());
@@ -568,7 +672,7 @@ public class OSSUploadOperation {
                 PartETag partETag = new PartETag(uploadPartResult.getPartNumber(), uploadPartResult.getETag());
                 uploadCheckPoint.update(partIndex, partETag, true);
                 if (uploadFileRequest.isEnableCheckpoint()) {
-                    uploadCheckPoint.dump(uploadFileRequest.getCheckpointFile());
+                    uploadCheckPoint.journal(uploadFileRequest.getCheckpointFile(), partIndex, partETag);
                 }
                 ProgressPublisher.publishRequestBytesTransferred(progressListener, uploadPart.size);
             } catch (Exception e) {
@@ -591,6 +695,7 @@ public class OSSUploadOperation {
         private UploadFileRequest uploadFileRequest;
         private OSSMultipartOperation multipartOperation;
         private ProgressListener progressListener;
+        private FileChannel channel;
     }
 
     private CompleteMultipartUploadResult complete(UploadCheckPoint uploadCheckPoint,
@@ -666,4 +771,5 @@ public class OSSUploadOperation {
     }
 
     protected OSSMultipartOperation multipartOperation;
+    private TransferScheduler transferScheduler;
 }
@@ -0,0 +1,459 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.model.ListObjectsV2Request;
+import com.aliyun.oss.model.ListObjectsV2Result;
+import com.aliyun.oss.model.ListingProgress;
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.ParallelListObjectsRequest;
+import com.aliyun.oss.model.ParallelObjectListing;
+
+/**
+ * Lists the objects under a prefix with several ListObjectsV2 continuation
+ * chains running concurrently on a bounded executor.
+ * <p>
+ * Each chain is a partition: a prefix plus an optional key range
+ * (startAfter, upperBound]. Common prefixes returned for a delimiter become
+ * partitions of their own, and a partition with more pages is split in two
+ * at a printable ASCII boundary whenever fewer partitions are running than
+ * the executor has threads. Ranges never overlap, so every key is listed
+ * exactly once.
+ * </p>
+ * <p>
+ * The listed objects are appended to segments. Without ordering all the
+ * partitions share one segment. With ordering every partition owns a
+ * segment, and common prefixes and split ranges are nested into it as child
+ * segments at their key position, so an in-order walk of the segment tree
+ * returns the keys sorted. A partition stops requesting pages once too many
+ * objects are buffered, unless the caller is waiting for its segment, and
+ * is resumed as the caller consumes them. No thread ever blocks on the
+ * buffer, so an abandoned listing can't hold the executor hostage.
+ * </p>
+ */
+class ParallelListObjectsEngine implements ParallelObjectListing {
+
+    private static final char LOWEST_BOUNDARY_CHAR = 0x20;
+    private static final char HIGHEST_BOUNDARY_CHAR = 0x7E;
+
+    private static final AtomicInteger listingNumber = new AtomicInteger(1);
+
+    private final OSSBucketOperation bucketOperation;
+    private final ParallelListObjectsRequest request;
+    private final ThreadPoolExecutor executor;
+    private final long startTime = System.currentTimeMillis();
+
+    private final Segment root = new Segment();
+    /* The segments the caller is walking, the last one is being read */
+    private final LinkedList<Segment> path = new LinkedList<Segment>();
+    private final List<Partition> parked = new ArrayList<Partition>();
+    private OSSObjectSummary nextSummary;
+
+    private int activePartitions;
+    private int bufferedObjects;
+    private int inFlightRequests;
+    private long requestCount;
+    private long listedObjectCount;
+    private long returnedObjectCount;
+    private long partitionCount;
+    private Throwable error;
+    private boolean closed;
+
+    ParallelListObjectsEngine(OSSBucketOperation bucketOperation, ParallelListObjectsRequest request) {
+        this.bucketOperation = bucketOperation;
+        this.request = request;
+
+        final String threadPrefix = "oss-parallel-list-" + listingNumber.getAndIncrement() + "-";
+        int threads = request.getMaxConcurrentRequests();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, threadPrefix + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+
+        String prefix = request.getPrefix() == null ? "" : request.getPrefix();
+        synchronized (this) {
+            path.addLast(root);
+            startPartition(new Partition(prefix, null, null, root));
+        }
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        while (true) {
+            if (error != null) {
+                throw propagate(error);
+            }
+            if (closed) {
+                return false;
+            }
+            if (nextSummary != null) {
+                return true;
+            }
+            if (path.isEmpty()) {
+                return false;
+            }
+
+            Segment head = path.getLast();
+            if (!head.entries.isEmpty()) {
+                Object entry = head.entries.removeFirst();
+                if (entry instanceof Segment) {
+                    path.addLast((Segment) entry);
+                } else {
+                    nextSummary = (OSSObjectSummary) entry;
+                    bufferedObjects--;
+                    resumeParkedPartitions();
+                }
+                continue;
+            }
+            if (head.done) {
+                path.removeLast();
+                continue;
+            }
+
+            // The caller needs this segment next, let its writer run even if
+            // the buffer is full.
+            if (head.writer != null && parked.remove(head.writer)) {
+                submit(head.writer);
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting for the listing.", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized OSSObjectSummary next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        OSSObjectSummary summary = nextSummary;
+        nextSummary = null;
+        returnedObjectCount++;
+        return summary;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("The listing is read-only.");
+    }
+
+    @Override
+    public synchronized ListingProgress getProgress() {
+        return new ListingProgress(requestCount, inFlightRequests, listedObjectCount, returnedObjectCount,
+                partitionCount, bufferedObjects, System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            parked.clear();
+            executor.shutdownNow();
+            notifyAll();
+        }
+    }
+
+    private void startPartition(Partition partition) {
+        activePartitions++;
+        partitionCount++;
+        if (request.isOrdered()) {
+            partition.segment.writer = partition;
+        }
+        submit(partition);
+    }
+
+    private void finishPartition(Partition partition) {
+        activePartitions--;
+        if (request.isOrdered()) {
+            partition.segment.writer = null;
+            partition.segment.done = true;
+        }
+        if (activePartitions == 0) {
+            root.done = true;
+            executor.shutdown();
+        }
+        notifyAll();
+    }
+
+    private void submit(Partition partition) {
+        try {
+            executor.execute(partition);
+        } catch (RejectedExecutionException e) {
+            // The listing has been closed.
+        }
+    }
+
+    private void resumeParkedPartitions() {
+        if (bufferedObjects < request.getMaxBufferedObjects() && !parked.isEmpty()) {
+            for (Partition partition : parked) {
+                submit(partition);
+            }
+            parked.clear();
+        }
+    }
+
+    private boolean isReadByCaller(Segment segment) {
+        return !path.isEmpty() && path.getLast() == segment;
+    }
+
+    /**
+     * A continuation chain over the keys under prefix in the range
+     * (startAfter, upperBound]. It runs one request per execution and
+     * resubmits itself while there are more pages.
+     */
+    private final class Partition implements Runnable {
+
+        private final String prefix;
+        private final String startAfter;
+        private String upperBound;
+        private String continuationToken;
+        private Segment segment;
+
+        Partition(String prefix, String startAfter, String upperBound, Segment segment) {
+            this.prefix = prefix;
+            this.startAfter = startAfter;
+            this.upperBound = upperBound;
+            this.segment = segment;
+        }
+
+        @Override
+        public void run() {
+            ListObjectsV2Request listRequest;
+            synchronized (ParallelListObjectsEngine.this) {
+                if (closed || error != null) {
+                    finishPartition(this);
+                    return;
+                }
+                boolean bufferFull = bufferedObjects >= request.getMaxBufferedObjects();
+                if (bufferFull && !(request.isOrdered() && isReadByCaller(segment))) {
+                    parked.add(this);
+                    return;
+                }
+                inFlightRequests++;
+                requestCount++;
+
+                listRequest = new ListObjectsV2Request(request.getBucketName(), prefix, continuationToken,
+                        continuationToken == null ? startAfter : null, request.getDelimiter(),
+                        request.getMaxKeys(), null, request.isFetchOwner());
+                OSSBucketOperation.copyRequestSettings(request, listRequest);
+            }
+
+            ListObjectsV2Result result = null;
+            Throwable failure = null;
+            try {
+                result = bucketOperation.listObjectsV2(listRequest);
+            } catch (Throwable t) {
+                failure = t;
+            }
+
+            synchronized (ParallelListObjectsEngine.this) {
+                inFlightRequests--;
+                if (failure != null) {
+                    if (error == null) {
+                        error = failure;
+                    }
+                    finishPartition(this);
+                } else if (!closed && accept(result)) {
+                    submit(this);
+                    ParallelListObjectsEngine.this.notifyAll();
+                } else {
+                    finishPartition(this);
+                }
+            }
+        }
+
+        /**
+         * Appends the entries of a page in key order and returns whether the
+         * partition has more pages.
+         */
+        private boolean accept(ListObjectsV2Result result) {
+            List<OSSObjectSummary> objects = result.getObjectSummaries();
+            List<String> prefixes = request.getDelimiter() == null ? Collections.<String>emptyList()
+                    : result.getCommonPrefixes();
+
+            int i = 0;
+            int j = 0;
+            String lastKey = null;
+            boolean beyondRange = false;
+            while (i < objects.size() || j < prefixes.size()) {
+                boolean isObject = j >= prefixes.size()
+                        || (i < objects.size() && compareKeys(objects.get(i).getKey(), prefixes.get(j)) < 0);
+                String key = isObject ? objects.get(i).getKey() : prefixes.get(j);
+                if (upperBound != null && compareKeys(key, upperBound) > 0) {
+                    beyondRange = true;
+                    break;
+                }
+
+                if (isObject) {
+                    segment.entries.addLast(objects.get(i++));
+                    bufferedObjects++;
+                    listedObjectCount++;
+                } else {
+                    j++;
+                    Segment child = root;
+                    if (request.isOrdered()) {
+                        child = new Segment();
+                        segment.entries.addLast(child);
+                    }
+                    startPartition(new Partition(key, null, null, child));
+                }
+                lastKey = key;
+            }
+
+            continuationToken = result.getNextContinuationToken();
+            boolean morePages = !beyondRange && result.isTruncated() && continuationToken != null;
+            if (morePages && lastKey != null && request.isSplitRanges()
+                    && activePartitions < request.getMaxConcurrentRequests()) {
+                split(lastKey);
+            }
+            return morePages;
+        }
+
+        /**
+         * Hands the upper half of the remaining range to a new partition.
+         */
+        private void split(String lastKey) {
+            String boundarySuffix = boundaryBetween(lastKey.substring(prefix.length()),
+                    upperBound == null ? null : upperBound.substring(prefix.length()));
+            if (boundarySuffix == null) {
+                return;
+            }
+            // A boundary containing the delimiter could fall inside a common
+            // prefix, which both halves would then report.
+            String delimiter = request.getDelimiter();
+            if (delimiter != null && delimiter.length() > 0 && boundarySuffix.contains(delimiter)) {
+                return;
+            }
+
+            String boundary = prefix + boundarySuffix;
+            Segment upperSegment = root;
+            if (request.isOrdered()) {
+                Segment lowerSegment = new Segment();
+                upperSegment = new Segment();
+                segment.entries.addLast(lowerSegment);
+                segment.entries.addLast(upperSegment);
+                segment.writer = null;
+                segment.done = true;
+                lowerSegment.writer = this;
+                segment = lowerSegment;
+            }
+            startPartition(new Partition(prefix, boundary, upperBound, upperSegment));
+            upperBound = boundary;
+        }
+    }
+
+    /**
+     * An ordered run of listed objects and nested segments, appended to by a
+     * single partition at a time.
+     */
+    private static final class Segment {
+        final LinkedList<Object> entries = new LinkedList<Object>();
+        Partition writer;
+        boolean done;
+    }
+
+    /**
+     * Returns a string made of the longest common prefix of lo and hi and
+     * printable ASCII characters that sorts strictly between lo and hi (hi
+     * is unbounded if null), or null if there is none nearby.
+     */
+    static String boundaryBetween(String lo, String hi) {
+        StringBuilder boundary = new StringBuilder();
+        boolean bounded = hi != null;
+        for (int i = 0; i <= lo.length(); i++) {
+            int low = i < lo.length() ? lo.charAt(i) : LOWEST_BOUNDARY_CHAR - 1;
+            int high = HIGHEST_BOUNDARY_CHAR + 1;
+            if (bounded) {
+                if (i >= hi.length()) {
+                    return null;
+                }
+                high = Math.min(hi.charAt(i), high);
+            }
+            if (low > HIGHEST_BOUNDARY_CHAR) {
+                return null;
+            }
+            if (high - low >= 2) {
+                boundary.append((char) ((low + high) / 2));
+                return boundary.toString();
+            }
+            if (low < LOWEST_BOUNDARY_CHAR) {
+                return null;
+            }
+            boundary.append((char) low);
+            if (bounded && low < hi.charAt(i)) {
+                bounded = false;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares keys in the order OSS lists them, which is the UTF-8 byte
+     * order and so the code point order.
+     */
+    static int compareKeys(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return ca < cb ? -1 : 1;
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return (a.length() - i) - (b.length() - j);
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new ClientException(t);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.aliyun.oss.ClientException;
+
+/**
+ * An iterator over the entries of a paginated listing that requests the next
+ * page in the background while the caller consumes the current one.
+ * <p>
+ * At most {@code maxBufferedPages} pages that the caller hasn't reached yet
+ * are held in memory; the next request is only sent once a buffered page has
+ * been taken. A failed request doesn't fail the iterator right away: the
+ * pages received before it are returned first, and the error is thrown from
+ * {@link #hasNext()} when the caller reaches the missing page.
+ * </p>
+ * <p>
+ * Pages are fetched one at a time, in order, on a shared pool of daemon
+ * threads, so {@link #fetchNextPage()} is never called concurrently.
+ * </p>
+ */
+abstract class PrefetchingListIterator<T> implements Iterator<T> {
+
+    private static final ExecutorService PREFETCH_EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L,
+            TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "oss-list-prefetch-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final int maxBufferedPages;
+    private final LinkedList<List<T>> bufferedPages = new LinkedList<List<T>>();
+    private Iterator<T> currentPage = Collections.<T>emptyList().iterator();
+    private boolean fetching = false;
+    private boolean lastPageFetched = false;
+    private Throwable error;
+
+    private final Runnable fetchTask = new Runnable() {
+        @Override
+        public void run() {
+            fetch();
+        }
+    };
+
+    protected PrefetchingListIterator(int maxBufferedPages) {
+        if (maxBufferedPages <= 0) {
+            throw new IllegalArgumentException("The max buffered pages should be greater than 0.");
+        }
+        this.maxBufferedPages = maxBufferedPages;
+    }
+
+    /**
+     * Sends the request for the next page and returns its entries.
+     */
+    protected abstract List<T> fetchNextPage();
+
+    /**
+     * Whether there are more pages after the one returned by the last call to
+     * {@link #fetchNextPage()}.
+     */
+    protected abstract boolean hasMorePages();
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            List<T> page = takePage();
+            if (page == null) {
+                return false;
+            }
+            currentPage = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("The listing is read-only.");
+    }
+
+    private synchronized List<T> takePage() {
+        scheduleFetchIfNeeded();
+        while (bufferedPages.isEmpty()) {
+            if (error != null) {
+                throw propagate(error);
+            }
+            if (lastPageFetched) {
+                return null;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting for the next listing page.", e);
+            }
+        }
+        List<T> page = bufferedPages.removeFirst();
+        scheduleFetchIfNeeded();
+        return page;
+    }
+
+    private synchronized void scheduleFetchIfNeeded() {
+        if (!fetching && !lastPageFetched && error == null && bufferedPages.size() < maxBufferedPages) {
+            fetching = true;
+            PREFETCH_EXECUTOR.execute(fetchTask);
+        }
+    }
+
+    private void fetch() {
+        List<T> page = null;
+        boolean morePages = false;
+        Throwable failure = null;
+        try {
+            page = fetchNextPage();
+            morePages = hasMorePages();
+        } catch (Throwable t) {
+            failure = t;
+        }
+
+        synchronized (this) {
+            fetching = false;
+            if (failure != null) {
+                error = failure;
+            } else {
+                bufferedPages.addLast(page);
+                lastPageFetched = !morePages;
+                scheduleFetchIfNeeded();
+            }
+            notifyAll();
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new ClientException(t);
+    }
+}
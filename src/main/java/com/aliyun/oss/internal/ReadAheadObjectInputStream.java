@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import static com.aliyun.oss.common.utils.CodingUtils.assertParameterNotNull;
+import static com.aliyun.oss.common.utils.CodingUtils.assertTrue;
+import static com.aliyun.oss.common.utils.IOUtils.safeClose;
+import static com.aliyun.oss.internal.OSSUtils.ensureBucketNameValid;
+import static com.aliyun.oss.internal.OSSUtils.ensureObjectKeyValid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.common.utils.CRC64;
+import com.aliyun.oss.common.utils.IOUtils;
+import com.aliyun.oss.model.GenericRequest;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.OSSObjectInputStream;
+import com.aliyun.oss.model.ObjectInputStreamRequest;
+import com.aliyun.oss.model.ObjectMetadata;
+
+/**
+ * The {@link OSSObjectInputStream} implementation.
+ * <p>
+ * The object metadata is read when the stream is created, and the first
+ * readAheadBlocks blocks are requested right away. Every block the reader
+ * finishes gives its buffer to the next block to download, so there are at
+ * most readAheadBlocks + 1 buffers. The blocks are served in order; the CRC
+ * of every block is computed while it's downloaded and combined when the
+ * reader gets to it.
+ * </p>
+ */
+public class ReadAheadObjectInputStream extends OSSObjectInputStream {
+
+    private final OSSObjectOperation objectOperation;
+    private final ObjectInputStreamRequest request;
+    private final ObjectMetadata objectMetadata;
+    private final String eTag;
+    private final String versionId;
+    private final long objectLength;
+    private final int blockSize;
+    private final int readAheadBlocks;
+    private final long blockCount;
+    private final boolean crcCheckEnabled;
+
+    private final ConcurrentLinkedQueue<byte[]> freeBuffers = new ConcurrentLinkedQueue<byte[]>();
+    private ExecutorService executor;
+    private final LinkedList<Future<Block>> blocksInFlight = new LinkedList<Future<Block>>();
+    private long nextBlock;
+
+    private Block current;
+    private int currentPosition;
+    private long position;
+    private Long clientCRC;
+    private boolean closed;
+
+    public ReadAheadObjectInputStream(OSSObjectOperation objectOperation, TransferScheduler transferScheduler,
+            ObjectInputStreamRequest request) {
+
+        assertParameterNotNull(request, "objectInputStreamRequest");
+        assertParameterNotNull(request.getBucketName(), "bucketName");
+        ensureBucketNameValid(request.getBucketName());
+        assertParameterNotNull(request.getKey(), "key");
+        ensureObjectKeyValid(request.getKey());
+        assertTrue(request.getBlockSize() >= ObjectInputStreamRequest.MIN_BLOCK_SIZE,
+                "The block size should be at least " + ObjectInputStreamRequest.MIN_BLOCK_SIZE + ".");
+        assertTrue(request.getReadAheadBlocks() > 0, "The read ahead blocks should be greater than 0.");
+
+        this.objectOperation = objectOperation;
+        this.request = request;
+        this.blockSize = request.getBlockSize();
+        this.readAheadBlocks = request.getReadAheadBlocks();
+        this.crcCheckEnabled = objectOperation.getInnerClient().getClientConfiguration().isCrcCheckEnabled();
+
+        GenericRequest metadataRequest = new GenericRequest(request.getBucketName(), request.getKey(),
+                request.getVersionId());
+        OSSBucketOperation.copyRequestSettings(request, metadataRequest);
+        this.objectMetadata = objectOperation.getObjectMetadata(metadataRequest);
+        this.eTag = objectMetadata.getETag();
+        this.versionId = request.getVersionId() != null ? request.getVersionId() : objectMetadata.getVersionId();
+        this.objectLength = objectMetadata.getContentLength();
+        this.blockCount = (objectLength + blockSize - 1) / blockSize;
+        this.clientCRC = crcCheckEnabled ? Long.valueOf(0) : null;
+
+        if (blockCount > 0) {
+            executor = transferScheduler != null ? transferScheduler.newTransfer(0, readAheadBlocks)
+                    : Executors.newFixedThreadPool(readAheadBlocks);
+            fill();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBlock()) {
+            return -1;
+        }
+        position++;
+        return current.data[currentPosition++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureBlock()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - currentPosition);
+        System.arraycopy(current.data, currentPosition, b, off, n);
+        currentPosition += n;
+        position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && ensureBlock()) {
+            int step = (int) Math.min(n - skipped, current.length - currentPosition);
+            currentPosition += step;
+            position += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return current != null ? current.length - currentPosition : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        release();
+    }
+
+    @Override
+    public ObjectMetadata getObjectMetadata() {
+        return objectMetadata;
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public Long getClientCRC() {
+        return clientCRC;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The stream is closed.");
+        }
+    }
+
+    /**
+     * Makes sure the current block has bytes left, moving to the next block
+     * if needed.
+     *
+     * @return False at the end of the object.
+     */
+    private boolean ensureBlock() throws IOException {
+        ensureOpen();
+        if (current != null && currentPosition < current.length) {
+            return true;
+        }
+        if (current != null) {
+            freeBuffers.add(current.data);
+            current = null;
+        }
+        if (blocksInFlight.isEmpty()) {
+            return false;
+        }
+
+        Block block;
+        try {
+            block = awaitBlock(blocksInFlight.removeFirst());
+            fill();
+            if (clientCRC != null) {
+                clientCRC = block.crc != null ? CRC64.combine(clientCRC, block.crc, block.length) : null;
+            }
+            if (blocksInFlight.isEmpty() && clientCRC != null) {
+                OSSUtils.checkChecksum(clientCRC, objectMetadata.getServerCRC(), objectMetadata.getRequestId());
+            }
+        } catch (IOException e) {
+            closed = true;
+            release();
+            throw e;
+        } catch (RuntimeException e) {
+            closed = true;
+            release();
+            throw e;
+        }
+
+        current = block;
+        currentPosition = 0;
+        return true;
+    }
+
+    private void fill() {
+        while (nextBlock < blockCount && blocksInFlight.size() < readAheadBlocks) {
+            final long start = nextBlock * blockSize;
+            final int length = (int) Math.min(blockSize, objectLength - start);
+            byte[] buffer = freeBuffers.poll();
+            final byte[] data = buffer != null ? buffer : new byte[(int) Math.min(blockSize, objectLength)];
+            nextBlock++;
+
+            blocksInFlight.add(executor.submit(new Callable<Block>() {
+                @Override
+                public Block call() throws Exception {
+                    return downloadBlock(start, length, data);
+                }
+            }));
+        }
+    }
+
+    private Block downloadBlock(long start, int length, byte[] data) throws IOException {
+        GetObjectRequest getObjectRequest = new GetObjectRequest(request.getBucketName(), request.getKey());
+        OSSBucketOperation.copyRequestSettings(request, getObjectRequest);
+        getObjectRequest.setRange(start, start + length - 1);
+        if (eTag != null) {
+            getObjectRequest.setMatchingETagConstraints(Collections.singletonList(eTag));
+        }
+        if (versionId != null) {
+            getObjectRequest.setVersionId(versionId);
+        }
+
+        OSSObject ossObject = objectOperation.getObject(getObjectRequest);
+        InputStream content = ossObject.getObjectContent();
+        try {
+            if (ossObject.getObjectMetadata().getContentLength() != length) {
+                throw new ClientException("The block at " + start + " of the object has "
+                        + ossObject.getObjectMetadata().getContentLength() + " bytes, " + length + " expected.");
+            }
+            int n = IOUtils.readNBytes(content, data, 0, length);
+            if (n != length) {
+                throw new ClientException("The block at " + start + " of the object ended after " + n
+                        + " bytes, " + length + " expected.");
+            }
+            Block block = new Block();
+            block.data = data;
+            block.length = length;
+            block.crc = crcCheckEnabled ? IOUtils.getCRCValue(content) : null;
+            return block;
+        } finally {
+            safeClose(content);
+        }
+    }
+
+    private Block awaitBlock(Future<Block> block) throws IOException {
+        try {
+            return block.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a block download.");
+        } catch (CancellationException e) {
+            throw new ClientException("The block download is cancelled.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OSSException) {
+                throw (OSSException) cause;
+            } else if (cause instanceof ClientException) {
+                throw (ClientException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new ClientException(cause);
+        }
+    }
+
+    private void release() {
+        for (Future<Block> block : blocksInFlight) {
+            block.cancel(false);
+        }
+        blocksInFlight.clear();
+        if (executor != null) {
+            executor.shutdown();
+        }
+        current = null;
+        freeBuffers.clear();
+    }
+
+    private static class Block {
+        byte[] data;
+        int length;
+        Long crc;
+    }
+}
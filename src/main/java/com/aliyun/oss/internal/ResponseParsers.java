@@ -798,7 +798,9 @@ public final class ResponseParsers {
         @Override
         public ObjectListing parse(ResponseMessage response) throws ResponseParseException {
             try {
-                ObjectListing result = parseListObjects(response.getContent());
+                ObjectListing result = useStreamingListParsers()
+                        ? StreamingListParsers.parseListObjects(response.getContent())
+                        : parseListObjects(response.getContent());
                 result.setRequestId(response.getRequestId());
                 return result;
             } finally {
@@ -813,7 +815,9 @@ public final class ResponseParsers {
         @Override
         public ListObjectsV2Result parse(ResponseMessage response) throws ResponseParseException {
             try {
-                ListObjectsV2Result result = parseListObjectsV2(response.getContent());
+                ListObjectsV2Result result = useStreamingListParsers()
+                        ? StreamingListParsers.parseListObjectsV2(response.getContent())
+                        : parseListObjectsV2(response.getContent());
                 result.setRequestId(response.getRequestId());
                 return result;
             } finally {
@@ -828,7 +832,9 @@ public final class ResponseParsers {
         @Override
         public VersionListing parse(ResponseMessage response) throws ResponseParseException {
             try {
-                VersionListing result = parseListVersions(response.getContent());
+                VersionListing result = useStreamingListParsers()
+                        ? StreamingListParsers.parseListVersions(response.getContent())
+                        : parseListVersions(response.getContent());
                 result.setRequestId(response.getRequestId());
                 return result;
             } finally {
@@ -1142,7 +1148,9 @@ public final class ResponseParsers {
         @Override
         public PartListing parse(ResponseMessage response) throws ResponseParseException {
             try {
-                PartListing result = parseListParts(response.getContent());
+                PartListing result = useStreamingListParsers()
+                        ? StreamingListParsers.parseListParts(response.getContent())
+                        : parseListParts(response.getContent());
                 result.setRequestId(response.getRequestId());
                 return result;
             } finally {
@@ -1260,6 +1268,18 @@ public final class ResponseParsers {
         }
     }
 
+    /**
+     * Whether the list responses are parsed by {@link StreamingListParsers}.
+     * Falls back to JDOM if the StAX API is missing from the platform.
+     */
+    private static boolean useStreamingListParsers() {
+        try {
+            return StreamingListParsers.isEnabled();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
     private static Element getXmlRootElement(InputStream responseBody) throws Exception {
         SAXBuilder builder = new SAXBuilder();
         builder.setFeature("http://apache.org/xml/features/disallow-doctype-decl",true);
@@ -0,0 +1,527 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import static com.aliyun.oss.common.utils.CodingUtils.isNullOrEmpty;
+import static com.aliyun.oss.common.utils.LogUtils.getLog;
+import static com.aliyun.oss.internal.OSSUtils.trimQuotes;
+
+import java.io.InputStream;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.SimpleTimeZone;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.aliyun.oss.common.parser.ResponseParseException;
+import com.aliyun.oss.common.utils.DateUtil;
+import com.aliyun.oss.common.utils.HttpUtil;
+import com.aliyun.oss.common.utils.StringUtils;
+import com.aliyun.oss.model.ListObjectsV2Result;
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.OSSVersionSummary;
+import com.aliyun.oss.model.ObjectListing;
+import com.aliyun.oss.model.Owner;
+import com.aliyun.oss.model.PartListing;
+import com.aliyun.oss.model.PartSummary;
+import com.aliyun.oss.model.VersionListing;
+
+/**
+ * Single-pass StAX parsers for the high-volume list responses (ListObjects,
+ * ListObjectsV2, ListObjectVersions and ListParts). They fill the result
+ * models directly from the event stream instead of building a JDOM document
+ * first, and produce the same results as the corresponding methods in
+ * {@link ResponseParsers}, which remain the fallback when StAX is unavailable
+ * or the streaming parsers are disabled.
+ */
+public final class StreamingListParsers {
+
+    /**
+     * System property that disables the streaming parsers when set to "true".
+     */
+    public static final String DISABLE_PROPERTY = "com.aliyun.oss.disableStreamingListParsers";
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private static volatile boolean enabled = inputFactory != null && !Boolean.getBoolean(DISABLE_PROPERTY);
+
+    private StreamingListParsers() {
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        try {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+            return factory;
+        } catch (Throwable t) {
+            getLog().warn("StAX is not available, falling back to the JDOM response parsers: " + t.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Whether the list response parsers use the streaming implementation.
+     *
+     * @return true if the streaming parsers are available and enabled.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the streaming parsers at runtime. They can't be
+     * enabled if no StAX implementation is available.
+     *
+     * @param enabled
+     *            true to use the streaming parsers, false to use the JDOM
+     *            parsers.
+     */
+    public static void setEnabled(boolean enabled) {
+        StreamingListParsers.enabled = enabled && inputFactory != null;
+    }
+
+    /**
+     * Unmarshall list objects response body to object listing.
+     */
+    public static ObjectListing parseListObjects(InputStream responseBody) throws ResponseParseException {
+        XMLStreamReader reader = null;
+        try {
+            reader = openRoot(responseBody);
+
+            DateParser dates = new DateParser();
+            ObjectListing objectListing = new ObjectListing();
+            while (nextChild(reader)) {
+                String name = reader.getLocalName();
+                if ("Contents".equals(name)) {
+                    objectListing.addObjectSummary(readObjectSummary(reader, dates));
+                } else if ("CommonPrefixes".equals(name)) {
+                    String prefix = readCommonPrefix(reader);
+                    if (!isNullOrEmpty(prefix)) {
+                        objectListing.addCommonPrefix(prefix);
+                    }
+                } else if ("Name".equals(name)) {
+                    objectListing.setBucketName(reader.getElementText());
+                } else if ("MaxKeys".equals(name)) {
+                    objectListing.setMaxKeys(Integer.valueOf(reader.getElementText()));
+                } else if ("IsTruncated".equals(name)) {
+                    objectListing.setTruncated(Boolean.valueOf(reader.getElementText()));
+                } else if ("Prefix".equals(name)) {
+                    objectListing.setPrefix(emptyToNull(reader.getElementText()));
+                } else if ("Marker".equals(name)) {
+                    objectListing.setMarker(emptyToNull(reader.getElementText()));
+                } else if ("Delimiter".equals(name)) {
+                    objectListing.setDelimiter(emptyToNull(reader.getElementText()));
+                } else if ("NextMarker".equals(name)) {
+                    objectListing.setNextMarker(emptyToNull(reader.getElementText()));
+                } else if ("EncodingType".equals(name)) {
+                    objectListing.setEncodingType(emptyToNull(reader.getElementText()));
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            for (OSSObjectSummary summary : objectListing.getObjectSummaries()) {
+                summary.setBucketName(objectListing.getBucketName());
+            }
+            return objectListing;
+        } catch (Exception e) {
+            throw new ResponseParseException(e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Unmarshall list objects response body to ListObjectsV2Result.
+     */
+    public static ListObjectsV2Result parseListObjectsV2(InputStream responseBody) throws ResponseParseException {
+        XMLStreamReader reader = null;
+        try {
+            reader = openRoot(responseBody);
+
+            DateParser dates = new DateParser();
+            ListObjectsV2Result result = new ListObjectsV2Result();
+            while (nextChild(reader)) {
+                String name = reader.getLocalName();
+                if ("Contents".equals(name)) {
+                    result.addObjectSummary(readObjectSummary(reader, dates));
+                } else if ("CommonPrefixes".equals(name)) {
+                    String prefix = readCommonPrefix(reader);
+                    if (!isNullOrEmpty(prefix)) {
+                        result.addCommonPrefix(prefix);
+                    }
+                } else if ("Name".equals(name)) {
+                    result.setBucketName(reader.getElementText());
+                } else if ("MaxKeys".equals(name)) {
+                    result.setMaxKeys(Integer.valueOf(reader.getElementText()));
+                } else if ("IsTruncated".equals(name)) {
+                    result.setTruncated(Boolean.valueOf(reader.getElementText()));
+                } else if ("KeyCount".equals(name)) {
+                    result.setKeyCount(Integer.valueOf(reader.getElementText()));
+                } else if ("Prefix".equals(name)) {
+                    result.setPrefix(emptyToNull(reader.getElementText()));
+                } else if ("Delimiter".equals(name)) {
+                    result.setDelimiter(emptyToNull(reader.getElementText()));
+                } else if ("ContinuationToken".equals(name)) {
+                    result.setContinuationToken(emptyToNull(reader.getElementText()));
+                } else if ("NextContinuationToken".equals(name)) {
+                    result.setNextContinuationToken(emptyToNull(reader.getElementText()));
+                } else if ("EncodingType".equals(name)) {
+                    result.setEncodingType(emptyToNull(reader.getElementText()));
+                } else if ("StartAfter".equals(name)) {
+                    result.setStartAfter(emptyToNull(reader.getElementText()));
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            for (OSSObjectSummary summary : result.getObjectSummaries()) {
+                summary.setBucketName(result.getBucketName());
+            }
+            return result;
+        } catch (Exception e) {
+            throw new ResponseParseException(e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Unmarshall list object versions response body to version listing.
+     */
+    public static VersionListing parseListVersions(InputStream responseBody) throws ResponseParseException {
+        XMLStreamReader reader = null;
+        try {
+            reader = openRoot(responseBody);
+
+            // EncodingType may follow the keys, so decoding is deferred until
+            // the whole document has been read. Delete markers are appended
+            // after the versions, as the JDOM parser does.
+            String encodingType = null;
+            String prefix = null;
+            String keyMarker = null;
+            String delimiter = null;
+            String nextKeyMarker = null;
+            List<OSSVersionSummary> deleteMarkers = new ArrayList<OSSVersionSummary>();
+            List<String> commonPrefixes = new ArrayList<String>();
+
+            DateParser dates = new DateParser();
+            VersionListing versionListing = new VersionListing();
+            while (nextChild(reader)) {
+                String name = reader.getLocalName();
+                if ("Version".equals(name)) {
+                    versionListing.getVersionSummaries().add(readVersionSummary(reader, false, dates));
+                } else if ("DeleteMarker".equals(name)) {
+                    deleteMarkers.add(readVersionSummary(reader, true, dates));
+                } else if ("CommonPrefixes".equals(name)) {
+                    String commonPrefix = readCommonPrefix(reader);
+                    if (!isNullOrEmpty(commonPrefix)) {
+                        commonPrefixes.add(commonPrefix);
+                    }
+                } else if ("Name".equals(name)) {
+                    versionListing.setBucketName(reader.getElementText());
+                } else if ("MaxKeys".equals(name)) {
+                    versionListing.setMaxKeys(Integer.valueOf(reader.getElementText()));
+                } else if ("IsTruncated".equals(name)) {
+                    versionListing.setTruncated(Boolean.valueOf(reader.getElementText()));
+                } else if ("EncodingType".equals(name)) {
+                    encodingType = reader.getElementText();
+                } else if ("Prefix".equals(name)) {
+                    prefix = reader.getElementText();
+                } else if ("KeyMarker".equals(name)) {
+                    keyMarker = reader.getElementText();
+                } else if ("VersionIdMarker".equals(name)) {
+                    versionListing.setVersionIdMarker(emptyToNull(reader.getElementText()));
+                } else if ("Delimiter".equals(name)) {
+                    delimiter = reader.getElementText();
+                } else if ("NextKeyMarker".equals(name)) {
+                    nextKeyMarker = reader.getElementText();
+                } else if ("NextVersionIdMarker".equals(name)) {
+                    versionListing.setNextVersionIdMarker(emptyToNull(reader.getElementText()));
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            boolean decode = OSSConstants.URL_ENCODING.equals(encodingType);
+            versionListing.setEncodingType(decode ? null : emptyToNull(encodingType));
+            versionListing.setPrefix(decodeIfSpecified(emptyToNull(prefix), decode));
+            versionListing.setKeyMarker(decodeIfSpecified(emptyToNull(keyMarker), decode));
+            versionListing.setDelimiter(decodeIfSpecified(emptyToNull(delimiter), decode));
+            versionListing.setNextKeyMarker(decodeIfSpecified(emptyToNull(nextKeyMarker), decode));
+
+            List<OSSVersionSummary> summaries = versionListing.getVersionSummaries();
+            summaries.addAll(deleteMarkers);
+            for (OSSVersionSummary summary : summaries) {
+                summary.setBucketName(versionListing.getBucketName());
+                summary.setKey(decodeIfSpecified(summary.getKey(), decode));
+            }
+            for (String commonPrefix : commonPrefixes) {
+                versionListing.getCommonPrefixes().add(decodeIfSpecified(commonPrefix, decode));
+            }
+            return versionListing;
+        } catch (Exception e) {
+            throw new ResponseParseException(e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Unmarshall list parts response body to part listing.
+     */
+    public static PartListing parseListParts(InputStream responseBody) throws ResponseParseException {
+        XMLStreamReader reader = null;
+        try {
+            reader = openRoot(responseBody);
+
+            DateParser dates = new DateParser();
+            PartListing partListing = new PartListing();
+            while (nextChild(reader)) {
+                String name = reader.getLocalName();
+                if ("Part".equals(name)) {
+                    partListing.addPart(readPartSummary(reader, dates));
+                } else if ("Bucket".equals(name)) {
+                    partListing.setBucketName(reader.getElementText());
+                } else if ("Key".equals(name)) {
+                    partListing.setKey(reader.getElementText());
+                } else if ("UploadId".equals(name)) {
+                    partListing.setUploadId(reader.getElementText());
+                } else if ("StorageClass".equals(name)) {
+                    partListing.setStorageClass(reader.getElementText());
+                } else if ("MaxParts".equals(name)) {
+                    partListing.setMaxParts(Integer.valueOf(reader.getElementText()));
+                } else if ("IsTruncated".equals(name)) {
+                    partListing.setTruncated(Boolean.valueOf(reader.getElementText()));
+                } else if ("PartNumberMarker".equals(name)) {
+                    String partNumberMarker = reader.getElementText();
+                    if (!isNullOrEmpty(partNumberMarker)) {
+                        partListing.setPartNumberMarker(Integer.valueOf(partNumberMarker));
+                    }
+                } else if ("NextPartNumberMarker".equals(name)) {
+                    String nextPartNumberMarker = reader.getElementText();
+                    if (!isNullOrEmpty(nextPartNumberMarker)) {
+                        partListing.setNextPartNumberMarker(Integer.valueOf(nextPartNumberMarker));
+                    }
+                } else {
+                    skipElement(reader);
+                }
+            }
+            return partListing;
+        } catch (Exception e) {
+            throw new ResponseParseException(e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private static OSSObjectSummary readObjectSummary(XMLStreamReader reader, DateParser dates) throws Exception {
+        OSSObjectSummary summary = new OSSObjectSummary();
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+            if ("Key".equals(name)) {
+                summary.setKey(reader.getElementText());
+            } else if ("ETag".equals(name)) {
+                summary.setETag(trimQuotes(reader.getElementText()));
+            } else if ("LastModified".equals(name)) {
+                summary.setLastModified(dates.parse(reader.getElementText()));
+            } else if ("Size".equals(name)) {
+                summary.setSize(Long.parseLong(reader.getElementText()));
+            } else if ("StorageClass".equals(name)) {
+                summary.setStorageClass(reader.getElementText());
+            } else if ("RestoreInfo".equals(name)) {
+                summary.setRestoreInfo(reader.getElementText());
+            } else if ("Type".equals(name)) {
+                summary.setType(reader.getElementText());
+            } else if ("Owner".equals(name)) {
+                summary.setOwner(readOwner(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return summary;
+    }
+
+    private static OSSVersionSummary readVersionSummary(XMLStreamReader reader, boolean isDeleteMarker,
+            DateParser dates) throws Exception {
+        OSSVersionSummary summary = new OSSVersionSummary();
+        summary.setIsDeleteMarker(isDeleteMarker);
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+            if ("Key".equals(name)) {
+                summary.setKey(reader.getElementText());
+            } else if ("VersionId".equals(name)) {
+                summary.setVersionId(reader.getElementText());
+            } else if ("IsLatest".equals(name)) {
+                summary.setIsLatest("true".equals(reader.getElementText()));
+            } else if ("LastModified".equals(name)) {
+                summary.setLastModified(dates.parse(reader.getElementText()));
+            } else if ("Owner".equals(name)) {
+                summary.setOwner(readOwner(reader));
+            } else if (!isDeleteMarker && "ETag".equals(name)) {
+                summary.setETag(trimQuotes(reader.getElementText()));
+            } else if (!isDeleteMarker && "Size".equals(name)) {
+                summary.setSize(Long.parseLong(reader.getElementText()));
+            } else if (!isDeleteMarker && "StorageClass".equals(name)) {
+                summary.setStorageClass(reader.getElementText());
+            } else if (!isDeleteMarker && "RestoreInfo".equals(name)) {
+                summary.setRestoreInfo(reader.getElementText());
+            } else {
+                skipElement(reader);
+            }
+        }
+        return summary;
+    }
+
+    private static PartSummary readPartSummary(XMLStreamReader reader, DateParser dates) throws Exception {
+        PartSummary summary = new PartSummary();
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+            if ("PartNumber".equals(name)) {
+                summary.setPartNumber(Integer.parseInt(reader.getElementText()));
+            } else if ("LastModified".equals(name)) {
+                summary.setLastModified(dates.parse(reader.getElementText()));
+            } else if ("ETag".equals(name)) {
+                summary.setETag(trimQuotes(reader.getElementText()));
+            } else if ("Size".equals(name)) {
+                summary.setSize(Integer.parseInt(reader.getElementText()));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Parses the LastModified dates of one page, reusing a single date format
+     * instead of creating one per entry.
+     */
+    private static final class DateParser {
+
+        private DateFormat format;
+
+        Date parse(String dateString) throws ParseException {
+            if (format == null) {
+                format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+                format.setTimeZone(new SimpleTimeZone(0, "GMT"));
+            }
+            try {
+                return format.parse(dateString);
+            } catch (ParseException e) {
+                return DateUtil.parseIso8601Date(dateString);
+            }
+        }
+    }
+
+    private static Owner readOwner(XMLStreamReader reader) throws XMLStreamException {
+        String id = null;
+        String displayName = null;
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+            if ("ID".equals(name)) {
+                id = reader.getElementText();
+            } else if ("DisplayName".equals(name)) {
+                displayName = reader.getElementText();
+            } else {
+                skipElement(reader);
+            }
+        }
+        return new Owner(id, displayName);
+    }
+
+    private static String readCommonPrefix(XMLStreamReader reader) throws XMLStreamException {
+        String prefix = null;
+        while (nextChild(reader)) {
+            if ("Prefix".equals(reader.getLocalName())) {
+                prefix = reader.getElementText();
+            } else {
+                skipElement(reader);
+            }
+        }
+        return prefix;
+    }
+
+    private static XMLStreamReader openRoot(InputStream responseBody) throws XMLStreamException {
+        if (responseBody == null) {
+            throw new XMLStreamException("The response body is null.");
+        }
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(responseBody);
+        reader.nextTag();
+        return reader;
+    }
+
+    /**
+     * Advances to the next child element of the current element. Returns
+     * false, positioned on the end tag of the current element, when there
+     * are no more children. Character data between elements is ignored.
+     */
+    private static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        throw new XMLStreamException("Unexpected end of document.");
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return isNullOrEmpty(value) ? null : value;
+    }
+
+    private static String decodeIfSpecified(String value, boolean decode) {
+        return decode && value != null ? HttpUtil.urlDecode(value, StringUtils.DEFAULT_ENCODING) : value;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the part tasks of the resumable uploads and downloads of one client
+ * on a shared pool of worker threads.
+ * <p>
+ * At most {@link #getMaxConcurrentParts()} parts run at once across all the
+ * transfers, and each transfer runs at most its own task number of parts.
+ * Whenever a worker is free, the next part is taken from the transfers of
+ * the highest priority that have queued parts, round-robin between transfers
+ * of the same priority, so a large transfer does not hold back the others.
+ * Worker threads are reused across transfers and exit after being idle for
+ * a minute.
+ * </p>
+ */
+public class TransferScheduler {
+
+    private static final AtomicInteger schedulerIndex = new AtomicInteger();
+
+    private final int maxConcurrentParts;
+    private final ThreadPoolExecutor workers;
+
+    // The transfers that are not terminated, in round-robin order.
+    private final LinkedList<Transfer> transfers = new LinkedList<Transfer>();
+    private int queuedParts = 0;
+    private int activeParts = 0;
+    private long completedParts = 0;
+    private boolean shutdown = false;
+
+    public TransferScheduler(int maxConcurrentParts) {
+        if (maxConcurrentParts <= 0) {
+            throw new IllegalArgumentException("The max concurrent parts should be positive.");
+        }
+        this.maxConcurrentParts = maxConcurrentParts;
+
+        // The scheduler bounds the busy workers, the pool only keeps the idle ones for reuse.
+        final int index = schedulerIndex.incrementAndGet();
+        this.workers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadIndex = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "oss-transfer-" + index + "-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * Starts a new transfer. Its part tasks are submitted to the returned
+     * executor, which must be shut down once all of them are submitted.
+     *
+     * @param priority
+     *            The priority of the transfer. Parts of transfers with higher
+     *            priority are run first.
+     * @param maxConcurrentParts
+     *            The max number of parts of the transfer that run at once.
+     * @return The executor of the transfer's part tasks.
+     */
+    public synchronized Transfer newTransfer(int priority, int maxConcurrentParts) {
+        if (shutdown) {
+            throw new RejectedExecutionException("The transfer scheduler is shut down.");
+        }
+        Transfer transfer = new Transfer(priority, Math.max(1, maxConcurrentParts));
+        transfers.add(transfer);
+        return transfer;
+    }
+
+    /**
+     * Cancels the parts that are not started yet and stops the worker threads
+     * once the running parts are done.
+     */
+    public void shutdown() {
+        List<Runnable> cancelled = new ArrayList<Runnable>();
+        synchronized (this) {
+            shutdown = true;
+            for (Transfer transfer : new ArrayList<Transfer>(transfers)) {
+                cancelled.addAll(transfer.shutdownNow());
+            }
+        }
+        for (Runnable task : cancelled) {
+            if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+        }
+        workers.shutdown();
+    }
+
+    public int getMaxConcurrentParts() {
+        return maxConcurrentParts;
+    }
+
+    /**
+     * Gets the number of parts that are submitted but not started yet.
+     *
+     * @return The number of queued parts.
+     */
+    public synchronized int getQueuedParts() {
+        return queuedParts;
+    }
+
+    /**
+     * Gets the number of parts that are running.
+     *
+     * @return The number of active parts.
+     */
+    public synchronized int getActiveParts() {
+        return activeParts;
+    }
+
+    /**
+     * Gets the number of parts that have run since the scheduler was created.
+     *
+     * @return The number of completed parts.
+     */
+    public synchronized long getCompletedParts() {
+        return completedParts;
+    }
+
+    /**
+     * Gets the number of transfers that are not terminated yet.
+     *
+     * @return The number of active transfers.
+     */
+    public synchronized int getActiveTransfers() {
+        return transfers.size();
+    }
+
+    /**
+     * Gets the number of worker threads, idle or not.
+     *
+     * @return The size of the worker pool.
+     */
+    public int getPoolSize() {
+        return workers.getPoolSize();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TransferScheduler [maxConcurrentParts=" + maxConcurrentParts + ", activeTransfers="
+                + transfers.size() + ", queuedParts=" + queuedParts + ", activeParts=" + activeParts
+                + ", completedParts=" + completedParts + "]";
+    }
+
+    // Starts workers for the queued parts while there are free slots.
+    private synchronized void dispatch() {
+        Part part;
+        while ((part = nextPart()) != null) {
+            try {
+                workers.execute(new Worker(part));
+            } catch (RejectedExecutionException e) {
+                partDone(part);
+                if (part.task instanceof Future) {
+                    ((Future<?>) part.task).cancel(false);
+                }
+            }
+        }
+    }
+
+    // Takes the next part to run, if any, and counts it as active.
+    private Part nextPart() {
+        if (activeParts >= maxConcurrentParts) {
+            return null;
+        }
+        Transfer next = null;
+        for (Transfer transfer : transfers) {
+            if (transfer.isRunnable() && (next == null || transfer.priority > next.priority)) {
+                next = transfer;
+            }
+        }
+        if (next == null) {
+            return null;
+        }
+
+        // Moves the chosen transfer behind the others of its priority.
+        transfers.remove(next);
+        transfers.add(next);
+
+        queuedParts--;
+        activeParts++;
+        next.activeParts++;
+        return new Part(next, next.queue.poll());
+    }
+
+    private void partDone(Part part) {
+        activeParts--;
+        part.transfer.activeParts--;
+        part.transfer.checkTerminated();
+    }
+
+    private static class Part {
+        private final Transfer transfer;
+        private final Runnable task;
+
+        Part(Transfer transfer, Runnable task) {
+            this.transfer = transfer;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Runs parts until none is left to run, so a free worker picks up the
+     * next part without going back to the pool.
+     */
+    private class Worker implements Runnable {
+        private Part part;
+
+        Worker(Part part) {
+            this.part = part;
+        }
+
+        @Override
+        public void run() {
+            while (part != null) {
+                try {
+                    part.task.run();
+                } finally {
+                    synchronized (TransferScheduler.this) {
+                        completedParts++;
+                        partDone(part);
+                        part = nextPart();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The part tasks of one transfer. It's an {@link java.util.concurrent.ExecutorService}
+     * whose tasks run on the workers of the scheduler.
+     */
+    public class Transfer extends AbstractExecutorService {
+
+        private final int priority;
+        private final int maxConcurrentParts;
+        private final LinkedList<Runnable> queue = new LinkedList<Runnable>();
+        private int activeParts = 0;
+        private boolean shutdown = false;
+        private boolean terminated = false;
+
+        Transfer(int priority, int maxConcurrentParts) {
+            this.priority = priority;
+            this.maxConcurrentParts = maxConcurrentParts;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (command == null) {
+                throw new NullPointerException();
+            }
+            synchronized (TransferScheduler.this) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("The transfer is shut down.");
+                }
+                queue.add(command);
+                queuedParts++;
+            }
+            dispatch();
+        }
+
+        @Override
+        public void shutdown() {
+            synchronized (TransferScheduler.this) {
+                shutdown = true;
+                checkTerminated();
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            synchronized (TransferScheduler.this) {
+                List<Runnable> pending = new ArrayList<Runnable>(queue);
+                queuedParts -= queue.size();
+                queue.clear();
+                shutdown = true;
+                checkTerminated();
+                return pending;
+            }
+        }
+
+        @Override
+        public boolean isShutdown() {
+            synchronized (TransferScheduler.this) {
+                return shutdown;
+            }
+        }
+
+        @Override
+        public boolean isTerminated() {
+            synchronized (TransferScheduler.this) {
+                return terminated;
+            }
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            synchronized (TransferScheduler.this) {
+                while (!terminated) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    long start = System.nanoTime();
+                    TimeUnit.NANOSECONDS.timedWait(TransferScheduler.this, nanos);
+                    nanos -= System.nanoTime() - start;
+                }
+                return true;
+            }
+        }
+
+        private boolean isRunnable() {
+            return !queue.isEmpty() && activeParts < maxConcurrentParts;
+        }
+
+        // Must be called with the lock of the scheduler held.
+        private void checkTerminated() {
+            if (shutdown && !terminated && queue.isEmpty() && activeParts == 0) {
+                terminated = true;
+                transfers.remove(this);
+                TransferScheduler.this.notifyAll();
+            }
+        }
+    }
+}
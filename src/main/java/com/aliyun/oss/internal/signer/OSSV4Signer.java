@@ -11,6 +11,8 @@ import com.aliyun.oss.common.utils.StringUtils;
 import com.aliyun.oss.internal.OSSHeaders;
 import com.aliyun.oss.internal.SignParameters;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -27,6 +29,36 @@ public class OSSV4Signer extends OSSSignerBase {
     private static final String OSS4_HMAC_SHA256 = "OSS4-HMAC-SHA256";
     private static final String TERMINATOR = "aliyun_v4_request";
     private static final String SECRET_KEY_PREFIX = "aliyun_v4";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    // The Macs are kept initialized per thread by ServiceSignature.
+    private static final ServiceSignature HMAC = ServiceSignature.create(HMAC_SHA256);
+
+    // The signing key only depends on the secret, date, region and product,
+    // so it is derived once a day and kept in a small LRU map keyed on
+    // access key id, date, region and product. An entry is only used for the
+    // secret it was derived from, so rotated credentials derive a new key.
+    private static final int MAX_SIGNING_KEYS = 64;
+    private static final Map<String, SigningKey> signingKeys = new LinkedHashMap<String, SigningKey>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SigningKey> eldest) {
+            return size() > MAX_SIGNING_KEYS;
+        }
+    };
+
+    private static final ThreadLocal<MessageDigest> sha256Digests = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("SHA-256 algorithm not found.");
+            }
+        }
+    };
+
     Set<String> additionalSignedHeaders;
     private Date requestDateTime;
 
@@ -196,27 +228,65 @@ public class OSSV4Signer extends OSSSignerBase {
         return OSS4_HMAC_SHA256 + SignParameters.NEW_LINE +
                 getDateTime() + SignParameters.NEW_LINE +
                 buildScope() + SignParameters.NEW_LINE +
-                BinaryUtil.toHex(BinaryUtil.calculateSha256(canonicalString.getBytes(StringUtils.UTF8)));
+                BinaryUtil.toHex(sha256Digests.get().digest(canonicalString.getBytes(StringUtils.UTF8)));
     }
 
     private byte[] buildSigningKey() {
-        ServiceSignature signature = ServiceSignature.create("HmacSHA256");
-        byte[] signingSecret = (SECRET_KEY_PREFIX + signerParams.getCredentials().getSecretAccessKey()).getBytes(StringUtils.UTF8);
-        byte[] signingDate = signature.computeHash(signingSecret, getDate().getBytes(StringUtils.UTF8));
-        byte[] signingRegion = signature.computeHash(signingDate, getRegion().getBytes(StringUtils.UTF8));
-        byte[] signingService = signature.computeHash(signingRegion, getProduct().getBytes(StringUtils.UTF8));
-//        System.out.println("signingSecret:\n" + BinaryUtil.toHex(signingSecret));
-//        System.out.println("signingDate:\n" + BinaryUtil.toHex(signingDate));
-//        System.out.println("signingRegion:\n" + BinaryUtil.toHex(signingRegion));
-//        System.out.println("signingService:\n" + BinaryUtil.toHex(signingService));
-        return signature.computeHash(signingService, TERMINATOR.getBytes(StringUtils.UTF8));
+        return buildSigningKey(getDate());
+    }
+
+    private byte[] buildSigningKey(String date) {
+        Credentials credentials = signerParams.getCredentials();
+        String secret = credentials.getSecretAccessKey();
+        String region = getRegion();
+        String product = getProduct();
+        String cacheKey = credentials.getAccessKeyId() + SEPARATOR_BACKSLASH + date + SEPARATOR_BACKSLASH + region
+                + SEPARATOR_BACKSLASH + product;
+        synchronized (signingKeys) {
+            SigningKey cached = signingKeys.get(cacheKey);
+            if (cached != null && cached.secret.equals(secret)) {
+                return cached.key;
+            }
+        }
+
+        byte[] signingSecret = (SECRET_KEY_PREFIX + secret).getBytes(StringUtils.UTF8);
+        byte[] signingDate = HMAC.computeHash(signingSecret, date.getBytes(StringUtils.UTF8));
+        byte[] signingRegion = HMAC.computeHash(signingDate, region.getBytes(StringUtils.UTF8));
+        byte[] signingService = HMAC.computeHash(signingRegion, product.getBytes(StringUtils.UTF8));
+        byte[] signingKey = HMAC.computeHash(signingService, TERMINATOR.getBytes(StringUtils.UTF8));
+        synchronized (signingKeys) {
+            signingKeys.put(cacheKey, new SigningKey(secret, signingKey));
+        }
+        return signingKey;
     }
 
     private String buildSignature(byte[] signingKey, String stringToSign) {
-        byte[] result = ServiceSignature.create("HmacSHA256").computeHash(signingKey, stringToSign.getBytes(StringUtils.UTF8));
+        byte[] result = HMAC.computeHash(signingKey, stringToSign.getBytes(StringUtils.UTF8));
         return BinaryUtil.toHex(result);
     }
 
+    /**
+     * Removes the cached signing keys derived for the access key id, so they
+     * are not kept after the credentials are switched.
+     *
+     * @param accessKeyId
+     *            The access key id of the credentials.
+     */
+    public static void invalidateSigningKeys(String accessKeyId) {
+        if (accessKeyId == null) {
+            return;
+        }
+        String prefix = accessKeyId + SEPARATOR_BACKSLASH;
+        synchronized (signingKeys) {
+            Iterator<String> it = signingKeys.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().startsWith(prefix)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
     private String buildAuthorization(String signature) {
         String credential = "Credential=" + signerParams.getCredentials().getAccessKeyId() + SEPARATOR_BACKSLASH + buildScope();
         String signedHeaders = !hasAdditionalSignedHeaders() ? "" : ",AdditionalHeaders=" + StringUtils.join(";", additionalSignedHeaders);
@@ -287,7 +357,7 @@ public class OSSV4Signer extends OSSSignerBase {
         String stringToSign = OSS4_HMAC_SHA256 + SignParameters.NEW_LINE +
                 getDateTime() + SignParameters.NEW_LINE +
                 buildScope() + SignParameters.NEW_LINE +
-                BinaryUtil.toHex(BinaryUtil.calculateSha256(canonicalRequest.getBytes(StringUtils.UTF8)));
+                BinaryUtil.toHex(sha256Digests.get().digest(canonicalRequest.getBytes(StringUtils.UTF8)));
         byte[] signingKey = buildSigningKey();
         String signature = buildSignature(signingKey, stringToSign);
 
@@ -300,12 +370,17 @@ public class OSSV4Signer extends OSSSignerBase {
     }
 
     public String signPolicy(String policy, Date date) throws ClientException {
-        ServiceSignature signature = ServiceSignature.create("HmacSHA256");
-        byte[] signingSecret = (SECRET_KEY_PREFIX + signerParams.getCredentials().getSecretAccessKey()).getBytes(StringUtils.UTF8);
-        byte[] signingDate = signature.computeHash(signingSecret, getIso8601DateFormat().format(date).getBytes(StringUtils.UTF8));
-        byte[] signingRegion = signature.computeHash(signingDate, getRegion().getBytes(StringUtils.UTF8));
-        byte[] signingService = signature.computeHash(signingRegion, getProduct().getBytes(StringUtils.UTF8));
-        byte[] signingKey = signature.computeHash(signingService, TERMINATOR.getBytes(StringUtils.UTF8));
+        byte[] signingKey = buildSigningKey(getIso8601DateFormat().format(date));
         return buildSignature(signingKey, policy);
     }
+
+    private static final class SigningKey {
+        final String secret;
+        final byte[] key;
+
+        SigningKey(String secret, byte[] key) {
+            this.secret = secret;
+            this.key = key;
+        }
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.metrics;
+
+/**
+ * The JMX view of the HTTP connection pool of a client, registered as
+ * com.aliyun.oss:type=ConnectionPool,name=&lt;client id&gt; when
+ * {@link com.aliyun.oss.ClientConfiguration#setConnectionPoolJmxEnabled(boolean)}
+ * is set.
+ */
+public interface ConnectionPoolMXBean {
+
+    /**
+     * @return The number of connections in use by requests.
+     */
+    public int getLeased();
+
+    /**
+     * @return The number of idle connections kept in the pool.
+     */
+    public int getAvailable();
+
+    /**
+     * @return The number of requests waiting for a connection.
+     */
+    public int getPending();
+
+    /**
+     * @return The max number of connections.
+     */
+    public int getMax();
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.metrics;
+
+/**
+ * Listener notified once for every operation of a client, successful or
+ * not, with the {@link RequestMetrics} of the operation. Set it with
+ * {@link com.aliyun.oss.ClientConfiguration#setMetricsListener(MetricsListener)}.
+ *
+ * <p>
+ * The listener is called on the thread that completes the operation: the
+ * caller thread, the thread reading the content of an object to its end or
+ * closing it, or an I/O thread of the asynchronous client. It must be thread
+ * safe and return quickly; exceptions it throws are logged and ignored.
+ * </p>
+ *
+ * @see MetricsRecorder
+ */
+public interface MetricsListener {
+
+    /**
+     * Called when an operation completes.
+     *
+     * @param metrics
+     *            The metrics of the operation.
+     */
+    public void requestCompleted(RequestMetrics metrics);
+}
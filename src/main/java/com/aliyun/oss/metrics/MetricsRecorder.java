@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The built-in {@link MetricsListener}, it aggregates the metrics of every
+ * operation name into an {@link OperationMetrics}. Recording takes no locks,
+ * so one recorder can be shared by all the clients of an application.
+ *
+ * <pre>
+ * MetricsRecorder recorder = new MetricsRecorder();
+ * ClientBuilderConfiguration conf = new ClientBuilderConfiguration();
+ * conf.setMetricsListener(recorder);
+ * ...
+ * long p99 = recorder.getOperationMetrics("GetObject").getTotalLatency().getValueAtPercentile(99);
+ * </pre>
+ */
+public class MetricsRecorder implements MetricsListener {
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<String, OperationMetrics>();
+
+    @Override
+    public void requestCompleted(RequestMetrics metrics) {
+        String name = metrics.getOperationName();
+        OperationMetrics operation = operations.get(name);
+        if (operation == null) {
+            OperationMetrics created = new OperationMetrics(name);
+            operation = operations.putIfAbsent(name, created);
+            if (operation == null) {
+                operation = created;
+            }
+        }
+        operation.record(metrics);
+    }
+
+    /**
+     * Gets the metrics of an operation.
+     *
+     * @param operationName
+     *            The operation name, see {@link RequestMetrics#getOperationName()}.
+     * @return The metrics of the operation, or null if none was recorded.
+     */
+    public OperationMetrics getOperationMetrics(String operationName) {
+        return operations.get(operationName);
+    }
+
+    public List<OperationMetrics> getOperationMetrics() {
+        Collection<OperationMetrics> values = operations.values();
+        return new ArrayList<OperationMetrics>(values);
+    }
+
+    /**
+     * Removes all the recorded metrics.
+     */
+    public void clear() {
+        operations.clear();
+    }
+}
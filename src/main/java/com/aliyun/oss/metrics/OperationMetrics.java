@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The aggregated metrics of one operation name in a {@link MetricsRecorder}:
+ * counters and a latency histogram, in nanoseconds, per phase.
+ */
+public class OperationMetrics {
+
+    private final String operationName;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong retryBudgetExhaustedCount = new AtomicLong();
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWonCount = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    private final LatencyHistogram sign = new LatencyHistogram();
+    private final LatencyHistogram connectionLease = new LatencyHistogram();
+    private final LatencyHistogram requestSend = new LatencyHistogram();
+    private final LatencyHistogram firstByte = new LatencyHistogram();
+    private final LatencyHistogram bodyComplete = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    public OperationMetrics(String operationName) {
+        this.operationName = operationName;
+    }
+
+    void record(RequestMetrics metrics) {
+        requestCount.incrementAndGet();
+        if (!metrics.isSuccessful()) {
+            errorCount.incrementAndGet();
+        }
+        if (metrics.getRetries() > 0) {
+            retryCount.addAndGet(metrics.getRetries());
+        }
+        if (metrics.isRetryBudgetExhausted()) {
+            retryBudgetExhaustedCount.incrementAndGet();
+        }
+        if (metrics.isHedged()) {
+            hedgeCount.incrementAndGet();
+        }
+        if (metrics.isHedgeWon()) {
+            hedgeWonCount.incrementAndGet();
+        }
+        if (metrics.getBytesSent() > 0) {
+            bytesSent.addAndGet(metrics.getBytesSent());
+        }
+        if (metrics.getBytesReceived() > 0) {
+            bytesReceived.addAndGet(metrics.getBytesReceived());
+        }
+        recordIfMeasured(sign, metrics.getSignNanos());
+        recordIfMeasured(connectionLease, metrics.getConnectionLeaseNanos());
+        recordIfMeasured(requestSend, metrics.getRequestSendNanos());
+        recordIfMeasured(firstByte, metrics.getFirstByteNanos());
+        recordIfMeasured(bodyComplete, metrics.getBodyCompleteNanos());
+        recordIfMeasured(total, metrics.getTotalNanos());
+    }
+
+    private static void recordIfMeasured(LatencyHistogram histogram, long nanos) {
+        if (nanos >= 0) {
+            histogram.record(nanos);
+        }
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Gets the number of operations that failed without a retry because the
+     * retry budget of the client was exhausted.
+     *
+     * @return The number of operations refused a retry.
+     */
+    public long getRetryBudgetExhaustedCount() {
+        return retryBudgetExhaustedCount.get();
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    public long getHedgeWonCount() {
+        return hedgeWonCount.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public LatencyHistogram getSignLatency() {
+        return sign;
+    }
+
+    public LatencyHistogram getConnectionLeaseLatency() {
+        return connectionLease;
+    }
+
+    public LatencyHistogram getRequestSendLatency() {
+        return requestSend;
+    }
+
+    public LatencyHistogram getFirstByteLatency() {
+        return firstByte;
+    }
+
+    public LatencyHistogram getBodyCompleteLatency() {
+        return bodyComplete;
+    }
+
+    public LatencyHistogram getTotalLatency() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return operationName + " [requests=" + getRequestCount() + ", errors=" + getErrorCount() + ", retries="
+                + getRetryCount() + ", retryBudgetExhausted=" + getRetryBudgetExhaustedCount() + ", hedges="
+                + getHedgeCount() + ", hedgesWon=" + getHedgeWonCount() + ", bytesSent=" + getBytesSent()
+                + ", bytesReceived=" + getBytesReceived() + ", total={" + total + "}, firstByte={" + firstByte + "}]";
+    }
+}
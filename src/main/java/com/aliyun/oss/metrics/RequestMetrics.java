@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.metrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.aliyun.oss.HttpMethod;
+
+/**
+ * The metrics of one operation, from signing the request to reading the end
+ * of the response body, across all of its retries.
+ *
+ * <p>
+ * The phase timings are in nanoseconds and are those of the last attempt,
+ * except the sign time which is paid once. A phase that was not reached, or
+ * that the transport does not measure, is -1. The asynchronous client only
+ * measures the first byte time, as the time the whole response was received.
+ * </p>
+ *
+ * <p>
+ * The mark methods are called by the client while it sends the request.
+ * </p>
+ */
+public class RequestMetrics {
+
+    private final String operationName;
+    private final String bucketName;
+    private final String key;
+    private final HttpMethod method;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private volatile int statusCode;
+    private volatile String errorCode;
+    private volatile String requestId;
+    private volatile int retries;
+    private volatile boolean retryBudgetExhausted;
+    private volatile boolean hedged;
+    private volatile boolean hedgeWon;
+    private volatile long bytesSent = -1;
+    private volatile long bytesReceived = -1;
+
+    private volatile long signNanos = -1;
+    private volatile long attemptStart = -1;
+    private volatile long leasedAt = -1;
+    private volatile long sentAt = -1;
+    private volatile long firstByteAt = -1;
+    private volatile long bodyNanos = -1;
+    private volatile long totalNanos = -1;
+
+    public RequestMetrics(String operationName, String bucketName, String key, HttpMethod method) {
+        this.operationName = operationName;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.method = method;
+    }
+
+    /**
+     * Gets the name of the operation, the request class name without the
+     * Request suffix, such as PutObject. Operations sent with a generic
+     * request are named by the HTTP method, the resource and the sorted
+     * sub-resources, such as DeleteObject, DeleteBucket or GetBucket?acl.
+     *
+     * @return The operation name.
+     */
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the HTTP status code of the last response.
+     *
+     * @return The status code, or 0 if no response was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the error code of the failed operation, either the OSS error code
+     * or the client error code.
+     *
+     * @return The error code, or null if the operation succeeded.
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public boolean isSuccessful() {
+        return errorCode == null && statusCode / 100 == 2;
+    }
+
+    /**
+     * Gets the number of retries, 0 if the first attempt completed the
+     * operation.
+     *
+     * @return The number of retries.
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Gets whether a retry was refused because the retry budget of the client
+     * was exhausted, see {@link com.aliyun.oss.common.comm.RetryMode#ADAPTIVE}.
+     *
+     * @return True if the retry budget was exhausted.
+     */
+    public boolean isRetryBudgetExhausted() {
+        return retryBudgetExhausted;
+    }
+
+    /**
+     * Gets whether a hedge of the request was sent.
+     *
+     * @return True if the request was hedged.
+     */
+    public boolean isHedged() {
+        return hedged;
+    }
+
+    /**
+     * Gets whether the response of the hedge was used.
+     *
+     * @return True if the hedge won.
+     */
+    public boolean isHedgeWon() {
+        return hedgeWon;
+    }
+
+    /**
+     * Gets the size of the request body.
+     *
+     * @return The number of bytes sent, or -1 if unknown.
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Gets the size of the response body. It's the number of bytes read for
+     * the content of an object, otherwise the content length of the response.
+     *
+     * @return The number of bytes received, or -1 if unknown.
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Gets the time spent signing the request.
+     *
+     * @return The sign time in nanoseconds.
+     */
+    public long getSignNanos() {
+        return signNanos;
+    }
+
+    /**
+     * Gets the time from handing the request to the HTTP client to holding a
+     * connection, including connecting a new one.
+     *
+     * @return The connection lease time in nanoseconds.
+     */
+    public long getConnectionLeaseNanos() {
+        return elapsed(attemptStart, leasedAt);
+    }
+
+    /**
+     * Gets the time spent writing the request headers and body.
+     *
+     * @return The request send time in nanoseconds.
+     */
+    public long getRequestSendNanos() {
+        return elapsed(leasedAt, sentAt);
+    }
+
+    /**
+     * Gets the time from the end of the request to the response headers,
+     * mostly the server processing time.
+     *
+     * @return The first byte time in nanoseconds.
+     */
+    public long getFirstByteNanos() {
+        return elapsed(sentAt != -1 ? sentAt : attemptStart, firstByteAt);
+    }
+
+    /**
+     * Gets the time from the response headers to the end of the response
+     * body, or to the end of the operation if the body was not read.
+     *
+     * @return The body time in nanoseconds.
+     */
+    public long getBodyCompleteNanos() {
+        return bodyNanos;
+    }
+
+    /**
+     * Gets the time of the whole operation.
+     *
+     * @return The total time in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    private static long elapsed(long from, long to) {
+        return from != -1 && to != -1 ? to - from : -1;
+    }
+
+    public void markSigned(long nanos) {
+        this.signNanos = nanos;
+    }
+
+    public void markAttemptStarted(int retries) {
+        this.retries = retries;
+        this.attemptStart = System.nanoTime();
+        this.leasedAt = -1;
+        this.sentAt = -1;
+        this.firstByteAt = -1;
+    }
+
+    public void markRetryBudgetExhausted() {
+        this.retryBudgetExhausted = true;
+    }
+
+    public void markHedged() {
+        this.hedged = true;
+    }
+
+    public void markHedgeWon() {
+        this.hedgeWon = true;
+    }
+
+    public void markConnectionLeased() {
+        this.leasedAt = System.nanoTime();
+    }
+
+    public void markRequestSent() {
+        this.sentAt = System.nanoTime();
+    }
+
+    public void markFirstByte() {
+        this.firstByteAt = System.nanoTime();
+    }
+
+    public void setBytesSent(long bytesSent) {
+        this.bytesSent = bytesSent;
+    }
+
+    public void setBytesReceived(long bytesReceived) {
+        this.bytesReceived = bytesReceived;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Ends the operation before the listener is notified.
+     *
+     * @return True the first time, false if it was already completed.
+     */
+    public boolean markCompleted() {
+        if (!completed.compareAndSet(false, true)) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (firstByteAt != -1) {
+            this.bodyNanos = now - firstByteAt;
+        }
+        this.totalNanos = now - startNanos;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestMetrics [operation=" + operationName + ", bucket=" + bucketName + ", status=" + statusCode
+                + ", errorCode=" + errorCode + ", retries=" + retries + ", retryBudgetExhausted=" + retryBudgetExhausted
+                + ", hedged=" + hedged + ", hedgeWon=" + hedgeWon + ", bytesSent=" + bytesSent
+                + ", bytesReceived=" + bytesReceived + ", signNanos=" + signNanos + ", leaseNanos="
+                + getConnectionLeaseNanos() + ", sendNanos=" + getRequestSendNanos() + ", firstByteNanos="
+                + getFirstByteNanos() + ", bodyNanos=" + bodyNanos + ", totalNanos=" + totalNanos + "]";
+    }
+}
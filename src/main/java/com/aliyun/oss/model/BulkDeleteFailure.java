@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * A key that {@link com.aliyun.oss.OSS#bulkDelete(BulkDeleteRequest)} could
+ * not delete.
+ */
+public class BulkDeleteFailure {
+
+    private final String key;
+    private final String versionId;
+    private final String errorCode;
+    private final String errorMessage;
+
+    public BulkDeleteFailure(String key, String versionId, String errorCode, String errorMessage) {
+        this.key = key;
+        this.versionId = versionId;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * @return The object key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return The version id, or null for the current version.
+     */
+    public String getVersionId() {
+        return versionId;
+    }
+
+    /**
+     * @return The error code of the failed request, or null if OSS listed
+     *         the key as not deleted in a successful response.
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return The error message.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkDeleteFailure [key=" + key + ", versionId=" + versionId + ", errorCode=" + errorCode
+                + ", errorMessage=" + errorMessage + "]";
+    }
+}
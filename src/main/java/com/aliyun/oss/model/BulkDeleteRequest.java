@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+import java.util.Iterator;
+
+import com.aliyun.oss.model.DeleteVersionsRequest.KeyVersion;
+
+/**
+ * The request class that is to delete a large number of objects with
+ * concurrent DeleteObjects or DeleteVersions requests, see
+ * {@link com.aliyun.oss.OSS#bulkDelete(BulkDeleteRequest)}.
+ * <p>
+ * The keys come from exactly one source: an iterator of keys, an iterator of
+ * key versions, or a prefix whose objects (or, with allVersions, whose
+ * versions and delete markers) are listed while the deletion is running.
+ * The keys are packed into batches of batchSize and sent in quiet mode.
+ * </p>
+ */
+public class BulkDeleteRequest extends GenericRequest {
+
+    public static final int DEFAULT_BATCH_SIZE = DeleteObjectsRequest.DELETE_OBJECTS_ONETIME_LIMIT;
+    public static final int DEFAULT_MAX_CONCURRENT_BATCHES = 8;
+    public static final int DEFAULT_MAX_CONCURRENT_LIST_REQUESTS = 4;
+
+    public BulkDeleteRequest(String bucketName) {
+        super(bucketName);
+    }
+
+    public BulkDeleteRequest(String bucketName, String prefix) {
+        super(bucketName);
+        this.prefix = prefix;
+    }
+
+    /**
+     * Gets the prefix of the objects to list and delete. An empty prefix
+     * deletes every object in the bucket.
+     *
+     * @return The prefix.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public BulkDeleteRequest withPrefix(String prefix) {
+        setPrefix(prefix);
+        return this;
+    }
+
+    /**
+     * Gets the keys to delete. The iterator is consumed on the calling
+     * thread, so it may produce the keys lazily.
+     *
+     * @return The keys to delete.
+     */
+    public Iterator<String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Iterator<String> keys) {
+        this.keys = keys;
+    }
+
+    public BulkDeleteRequest withKeys(Iterator<String> keys) {
+        setKeys(keys);
+        return this;
+    }
+
+    /**
+     * Gets the key versions to delete with DeleteVersions requests. A null
+     * version id deletes the current version of the key.
+     *
+     * @return The key versions to delete.
+     */
+    public Iterator<KeyVersion> getKeyVersions() {
+        return keyVersions;
+    }
+
+    public void setKeyVersions(Iterator<KeyVersion> keyVersions) {
+        this.keyVersions = keyVersions;
+    }
+
+    public BulkDeleteRequest withKeyVersions(Iterator<KeyVersion> keyVersions) {
+        setKeyVersions(keyVersions);
+        return this;
+    }
+
+    /**
+     * Gets whether every version and delete marker under the prefix is
+     * deleted, instead of the current versions only. The default is false.
+     *
+     * @return True to delete all versions under the prefix.
+     */
+    public boolean isAllVersions() {
+        return allVersions;
+    }
+
+    public void setAllVersions(boolean allVersions) {
+        this.allVersions = allVersions;
+    }
+
+    public BulkDeleteRequest withAllVersions(boolean allVersions) {
+        setAllVersions(allVersions);
+        return this;
+    }
+
+    /**
+     * Gets the number of keys sent in one request, at most
+     * {@link DeleteObjectsRequest#DELETE_OBJECTS_ONETIME_LIMIT}, which is
+     * also the default.
+     *
+     * @return The batch size.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public BulkDeleteRequest withBatchSize(int batchSize) {
+        setBatchSize(batchSize);
+        return this;
+    }
+
+    /**
+     * Gets the max number of delete requests in flight at any time. The
+     * keys are not read ahead further than the batches in flight.
+     *
+     * @return The max concurrent batches.
+     */
+    public int getMaxConcurrentBatches() {
+        return maxConcurrentBatches;
+    }
+
+    public void setMaxConcurrentBatches(int maxConcurrentBatches) {
+        this.maxConcurrentBatches = maxConcurrentBatches;
+    }
+
+    public BulkDeleteRequest withMaxConcurrentBatches(int maxConcurrentBatches) {
+        setMaxConcurrentBatches(maxConcurrentBatches);
+        return this;
+    }
+
+    /**
+     * Gets the max number of list requests in flight when the objects under
+     * the prefix are listed. Versions are listed with a single continuation
+     * chain and ignore it.
+     *
+     * @return The max concurrent list requests.
+     */
+    public int getMaxConcurrentListRequests() {
+        return maxConcurrentListRequests;
+    }
+
+    public void setMaxConcurrentListRequests(int maxConcurrentListRequests) {
+        this.maxConcurrentListRequests = maxConcurrentListRequests;
+    }
+
+    public BulkDeleteRequest withMaxConcurrentListRequests(int maxConcurrentListRequests) {
+        setMaxConcurrentListRequests(maxConcurrentListRequests);
+        return this;
+    }
+
+    private String prefix;
+    private Iterator<String> keys;
+    private Iterator<KeyVersion> keyVersions;
+    private boolean allVersions;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int maxConcurrentBatches = DEFAULT_MAX_CONCURRENT_BATCHES;
+    private int maxConcurrentListRequests = DEFAULT_MAX_CONCURRENT_LIST_REQUESTS;
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+import java.util.List;
+
+/**
+ * The result of {@link com.aliyun.oss.OSS#bulkDelete(BulkDeleteRequest)}.
+ * The failed keys can be sent again with
+ * {@link BulkDeleteRequest#setKeyVersions(java.util.Iterator)}.
+ */
+public class BulkDeleteResult {
+
+    private final long deletedCount;
+    private final List<BulkDeleteFailure> failures;
+    private final long requestCount;
+    private final long elapsedMillis;
+
+    public BulkDeleteResult(long deletedCount, List<BulkDeleteFailure> failures, long requestCount,
+            long elapsedMillis) {
+        this.deletedCount = deletedCount;
+        this.failures = failures;
+        this.requestCount = requestCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return The number of keys deleted. Keys that did not exist are
+     *         counted as deleted, as OSS does.
+     */
+    public long getDeletedCount() {
+        return deletedCount;
+    }
+
+    /**
+     * @return The number of keys that could not be deleted.
+     */
+    public long getFailedCount() {
+        return failures.size();
+    }
+
+    /**
+     * @return The keys that could not be deleted.
+     */
+    public List<BulkDeleteFailure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return The number of delete requests sent.
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return The milliseconds from the start of the listing or the first
+     *         key to the completion of the last batch.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return The number of keys deleted per second.
+     */
+    public double getDeletedObjectsPerSecond() {
+        return elapsedMillis == 0 ? 0 : deletedCount * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkDeleteResult [deletedCount=" + deletedCount + ", failedCount=" + failures.size()
+                + ", requestCount=" + requestCount + ", elapsedMillis=" + elapsedMillis + "]";
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * A file that {@link com.aliyun.oss.OSS#uploadDirectory(UploadDirectoryRequest)}
+ * or {@link com.aliyun.oss.OSS#downloadDirectory(DownloadDirectoryRequest)}
+ * could not transfer.
+ */
+public class DirectoryTransferFailure {
+
+    private final String key;
+    private final String file;
+    private final String errorCode;
+    private final String errorMessage;
+
+    public DirectoryTransferFailure(String key, String file, String errorCode, String errorMessage) {
+        this.key = key;
+        this.file = file;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * @return The object key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return The local file path.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * @return The error code of the failed request, or null if the transfer
+     *         failed in the client.
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return The error message.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "DirectoryTransferFailure [key=" + key + ", file=" + file + ", errorCode=" + errorCode
+                + ", errorMessage=" + errorMessage + "]";
+    }
+}
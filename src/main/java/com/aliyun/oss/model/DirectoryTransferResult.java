@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+import java.util.List;
+
+/**
+ * The result of {@link com.aliyun.oss.OSS#uploadDirectory(UploadDirectoryRequest)}
+ * and {@link com.aliyun.oss.OSS#downloadDirectory(DownloadDirectoryRequest)}.
+ * The failed files are transferred by sending the same request again with a
+ * manifest file, which skips the files already transferred.
+ */
+public class DirectoryTransferResult {
+
+    private final long transferredFiles;
+    private final long transferredBytes;
+    private final long skippedFiles;
+    private final List<DirectoryTransferFailure> failures;
+    private final long elapsedMillis;
+
+    public DirectoryTransferResult(long transferredFiles, long transferredBytes, long skippedFiles,
+            List<DirectoryTransferFailure> failures, long elapsedMillis) {
+        this.transferredFiles = transferredFiles;
+        this.transferredBytes = transferredBytes;
+        this.skippedFiles = skippedFiles;
+        this.failures = failures;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return The number of files transferred.
+     */
+    public long getTransferredFiles() {
+        return transferredFiles;
+    }
+
+    /**
+     * @return The number of bytes of the files transferred.
+     */
+    public long getTransferredBytes() {
+        return transferredBytes;
+    }
+
+    /**
+     * @return The number of files skipped because the manifest recorded them
+     *         as transferred by an earlier run.
+     */
+    public long getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * @return The number of files that could not be transferred.
+     */
+    public long getFailedFiles() {
+        return failures.size();
+    }
+
+    /**
+     * @return The files that could not be transferred.
+     */
+    public List<DirectoryTransferFailure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return The milliseconds from the start of the walk to the completion
+     *         of the last file.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return The number of files transferred per second.
+     */
+    public double getFilesPerSecond() {
+        return elapsedMillis == 0 ? 0 : transferredFiles * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @return The number of bytes transferred per second.
+     */
+    public double getBytesPerSecond() {
+        return elapsedMillis == 0 ? 0 : transferredBytes * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "DirectoryTransferResult [transferredFiles=" + transferredFiles + ", transferredBytes="
+                + transferredBytes + ", skippedFiles=" + skippedFiles + ", failedFiles=" + failures.size()
+                + ", elapsedMillis=" + elapsedMillis + "]";
+    }
+}
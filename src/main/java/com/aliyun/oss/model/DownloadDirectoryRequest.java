@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * The request class that is to download the objects under a prefix to a
+ * local directory tree, see
+ * {@link com.aliyun.oss.OSS#downloadDirectory(DownloadDirectoryRequest)}.
+ * <p>
+ * Every object under the prefix is downloaded to the path made of the local
+ * directory and the rest of its key after the prefix, so "logs/2024/a.txt"
+ * under the prefix "logs/" goes to "2024/a.txt" in the directory. Objects
+ * smaller than the multipart threshold are fetched with a single GetObject
+ * request, larger objects with the resumable download. Keys ending with '/'
+ * only create the directory.
+ * </p>
+ */
+public class DownloadDirectoryRequest extends GenericRequest {
+
+    public static final long DEFAULT_MULTIPART_THRESHOLD = 64 * 1024 * 1024L;
+    public static final long DEFAULT_PART_SIZE = 8 * 1024 * 1024L;
+    public static final int DEFAULT_TASK_NUM = 4;
+    public static final int DEFAULT_MAX_CONCURRENT_FILES = 16;
+    public static final int DEFAULT_MAX_CONCURRENT_LIST_REQUESTS = 4;
+
+    public DownloadDirectoryRequest(String bucketName, String prefix, String localDirectory) {
+        super(bucketName);
+        this.prefix = prefix;
+        this.localDirectory = localDirectory;
+    }
+
+    /**
+     * Gets the prefix of the objects to download. An empty prefix downloads
+     * the whole bucket.
+     *
+     * @return The prefix.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public DownloadDirectoryRequest withPrefix(String prefix) {
+        setPrefix(prefix);
+        return this;
+    }
+
+    /**
+     * Gets the local directory the objects are downloaded to. It's created
+     * if it does not exist.
+     *
+     * @return The local directory path.
+     */
+    public String getLocalDirectory() {
+        return localDirectory;
+    }
+
+    public void setLocalDirectory(String localDirectory) {
+        this.localDirectory = localDirectory;
+    }
+
+    public DownloadDirectoryRequest withLocalDirectory(String localDirectory) {
+        setLocalDirectory(localDirectory);
+        return this;
+    }
+
+    /**
+     * Gets the size from which a file is downloaded in parts with the resumable
+     * download instead of a single GetObject request. The default is
+     * {@link #DEFAULT_MULTIPART_THRESHOLD}.
+     *
+     * @return The multipart threshold in bytes.
+     */
+    public long getMultipartThreshold() {
+        return multipartThreshold;
+    }
+
+    public void setMultipartThreshold(long multipartThreshold) {
+        this.multipartThreshold = multipartThreshold;
+    }
+
+    public DownloadDirectoryRequest withMultipartThreshold(long multipartThreshold) {
+        setMultipartThreshold(multipartThreshold);
+        return this;
+    }
+
+    /**
+     * Gets the part size of the files transferred in parts. The default is
+     * {@link #DEFAULT_PART_SIZE}.
+     *
+     * @return The part size in bytes.
+     */
+    public long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(long partSize) {
+        this.partSize = partSize;
+    }
+
+    public DownloadDirectoryRequest withPartSize(long partSize) {
+        setPartSize(partSize);
+        return this;
+    }
+
+    /**
+     * Gets the number of concurrent parts of one file transferred in parts.
+     * The default is {@link #DEFAULT_TASK_NUM}.
+     *
+     * @return The task number of a file.
+     */
+    public int getTaskNum() {
+        return taskNum;
+    }
+
+    public void setTaskNum(int taskNum) {
+        this.taskNum = taskNum;
+    }
+
+    public DownloadDirectoryRequest withTaskNum(int taskNum) {
+        setTaskNum(taskNum);
+        return this;
+    }
+
+    /**
+     * Gets the number of files transferred at once. The default is
+     * {@link #DEFAULT_MAX_CONCURRENT_FILES}.
+     *
+     * @return The max concurrent files.
+     */
+    public int getMaxConcurrentFiles() {
+        return maxConcurrentFiles;
+    }
+
+    public void setMaxConcurrentFiles(int maxConcurrentFiles) {
+        this.maxConcurrentFiles = maxConcurrentFiles;
+    }
+
+    public DownloadDirectoryRequest withMaxConcurrentFiles(int maxConcurrentFiles) {
+        setMaxConcurrentFiles(maxConcurrentFiles);
+        return this;
+    }
+
+    /**
+     * Gets the local path of the manifest that records the transferred
+     * files. When it's set, a transfer that did not complete resumes from the
+     * manifest and skips the files already transferred; the files transferred
+     * in parts keep their checkpoints next to it. The manifest is deleted
+     * once every file is transferred. By default there is no manifest.
+     *
+     * @return The manifest file path.
+     */
+    public String getManifestFile() {
+        return manifestFile;
+    }
+
+    public void setManifestFile(String manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    public DownloadDirectoryRequest withManifestFile(String manifestFile) {
+        setManifestFile(manifestFile);
+        return this;
+    }
+
+    /**
+     * Gets the number of concurrent ListObjectsV2 requests that list the
+     * prefix. The default is {@link #DEFAULT_MAX_CONCURRENT_LIST_REQUESTS}.
+     *
+     * @return The max concurrent list requests.
+     */
+    public int getMaxConcurrentListRequests() {
+        return maxConcurrentListRequests;
+    }
+
+    public void setMaxConcurrentListRequests(int maxConcurrentListRequests) {
+        this.maxConcurrentListRequests = maxConcurrentListRequests;
+    }
+
+    public DownloadDirectoryRequest withMaxConcurrentListRequests(int maxConcurrentListRequests) {
+        setMaxConcurrentListRequests(maxConcurrentListRequests);
+        return this;
+    }
+
+    private String prefix;
+    private String localDirectory;
+    private long multipartThreshold = DEFAULT_MULTIPART_THRESHOLD;
+    private long partSize = DEFAULT_PART_SIZE;
+    private int taskNum = DEFAULT_TASK_NUM;
+    private int maxConcurrentFiles = DEFAULT_MAX_CONCURRENT_FILES;
+    private String manifestFile;
+    private int maxConcurrentListRequests = DEFAULT_MAX_CONCURRENT_LIST_REQUESTS;
+}
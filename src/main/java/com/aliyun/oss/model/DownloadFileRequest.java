@@ -284,6 +284,50 @@ public class DownloadFileRequest extends GenericRequest {
         range = new long[] { start, end };
     }
 
+    /**
+     * Gets whether the parts are written through one FileChannel of the
+     * temporary file, shared by all the part threads.
+     *
+     * @return True if the parts share a FileChannel, which is the default.
+     */
+    public boolean isSharedFileChannel() {
+        return sharedFileChannel;
+    }
+
+    /**
+     * Sets whether the parts are written through one FileChannel of the
+     * temporary file, shared by all the part threads, with positional
+     * writes from large pooled direct buffers. Set it to false to have every
+     * part open the temporary file and write it through an 8KB buffer.
+     *
+     * @param sharedFileChannel
+     *            True to share a FileChannel between the parts.
+     */
+    public void setSharedFileChannel(boolean sharedFileChannel) {
+        this.sharedFileChannel = sharedFileChannel;
+    }
+
+    /**
+     * Gets the priority of the transfer.
+     *
+     * @return The priority, 0 by default.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the transfer. When the concurrent parts of the
+     * client are limited, parts of transfers with higher priority run first,
+     * and transfers with the same priority take turns.
+     *
+     * @param priority
+     *            The priority of the transfer.
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
     // Part size in byte, by default it's 100KB.
     private long partSize = 1024 * 100;
     // Thread count for downloading parts, by default it's 1.
@@ -310,4 +354,9 @@ public class DownloadFileRequest extends GenericRequest {
     private int trafficLimit;
 
     private long[] range;
+
+    // Flag of writing the parts through a shared FileChannel.
+    private boolean sharedFileChannel = true;
+    // The priority of the transfer's parts.
+    private int priority;
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * A snapshot of the progress of a {@link ParallelObjectListing}.
+ */
+public class ListingProgress {
+
+    private final long requestCount;
+    private final int inFlightRequestCount;
+    private final long listedObjectCount;
+    private final long returnedObjectCount;
+    private final long partitionCount;
+    private final int bufferedObjectCount;
+    private final long elapsedMillis;
+
+    public ListingProgress(long requestCount, int inFlightRequestCount, long listedObjectCount,
+            long returnedObjectCount, long partitionCount, int bufferedObjectCount, long elapsedMillis) {
+        this.requestCount = requestCount;
+        this.inFlightRequestCount = inFlightRequestCount;
+        this.listedObjectCount = listedObjectCount;
+        this.returnedObjectCount = returnedObjectCount;
+        this.partitionCount = partitionCount;
+        this.bufferedObjectCount = bufferedObjectCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return The number of ListObjectsV2 requests sent so far.
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return The number of ListObjectsV2 requests in flight.
+     */
+    public int getInFlightRequestCount() {
+        return inFlightRequestCount;
+    }
+
+    /**
+     * @return The number of objects received from OSS.
+     */
+    public long getListedObjectCount() {
+        return listedObjectCount;
+    }
+
+    /**
+     * @return The number of objects returned to the caller.
+     */
+    public long getReturnedObjectCount() {
+        return returnedObjectCount;
+    }
+
+    /**
+     * @return The number of partitions the key space was divided into.
+     */
+    public long getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * @return The number of objects received but not yet returned.
+     */
+    public int getBufferedObjectCount() {
+        return bufferedObjectCount;
+    }
+
+    /**
+     * @return The time since the listing started, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return The average number of objects received per second.
+     */
+    public double getListedObjectsPerSecond() {
+        return elapsedMillis == 0 ? 0 : listedObjectCount * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ListingProgress [requests=" + requestCount + ", inFlightRequests=" + inFlightRequestCount
+                + ", listedObjects=" + listedObjectCount + ", returnedObjects=" + returnedObjectCount
+                + ", partitions=" + partitionCount + ", bufferedObjects=" + bufferedObjectCount
+                + ", elapsedMillis=" + elapsedMillis + "]";
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A random access channel over the content of an object, returned by
+ * {@link com.aliyun.oss.OSS#createObjectChannel(ObjectChannelRequest)}.
+ * <p>
+ * It has the position and size methods of a seekable byte channel, and
+ * positioned reads that leave the position alone. The object is fetched in
+ * aligned blocks with ranged GetObject requests and the blocks are cached,
+ * so many small reads near each other, like the footer and the column
+ * chunks of a columnar file, cost few requests. All the blocks are requested
+ * with the ETag found when the channel is opened; if the object is
+ * overwritten, the next fetch fails with a PreconditionFailed error. The
+ * channel is thread safe; reads are serialized.
+ * </p>
+ */
+public abstract class OSSObjectChannel implements ReadableByteChannel {
+
+    /**
+     * Reads bytes at the given position of the object, without changing the
+     * position of the channel.
+     *
+     * @param dst
+     *            The buffer to read to.
+     * @param position
+     *            The position in the object to read from.
+     * @return The number of bytes read, or -1 if the position is at or past
+     *         the end of the object.
+     * @throws IOException
+     *             If the channel is closed.
+     */
+    public abstract int read(ByteBuffer dst, long position) throws IOException;
+
+    /**
+     * @return The position of the channel in the object.
+     * @throws IOException
+     *             If the channel is closed.
+     */
+    public abstract long position() throws IOException;
+
+    /**
+     * Sets the position of the channel. A position past the end of the
+     * object is allowed; reads there return -1.
+     *
+     * @param newPosition
+     *            The new position, a non-negative number.
+     * @return This channel.
+     * @throws IOException
+     *             If the channel is closed.
+     */
+    public abstract OSSObjectChannel position(long newPosition) throws IOException;
+
+    /**
+     * @return The size of the object.
+     * @throws IOException
+     *             If the channel is closed.
+     */
+    public abstract long size() throws IOException;
+
+    /**
+     * @return The metadata of the object, as returned when the channel was
+     *         opened.
+     */
+    public abstract ObjectMetadata getObjectMetadata();
+
+    /**
+     * @return The number of blocks read from the cache.
+     */
+    public abstract long getCacheHits();
+
+    /**
+     * @return The number of blocks that were not in the cache when read.
+     */
+    public abstract long getCacheMisses();
+
+    /**
+     * @return The number of GetObject requests sent to fetch blocks.
+     */
+    public abstract long getRequestCount();
+}
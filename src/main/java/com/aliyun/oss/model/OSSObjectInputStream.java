@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+import java.io.InputStream;
+
+/**
+ * An input stream over the content of an object that downloads the blocks
+ * ahead of the reader, returned by
+ * {@link com.aliyun.oss.OSS#createObjectInputStream(ObjectInputStreamRequest)}.
+ * <p>
+ * The blocks are requested with the ETag of the object, so if the object is
+ * overwritten while it's read the next block fails with a
+ * PreconditionFailed error instead of mixing the two contents. When the CRC
+ * check is enabled, the CRC64 of the blocks read is combined and checked
+ * against the object's at the end of the stream. A failed block fails the
+ * read that reaches it. The stream is not thread safe.
+ * </p>
+ */
+public abstract class OSSObjectInputStream extends InputStream {
+
+    /**
+     * @return The metadata of the object read, as returned when the stream
+     *         was created.
+     */
+    public abstract ObjectMetadata getObjectMetadata();
+
+    /**
+     * @return The number of bytes read from the stream.
+     */
+    public abstract long getPosition();
+
+    /**
+     * @return The CRC64 of the bytes read so far, or null if the CRC check is
+     *         disabled.
+     */
+    public abstract Long getClientCRC();
+}
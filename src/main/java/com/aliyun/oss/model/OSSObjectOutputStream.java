@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that uploads the bytes written to it as an object,
+ * returned by
+ * {@link com.aliyun.oss.OSS#createObjectOutputStream(ObjectOutputStreamRequest)}.
+ * <p>
+ * The object is created by {@link #close()}, which waits for the parts still
+ * uploading and completes the multipart upload, or puts the object if it's
+ * smaller than one part. A failed part fails the next write or the close,
+ * and the multipart upload is aborted. Call {@link #abort()} to give up the
+ * object. The stream is not thread safe.
+ * </p>
+ */
+public abstract class OSSObjectOutputStream extends OutputStream {
+
+    /**
+     * Discards the bytes written and aborts the multipart upload, if one was
+     * started. The stream is closed and no object is created. It doesn't
+     * throw.
+     */
+    public abstract void abort();
+
+    /**
+     * @return The number of bytes written to the stream.
+     */
+    public abstract long getBytesWritten();
+
+    /**
+     * @return The id of the multipart upload, or null if no part was
+     *         uploaded yet or the object was put in a single request.
+     */
+    public abstract String getUploadId();
+
+    /**
+     * @return The number of parts uploaded, 0 if the object was put in a
+     *         single request.
+     */
+    public abstract int getPartCount();
+
+    /**
+     * @return The ETag of the object, or null before the stream is closed.
+     */
+    public abstract String getETag();
+
+    /**
+     * @return The CRC64 of the object computed by the client, or null before
+     *         the stream is closed or if the CRC check is disabled.
+     */
+    public abstract Long getClientCRC();
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * The request class that is to open a random access channel over an object,
+ * see {@link com.aliyun.oss.OSS#createObjectChannel(ObjectChannelRequest)}.
+ * <p>
+ * The object is read in aligned blocks of blockSize bytes, which are kept in
+ * a least recently used cache of up to cacheCapacity bytes. A read that
+ * continues the previous one also fetches the next prefetchBlocks blocks.
+ * </p>
+ */
+public class ObjectChannelRequest extends GenericRequest {
+
+    public static final int MIN_BLOCK_SIZE = 4 * 1024;
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    public static final long DEFAULT_CACHE_CAPACITY = 32L * 1024 * 1024;
+    public static final int DEFAULT_PREFETCH_BLOCKS = 4;
+
+    public ObjectChannelRequest(String bucketName, String key) {
+        super(bucketName, key);
+    }
+
+    public ObjectChannelRequest(String bucketName, String key, String versionId) {
+        super(bucketName, key, versionId);
+    }
+
+    /**
+     * Gets the size of the blocks the object is fetched and cached in. It's
+     * at least {@link #MIN_BLOCK_SIZE}, and {@link #DEFAULT_BLOCK_SIZE} by
+     * default.
+     *
+     * @return The block size in bytes.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public ObjectChannelRequest withBlockSize(int blockSize) {
+        setBlockSize(blockSize);
+        return this;
+    }
+
+    /**
+     * Gets the memory budget of the block cache. It's at least one block, and
+     * {@link #DEFAULT_CACHE_CAPACITY} by default.
+     *
+     * @return The cache capacity in bytes.
+     */
+    public long getCacheCapacity() {
+        return cacheCapacity;
+    }
+
+    public void setCacheCapacity(long cacheCapacity) {
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    public ObjectChannelRequest withCacheCapacity(long cacheCapacity) {
+        setCacheCapacity(cacheCapacity);
+        return this;
+    }
+
+    /**
+     * Gets the number of blocks fetched beyond a sequential read, in the same
+     * request. 0 disables the prefetch. The default is
+     * {@link #DEFAULT_PREFETCH_BLOCKS}.
+     *
+     * @return The prefetch depth in blocks.
+     */
+    public int getPrefetchBlocks() {
+        return prefetchBlocks;
+    }
+
+    public void setPrefetchBlocks(int prefetchBlocks) {
+        this.prefetchBlocks = prefetchBlocks;
+    }
+
+    public ObjectChannelRequest withPrefetchBlocks(int prefetchBlocks) {
+        setPrefetchBlocks(prefetchBlocks);
+        return this;
+    }
+
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+    private long cacheCapacity = DEFAULT_CACHE_CAPACITY;
+    private int prefetchBlocks = DEFAULT_PREFETCH_BLOCKS;
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * The request class that is to read an object through an input stream that
+ * downloads the blocks ahead of the reader, see
+ * {@link com.aliyun.oss.OSS#createObjectInputStream(ObjectInputStreamRequest)}.
+ * <p>
+ * The object is split into blocks of blockSize bytes. While the reader
+ * consumes one block, the next readAheadBlocks blocks are downloaded with
+ * concurrent ranged GetObject requests. All the blocks are read from the
+ * object version and ETag found when the stream is created.
+ * </p>
+ */
+public class ObjectInputStreamRequest extends GenericRequest {
+
+    public static final int MIN_BLOCK_SIZE = 64 * 1024;
+    public static final int DEFAULT_BLOCK_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_READ_AHEAD_BLOCKS = 4;
+
+    public ObjectInputStreamRequest(String bucketName, String key) {
+        super(bucketName, key);
+    }
+
+    public ObjectInputStreamRequest(String bucketName, String key, String versionId) {
+        super(bucketName, key, versionId);
+    }
+
+    /**
+     * Gets the size of the blocks, which is also the size of the buffers the
+     * blocks are downloaded to. It's at least {@link #MIN_BLOCK_SIZE}, and
+     * {@link #DEFAULT_BLOCK_SIZE} by default.
+     *
+     * @return The block size in bytes.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public ObjectInputStreamRequest withBlockSize(int blockSize) {
+        setBlockSize(blockSize);
+        return this;
+    }
+
+    /**
+     * Gets the number of blocks downloaded ahead of the one being read. The
+     * stream holds at most one more buffer than this. The default is
+     * {@link #DEFAULT_READ_AHEAD_BLOCKS}.
+     *
+     * @return The read ahead depth in blocks.
+     */
+    public int getReadAheadBlocks() {
+        return readAheadBlocks;
+    }
+
+    public void setReadAheadBlocks(int readAheadBlocks) {
+        this.readAheadBlocks = readAheadBlocks;
+    }
+
+    public ObjectInputStreamRequest withReadAheadBlocks(int readAheadBlocks) {
+        setReadAheadBlocks(readAheadBlocks);
+        return this;
+    }
+
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+    private int readAheadBlocks = DEFAULT_READ_AHEAD_BLOCKS;
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * The request class that is to upload an object of unknown length by writing
+ * it to an output stream, see
+ * {@link com.aliyun.oss.OSS#createObjectOutputStream(ObjectOutputStreamRequest)}.
+ * <p>
+ * The bytes written are collected into parts of partSize bytes. Each full
+ * part is uploaded while the next one is written, with at most
+ * maxPartsInFlight parts uploading at once; the writer blocks when all of
+ * them are busy. An object smaller than one part is uploaded with a single
+ * PutObject request when the stream is closed.
+ * </p>
+ */
+public class ObjectOutputStreamRequest extends GenericRequest {
+
+    public static final int MIN_PART_SIZE = 100 * 1024;
+    public static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_MAX_PARTS_IN_FLIGHT = 4;
+
+    public ObjectOutputStreamRequest(String bucketName, String key) {
+        super(bucketName, key);
+    }
+
+    public ObjectOutputStreamRequest(String bucketName, String key, ObjectMetadata objectMetadata) {
+        super(bucketName, key);
+        this.objectMetadata = objectMetadata;
+    }
+
+    /**
+     * Gets the size of the parts, which is also the size of the buffers the
+     * stream writes to. It's at least {@link #MIN_PART_SIZE}, and
+     * {@link #DEFAULT_PART_SIZE} by default.
+     *
+     * @return The part size in bytes.
+     */
+    public int getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(int partSize) {
+        this.partSize = partSize;
+    }
+
+    public ObjectOutputStreamRequest withPartSize(int partSize) {
+        setPartSize(partSize);
+        return this;
+    }
+
+    /**
+     * Gets the max number of parts uploading at once. The stream holds at
+     * most one more buffer than this. The default is
+     * {@link #DEFAULT_MAX_PARTS_IN_FLIGHT}.
+     *
+     * @return The max parts in flight.
+     */
+    public int getMaxPartsInFlight() {
+        return maxPartsInFlight;
+    }
+
+    public void setMaxPartsInFlight(int maxPartsInFlight) {
+        this.maxPartsInFlight = maxPartsInFlight;
+    }
+
+    public ObjectOutputStreamRequest withMaxPartsInFlight(int maxPartsInFlight) {
+        setMaxPartsInFlight(maxPartsInFlight);
+        return this;
+    }
+
+    /**
+     * Gets the metadata of the object. Its content length is ignored.
+     *
+     * @return The object metadata.
+     */
+    public ObjectMetadata getObjectMetadata() {
+        return objectMetadata;
+    }
+
+    public void setObjectMetadata(ObjectMetadata objectMetadata) {
+        this.objectMetadata = objectMetadata;
+    }
+
+    public ObjectOutputStreamRequest withObjectMetadata(ObjectMetadata objectMetadata) {
+        setObjectMetadata(objectMetadata);
+        return this;
+    }
+
+    private int partSize = DEFAULT_PART_SIZE;
+    private int maxPartsInFlight = DEFAULT_MAX_PARTS_IN_FLIGHT;
+    private ObjectMetadata objectMetadata;
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * The request class that is to list all objects under a prefix with several
+ * ListObjectsV2 requests running concurrently, see
+ * {@link com.aliyun.oss.OSS#listObjectsParallel(ParallelListObjectsRequest)}.
+ * <p>
+ * The key space is partitioned in two ways. If a delimiter is set, every
+ * common prefix found is listed as a partition of its own. Independently, a
+ * partition that still has more pages is split in two at a start-after
+ * boundary whenever there are fewer partitions running than
+ * maxConcurrentRequests allows.
+ * </p>
+ */
+public class ParallelListObjectsRequest extends GenericRequest {
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+    public static final int DEFAULT_MAX_BUFFERED_OBJECTS = 100000;
+    public static final String DEFAULT_DELIMITER = "/";
+
+    public ParallelListObjectsRequest(String bucketName) {
+        super(bucketName);
+    }
+
+    public ParallelListObjectsRequest(String bucketName, String prefix) {
+        super(bucketName);
+        this.prefix = prefix;
+    }
+
+    /**
+     * Gets the prefix that all the listed keys start with.
+     *
+     * @return The prefix.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public ParallelListObjectsRequest withPrefix(String prefix) {
+        setPrefix(prefix);
+        return this;
+    }
+
+    /**
+     * Gets the delimiter used to discover the common prefixes that are listed
+     * as separate partitions. The objects under every common prefix are still
+     * returned. The default is "/"; null disables the prefix fan-out.
+     *
+     * @return The delimiter.
+     */
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    public void setDelimiter(String delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public ParallelListObjectsRequest withDelimiter(String delimiter) {
+        setDelimiter(delimiter);
+        return this;
+    }
+
+    /**
+     * Gets the max number of keys returned by each ListObjectsV2 request.
+     * Null uses the server default.
+     *
+     * @return The max keys per request.
+     */
+    public Integer getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(Integer maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public ParallelListObjectsRequest withMaxKeys(Integer maxKeys) {
+        setMaxKeys(maxKeys);
+        return this;
+    }
+
+    /**
+     * Gets the max number of ListObjectsV2 requests in flight at any time,
+     * which is also the number of partitions listed concurrently.
+     *
+     * @return The max concurrent requests.
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public ParallelListObjectsRequest withMaxConcurrentRequests(int maxConcurrentRequests) {
+        setMaxConcurrentRequests(maxConcurrentRequests);
+        return this;
+    }
+
+    /**
+     * Gets the number of listed objects that may be buffered before the
+     * caller consumes them. Partitions stop sending requests once it is
+     * reached, so the memory in use is about this many summaries plus one
+     * page per concurrent request.
+     *
+     * @return The max buffered objects.
+     */
+    public int getMaxBufferedObjects() {
+        return maxBufferedObjects;
+    }
+
+    public void setMaxBufferedObjects(int maxBufferedObjects) {
+        this.maxBufferedObjects = maxBufferedObjects;
+    }
+
+    public ParallelListObjectsRequest withMaxBufferedObjects(int maxBufferedObjects) {
+        setMaxBufferedObjects(maxBufferedObjects);
+        return this;
+    }
+
+    /**
+     * Gets whether the objects are returned in key order, as a sequential
+     * listing would return them. When false, the objects are returned in the
+     * order they are received, which needs less buffering.
+     *
+     * @return true if the objects are returned in key order.
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public ParallelListObjectsRequest withOrdered(boolean ordered) {
+        setOrdered(ordered);
+        return this;
+    }
+
+    /**
+     * Gets whether partitions are split at start-after boundaries when there
+     * is spare concurrency.
+     *
+     * @return true if range splitting is enabled.
+     */
+    public boolean isSplitRanges() {
+        return splitRanges;
+    }
+
+    public void setSplitRanges(boolean splitRanges) {
+        this.splitRanges = splitRanges;
+    }
+
+    public ParallelListObjectsRequest withSplitRanges(boolean splitRanges) {
+        setSplitRanges(splitRanges);
+        return this;
+    }
+
+    public boolean isFetchOwner() {
+        return fetchOwner;
+    }
+
+    public void setFetchOwner(boolean fetchOwner) {
+        this.fetchOwner = fetchOwner;
+    }
+
+    public ParallelListObjectsRequest withFetchOwner(boolean fetchOwner) {
+        setFetchOwner(fetchOwner);
+        return this;
+    }
+
+    private String prefix;
+    private String delimiter = DEFAULT_DELIMITER;
+    private Integer maxKeys;
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private int maxBufferedObjects = DEFAULT_MAX_BUFFERED_OBJECTS;
+    private boolean ordered = false;
+    private boolean splitRanges = true;
+    private boolean fetchOwner = false;
+}
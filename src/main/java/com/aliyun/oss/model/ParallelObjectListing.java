@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * The objects returned by
+ * {@link com.aliyun.oss.OSS#listObjectsParallel(ParallelListObjectsRequest)},
+ * listed in the background while they are iterated.
+ * <p>
+ * A failed ListObjectsV2 request stops the listing; its exception is thrown
+ * from {@link #hasNext()}. Call {@link #close()} to stop the listing early,
+ * it is not needed once {@link #hasNext()} has returned false or thrown.
+ * </p>
+ */
+public interface ParallelObjectListing extends Iterator<OSSObjectSummary>, Closeable {
+
+    /**
+     * Gets the current progress of the listing.
+     *
+     * @return A {@link ListingProgress} snapshot.
+     */
+    ListingProgress getProgress();
+
+    /**
+     * Stops the listing and releases its threads. It doesn't throw.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.model;
+
+/**
+ * The request class that is to upload a local directory tree, see
+ * {@link com.aliyun.oss.OSS#uploadDirectory(UploadDirectoryRequest)}.
+ * <p>
+ * Every regular file under the local directory is uploaded to the key made
+ * of the key prefix and the file's path relative to the directory, with '/'
+ * as the separator. Files smaller than the multipart threshold are sent with
+ * a single PutObject request, larger files with the resumable upload.
+ * </p>
+ */
+public class UploadDirectoryRequest extends GenericRequest {
+
+    public static final long DEFAULT_MULTIPART_THRESHOLD = 64 * 1024 * 1024L;
+    public static final long DEFAULT_PART_SIZE = 8 * 1024 * 1024L;
+    public static final int DEFAULT_TASK_NUM = 4;
+    public static final int DEFAULT_MAX_CONCURRENT_FILES = 16;
+
+    public UploadDirectoryRequest(String bucketName, String localDirectory) {
+        this(bucketName, localDirectory, "");
+    }
+
+    public UploadDirectoryRequest(String bucketName, String localDirectory, String keyPrefix) {
+        super(bucketName);
+        this.localDirectory = localDirectory;
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * Gets the local directory to upload.
+     *
+     * @return The local directory path.
+     */
+    public String getLocalDirectory() {
+        return localDirectory;
+    }
+
+    public void setLocalDirectory(String localDirectory) {
+        this.localDirectory = localDirectory;
+    }
+
+    public UploadDirectoryRequest withLocalDirectory(String localDirectory) {
+        setLocalDirectory(localDirectory);
+        return this;
+    }
+
+    /**
+     * Gets the prefix put before the relative path of every file to make its
+     * key, for example "backup/". The default is the empty prefix.
+     *
+     * @return The key prefix.
+     */
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public UploadDirectoryRequest withKeyPrefix(String keyPrefix) {
+        setKeyPrefix(keyPrefix);
+        return this;
+    }
+
+    /**
+     * Gets the size from which a file is uploaded in parts with the resumable
+     * upload instead of a single PutObject request. The default is
+     * {@link #DEFAULT_MULTIPART_THRESHOLD}.
+     *
+     * @return The multipart threshold in bytes.
+     */
+    public long getMultipartThreshold() {
+        return multipartThreshold;
+    }
+
+    public void setMultipartThreshold(long multipartThreshold) {
+        this.multipartThreshold = multipartThreshold;
+    }
+
+    public UploadDirectoryRequest withMultipartThreshold(long multipartThreshold) {
+        setMultipartThreshold(multipartThreshold);
+        return this;
+    }
+
+    /**
+     * Gets the part size of the files transferred in parts. The default is
+     * {@link #DEFAULT_PART_SIZE}.
+     *
+     * @return The part size in bytes.
+     */
+    public long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(long partSize) {
+        this.partSize = partSize;
+    }
+
+    public UploadDirectoryRequest withPartSize(long partSize) {
+        setPartSize(partSize);
+        return this;
+    }
+
+    /**
+     * Gets the number of concurrent parts of one file transferred in parts.
+     * The default is {@link #DEFAULT_TASK_NUM}.
+     *
+     * @return The task number of a file.
+     */
+    public int getTaskNum() {
+        return taskNum;
+    }
+
+    public void setTaskNum(int taskNum) {
+        this.taskNum = taskNum;
+    }
+
+    public UploadDirectoryRequest withTaskNum(int taskNum) {
+        setTaskNum(taskNum);
+        return this;
+    }
+
+    /**
+     * Gets the number of files transferred at once. The default is
+     * {@link #DEFAULT_MAX_CONCURRENT_FILES}.
+     *
+     * @return The max concurrent files.
+     */
+    public int getMaxConcurrentFiles() {
+        return maxConcurrentFiles;
+    }
+
+    public void setMaxConcurrentFiles(int maxConcurrentFiles) {
+        this.maxConcurrentFiles = maxConcurrentFiles;
+    }
+
+    public UploadDirectoryRequest withMaxConcurrentFiles(int maxConcurrentFiles) {
+        setMaxConcurrentFiles(maxConcurrentFiles);
+        return this;
+    }
+
+    /**
+     * Gets the local path of the manifest that records the transferred
+     * files. When it's set, a transfer that did not complete resumes from the
+     * manifest and skips the files already transferred; the files transferred
+     * in parts keep their checkpoints next to it. The manifest is deleted
+     * once every file is transferred. By default there is no manifest.
+     *
+     * @return The manifest file path.
+     */
+    public String getManifestFile() {
+        return manifestFile;
+    }
+
+    public void setManifestFile(String manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    public UploadDirectoryRequest withManifestFile(String manifestFile) {
+        setManifestFile(manifestFile);
+        return this;
+    }
+
+    private String localDirectory;
+    private String keyPrefix;
+    private long multipartThreshold = DEFAULT_MULTIPART_THRESHOLD;
+    private long partSize = DEFAULT_PART_SIZE;
+    private int taskNum = DEFAULT_TASK_NUM;
+    private int maxConcurrentFiles = DEFAULT_MAX_CONCURRENT_FILES;
+    private String manifestFile;
+}
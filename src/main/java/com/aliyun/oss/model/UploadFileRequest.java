@@ -158,6 +158,72 @@ public class UploadFileRequest extends GenericRequest {
         this.sequentialMode = sequentialMode;
     }
 
+    /**
+     * Gets whether the parts are read through one FileChannel of the upload
+     * file, shared by all the part threads.
+     *
+     * @return True if the parts share a FileChannel, which is the default.
+     */
+    public boolean isSharedFileChannel() {
+        return sharedFileChannel;
+    }
+
+    /**
+     * Sets whether the parts are read through one FileChannel of the upload
+     * file, shared by all the part threads, with positional reads. A retried
+     * part then rewinds without reopening the file. Set it to false to have
+     * every part open the upload file and skip to its offset.
+     *
+     * @param sharedFileChannel
+     *            True to share a FileChannel between the parts.
+     */
+    public void setSharedFileChannel(boolean sharedFileChannel) {
+        this.sharedFileChannel = sharedFileChannel;
+    }
+
+    /**
+     * Gets whether the parts are read from memory mapped regions of the
+     * upload file.
+     *
+     * @return True if the parts are memory mapped, false by default.
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Sets whether the parts are read from read-only memory mapped regions of
+     * the upload file instead of positional reads. It only takes effect when
+     * the parts share a FileChannel.
+     *
+     * @param memoryMapped
+     *            True to memory map the parts.
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * Gets the priority of the transfer.
+     *
+     * @return The priority, 0 by default.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the transfer. When the concurrent parts of the
+     * client are limited, parts of transfers with higher priority run first,
+     * and transfers with the same priority take turns.
+     *
+     * @param priority
+     *            The priority of the transfer.
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
     // Part size, by default it's 100KB.
     private long partSize = 1024 * 100;
     // Concurrent parts upload thread count. By default it's 1.
@@ -176,4 +242,10 @@ public class UploadFileRequest extends GenericRequest {
     private int trafficLimit;
     // Is Sequential mode or not.
     private Boolean sequentialMode;
+    // Flag of reading the parts through a shared FileChannel.
+    private boolean sharedFileChannel = true;
+    // Flag of reading the parts from memory mapped regions.
+    private boolean memoryMapped = false;
+    // The priority of the transfer's parts.
+    private int priority;
 }
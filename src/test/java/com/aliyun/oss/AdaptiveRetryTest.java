@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.aliyun.oss.common.comm.DefaultServiceClient;
+import com.aliyun.oss.common.comm.RetryMode;
+import com.aliyun.oss.common.comm.ServiceClient;
+import com.aliyun.oss.common.utils.IOUtils;
+import com.aliyun.oss.metrics.MetricsListener;
+import com.aliyun.oss.metrics.RequestMetrics;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class AdaptiveRetryTest implements LoopbackServer.Handler {
+
+    private LoopbackServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int throttledRequests;
+    private final List<RequestMetrics> completed = new CopyOnWriteArrayList<RequestMetrics>();
+    private ServiceClient serviceClient;
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(this);
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        server.stop();
+    }
+
+    @Override
+    public void serve(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+        if (requests.incrementAndGet() <= throttledRequests) {
+            byte[] error = ("<Error><Code>SlowDown</Code><Message>Please reduce your request rate.</Message>"
+                    + "<RequestId>request-id</RequestId></Error>").getBytes("UTF-8");
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            exchange.sendResponseHeaders(503, error.length);
+            exchange.getResponseBody().write(error);
+        } else {
+            byte[] content = "content".getBytes("UTF-8");
+            exchange.getResponseHeaders().add("ETag", "\"etag\"");
+            exchange.sendResponseHeaders(200, content.length);
+            exchange.getResponseBody().write(content);
+        }
+    }
+
+    private void createClient(RetryMode retryMode, int maxErrorRetry, int retryBudgetCapacity) {
+        createClient(new ClientConfiguration(), retryMode, maxErrorRetry, retryBudgetCapacity);
+    }
+
+    private void createClient(ClientConfiguration config, RetryMode retryMode, int maxErrorRetry,
+            int retryBudgetCapacity) {
+        config.setRetryMode(retryMode);
+        config.setMaxErrorRetry(maxErrorRetry);
+        config.setMaxRetryDelay(50);
+        config.setRetryBudgetCapacity(retryBudgetCapacity);
+        config.setCrcCheckEnabled(false);
+        config.setMetricsListener(new MetricsListener() {
+            @Override
+            public void requestCompleted(RequestMetrics metrics) {
+                completed.add(metrics);
+            }
+        });
+        serviceClient = new DefaultServiceClient(config);
+        client = new OSSClient(server.getEndpoint(), serviceClient, new DefaultCredentialProvider("ak", "sk"));
+    }
+
+    private String getObject() throws IOException {
+        OSSObject object = client.getObject("bucket", "key");
+        InputStream content = object.getObjectContent();
+        try {
+            return new String(IOUtils.readStreamAsByteArray(content), "UTF-8");
+        } finally {
+            content.close();
+        }
+    }
+
+    @Test
+    public void testThrottledRequestRetried() throws IOException {
+        createClient(RetryMode.ADAPTIVE, 3, 10);
+        throttledRequests = 2;
+
+        long start = System.currentTimeMillis();
+        assertEquals("content", getObject());
+        // The Retry-After delay is capped by the max retry delay.
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        assertEquals(3, requests.get());
+        assertEquals(2, serviceClient.getRetryBudget().getRetryCount());
+        // Two throttled retries take two tokens each, the success adds a tenth.
+        assertEquals(10 - 2 * 2 + 0.1, serviceClient.getRetryBudget().getAvailableTokens(), 0.0001);
+        assertEquals(1, completed.size());
+        assertEquals(2, completed.get(0).getRetries());
+        assertFalse(completed.get(0).isRetryBudgetExhausted());
+    }
+
+    @Test
+    public void testRetryBudgetExhausted() {
+        createClient(RetryMode.ADAPTIVE, 3, 3);
+        throttledRequests = Integer.MAX_VALUE;
+
+        try {
+            client.getObject("bucket", "key");
+            fail("The throttled request should fail.");
+        } catch (OSSException e) {
+            assertEquals("SlowDown", e.getErrorCode());
+        }
+
+        // One throttled retry takes two of the three tokens.
+        assertEquals(2, requests.get());
+        assertEquals(1, serviceClient.getRetryBudget().getRetryCount());
+        assertEquals(1, serviceClient.getRetryBudget().getExhaustedCount());
+        assertEquals(1, completed.size());
+        assertTrue(completed.get(0).isRetryBudgetExhausted());
+    }
+
+    @Test
+    public void testLegacyModeIgnoresRetryBudget() throws IOException {
+        createClient(RetryMode.LEGACY, 1, 0);
+        throttledRequests = 1;
+
+        assertEquals("content", getObject());
+        assertEquals(2, requests.get());
+        assertEquals(0, serviceClient.getRetryBudget().getRetryCount());
+        assertEquals(1, completed.get(0).getRetries());
+    }
+
+    @Test
+    public void testConcurrencyLimitCutOnThrottling() throws IOException {
+        ClientConfiguration config = new ClientConfiguration();
+        config.setConcurrencyLimiterEnabled(true);
+        config.setInitialConcurrencyLimit(8);
+        createClient(config, RetryMode.ADAPTIVE, 3, 10);
+        throttledRequests = 2;
+
+        assertEquals("content", getObject());
+
+        // The retry of the first throttled attempt is throttled again under
+        // the halved limit, the single successful request doesn't grow it.
+        String key = "127.0.0.1/bucket";
+        assertEquals(2, serviceClient.getConcurrencyLimiter().getLimit(key));
+        assertEquals(0, serviceClient.getConcurrencyLimiter().getInFlight(key));
+    }
+
+    @Test
+    public void testDownloadHoldsConcurrencyPermit() throws IOException {
+        ClientConfiguration config = new ClientConfiguration();
+        config.setConcurrencyLimiterEnabled(true);
+        config.setInitialConcurrencyLimit(1);
+        config.setMaxConcurrencyLimit(1);
+        config.setConcurrencyLimitQueueTimeout(100);
+        createClient(config, RetryMode.ADAPTIVE, 0, 10);
+        String key = "127.0.0.1/bucket";
+
+        // The permit is held while the content of the object is transferred.
+        OSSObject object = client.getObject("bucket", "key");
+        assertEquals(1, serviceClient.getConcurrencyLimiter().getInFlight(key));
+        try {
+            client.getObject("bucket", "key");
+            fail("The second download should wait for the permit of the first one.");
+        } catch (ClientException e) {
+            assertEquals(ClientErrorCode.CONCURRENCY_LIMIT_EXCEEDED, e.getErrorCode());
+        }
+        assertEquals("content", new String(IOUtils.readStreamAsByteArray(object.getObjectContent()), "UTF-8"));
+        assertEquals(0, serviceClient.getConcurrencyLimiter().getInFlight(key));
+        object.close();
+
+        // A download closed or aborted before its end releases the permit.
+        client.getObject("bucket", "key").close();
+        assertEquals(0, serviceClient.getConcurrencyLimiter().getInFlight(key));
+        client.getObject("bucket", "key").forcedClose();
+        assertEquals(0, serviceClient.getConcurrencyLimiter().getInFlight(key));
+        assertEquals("content", getObject());
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.model.BulkDeleteFailure;
+import com.aliyun.oss.model.BulkDeleteRequest;
+import com.aliyun.oss.model.BulkDeleteResult;
+import com.aliyun.oss.model.DeleteVersionsRequest.KeyVersion;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class BulkDeleteTest {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("<Key>(.*?)</Key>(<VersionId>(.*?)</VersionId>)?");
+    private static final int LIST_PAGE_SIZE = 100;
+
+    private final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<String>();
+    /* The request log, "L" for a list request and the batch size for a delete */
+    private final List<String> requestLog = new CopyOnWriteArrayList<String>();
+    private final List<String> deleteBodies = new CopyOnWriteArrayList<String>();
+    private final AtomicInteger concurrentDeletes = new AtomicInteger();
+    private final AtomicInteger maxConcurrentDeletes = new AtomicInteger();
+    private volatile int deleteDelayMillis;
+
+    private LoopbackServer server;
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                int status = 200;
+                String body;
+                try {
+                    if (params.containsKey("delete")) {
+                        body = delete(readBody(exchange.getRequestBody()));
+                        if (body.startsWith("<Error>")) {
+                            status = 500;
+                        }
+                    } else if (params.containsKey("versions")) {
+                        requestLog.add("L");
+                        body = listVersions();
+                    } else {
+                        requestLog.add("L");
+                        Thread.sleep(2);
+                        body = list(params);
+                    }
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                byte[] bytes = body.getBytes("UTF-8");
+                exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+                exchange.sendResponseHeaders(status, bytes.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(bytes);
+                out.close();
+            }
+        });
+
+        client = server.newClient(LoopbackServer.newConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> params = new HashMap<String, String>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq < 0) {
+                    params.put(pair, null);
+                } else {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toString("UTF-8");
+    }
+
+    /**
+     * A quiet DeleteObjects or DeleteVersions. Keys starting with "locked"
+     * are reported as not deleted, and a batch with a key starting with
+     * "broken" fails as a whole.
+     */
+    private String delete(String requestBody) throws InterruptedException {
+        int current = concurrentDeletes.incrementAndGet();
+        while (true) {
+            int max = maxConcurrentDeletes.get();
+            if (current <= max || maxConcurrentDeletes.compareAndSet(max, current)) {
+                break;
+            }
+        }
+        try {
+            Thread.sleep(deleteDelayMillis);
+            deleteBodies.add(requestBody);
+            List<String[]> batch = new ArrayList<String[]>();
+            Matcher matcher = KEY_PATTERN.matcher(requestBody);
+            while (matcher.find()) {
+                batch.add(new String[] { matcher.group(1), matcher.group(3) });
+            }
+            requestLog.add(String.valueOf(batch.size()));
+
+            StringBuilder sb = new StringBuilder();
+            for (String[] key : batch) {
+                if (key[0].startsWith("broken")) {
+                    return "<Error><Code>InternalError</Code><Message>internal error</Message>"
+                            + "<RequestId>request-id</RequestId></Error>";
+                }
+            }
+            for (String[] key : batch) {
+                if (key[0].startsWith("locked")) {
+                    sb.append("<Deleted><Key>").append(key[0]).append("</Key>");
+                    if (key[1] != null) {
+                        sb.append("<VersionId>").append(key[1]).append("</VersionId>");
+                    }
+                    sb.append("</Deleted>");
+                } else {
+                    keys.remove(key[0]);
+                }
+            }
+            return "<DeleteResult>" + sb + "</DeleteResult>";
+        } finally {
+            concurrentDeletes.decrementAndGet();
+        }
+    }
+
+    /**
+     * A ListObjectsV2 over the in-memory keys, which don't contain the
+     * delimiter. The continuation token is the last returned key.
+     */
+    private String list(Map<String, String> params) {
+        String prefix = params.containsKey("prefix") ? params.get("prefix") : "";
+        String token = params.get("continuation-token");
+        String after = token != null ? token : params.get("start-after");
+
+        List<String> contents = new ArrayList<String>();
+        boolean truncated = false;
+        Set<String> tail = after == null ? keys : keys.tailSet(after, false);
+        for (String key : tail) {
+            if (!key.startsWith(prefix)) {
+                if (key.compareTo(prefix) > 0) {
+                    break;
+                }
+                continue;
+            }
+            if (contents.size() == LIST_PAGE_SIZE) {
+                truncated = true;
+                break;
+            }
+            contents.add(key);
+        }
+
+        StringBuilder sb = new StringBuilder("<ListBucketResult><Name>bucket</Name>");
+        sb.append("<Prefix>").append(prefix).append("</Prefix>");
+        sb.append("<MaxKeys>").append(LIST_PAGE_SIZE).append("</MaxKeys>");
+        sb.append("<KeyCount>").append(contents.size()).append("</KeyCount>");
+        sb.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (truncated) {
+            sb.append("<NextContinuationToken>").append(contents.get(contents.size() - 1))
+                    .append("</NextContinuationToken>");
+        }
+        for (String key : contents) {
+            sb.append("<Contents><Key>").append(key).append("</Key>")
+                    .append("<LastModified>2024-01-01T00:00:00.000Z</LastModified>")
+                    .append("<ETag>\"etag\"</ETag><Size>1</Size><StorageClass>Standard</StorageClass></Contents>");
+        }
+        return sb.append("</ListBucketResult>").toString();
+    }
+
+    /**
+     * A single page of versions: every key has two versions and the first
+     * key also has a delete marker.
+     */
+    private String listVersions() {
+        StringBuilder sb = new StringBuilder("<ListVersionsResult><Name>bucket</Name><Prefix></Prefix>");
+        sb.append("<KeyMarker></KeyMarker><VersionIdMarker></VersionIdMarker><MaxKeys>1000</MaxKeys>");
+        sb.append("<IsTruncated>false</IsTruncated>");
+        boolean first = true;
+        for (String key : keys) {
+            if (first) {
+                sb.append("<DeleteMarker><Key>").append(key).append("</Key><VersionId>marker</VersionId>")
+                        .append("<IsLatest>true</IsLatest>")
+                        .append("<LastModified>2024-01-01T00:00:00.000Z</LastModified></DeleteMarker>");
+                first = false;
+            }
+            for (int v = 1; v <= 2; v++) {
+                sb.append("<Version><Key>").append(key).append("</Key><VersionId>v").append(v)
+                        .append("</VersionId><IsLatest>").append(v == 2).append("</IsLatest>")
+                        .append("<LastModified>2024-01-01T00:00:00.000Z</LastModified>")
+                        .append("<ETag>\"etag\"</ETag><Size>1</Size><StorageClass>Standard</StorageClass></Version>");
+            }
+        }
+        return sb.append("</ListVersionsResult>").toString();
+    }
+
+    private List<String> generateKeys(String prefix, int count) {
+        List<String> generated = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            generated.add(String.format("%s%06d", prefix, i));
+        }
+        keys.addAll(generated);
+        return generated;
+    }
+
+    private List<String> deleteBatchSizes() {
+        List<String> sizes = new ArrayList<String>();
+        for (String entry : requestLog) {
+            if (!entry.equals("L")) {
+                sizes.add(entry);
+            }
+        }
+        Collections.sort(sizes);
+        return sizes;
+    }
+
+    @Test
+    public void testDeleteKeysInFullQuietBatches() {
+        List<String> generated = generateKeys("key-", 2500);
+
+        BulkDeleteResult result = client.bulkDelete(new BulkDeleteRequest("bucket")
+                .withKeys(generated.iterator()));
+
+        assertEquals(2500, result.getDeletedCount());
+        assertEquals(0, result.getFailedCount());
+        assertEquals(3, result.getRequestCount());
+        assertEquals(Arrays.asList("1000", "1000", "500"), deleteBatchSizes());
+        assertTrue(keys.isEmpty());
+        for (String body : deleteBodies) {
+            assertTrue(body.contains("<Quiet>true</Quiet>"));
+        }
+    }
+
+    @Test
+    public void testDeletePrefixWhileListing() {
+        generateKeys("data-", 3000);
+        generateKeys("other-", 100);
+
+        BulkDeleteResult result = client.bulkDelete(new BulkDeleteRequest("bucket", "data-")
+                .withMaxConcurrentListRequests(2));
+
+        assertEquals(3000, result.getDeletedCount());
+        assertEquals(0, result.getFailedCount());
+        assertEquals(100, keys.size());
+        assertTrue(keys.first().startsWith("other-"));
+        assertEquals(Arrays.asList("1000", "1000", "1000"), deleteBatchSizes());
+
+        // The first batch is deleted before the last page is listed.
+        int firstDelete = -1;
+        int lastList = -1;
+        for (int i = 0; i < requestLog.size(); i++) {
+            if (requestLog.get(i).equals("L")) {
+                lastList = i;
+            } else if (firstDelete < 0) {
+                firstDelete = i;
+            }
+        }
+        assertTrue(requestLog.toString(), firstDelete < lastList);
+    }
+
+    @Test
+    public void testFailuresAreCollected() {
+        List<String> batchKeys = new ArrayList<String>();
+        batchKeys.add("a-1");
+        batchKeys.add("locked-1");
+        batchKeys.add("a-2");
+        batchKeys.add("");
+        batchKeys.add("broken-1");
+        batchKeys.add("a-3");
+        batchKeys.add("a-4");
+        keys.addAll(Arrays.asList("a-1", "locked-1", "a-2", "broken-1", "a-3", "a-4"));
+
+        BulkDeleteResult result = client.bulkDelete(new BulkDeleteRequest("bucket")
+                .withKeys(batchKeys.iterator()).withBatchSize(2));
+
+        // [a-1, locked-1] [a-2, broken-1] [a-3, a-4]
+        assertEquals(3, result.getRequestCount());
+        assertEquals(3, result.getDeletedCount());
+        assertEquals(4, result.getFailedCount());
+        Map<String, BulkDeleteFailure> failures = new HashMap<String, BulkDeleteFailure>();
+        for (BulkDeleteFailure failure : result.getFailures()) {
+            failures.put(failure.getKey(), failure);
+        }
+        assertNull(failures.get("locked-1").getErrorCode());
+        assertEquals(OSSErrorCode.INVALID_OBJECT_NAME, failures.get("").getErrorCode());
+        assertEquals("InternalError", failures.get("broken-1").getErrorCode());
+        assertEquals("InternalError", failures.get("a-2").getErrorCode());
+        assertEquals(new ConcurrentSkipListSet<String>(Arrays.asList("locked-1", "a-2", "broken-1")), keys);
+    }
+
+    @Test
+    public void testDeleteKeyVersions() {
+        keys.addAll(Arrays.asList("a", "locked"));
+        List<KeyVersion> versions = Arrays.asList(new KeyVersion("a", "v1"), new KeyVersion("locked", "v2"),
+                new KeyVersion("a"));
+
+        BulkDeleteResult result = client.bulkDelete(new BulkDeleteRequest("bucket")
+                .withKeyVersions(versions.iterator()));
+
+        assertEquals(1, result.getRequestCount());
+        assertEquals(2, result.getDeletedCount());
+        assertEquals(1, result.getFailedCount());
+        assertEquals("locked", result.getFailures().get(0).getKey());
+        assertEquals("v2", result.getFailures().get(0).getVersionId());
+        assertTrue(deleteBodies.get(0).contains("<VersionId>v1</VersionId>"));
+    }
+
+    @Test
+    public void testDeleteAllVersionsUnderPrefix() {
+        generateKeys("v-", 10);
+
+        BulkDeleteResult result = client.bulkDelete(new BulkDeleteRequest("bucket", "")
+                .withAllVersions(true).withBatchSize(7));
+
+        // 10 keys with 2 versions each and one delete marker
+        assertEquals(21, result.getDeletedCount());
+        assertEquals(Arrays.asList("7", "7", "7"), deleteBatchSizes());
+        String body = deleteBodies.toString();
+        assertTrue(body.contains("<VersionId>marker</VersionId>"));
+        assertTrue(body.contains("<VersionId>v2</VersionId>"));
+    }
+
+    @Test
+    public void testMaxConcurrentBatches() {
+        List<String> generated = generateKeys("key-", 200);
+        deleteDelayMillis = 20;
+
+        BulkDeleteResult result = client.bulkDelete(new BulkDeleteRequest("bucket")
+                .withKeys(generated.iterator()).withBatchSize(10).withMaxConcurrentBatches(3));
+
+        assertEquals(200, result.getDeletedCount());
+        assertEquals(20, result.getRequestCount());
+        assertTrue(maxConcurrentDeletes.get() <= 3);
+        assertTrue(maxConcurrentDeletes.get() > 1);
+        assertTrue(result.getDeletedObjectsPerSecond() > 0);
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        List<BulkDeleteRequest> requests = new ArrayList<BulkDeleteRequest>();
+        requests.add(new BulkDeleteRequest("bucket"));
+        requests.add(new BulkDeleteRequest("bucket", "p").withKeys(Collections.<String> emptyList().iterator()));
+        requests.add(new BulkDeleteRequest("bucket").withKeys(Collections.<String> emptyList().iterator())
+                .withAllVersions(true));
+        requests.add(new BulkDeleteRequest("bucket", "p").withBatchSize(1001));
+        requests.add(new BulkDeleteRequest("bucket", "p").withMaxConcurrentBatches(0));
+        for (BulkDeleteRequest request : requests) {
+            try {
+                client.bulkDelete(request);
+                fail("IllegalArgumentException expected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertTrue(requestLog.isEmpty());
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.aliyun.oss.model.SimplifiedObjectMeta;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+
+public class ConnectionWarmUpTest {
+
+    private LoopbackServer server;
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+                exchange.getResponseHeaders().add("ETag", "\"etag\"");
+                exchange.getResponseHeaders().add("Content-Length", "7");
+                exchange.sendResponseHeaders(200, -1);
+            }
+        });
+
+        client = server.newClient(LoopbackServer.newConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testWarmUpConnections() {
+        assertEquals(4, client.warmUpConnections(4));
+
+        String stats = client.getConnectionPoolStats();
+        assertTrue(stats, stats.contains("available: 4"));
+        assertTrue(stats, stats.contains("warm-up [opened: 4; requested: 4;"));
+
+        // The requests reuse the warm connections.
+        SimplifiedObjectMeta meta = client.getSimplifiedObjectMeta("bucket", "key");
+        assertEquals("etag", meta.getETag());
+        stats = client.getConnectionPoolStats();
+        assertTrue(stats, stats.contains("available: 4"));
+    }
+
+    @Test
+    public void testWarmUpBucketsOfIpEndpoint() {
+        // The buckets of an IP endpoint are in the path, they share its connections.
+        assertEquals(2, client.warmUpConnections(2, "bucket1", "bucket2"));
+        assertTrue(client.getConnectionPoolStats().contains("available: 2"));
+    }
+
+    @Test
+    public void testWarmUpUnreachableEndpoint() throws IOException {
+        server.stop();
+        assertEquals(0, client.warmUpConnections(2));
+        assertTrue(client.getConnectionPoolStats().contains("warm-up [opened: 0; requested: 2;"));
+    }
+
+    @Test
+    public void testTlsSessionResumed() throws Exception {
+        File keyStoreFile = File.createTempFile("oss-tls", ".jks");
+        keyStoreFile.delete();
+        HttpsServer httpsServer = null;
+        OSSClient httpsClient = null;
+        try {
+            Process keytool = Runtime.getRuntime().exec(new String[] {
+                    System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool",
+                    "-genkeypair", "-alias", "oss", "-keyalg", "RSA", "-keysize", "2048", "-dname", "CN=127.0.0.1",
+                    "-validity", "1", "-storetype", "JKS", "-keystore", keyStoreFile.getPath(), "-storepass",
+                    "password", "-keypass", "password" });
+            assumeTrue(keytool.waitFor() == 0);
+
+            KeyStore keyStore = KeyStore.getInstance("JKS");
+            FileInputStream in = new FileInputStream(keyStoreFile);
+            try {
+                keyStore.load(in, "password".toCharArray());
+            } finally {
+                in.close();
+            }
+            KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            kmf.init(keyStore, "password".toCharArray());
+            final SSLContext serverContext = SSLContext.getInstance("TLS");
+            serverContext.init(kmf.getKeyManagers(), null, null);
+
+            // TLS 1.2 resumes a session by its ID, so a resumed handshake
+            // doesn't add a session to the cache of the server.
+            httpsServer = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            httpsServer.setExecutor(Executors.newCachedThreadPool());
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(serverContext) {
+                @Override
+                public void configure(HttpsParameters params) {
+                    SSLParameters parameters = serverContext.getDefaultSSLParameters();
+                    parameters.setProtocols(new String[] { "TLSv1.2" });
+                    params.setSSLParameters(parameters);
+                }
+            });
+            httpsServer.start();
+
+            ClientConfiguration config = new ClientConfiguration();
+            config.setVerifySSLEnable(false);
+            httpsClient = new OSSClient("https://127.0.0.1:" + httpsServer.getAddress().getPort(),
+                    new DefaultCredentialProvider("ak", "sk"), config);
+
+            // The second warm-up reuses the first connection and opens another one.
+            assertEquals(1, httpsClient.warmUpConnections(1));
+            assertEquals(2, httpsClient.warmUpConnections(2));
+            assertTrue(httpsClient.getConnectionPoolStats().contains("available: 2"));
+            assertEquals(1, Collections.list(serverContext.getServerSessionContext().getIds()).size());
+        } finally {
+            if (httpsClient != null) {
+                httpsClient.shutdown();
+            }
+            if (httpsServer != null) {
+                httpsServer.stop(0);
+            }
+            keyStoreFile.delete();
+        }
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.model.DirectoryTransferFailure;
+import com.aliyun.oss.model.DirectoryTransferResult;
+import com.aliyun.oss.model.DownloadDirectoryRequest;
+import com.aliyun.oss.model.UploadDirectoryRequest;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class DirectoryTransferTest implements LoopbackServer.Handler {
+
+    private static final int THRESHOLD = 200 * 1024;
+    private static final int PART_SIZE = 100 * 1024;
+    private static final String ERROR = "<Error><Code>InternalError</Code><Message>internal error</Message>"
+            + "<RequestId>request-id</RequestId></Error>";
+
+    /* The objects of the bucket */
+    private final ConcurrentSkipListMap<String, byte[]> objects = new ConcurrentSkipListMap<String, byte[]>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<String, Map<Integer, byte[]>>();
+    /* The keys whose next PUT or GET fails */
+    private final Set<String> failingKeys = new ConcurrentSkipListSet<String>();
+    /* The request log, the method and the key of every object request */
+    private final List<String> requestLog = new CopyOnWriteArrayList<String>();
+
+    private LoopbackServer server;
+    private OSSClient client;
+    private File workDir;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(this);
+        client = server.newClient(LoopbackServer.newConfiguration());
+
+        workDir = File.createTempFile("directory-transfer", "");
+        workDir.delete();
+        workDir.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+        delete(workDir);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> params = new HashMap<String, String>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq < 0) {
+                    params.put(pair, null);
+                } else {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(code, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    @Override
+    public void serve(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+        String method = exchange.getRequestMethod();
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), "UTF-8");
+        String key = path.startsWith("/bucket/") ? path.substring("/bucket/".length()) : "";
+        byte[] body = readFully(exchange.getRequestBody());
+
+        if (key.length() == 0) {
+            respond(exchange, 200, list(params).getBytes("UTF-8"));
+            return;
+        }
+        if (!params.containsKey("uploads") && !params.containsKey("uploadId")) {
+            requestLog.add(method + " " + key);
+            if (failingKeys.remove(key)) {
+                respond(exchange, 500, ERROR.getBytes("UTF-8"));
+                return;
+            }
+        }
+
+        if ("PUT".equals(method) && params.containsKey("partNumber")) {
+            uploads.get(params.get("uploadId")).put(Integer.parseInt(params.get("partNumber")), body);
+            exchange.getResponseHeaders().add("ETag", "\"etag\"");
+            respond(exchange, 200, new byte[0]);
+        } else if ("PUT".equals(method)) {
+            objects.put(key, body);
+            exchange.getResponseHeaders().add("ETag", "\"etag\"");
+            respond(exchange, 200, new byte[0]);
+        } else if ("POST".equals(method) && params.containsKey("uploads")) {
+            String uploadId = "upload-" + uploads.size();
+            uploads.put(uploadId, new ConcurrentSkipListMap<Integer, byte[]>());
+            respond(exchange, 200, ("<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>" + key
+                    + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>").getBytes("UTF-8"));
+        } else if ("POST".equals(method)) {
+            requestLog.add("MULTIPART " + key);
+            ByteArrayOutputStream object = new ByteArrayOutputStream();
+            for (byte[] part : uploads.remove(params.get("uploadId")).values()) {
+                object.write(part);
+            }
+            objects.put(key, object.toByteArray());
+            respond(exchange, 200, ("<CompleteMultipartUploadResult><Location>location</Location>"
+                    + "<Bucket>bucket</Bucket><Key>" + key + "</Key><ETag>\"etag\"</ETag>"
+                    + "</CompleteMultipartUploadResult>").getBytes("UTF-8"));
+        } else {
+            byte[] content = objects.get(key);
+            exchange.getResponseHeaders().add("ETag", "\"etag\"");
+            exchange.getResponseHeaders().add("Last-Modified", "Wed, 01 Jan 2025 00:00:00 GMT");
+            if ("HEAD".equals(method)) {
+                // The connection isn't reused after a HEAD response with a length.
+                exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+                exchange.getResponseHeaders().add("Connection", "close");
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (range == null) {
+                respond(exchange, 200, content);
+                return;
+            }
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(bounds[0]);
+            int end = Math.min(Integer.parseInt(bounds[1]), content.length - 1);
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+            exchange.sendResponseHeaders(206, end - start + 1);
+            OutputStream out = exchange.getResponseBody();
+            out.write(content, start, end - start + 1);
+            out.close();
+        }
+    }
+
+    /**
+     * A single-page ListObjectsV2 over the objects.
+     */
+    private String list(Map<String, String> params) {
+        String prefix = params.containsKey("prefix") ? params.get("prefix") : "";
+        String after = params.get("start-after");
+        StringBuilder contents = new StringBuilder();
+        int count = 0;
+        for (Map.Entry<String, byte[]> object : objects.entrySet()) {
+            String key = object.getKey();
+            if (!key.startsWith(prefix) || (after != null && key.compareTo(after) <= 0)) {
+                continue;
+            }
+            count++;
+            contents.append("<Contents><Key>").append(key).append("</Key>")
+                    .append("<LastModified>2024-01-01T00:00:00.000Z</LastModified><ETag>\"etag\"</ETag>")
+                    .append("<Size>").append(object.getValue().length).append("</Size>")
+                    .append("<StorageClass>Standard</StorageClass></Contents>");
+        }
+        return "<ListBucketResult><Name>bucket</Name><Prefix>" + prefix + "</Prefix><MaxKeys>1000</MaxKeys>"
+                + "<KeyCount>" + count + "</KeyCount><IsTruncated>false</IsTruncated>" + contents
+                + "</ListBucketResult>";
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static void writeFile(File file, byte[] content) throws IOException {
+        file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(content);
+        } finally {
+            in.close();
+        }
+        return content;
+    }
+
+    private File createTree() throws IOException {
+        File root = new File(workDir, "source");
+        writeFile(new File(root, "a.txt"), randomBytes(100, 1));
+        writeFile(new File(root, "sub/b.txt"), randomBytes(50 * 1024, 2));
+        writeFile(new File(root, "sub/deep/c.bin"), randomBytes(3 * PART_SIZE + 17, 3));
+        new File(root, "empty").mkdirs();
+        return root;
+    }
+
+    private int count(String request) {
+        int count = 0;
+        for (String logged : requestLog) {
+            if (logged.equals(request)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testUploadDirectory() throws Exception {
+        File root = createTree();
+        UploadDirectoryRequest request = new UploadDirectoryRequest("bucket", root.getPath(), "backup/")
+                .withMultipartThreshold(THRESHOLD).withPartSize(PART_SIZE).withMaxConcurrentFiles(2);
+
+        DirectoryTransferResult result = client.uploadDirectory(request);
+
+        assertEquals(3, result.getTransferredFiles());
+        assertEquals(100 + 50 * 1024 + 3 * PART_SIZE + 17, result.getTransferredBytes());
+        assertEquals(0, result.getFailedFiles());
+        assertEquals(0, result.getSkippedFiles());
+        assertTrue(result.getFilesPerSecond() >= 0);
+        assertEquals(3, objects.size());
+        assertArrayEquals(readFile(new File(root, "a.txt")), objects.get("backup/a.txt"));
+        assertArrayEquals(readFile(new File(root, "sub/b.txt")), objects.get("backup/sub/b.txt"));
+        assertArrayEquals(readFile(new File(root, "sub/deep/c.bin")), objects.get("backup/sub/deep/c.bin"));
+        assertEquals(1, count("PUT backup/a.txt"));
+        assertEquals(1, count("MULTIPART backup/sub/deep/c.bin"));
+    }
+
+    @Test
+    public void testUploadDirectoryWithSymbolicLinkLoop() throws Exception {
+        File root = createTree();
+        File loop = new File(root, "sub/loop");
+        try {
+            Process ln = Runtime.getRuntime().exec(new String[] { "ln", "-s", "..", loop.getPath() });
+            assumeTrue(ln.waitFor() == 0);
+        } catch (IOException e) {
+            assumeTrue(false);
+        }
+
+        try {
+            DirectoryTransferResult result = client.uploadDirectory(new UploadDirectoryRequest("bucket",
+                    root.getPath()).withMultipartThreshold(THRESHOLD).withPartSize(PART_SIZE));
+
+            assertEquals(3, result.getTransferredFiles());
+            assertEquals(0, result.getFailedFiles());
+            assertEquals(3, objects.size());
+            assertTrue(objects.containsKey("sub/deep/c.bin"));
+        } finally {
+            loop.delete();
+        }
+    }
+
+    @Test
+    public void testUploadResumesFromManifest() throws Exception {
+        File root = createTree();
+        File manifest = new File(workDir, "upload.manifest");
+        UploadDirectoryRequest request = new UploadDirectoryRequest("bucket", root.getPath())
+                .withMultipartThreshold(THRESHOLD).withPartSize(PART_SIZE).withManifestFile(manifest.getPath());
+        failingKeys.add("sub/b.txt");
+
+        DirectoryTransferResult result = client.uploadDirectory(request);
+
+        assertEquals(2, result.getTransferredFiles());
+        assertEquals(1, result.getFailedFiles());
+        DirectoryTransferFailure failure = result.getFailures().get(0);
+        assertEquals("sub/b.txt", failure.getKey());
+        assertEquals("InternalError", failure.getErrorCode());
+        assertTrue(manifest.exists());
+
+        // Only the failed file and the file changed since are uploaded again.
+        writeFile(new File(root, "a.txt"), randomBytes(101, 4));
+        requestLog.clear();
+        result = client.uploadDirectory(request);
+
+        assertEquals(2, result.getTransferredFiles());
+        assertEquals(1, result.getSkippedFiles());
+        assertEquals(0, result.getFailedFiles());
+        assertEquals(2, requestLog.size());
+        assertEquals(1, count("PUT a.txt"));
+        assertEquals(1, count("PUT sub/b.txt"));
+        assertArrayEquals(readFile(new File(root, "a.txt")), objects.get("a.txt"));
+        assertFalse(manifest.exists());
+    }
+
+    @Test
+    public void testDownloadDirectory() throws Exception {
+        byte[] big = randomBytes(3 * PART_SIZE + 17, 5);
+        objects.put("logs/x.txt", randomBytes(10, 6));
+        objects.put("logs/2024/y.txt", randomBytes(1000, 7));
+        objects.put("logs/2024/big.bin", big);
+        objects.put("logs/empty/", new byte[0]);
+        objects.put("logs/../../escape.txt", randomBytes(10, 8));
+        objects.put("other.txt", randomBytes(10, 9));
+        File root = new File(workDir, "target");
+
+        DownloadDirectoryRequest request = new DownloadDirectoryRequest("bucket", "logs/", root.getPath())
+                .withMultipartThreshold(THRESHOLD).withPartSize(PART_SIZE);
+        DirectoryTransferResult result = client.downloadDirectory(request);
+
+        assertEquals(4, result.getTransferredFiles());
+        assertEquals(1, result.getFailedFiles());
+        assertEquals("logs/../../escape.txt", result.getFailures().get(0).getKey());
+        assertFalse(new File(workDir.getParentFile(), "escape.txt").exists());
+
+        assertArrayEquals(objects.get("logs/x.txt"), readFile(new File(root, "x.txt")));
+        assertArrayEquals(objects.get("logs/2024/y.txt"), readFile(new File(root, "2024/y.txt")));
+        assertArrayEquals(big, readFile(new File(root, "2024/big.bin")));
+        assertTrue(new File(root, "empty").isDirectory());
+        assertFalse(new File(root, "other.txt").exists());
+        assertEquals(1, count("HEAD logs/2024/big.bin"));
+    }
+
+    @Test
+    public void testDownloadResumesFromManifest() throws Exception {
+        objects.put("data/1.txt", randomBytes(10, 1));
+        objects.put("data/2.txt", randomBytes(20, 2));
+        objects.put("data/3.txt", randomBytes(30, 3));
+        File root = new File(workDir, "target");
+        File manifest = new File(workDir, "download.manifest");
+        DownloadDirectoryRequest request = new DownloadDirectoryRequest("bucket", "data/", root.getPath())
+                .withManifestFile(manifest.getPath());
+        failingKeys.add("data/2.txt");
+
+        DirectoryTransferResult result = client.downloadDirectory(request);
+        assertEquals(2, result.getTransferredFiles());
+        assertEquals(1, result.getFailedFiles());
+        assertTrue(manifest.exists());
+
+        requestLog.clear();
+        result = client.downloadDirectory(request);
+
+        assertEquals(1, result.getTransferredFiles());
+        assertEquals(2, result.getSkippedFiles());
+        assertEquals(new ArrayList<String>(requestLog), Arrays.asList("GET data/2.txt"));
+        assertArrayEquals(objects.get("data/2.txt"), readFile(new File(root, "2.txt")));
+        assertFalse(manifest.exists());
+    }
+}
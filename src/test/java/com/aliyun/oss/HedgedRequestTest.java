@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.aliyun.oss.common.comm.DefaultServiceClient;
+import com.aliyun.oss.common.comm.RequestHedger;
+import com.aliyun.oss.common.utils.IOUtils;
+import com.aliyun.oss.metrics.MetricsListener;
+import com.aliyun.oss.metrics.RequestMetrics;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class HedgedRequestTest implements LoopbackServer.Handler {
+
+    private LoopbackServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int stalledRequests;
+    private final List<RequestMetrics> completed = new CopyOnWriteArrayList<RequestMetrics>();
+    private DefaultServiceClient serviceClient;
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(this);
+        ClientConfiguration config = LoopbackServer.newConfiguration();
+        config.setCrcCheckEnabled(false);
+        config.setHedgingEnabled(true);
+        config.setHedgeDelay(50);
+        config.setMetricsListener(new MetricsListener() {
+            @Override
+            public void requestCompleted(RequestMetrics metrics) {
+                completed.add(metrics);
+            }
+        });
+        serviceClient = new DefaultServiceClient(config);
+        client = new OSSClient(server.getEndpoint(), serviceClient,
+                new DefaultCredentialProvider("ak", "sk"));
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Override
+    public void serve(HttpExchange exchange) throws IOException {
+        if (requests.incrementAndGet() <= stalledRequests) {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+            }
+        }
+        byte[] content = "content".getBytes("UTF-8");
+        exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+        exchange.getResponseHeaders().add("ETag", "\"etag\"");
+        exchange.sendResponseHeaders(200, content.length);
+        exchange.getResponseBody().write(content);
+    }
+
+    private String getObject() throws IOException {
+        OSSObject object = client.getObject("bucket", "key");
+        InputStream content = object.getObjectContent();
+        try {
+            return new String(IOUtils.readStreamAsByteArray(content), "UTF-8");
+        } finally {
+            content.close();
+        }
+    }
+
+    @Test
+    public void testStalledRequestHedged() throws IOException {
+        // Warm up the client so the first request reaches the server first.
+        assertEquals("content", getObject());
+        RequestHedger hedger = serviceClient.getRequestHedger();
+        long hedges = hedger.getHedgeCount();
+        long hedgesWon = hedger.getHedgeWonCount();
+        completed.clear();
+        stalledRequests = requests.get() + 1;
+
+        long start = System.currentTimeMillis();
+        assertEquals("content", getObject());
+        assertTrue(System.currentTimeMillis() - start < 2000);
+
+        assertEquals(hedges + 1, hedger.getHedgeCount());
+        assertEquals(hedgesWon + 1, hedger.getHedgeWonCount());
+        assertEquals(1, completed.size());
+        assertTrue(completed.get(0).isHedged());
+        assertTrue(completed.get(0).isHedgeWon());
+    }
+
+    @Test
+    public void testFastRequestNotHedged() throws IOException {
+        assertEquals("content", getObject());
+        long hedges = serviceClient.getRequestHedger().getHedgeCount();
+        completed.clear();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("content", getObject());
+        }
+
+        assertEquals(hedges, serviceClient.getRequestHedger().getHedgeCount());
+        assertEquals(5, completed.size());
+        for (RequestMetrics metrics : completed) {
+            assertFalse(metrics.isHedged());
+        }
+    }
+
+    @Test
+    public void testWritesNotHedged() {
+        stalledRequests = 1;
+
+        client.putObject("bucket", "key", new ByteArrayInputStream(new byte[10]));
+
+        assertEquals(1, requests.get());
+        assertEquals(0, serviceClient.getRequestHedger().getHedgeCount());
+    }
+}
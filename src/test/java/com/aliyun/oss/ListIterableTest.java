@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.model.ListObjectsV2Request;
+import com.aliyun.oss.model.ListVersionsRequest;
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.OSSVersionSummary;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class ListIterableTest {
+
+    private static final int PAGES = 4;
+    private static final int KEYS_PER_PAGE = 3;
+
+    private LoopbackServer server;
+    private OSSClient client;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int failingPage = -1;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                String marker = params.containsKey("versions") ? params.get("key-marker")
+                        : params.get("continuation-token");
+                int page = marker == null ? 0 : Integer.parseInt(marker.substring("page".length()));
+
+                String body;
+                int status = 200;
+                if (page == failingPage) {
+                    status = 403;
+                    body = "<Error><Code>AccessDenied</Code><Message>denied</Message>"
+                            + "<RequestId>request-" + page + "</RequestId></Error>";
+                } else if (params.containsKey("versions")) {
+                    body = versionsPage(page);
+                } else {
+                    body = objectsPage(page);
+                }
+                byte[] bytes = body.getBytes("UTF-8");
+                exchange.getResponseHeaders().add("x-oss-request-id", "request-" + page);
+                exchange.sendResponseHeaders(status, bytes.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(bytes);
+                out.close();
+            }
+        });
+
+        client = server.newClient(LoopbackServer.newConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> params = new HashMap<String, String>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq < 0) {
+                    params.put(pair, null);
+                } else {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static String objectsPage(int page) {
+        boolean truncated = page < PAGES - 1;
+        StringBuilder sb = new StringBuilder("<ListBucketResult><Name>bucket</Name><MaxKeys>3</MaxKeys>");
+        sb.append("<KeyCount>").append(KEYS_PER_PAGE).append("</KeyCount>");
+        sb.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (truncated) {
+            sb.append("<NextContinuationToken>page").append(page + 1).append("</NextContinuationToken>");
+        }
+        for (int i = 0; i < KEYS_PER_PAGE; i++) {
+            sb.append("<Contents><Key>key-").append(page).append('-').append(i).append("</Key>")
+                    .append("<LastModified>2024-01-01T00:00:00.000Z</LastModified>")
+                    .append("<ETag>\"etag\"</ETag><Size>1</Size><StorageClass>Standard</StorageClass></Contents>");
+        }
+        return sb.append("</ListBucketResult>").toString();
+    }
+
+    private static String versionsPage(int page) {
+        boolean truncated = page < PAGES - 1;
+        StringBuilder sb = new StringBuilder("<ListVersionsResult><Name>bucket</Name><MaxKeys>3</MaxKeys>");
+        sb.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (truncated) {
+            sb.append("<NextKeyMarker>page").append(page + 1).append("</NextKeyMarker>");
+            sb.append("<NextVersionIdMarker>v").append(page + 1).append("</NextVersionIdMarker>");
+        }
+        for (int i = 0; i < KEYS_PER_PAGE; i++) {
+            sb.append("<Version><Key>key-").append(page).append('-').append(i).append("</Key>")
+                    .append("<VersionId>v").append(i).append("</VersionId><IsLatest>true</IsLatest>")
+                    .append("<LastModified>2024-01-01T00:00:00.000Z</LastModified>")
+                    .append("<ETag>\"etag\"</ETag><Size>1</Size><StorageClass>Standard</StorageClass>")
+                    .append("<Owner><ID>id</ID><DisplayName>name</DisplayName></Owner></Version>");
+        }
+        return sb.append("</ListVersionsResult>").toString();
+    }
+
+    private void awaitRequests(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (requests.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testListObjectsV2Iterable() {
+        List<String> keys = new ArrayList<String>();
+        for (OSSObjectSummary summary : client.listObjectsV2Iterable(new ListObjectsV2Request("bucket"))) {
+            keys.add(summary.getKey());
+            assertEquals("bucket", summary.getBucketName());
+        }
+        assertEquals(PAGES * KEYS_PER_PAGE, keys.size());
+        assertEquals("key-0-0", keys.get(0));
+        assertEquals("key-3-2", keys.get(keys.size() - 1));
+        assertEquals(PAGES, requests.get());
+    }
+
+    @Test
+    public void testListVersionsIterable() {
+        List<String> keys = new ArrayList<String>();
+        for (OSSVersionSummary summary : client.listVersionsIterable(new ListVersionsRequest()
+                .withBucketName("bucket"), 1)) {
+            keys.add(summary.getKey());
+        }
+        assertEquals(PAGES * KEYS_PER_PAGE, keys.size());
+        assertEquals("key-2-1", keys.get(2 * KEYS_PER_PAGE + 1));
+        assertEquals(PAGES, requests.get());
+    }
+
+    @Test
+    public void testPrefetchIsBounded() throws Exception {
+        Iterator<OSSObjectSummary> iterator = client.listObjectsV2Iterable(new ListObjectsV2Request("bucket"), 1)
+                .iterator();
+        assertEquals(0, requests.get());
+
+        assertTrue(iterator.hasNext());
+        assertEquals("key-0-0", iterator.next().getKey());
+
+        // the second page is fetched while the first one is consumed, and no more
+        awaitRequests(2);
+        Thread.sleep(200);
+        assertEquals(2, requests.get());
+
+        for (int i = 1; i < KEYS_PER_PAGE; i++) {
+            iterator.next();
+        }
+        assertEquals("key-1-0", iterator.next().getKey());
+        awaitRequests(3);
+        Thread.sleep(200);
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testErrorIsThrownWhenReached() {
+        failingPage = 2;
+        Iterator<OSSObjectSummary> iterator = client.listObjectsV2Iterable(new ListObjectsV2Request("bucket"))
+                .iterator();
+
+        int count = 0;
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+                count++;
+            }
+            fail("The failed page should surface as an OSSException.");
+        } catch (OSSException e) {
+            assertEquals(OSSErrorCode.ACCESS_DENIED, e.getErrorCode());
+        }
+        assertEquals(2 * KEYS_PER_PAGE, count);
+
+        try {
+            iterator.hasNext();
+            fail("The error should be thrown again.");
+        } catch (OSSException e) {
+            assertEquals("request-2", e.getRequestId());
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        try {
+            client.listObjectsV2Iterable(new ListObjectsV2Request("bucket"), 0);
+            fail("maxBufferedPages must be positive.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            client.listVersionsIterable(null);
+            fail("The request must not be null.");
+        } catch (NullPointerException e) {
+            // expected
+        }
+        assertFalse(requests.get() > 0);
+    }
+}
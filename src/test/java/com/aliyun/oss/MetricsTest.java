@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.common.utils.IOUtils;
+import com.aliyun.oss.metrics.MetricsListener;
+import com.aliyun.oss.metrics.MetricsRecorder;
+import com.aliyun.oss.metrics.OperationMetrics;
+import com.aliyun.oss.metrics.RequestMetrics;
+import com.aliyun.oss.model.GenericRequest;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class MetricsTest implements LoopbackServer.Handler {
+
+    private static final byte[] CONTENT = new byte[100000];
+
+    private LoopbackServer server;
+    private final List<RequestMetrics> completed = new CopyOnWriteArrayList<RequestMetrics>();
+    private final MetricsRecorder recorder = new MetricsRecorder();
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(this);
+        client = server.newClient(newConfiguration(new MetricsListener() {
+            @Override
+            public void requestCompleted(RequestMetrics metrics) {
+                completed.add(metrics);
+                recorder.requestCompleted(metrics);
+            }
+        }));
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    private static ClientConfiguration newConfiguration(MetricsListener listener) {
+        ClientConfiguration config = LoopbackServer.newConfiguration();
+        config.setCrcCheckEnabled(false);
+        config.setMetricsListener(listener);
+        return config;
+    }
+
+    @Override
+    public void serve(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+        String method = exchange.getRequestMethod();
+        if ("PUT".equals(method)) {
+            IOUtils.readStreamAsByteArray(exchange.getRequestBody());
+            exchange.getResponseHeaders().add("ETag", "\"etag\"");
+            exchange.sendResponseHeaders(200, -1);
+        } else if (exchange.getRequestURI().getPath().endsWith("/missing")) {
+            byte[] error = ("<Error><Code>NoSuchKey</Code><Message>The specified key does not exist.</Message>"
+                    + "<RequestId>request-id</RequestId></Error>").getBytes("UTF-8");
+            exchange.sendResponseHeaders(404, error.length);
+            exchange.getResponseBody().write(error);
+        } else {
+            exchange.getResponseHeaders().add("ETag", "\"etag\"");
+            exchange.sendResponseHeaders(200, CONTENT.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(CONTENT);
+            out.close();
+        }
+    }
+
+    @Test
+    public void testPutObject() {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(1000);
+        client.putObject("bucket", "key", new ByteArrayInputStream(new byte[1000]), metadata);
+
+        assertEquals(1, completed.size());
+        RequestMetrics metrics = completed.get(0);
+        assertEquals("PutObject", metrics.getOperationName());
+        assertEquals("bucket", metrics.getBucketName());
+        assertEquals("key", metrics.getKey());
+        assertEquals(HttpMethod.PUT, metrics.getMethod());
+        assertEquals(200, metrics.getStatusCode());
+        assertTrue(metrics.isSuccessful());
+        assertNull(metrics.getErrorCode());
+        assertEquals("request-id", metrics.getRequestId());
+        assertEquals(0, metrics.getRetries());
+        assertEquals(1000, metrics.getBytesSent());
+        assertTrue(metrics.getSignNanos() >= 0);
+        assertTrue(metrics.getConnectionLeaseNanos() >= 0);
+        assertTrue(metrics.getRequestSendNanos() >= 0);
+        assertTrue(metrics.getFirstByteNanos() >= 0);
+        assertTrue(metrics.getBodyCompleteNanos() >= 0);
+        assertTrue(metrics.getTotalNanos() >= metrics.getFirstByteNanos() + metrics.getRequestSendNanos());
+
+        OperationMetrics operation = recorder.getOperationMetrics("PutObject");
+        assertEquals(1, operation.getRequestCount());
+        assertEquals(0, operation.getErrorCount());
+        assertEquals(1000, operation.getBytesSent());
+        assertEquals(1, operation.getTotalLatency().getTotalCount());
+        assertEquals(1, operation.getFirstByteLatency().getTotalCount());
+    }
+
+    @Test
+    public void testGetObjectCompletesAtEndOfContent() throws IOException {
+        OSSObject object = client.getObject("bucket", "key");
+        assertTrue(completed.isEmpty());
+
+        InputStream in = object.getObjectContent();
+        byte[] buffer = new byte[4096];
+        while (in.read(buffer) != -1) {
+        }
+        assertEquals(1, completed.size());
+        object.close();
+        assertEquals(1, completed.size());
+
+        RequestMetrics metrics = completed.get(0);
+        assertEquals("GetObject", metrics.getOperationName());
+        assertEquals(CONTENT.length, metrics.getBytesReceived());
+        assertTrue(metrics.isSuccessful());
+        assertTrue(metrics.getBodyCompleteNanos() >= 0);
+
+        // Closing the content before its end also completes the operation.
+        object = client.getObject("bucket", "key");
+        object.getObjectContent().read(buffer);
+        object.close();
+        assertEquals(2, completed.size());
+        assertEquals(buffer.length, completed.get(1).getBytesReceived());
+        assertEquals(2, recorder.getOperationMetrics("GetObject").getRequestCount());
+    }
+
+    @Test
+    public void testFailedOperation() {
+        try {
+            client.getObject("bucket", "missing");
+            fail("The object doesn't exist.");
+        } catch (OSSException e) {
+            assertEquals("NoSuchKey", e.getErrorCode());
+        }
+
+        assertEquals(1, completed.size());
+        RequestMetrics metrics = completed.get(0);
+        assertEquals("GetObject", metrics.getOperationName());
+        assertEquals(404, metrics.getStatusCode());
+        assertEquals("NoSuchKey", metrics.getErrorCode());
+        assertEquals("request-id", metrics.getRequestId());
+        assertFalse(metrics.isSuccessful());
+        assertEquals(1, recorder.getOperationMetrics("GetObject").getErrorCount());
+    }
+
+    @Test
+    public void testGenericRequestOperationNames() {
+        client.deleteObject("bucket", "key");
+        client.deleteBucket("bucket");
+        client.deleteObject(new GenericRequest("bucket", "key").withVersionId("version"));
+
+        assertEquals(3, completed.size());
+        assertEquals("DeleteObject", completed.get(0).getOperationName());
+        assertEquals("DeleteBucket", completed.get(1).getOperationName());
+        assertEquals("DeleteObject", completed.get(2).getOperationName());
+        assertEquals(2, recorder.getOperationMetrics("DeleteObject").getRequestCount());
+        assertEquals(1, recorder.getOperationMetrics("DeleteBucket").getRequestCount());
+    }
+
+    @Test
+    public void testListenerExceptionIsIgnored() {
+        OSSClient failingClient = server.newClient(newConfiguration(new MetricsListener() {
+            @Override
+            public void requestCompleted(RequestMetrics metrics) {
+                throw new IllegalStateException("listener failure");
+            }
+        }));
+        try {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(10);
+            assertNotNull(failingClient.putObject("bucket", "key", new ByteArrayInputStream(new byte[10]), metadata));
+        } finally {
+            failingClient.shutdown();
+        }
+    }
+
+    @Test
+    public void testConnectionPoolMBean() throws Exception {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName pattern = new ObjectName("com.aliyun.oss:type=ConnectionPool,*");
+        Set<ObjectName> before = mbeanServer.queryNames(pattern, null);
+
+        ClientConfiguration config = newConfiguration(null);
+        config.setConnectionPoolJmxEnabled(true);
+        config.setMaxConnections(7);
+        OSSClient jmxClient = server.newClient(config);
+        Set<ObjectName> names = new HashSet<ObjectName>(mbeanServer.queryNames(pattern, null));
+        names.removeAll(before);
+        assertEquals(1, names.size());
+        ObjectName name = names.iterator().next();
+
+        jmxClient.putObject("bucket", "key", new ByteArrayInputStream(new byte[10]));
+        assertEquals(7, mbeanServer.getAttribute(name, "Max"));
+        assertEquals(0, mbeanServer.getAttribute(name, "Leased"));
+        assertEquals(1, mbeanServer.getAttribute(name, "Available"));
+        assertEquals(0, mbeanServer.getAttribute(name, "Pending"));
+
+        jmxClient.shutdown();
+        assertFalse(mbeanServer.isRegistered(name));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.model.OSSObjectChannel;
+import com.aliyun.oss.model.ObjectChannelRequest;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class ObjectChannelTest implements LoopbackServer.Handler {
+
+    private static final int BLOCK_SIZE = ObjectChannelRequest.MIN_BLOCK_SIZE;
+
+    /* The content and the generation of the one object of the bucket */
+    private volatile byte[] content;
+    private volatile int generation;
+    private final List<String> ranges = new CopyOnWriteArrayList<String>();
+
+    private LoopbackServer server;
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(this);
+        client = server.newClient(LoopbackServer.newConfiguration());
+        content = randomBytes(10 * BLOCK_SIZE + 100, 1);
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Override
+    public void serve(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+        String eTag = "etag-" + generation;
+        exchange.getResponseHeaders().add("ETag", "\"" + eTag + "\"");
+        exchange.getResponseHeaders().add("Last-Modified", "Wed, 01 Jan 2025 00:00:00 GMT");
+        byte[] object = content;
+
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            // The connection isn't reused after a HEAD response with a length.
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+            exchange.getResponseHeaders().add("Connection", "close");
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(range);
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch != null && !ifMatch.replace("\"", "").equals(eTag)) {
+            byte[] error = ("<Error><Code>PreconditionFailed</Code><Message>At least one of the pre-conditions "
+                    + "you specified did not hold.</Message><RequestId>request-id</RequestId></Error>")
+                    .getBytes("UTF-8");
+            exchange.sendResponseHeaders(412, error.length);
+            exchange.getResponseBody().write(error);
+            return;
+        }
+
+        String[] bounds = range.substring("bytes=".length()).split("-");
+        int start = Integer.parseInt(bounds[0]);
+        int end = Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + object.length);
+        exchange.sendResponseHeaders(206, end - start + 1);
+        OutputStream out = exchange.getResponseBody();
+        out.write(object, start, end - start + 1);
+        out.close();
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private void assertRead(OSSObjectChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        assertEquals(length, channel.read(buffer, position));
+        byte[] expected = new byte[length];
+        System.arraycopy(content, (int) position, expected, 0, length);
+        assertArrayEquals(expected, buffer.array());
+    }
+
+    private static String range(long firstBlock, long lastBlock, long size) {
+        return "bytes=" + firstBlock * BLOCK_SIZE + "-" + (Math.min(size, (lastBlock + 1) * BLOCK_SIZE) - 1);
+    }
+
+    @Test
+    public void testRandomReads() throws Exception {
+        OSSObjectChannel channel = client.createObjectChannel(
+                new ObjectChannelRequest("bucket", "object").withBlockSize(BLOCK_SIZE).withPrefetchBlocks(0));
+        long size = channel.size();
+        assertEquals(content.length, size);
+
+        // The footer, then the footer again from the cache.
+        assertRead(channel, size - 8, 8);
+        assertRead(channel, size - 50, 8);
+        assertEquals(1, channel.getRequestCount());
+        assertEquals(1, channel.getCacheMisses());
+        assertEquals(1, channel.getCacheHits());
+
+        // A column chunk across three blocks is fetched with one request.
+        assertRead(channel, 2 * BLOCK_SIZE + 10, 2 * BLOCK_SIZE);
+        assertEquals(2, channel.getRequestCount());
+        assertEquals(range(2, 4, size), ranges.get(1));
+
+        // The missing blocks around a cached one are fetched in two requests.
+        assertRead(channel, BLOCK_SIZE, 5 * BLOCK_SIZE);
+        assertEquals(4, channel.getRequestCount());
+        assertEquals(range(1, 1, size), ranges.get(2));
+        assertEquals(range(5, 5, size), ranges.get(3));
+
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+        assertEquals(-1, channel.read(buffer, size));
+        channel.close();
+        assertFalse(channel.isOpen());
+        try {
+            channel.read(buffer, 0);
+            fail("Reading a closed channel should fail.");
+        } catch (ClosedChannelException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testSequentialReadsPrefetch() throws Exception {
+        OSSObjectChannel channel = client.createObjectChannel(
+                new ObjectChannelRequest("bucket", "object").withBlockSize(BLOCK_SIZE).withPrefetchBlocks(2));
+        ByteBuffer all = ByteBuffer.allocate(content.length);
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        while (channel.read(block) != -1) {
+            block.flip();
+            all.put(block);
+            block.clear();
+            assertEquals(all.position(), channel.position());
+        }
+        assertArrayEquals(content, all.array());
+
+        // The first read isn't known to be sequential; every later miss
+        // fetches two more blocks.
+        assertEquals(5, channel.getRequestCount());
+        assertEquals(range(0, 0, content.length), ranges.get(0));
+        assertEquals(range(1, 3, content.length), ranges.get(1));
+        assertEquals(range(10, 10, content.length), ranges.get(4));
+        assertEquals(5, channel.getCacheMisses());
+        assertEquals(6, channel.getCacheHits());
+
+        channel.position(0);
+        assertEquals(BLOCK_SIZE, channel.read(block));
+        assertEquals(5, channel.getRequestCount());
+        channel.close();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedBlocksAreEvicted() throws Exception {
+        OSSObjectChannel channel = client.createObjectChannel(new ObjectChannelRequest("bucket", "object")
+                .withBlockSize(BLOCK_SIZE).withCacheCapacity(2 * BLOCK_SIZE).withPrefetchBlocks(0));
+        assertRead(channel, 0, 10);
+        assertRead(channel, BLOCK_SIZE, 10);
+        assertRead(channel, 0, 10);
+        assertRead(channel, 2 * BLOCK_SIZE, 10);
+        assertEquals(3, channel.getRequestCount());
+
+        // Block 1 was the least recently used.
+        assertRead(channel, 20, 10);
+        assertEquals(3, channel.getRequestCount());
+        assertRead(channel, BLOCK_SIZE + 20, 10);
+        assertEquals(4, channel.getRequestCount());
+
+        // A read larger than the cache still returns every byte.
+        assertRead(channel, 0, 5 * BLOCK_SIZE);
+        channel.close();
+    }
+
+    @Test
+    public void testOverwrittenObjectFailsRead() throws Exception {
+        OSSObjectChannel channel = client.createObjectChannel(
+                new ObjectChannelRequest("bucket", "object").withBlockSize(BLOCK_SIZE));
+        assertRead(channel, 0, 100);
+
+        content = randomBytes(content.length, 2);
+        generation++;
+        try {
+            channel.read(ByteBuffer.allocate(100), 8 * BLOCK_SIZE);
+            fail("A block of another object generation should fail the read.");
+        } catch (OSSException e) {
+            assertEquals("PreconditionFailed", e.getErrorCode());
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.common.utils.CRC64;
+import com.aliyun.oss.model.OSSObjectInputStream;
+import com.aliyun.oss.model.ObjectInputStreamRequest;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class ObjectInputStreamTest implements LoopbackServer.Handler {
+
+    private static final int BLOCK_SIZE = ObjectInputStreamRequest.MIN_BLOCK_SIZE;
+
+    /* The content and the generation of the one object of the bucket */
+    private volatile byte[] content;
+    private volatile int generation;
+    /* Overwrites the object after the first block is served */
+    private volatile boolean overwriteAfterFirstBlock;
+    /* The CRC returned for the object, null for the right one */
+    private volatile String serverCRC;
+    private volatile long blockDelayMillis;
+    private final List<String> ranges = new CopyOnWriteArrayList<String>();
+    private final AtomicInteger activeBlocks = new AtomicInteger();
+    private final AtomicInteger maxActiveBlocks = new AtomicInteger();
+
+    private LoopbackServer server;
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(this);
+        client = server.newClient(LoopbackServer.newConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    private static String crc64(byte[] data) {
+        long crc = new CRC64(data, data.length).getValue();
+        return unsigned(crc);
+    }
+
+    private static String unsigned(long value) {
+        return BigInteger.valueOf(value).and(new BigInteger("ffffffffffffffff", 16)).toString();
+    }
+
+    @Override
+    public void serve(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+        String eTag = "etag-" + generation;
+        exchange.getResponseHeaders().add("ETag", "\"" + eTag + "\"");
+        exchange.getResponseHeaders().add("Last-Modified", "Wed, 01 Jan 2025 00:00:00 GMT");
+        byte[] object = content;
+
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("x-oss-hash-crc64ecma", serverCRC != null ? serverCRC : crc64(object));
+            // The connection isn't reused after a HEAD response with a length.
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+            exchange.getResponseHeaders().add("Connection", "close");
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(range);
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch != null && !ifMatch.replace("\"", "").equals(eTag)) {
+            byte[] error = ("<Error><Code>PreconditionFailed</Code><Message>At least one of the pre-conditions "
+                    + "you specified did not hold.</Message><RequestId>request-id</RequestId></Error>")
+                    .getBytes("UTF-8");
+            exchange.sendResponseHeaders(412, error.length);
+            exchange.getResponseBody().write(error);
+            return;
+        }
+
+        int active = activeBlocks.incrementAndGet();
+        try {
+            synchronized (maxActiveBlocks) {
+                maxActiveBlocks.set(Math.max(maxActiveBlocks.get(), active));
+            }
+            if (blockDelayMillis > 0) {
+                Thread.sleep(blockDelayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            activeBlocks.decrementAndGet();
+        }
+
+        String[] bounds = range.substring("bytes=".length()).split("-");
+        int start = Integer.parseInt(bounds[0]);
+        int end = Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + object.length);
+        exchange.sendResponseHeaders(206, end - start + 1);
+        OutputStream out = exchange.getResponseBody();
+        out.write(object, start, end - start + 1);
+        out.close();
+
+        if (start == 0 && overwriteAfterFirstBlock) {
+            content = randomBytes(object.length, 99);
+            generation++;
+        }
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[10000];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testReadObject() throws Exception {
+        content = randomBytes(5 * BLOCK_SIZE + 123, 1);
+        OSSObjectInputStream in = client.createObjectInputStream(
+                new ObjectInputStreamRequest("bucket", "object").withBlockSize(BLOCK_SIZE).withReadAheadBlocks(3));
+        assertEquals(content.length, in.getObjectMetadata().getContentLength());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < 10; i++) {
+            out.write(in.read());
+        }
+        // Skip across a block boundary, then read the rest.
+        assertEquals(BLOCK_SIZE, in.skip(BLOCK_SIZE));
+        byte[] rest = readFully(in);
+        assertEquals(-1, in.read());
+        in.close();
+
+        byte[] expected = new byte[content.length - BLOCK_SIZE];
+        System.arraycopy(content, 0, expected, 0, 10);
+        System.arraycopy(content, 10 + BLOCK_SIZE, expected, 10, content.length - 10 - BLOCK_SIZE);
+        out.write(rest);
+        assertArrayEquals(expected, out.toByteArray());
+        assertEquals(content.length, in.getPosition());
+
+        // Every block is requested once; the blocks in flight arrive in any order.
+        assertEquals(6, ranges.size());
+        Set<String> expectedRanges = new HashSet<String>();
+        for (int i = 0; i < 6; i++) {
+            long start = (long) i * BLOCK_SIZE;
+            long end = Math.min(start + BLOCK_SIZE, content.length) - 1;
+            expectedRanges.add("bytes=" + start + "-" + end);
+        }
+        assertEquals(expectedRanges, new HashSet<String>(ranges));
+        assertEquals(crc64(content), unsigned(in.getClientCRC()));
+
+        try {
+            in.read();
+            fail("Reading a closed stream should fail.");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testReadAheadIsBounded() throws Exception {
+        blockDelayMillis = 30;
+        content = randomBytes(8 * BLOCK_SIZE, 2);
+        OSSObjectInputStream in = client.createObjectInputStream(
+                new ObjectInputStreamRequest("bucket", "object").withBlockSize(BLOCK_SIZE).withReadAheadBlocks(2));
+        assertArrayEquals(content, readFully(in));
+        in.close();
+
+        assertEquals(8, ranges.size());
+        assertTrue(maxActiveBlocks.get() <= 2);
+    }
+
+    @Test
+    public void testOverwrittenObjectFailsRead() throws Exception {
+        overwriteAfterFirstBlock = true;
+        content = randomBytes(3 * BLOCK_SIZE, 3);
+        OSSObjectInputStream in = client.createObjectInputStream(
+                new ObjectInputStreamRequest("bucket", "object").withBlockSize(BLOCK_SIZE).withReadAheadBlocks(1));
+        byte[] first = new byte[BLOCK_SIZE];
+        assertEquals(BLOCK_SIZE, in.read(first));
+        try {
+            in.read();
+            fail("A block of another object generation should fail the read.");
+        } catch (OSSException e) {
+            assertEquals("PreconditionFailed", e.getErrorCode());
+        }
+        try {
+            in.read();
+            fail("Reading a failed stream should fail.");
+        } catch (IOException e) {
+            // Expected
+        }
+        in.close();
+    }
+
+    @Test
+    public void testCrcMismatchFailsRead() throws Exception {
+        content = randomBytes(2 * BLOCK_SIZE + 1, 4);
+        serverCRC = "12345";
+        OSSObjectInputStream in = client.createObjectInputStream(
+                new ObjectInputStreamRequest("bucket", "object").withBlockSize(BLOCK_SIZE));
+        try {
+            readFully(in);
+            fail("The CRC of the blocks should not match the object's.");
+        } catch (InconsistentException e) {
+            // Expected
+        }
+        in.close();
+    }
+
+    @Test
+    public void testEmptyObject() throws Exception {
+        content = new byte[0];
+        OSSObjectInputStream in = client.createObjectInputStream(new ObjectInputStreamRequest("bucket", "object"));
+        assertEquals(-1, in.read());
+        in.close();
+        assertEquals(0, ranges.size());
+    }
+}
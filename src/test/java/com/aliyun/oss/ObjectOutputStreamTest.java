@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.common.utils.CRC64;
+import com.aliyun.oss.model.OSSObjectOutputStream;
+import com.aliyun.oss.model.ObjectOutputStreamRequest;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class ObjectOutputStreamTest implements LoopbackServer.Handler {
+
+    private static final int PART_SIZE = ObjectOutputStreamRequest.MIN_PART_SIZE;
+    private static final String ERROR = "<Error><Code>InternalError</Code><Message>internal error</Message>"
+            + "<RequestId>request-id</RequestId></Error>";
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<String, byte[]>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<String, Map<Integer, byte[]>>();
+    private final List<String> requestLog = new CopyOnWriteArrayList<String>();
+    /* The part number whose upload fails, 0 for none */
+    private volatile int failingPart;
+    /* How long a part upload takes */
+    private volatile long partDelayMillis;
+    private final AtomicInteger activeParts = new AtomicInteger();
+    private final AtomicInteger maxActiveParts = new AtomicInteger();
+
+    private LoopbackServer server;
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(this);
+        client = server.newClient(LoopbackServer.newConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> params = new HashMap<String, String>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq < 0) {
+                    params.put(pair, null);
+                } else {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(code, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    private static String crc64(byte[] data) {
+        long crc = new CRC64(data, data.length).getValue();
+        return BigInteger.valueOf(crc).and(new BigInteger("ffffffffffffffff", 16)).toString();
+    }
+
+    @Override
+    public void serve(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+        String method = exchange.getRequestMethod();
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), "UTF-8");
+        String key = path.substring("/bucket/".length());
+        byte[] body = readFully(exchange.getRequestBody());
+
+        if ("PUT".equals(method) && params.containsKey("partNumber")) {
+            int partNumber = Integer.parseInt(params.get("partNumber"));
+            requestLog.add("PART " + partNumber);
+            int active = activeParts.incrementAndGet();
+            try {
+                synchronized (maxActiveParts) {
+                    maxActiveParts.set(Math.max(maxActiveParts.get(), active));
+                }
+                if (partDelayMillis > 0) {
+                    Thread.sleep(partDelayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                activeParts.decrementAndGet();
+            }
+            if (partNumber == failingPart) {
+                respond(exchange, 500, ERROR.getBytes("UTF-8"));
+                return;
+            }
+            uploads.get(params.get("uploadId")).put(partNumber, body);
+            exchange.getResponseHeaders().add("ETag", "\"etag-" + partNumber + "\"");
+            exchange.getResponseHeaders().add("x-oss-hash-crc64ecma", crc64(body));
+            respond(exchange, 200, new byte[0]);
+        } else if ("PUT".equals(method)) {
+            requestLog.add("PUT " + key);
+            objects.put(key, body);
+            exchange.getResponseHeaders().add("ETag", "\"etag\"");
+            exchange.getResponseHeaders().add("x-oss-hash-crc64ecma", crc64(body));
+            respond(exchange, 200, new byte[0]);
+        } else if ("POST".equals(method) && params.containsKey("uploads")) {
+            requestLog.add("INITIATE " + key);
+            String uploadId = "upload-" + uploads.size();
+            uploads.put(uploadId, new ConcurrentSkipListMap<Integer, byte[]>());
+            respond(exchange, 200, ("<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>" + key
+                    + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>").getBytes("UTF-8"));
+        } else if ("POST".equals(method)) {
+            requestLog.add("COMPLETE " + key);
+            ByteArrayOutputStream object = new ByteArrayOutputStream();
+            for (byte[] part : uploads.remove(params.get("uploadId")).values()) {
+                object.write(part);
+            }
+            objects.put(key, object.toByteArray());
+            exchange.getResponseHeaders().add("x-oss-hash-crc64ecma", crc64(object.toByteArray()));
+            respond(exchange, 200, ("<CompleteMultipartUploadResult><Location>location</Location>"
+                    + "<Bucket>bucket</Bucket><Key>" + key + "</Key><ETag>\"etag\"</ETag>"
+                    + "</CompleteMultipartUploadResult>").getBytes("UTF-8"));
+        } else if ("DELETE".equals(method) && params.containsKey("uploadId")) {
+            requestLog.add("ABORT " + key);
+            uploads.remove(params.get("uploadId"));
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            respond(exchange, 400, ERROR.getBytes("UTF-8"));
+        }
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private int count(String prefix) {
+        int count = 0;
+        for (String logged : requestLog) {
+            if (logged.startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testSmallObjectIsPutInOneRequest() throws Exception {
+        byte[] data = randomBytes(PART_SIZE - 1, 1);
+        OSSObjectOutputStream out = client.createObjectOutputStream(
+                new ObjectOutputStreamRequest("bucket", "small").withPartSize(PART_SIZE));
+        out.write(data, 0, 10);
+        out.write(data[10]);
+        out.write(data, 11, data.length - 11);
+        out.close();
+
+        assertEquals(1, requestLog.size());
+        assertEquals("PUT small", requestLog.get(0));
+        assertArrayEquals(data, objects.get("small"));
+        assertNull(out.getUploadId());
+        assertEquals(0, out.getPartCount());
+        assertEquals(data.length, out.getBytesWritten());
+        assertEquals("etag", out.getETag());
+        assertEquals(crc64(data), BigInteger.valueOf(out.getClientCRC())
+                .and(new BigInteger("ffffffffffffffff", 16)).toString());
+
+        // Closing twice does nothing, writing after close fails.
+        out.close();
+        assertEquals(1, requestLog.size());
+        try {
+            out.write(1);
+            fail("Writing to a closed stream should fail.");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testMultipartUpload() throws Exception {
+        byte[] data = randomBytes(3 * PART_SIZE + 4321, 2);
+        OSSObjectOutputStream out = client.createObjectOutputStream(
+                new ObjectOutputStreamRequest("bucket", "large").withPartSize(PART_SIZE).withMaxPartsInFlight(2));
+        Random random = new Random(3);
+        int offset = 0;
+        while (offset < data.length) {
+            if (random.nextInt(10) == 0) {
+                out.write(data[offset++]);
+            } else {
+                int n = Math.min(data.length - offset, random.nextInt(3 * 8192));
+                out.write(data, offset, n);
+                offset += n;
+            }
+        }
+        out.close();
+
+        assertArrayEquals(data, objects.get("large"));
+        assertEquals(1, count("INITIATE"));
+        assertEquals(4, count("PART"));
+        assertEquals(1, count("COMPLETE"));
+        assertEquals(0, count("PUT"));
+        assertNotNull(out.getUploadId());
+        assertEquals(4, out.getPartCount());
+        assertEquals(data.length, out.getBytesWritten());
+        assertEquals("etag", out.getETag());
+        // The CRC combined from the parts is checked against the server's.
+        assertEquals(crc64(data), BigInteger.valueOf(out.getClientCRC())
+                .and(new BigInteger("ffffffffffffffff", 16)).toString());
+    }
+
+    @Test
+    public void testPartsInFlightAreBounded() throws Exception {
+        partDelayMillis = 50;
+        byte[] data = randomBytes(8 * PART_SIZE, 4);
+        OSSObjectOutputStream out = client.createObjectOutputStream(
+                new ObjectOutputStreamRequest("bucket", "bounded").withPartSize(PART_SIZE).withMaxPartsInFlight(2));
+        out.write(data);
+        out.close();
+
+        assertArrayEquals(data, objects.get("bounded"));
+        assertEquals(8, out.getPartCount());
+        assertTrue(maxActiveParts.get() <= 2);
+    }
+
+    @Test
+    public void testFailedPartAbortsUpload() throws Exception {
+        failingPart = 2;
+        byte[] data = randomBytes(6 * PART_SIZE, 5);
+        OSSObjectOutputStream out = client.createObjectOutputStream(
+                new ObjectOutputStreamRequest("bucket", "failed").withPartSize(PART_SIZE).withMaxPartsInFlight(1));
+        try {
+            out.write(data);
+            out.close();
+            fail("The failed part should fail the stream.");
+        } catch (OSSException e) {
+            assertEquals("InternalError", e.getErrorCode());
+        }
+
+        assertEquals(1, count("ABORT"));
+        assertEquals(0, count("COMPLETE"));
+        assertFalse(objects.containsKey("failed"));
+        assertTrue(uploads.isEmpty());
+        try {
+            out.write(1);
+            fail("Writing to a failed stream should fail.");
+        } catch (IOException e) {
+            // Expected
+        }
+        out.close();
+        assertEquals(1, count("ABORT"));
+    }
+
+    @Test
+    public void testAbort() throws Exception {
+        byte[] data = randomBytes(2 * PART_SIZE + 1, 6);
+        OSSObjectOutputStream out = client.createObjectOutputStream(
+                new ObjectOutputStreamRequest("bucket", "aborted").withPartSize(PART_SIZE));
+        out.write(data);
+        out.abort();
+        out.close();
+
+        assertEquals(1, count("ABORT"));
+        assertEquals(0, count("COMPLETE"));
+        assertFalse(objects.containsKey("aborted"));
+
+        try {
+            client.createObjectOutputStream(new ObjectOutputStreamRequest("bucket", "tiny").withPartSize(1024));
+            fail("A part size below the minimum should be rejected.");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
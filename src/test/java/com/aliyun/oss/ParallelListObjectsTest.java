@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.model.ListingProgress;
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.ParallelListObjectsRequest;
+import com.aliyun.oss.model.ParallelObjectListing;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class ParallelListObjectsTest {
+
+    private final TreeSet<String> keys = new TreeSet<String>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+    private volatile int failAfterRequests = Integer.MAX_VALUE;
+
+    private LoopbackServer server;
+    private OSSClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                int current = concurrentRequests.incrementAndGet();
+                while (true) {
+                    int max = maxConcurrentRequests.get();
+                    if (current <= max || maxConcurrentRequests.compareAndSet(max, current)) {
+                        break;
+                    }
+                }
+                try {
+                    Thread.sleep(5);
+                    int status = 200;
+                    String body;
+                    if (requests.incrementAndGet() > failAfterRequests) {
+                        status = 403;
+                        body = "<Error><Code>AccessDenied</Code><Message>denied</Message>"
+                                + "<RequestId>request-id</RequestId></Error>";
+                    } else {
+                        body = list(parseQuery(exchange.getRequestURI().getRawQuery()));
+                    }
+                    byte[] bytes = body.getBytes("UTF-8");
+                    exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+                    exchange.sendResponseHeaders(status, bytes.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(bytes);
+                    out.close();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    concurrentRequests.decrementAndGet();
+                }
+            }
+        });
+
+        client = server.newClient(LoopbackServer.newConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> params = new HashMap<String, String>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq < 0) {
+                    params.put(pair, null);
+                } else {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+                }
+            }
+        }
+        return params;
+    }
+
+    /**
+     * A ListObjectsV2 over the in-memory keys. The continuation token is the
+     * last returned key or common prefix.
+     */
+    private String list(Map<String, String> params) {
+        String prefix = params.containsKey("prefix") ? params.get("prefix") : "";
+        String delimiter = params.get("delimiter");
+        int maxKeys = params.containsKey("max-keys") ? Integer.parseInt(params.get("max-keys")) : 1000;
+        String token = params.get("continuation-token");
+        String after = token != null ? token : params.get("start-after");
+
+        List<String> contents = new ArrayList<String>();
+        List<String> commonPrefixes = new ArrayList<String>();
+        String last = null;
+        boolean truncated = false;
+        Set<String> tail = after == null ? keys : keys.tailSet(after, false);
+        for (String key : tail) {
+            if (!key.startsWith(prefix)) {
+                if (key.compareTo(prefix) > 0) {
+                    break;
+                }
+                continue;
+            }
+            String commonPrefix = null;
+            if (delimiter != null) {
+                int index = key.indexOf(delimiter, prefix.length());
+                if (index >= 0) {
+                    commonPrefix = key.substring(0, index + delimiter.length());
+                }
+            }
+            if (commonPrefix != null && (commonPrefix.equals(last) || commonPrefix.equals(after))) {
+                continue;
+            }
+            if (contents.size() + commonPrefixes.size() == maxKeys) {
+                truncated = true;
+                break;
+            }
+            if (commonPrefix != null) {
+                commonPrefixes.add(commonPrefix);
+                last = commonPrefix;
+            } else {
+                contents.add(key);
+                last = key;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder("<ListBucketResult><Name>bucket</Name>");
+        sb.append("<Prefix>").append(prefix).append("</Prefix>");
+        sb.append("<MaxKeys>").append(maxKeys).append("</MaxKeys>");
+        sb.append("<KeyCount>").append(contents.size() + commonPrefixes.size()).append("</KeyCount>");
+        sb.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (truncated) {
+            sb.append("<NextContinuationToken>").append(last).append("</NextContinuationToken>");
+        }
+        for (String key : contents) {
+            sb.append("<Contents><Key>").append(key).append("</Key>")
+                    .append("<LastModified>2024-01-01T00:00:00.000Z</LastModified>")
+                    .append("<ETag>\"etag\"</ETag><Size>1</Size><StorageClass>Standard</StorageClass></Contents>");
+        }
+        for (String commonPrefix : commonPrefixes) {
+            sb.append("<CommonPrefixes><Prefix>").append(commonPrefix).append("</Prefix></CommonPrefixes>");
+        }
+        return sb.append("</ListBucketResult>").toString();
+    }
+
+    private void addFlatKeys(int count) {
+        Random random = new Random(1);
+        while (keys.size() < count) {
+            keys.add("data/" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36));
+        }
+    }
+
+    private void addTreeKeys() {
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 5; j++) {
+                for (int k = 0; k < 20; k++) {
+                    keys.add("data/dir" + i + "/sub" + j + "/file" + k);
+                }
+                keys.add("data/dir" + i + "/file-" + j);
+            }
+            keys.add("data/dir" + i);
+        }
+        keys.add("data/");
+        keys.add("data/~last");
+        keys.add("other/file");
+    }
+
+    private List<String> drain(ParallelObjectListing listing) {
+        List<String> listed = new ArrayList<String>();
+        try {
+            while (listing.hasNext()) {
+                listed.add(listing.next().getKey());
+            }
+        } finally {
+            listing.close();
+        }
+        return listed;
+    }
+
+    private List<String> expectedKeys(String prefix) {
+        List<String> expected = new ArrayList<String>();
+        for (String key : keys) {
+            if (key.startsWith(prefix)) {
+                expected.add(key);
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    public void testUnorderedFlatListing() {
+        addFlatKeys(3000);
+        ParallelObjectListing listing = client.listObjectsParallel(new ParallelListObjectsRequest("bucket", "data/")
+                .withDelimiter(null).withMaxKeys(50).withMaxConcurrentRequests(8));
+        List<String> listed = drain(listing);
+
+        assertEquals(3000, listed.size());
+        assertEquals(3000, new HashSet<String>(listed).size());
+        Collections.sort(listed);
+        assertEquals(expectedKeys("data/"), listed);
+
+        ListingProgress progress = listing.getProgress();
+        assertTrue(progress.getPartitionCount() > 1);
+        assertEquals(3000, progress.getListedObjectCount());
+        assertEquals(3000, progress.getReturnedObjectCount());
+        assertEquals(0, progress.getInFlightRequestCount());
+        assertEquals(requests.get(), progress.getRequestCount());
+        assertTrue(maxConcurrentRequests.get() <= 8);
+    }
+
+    @Test
+    public void testOrderedTreeListing() {
+        addTreeKeys();
+        List<String> listed = drain(client.listObjectsParallel(new ParallelListObjectsRequest("bucket", "data/")
+                .withMaxKeys(7).withMaxConcurrentRequests(4).withOrdered(true)));
+        assertEquals(expectedKeys("data/"), listed);
+    }
+
+    @Test
+    public void testOrderedFlatListingWithSmallBuffer() {
+        addFlatKeys(1500);
+        List<String> listed = drain(client.listObjectsParallel(new ParallelListObjectsRequest("bucket", "data/")
+                .withDelimiter(null).withMaxKeys(20).withMaxConcurrentRequests(6).withOrdered(true)
+                .withMaxBufferedObjects(10)));
+        assertEquals(expectedKeys("data/"), listed);
+    }
+
+    @Test
+    public void testUnorderedTreeListingWithoutSplitting() {
+        addTreeKeys();
+        ParallelObjectListing listing = client.listObjectsParallel(new ParallelListObjectsRequest("bucket")
+                .withMaxKeys(5).withMaxConcurrentRequests(3).withSplitRanges(false));
+        List<String> listed = drain(listing);
+        Collections.sort(listed);
+        assertEquals(expectedKeys(""), listed);
+        // the root, data/, other/, 6 directories and 30 sub directories
+        assertEquals(39, listing.getProgress().getPartitionCount());
+    }
+
+    @Test
+    public void testErrorIsPropagated() {
+        addFlatKeys(500);
+        failAfterRequests = 3;
+        ParallelObjectListing listing = client.listObjectsParallel(new ParallelListObjectsRequest("bucket", "data/")
+                .withDelimiter(null).withMaxKeys(10).withMaxConcurrentRequests(2));
+        try {
+            drain(listing);
+            fail("The failed request should surface as an OSSException.");
+        } catch (OSSException e) {
+            assertEquals(OSSErrorCode.ACCESS_DENIED, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testCloseStopsListing() throws Exception {
+        addFlatKeys(2000);
+        ParallelObjectListing listing = client.listObjectsParallel(new ParallelListObjectsRequest("bucket", "data/")
+                .withDelimiter(null).withMaxKeys(10).withMaxConcurrentRequests(4).withMaxBufferedObjects(20));
+        assertTrue(listing.hasNext());
+        OSSObjectSummary first = listing.next();
+        assertTrue(first.getKey().startsWith("data/"));
+        listing.close();
+        assertFalse(listing.hasNext());
+
+        Thread.sleep(200);
+        int sent = requests.get();
+        Thread.sleep(200);
+        assertEquals(sent, requests.get());
+        assertTrue(sent < 200);
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        try {
+            client.listObjectsParallel(new ParallelListObjectsRequest("bucket").withMaxConcurrentRequests(0));
+            fail("maxConcurrentRequests must be positive.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            client.listObjectsParallel(null);
+            fail("The request must not be null.");
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+}
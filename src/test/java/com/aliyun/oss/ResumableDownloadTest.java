@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.common.utils.CRC64;
+import com.aliyun.oss.model.DownloadFileRequest;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class ResumableDownloadTest {
+
+    private static final int PART_SIZE = 100 * 1024;
+
+    private final byte[] payload = new byte[10 * PART_SIZE + 12345];
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    /* The range starts that fail once */
+    private final Set<Long> failingRanges = new ConcurrentSkipListSet<Long>();
+
+    private LoopbackServer server;
+    private OSSClient client;
+    private File downloadFile;
+
+    @Before
+    public void setUp() throws Exception {
+        new Random(7).nextBytes(payload);
+        CRC64 crc = new CRC64();
+        crc.update(payload, payload.length);
+        BigInteger unsignedCrc = BigInteger.valueOf(crc.getValue());
+        if (unsignedCrc.signum() < 0) {
+            unsignedCrc = unsignedCrc.add(BigInteger.ONE.shiftLeft(64));
+        }
+        final String serverCrc = unsignedCrc.toString();
+
+        server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+                exchange.getResponseHeaders().add("ETag", "\"etag\"");
+                exchange.getResponseHeaders().add("Last-Modified", "Wed, 01 Jan 2025 00:00:00 GMT");
+                exchange.getResponseHeaders().add("x-oss-hash-crc64ecma", serverCrc);
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    // The connection isn't reused after a HEAD response with a length.
+                    exchange.getResponseHeaders().add("Content-Length", String.valueOf(payload.length));
+                    exchange.getResponseHeaders().add("Connection", "close");
+                    exchange.sendResponseHeaders(200, -1);
+                    return;
+                }
+
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                String[] bounds = range.substring("bytes=".length()).split("-");
+                int start = Integer.parseInt(bounds[0]);
+                int end = Math.min(Integer.parseInt(bounds[1]), payload.length - 1);
+                rangeRequests.incrementAndGet();
+                if (failingRanges.remove(Long.valueOf(start))) {
+                    byte[] error = ("<Error><Code>InternalError</Code><Message>internal error</Message>"
+                            + "<RequestId>request-id</RequestId></Error>").getBytes("UTF-8");
+                    exchange.sendResponseHeaders(500, error.length);
+                    exchange.getResponseBody().write(error);
+                    return;
+                }
+
+                exchange.getResponseHeaders().add("Content-Range",
+                        "bytes " + start + "-" + end + "/" + payload.length);
+                exchange.sendResponseHeaders(206, end - start + 1);
+                OutputStream out = exchange.getResponseBody();
+                out.write(payload, start, end - start + 1);
+                out.close();
+            }
+        });
+
+        client = server.newClient(LoopbackServer.newConfiguration());
+        downloadFile = File.createTempFile("download", ".dat");
+        downloadFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+        downloadFile.delete();
+        new File(downloadFile.getPath() + ".dcp").delete();
+        new File(downloadFile.getPath() + ".tmp").delete();
+    }
+
+    private DownloadFileRequest newRequest(boolean sharedFileChannel) {
+        DownloadFileRequest request = new DownloadFileRequest("bucket", "key", downloadFile.getPath(), PART_SIZE,
+                4, true, downloadFile.getPath() + ".dcp");
+        request.setSharedFileChannel(sharedFileChannel);
+        return request;
+    }
+
+    private byte[] readDownloadFile() throws IOException {
+        byte[] content = new byte[(int) downloadFile.length()];
+        FileInputStream in = new FileInputStream(downloadFile);
+        try {
+            new java.io.DataInputStream(in).readFully(content);
+        } finally {
+            in.close();
+        }
+        return content;
+    }
+
+    @Test
+    public void testDownloadWithSharedFileChannel() throws Throwable {
+        client.downloadFile(newRequest(true));
+
+        assertArrayEquals(payload, readDownloadFile());
+        assertEquals(11, rangeRequests.get());
+        assertFalse(new File(downloadFile.getPath() + ".dcp").exists());
+        assertFalse(new File(downloadFile.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void testDownloadWithPerPartFiles() throws Throwable {
+        client.downloadFile(newRequest(false));
+
+        assertArrayEquals(payload, readDownloadFile());
+        assertEquals(11, rangeRequests.get());
+    }
+
+    @Test
+    public void testResumeDownloadsOnlyFailedParts() throws Throwable {
+        failingRanges.add(Long.valueOf(3 * PART_SIZE));
+        failingRanges.add(Long.valueOf(7 * PART_SIZE));
+        try {
+            client.downloadFile(newRequest(true));
+            fail("OSSException expected");
+        } catch (OSSException e) {
+            assertEquals("InternalError", e.getErrorCode());
+        }
+        assertTrue(new File(downloadFile.getPath() + ".dcp").exists());
+
+        // Garbles a part that was not completed, it must be written again.
+        RandomAccessFile temp = new RandomAccessFile(downloadFile.getPath() + ".tmp", "rw");
+        temp.seek(3 * PART_SIZE);
+        temp.write(new byte[PART_SIZE]);
+        temp.close();
+
+        rangeRequests.set(0);
+        client.downloadFile(newRequest(true));
+
+        assertEquals(2, rangeRequests.get());
+        assertArrayEquals(payload, readDownloadFile());
+        assertFalse(new File(downloadFile.getPath() + ".dcp").exists());
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.common.comm.io.FileChannelRegionInputStream;
+import com.aliyun.oss.common.utils.CRC64;
+import com.aliyun.oss.model.UploadFileRequest;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class ResumableUploadTest {
+
+    private static final int PART_SIZE = 100 * 1024;
+
+    private final byte[] payload = new byte[10 * PART_SIZE + 12345];
+    private final Map<Integer, byte[]> parts = new ConcurrentHashMap<Integer, byte[]>();
+    private final AtomicInteger partRequests = new AtomicInteger();
+    /* The part numbers that fail once */
+    private final Set<Integer> failingParts = new ConcurrentSkipListSet<Integer>();
+
+    private LoopbackServer server;
+    private OSSClient client;
+    private File uploadFile;
+
+    private static String unsignedCrc(byte[] data, int length) {
+        CRC64 crc = new CRC64();
+        crc.update(data, length);
+        BigInteger value = BigInteger.valueOf(crc.getValue());
+        if (value.signum() < 0) {
+            value = value.add(BigInteger.ONE.shiftLeft(64));
+        }
+        return value.toString();
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] content = body.getBytes("UTF-8");
+        exchange.sendResponseHeaders(code, content.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(content);
+        out.close();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        new Random(7).nextBytes(payload);
+
+        server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("x-oss-request-id", "request-id");
+                String query = exchange.getRequestURI().getQuery();
+                byte[] body = readFully(exchange.getRequestBody());
+
+                if ("PUT".equals(exchange.getRequestMethod())) {
+                    int partNumber = Integer.parseInt(query.replaceAll(".*partNumber=(\\d+).*", "$1"));
+                    partRequests.incrementAndGet();
+                    if (failingParts.remove(Integer.valueOf(partNumber))) {
+                        respond(exchange, 500, "<Error><Code>InternalError</Code><Message>internal error"
+                                + "</Message><RequestId>request-id</RequestId></Error>");
+                        return;
+                    }
+                    parts.put(partNumber, body);
+                    exchange.getResponseHeaders().add("ETag", "\"etag-" + partNumber + "\"");
+                    exchange.getResponseHeaders().add("x-oss-hash-crc64ecma", unsignedCrc(body, body.length));
+                    respond(exchange, 200, "");
+                } else if ("uploads".equals(query)) {
+                    respond(exchange, 200, "<InitiateMultipartUploadResult><Bucket>bucket</Bucket><Key>key</Key>"
+                            + "<UploadId>upload-id</UploadId></InitiateMultipartUploadResult>");
+                } else {
+                    ByteArrayOutputStream object = new ByteArrayOutputStream();
+                    for (int i = 1; i <= parts.size(); i++) {
+                        object.write(parts.get(i));
+                    }
+                    byte[] content = object.toByteArray();
+                    exchange.getResponseHeaders().add("x-oss-hash-crc64ecma", unsignedCrc(content, content.length));
+                    respond(exchange, 200, "<CompleteMultipartUploadResult><Location>location</Location>"
+                            + "<Bucket>bucket</Bucket><Key>key</Key><ETag>\"etag\"</ETag>"
+                            + "</CompleteMultipartUploadResult>");
+                }
+            }
+        });
+
+        ClientConfiguration config = new ClientConfiguration();
+        config.setMaxErrorRetry(1);
+        client = server.newClient(config);
+
+        uploadFile = File.createTempFile("upload", ".dat");
+        FileOutputStream out = new FileOutputStream(uploadFile);
+        try {
+            out.write(payload);
+        } finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+        uploadFile.delete();
+    }
+
+    private UploadFileRequest newRequest(boolean sharedFileChannel, boolean memoryMapped) {
+        UploadFileRequest request = new UploadFileRequest("bucket", "key", uploadFile.getPath(), PART_SIZE, 4);
+        request.setSharedFileChannel(sharedFileChannel);
+        request.setMemoryMapped(memoryMapped);
+        return request;
+    }
+
+    private byte[] uploadedObject() throws IOException {
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        for (int i = 1; i <= parts.size(); i++) {
+            object.write(parts.get(i));
+        }
+        return object.toByteArray();
+    }
+
+    @Test
+    public void testUploadWithSharedFileChannel() throws Throwable {
+        client.uploadFile(newRequest(true, false));
+
+        assertEquals(11, parts.size());
+        assertEquals(11, partRequests.get());
+        assertArrayEquals(payload, uploadedObject());
+        assertEquals(11, client.getTransferScheduler().getCompletedParts());
+        assertEquals(0, client.getTransferScheduler().getActiveTransfers());
+    }
+
+    @Test
+    public void testUploadWithMemoryMappedParts() throws Throwable {
+        client.uploadFile(newRequest(true, true));
+
+        assertEquals(11, partRequests.get());
+        assertArrayEquals(payload, uploadedObject());
+    }
+
+    @Test
+    public void testUploadWithPerPartFiles() throws Throwable {
+        client.uploadFile(newRequest(false, false));
+
+        assertEquals(11, partRequests.get());
+        assertArrayEquals(payload, uploadedObject());
+    }
+
+    @Test
+    public void testRetriedPartsRewindTheSharedChannel() throws Throwable {
+        failingParts.add(Integer.valueOf(1));
+        failingParts.add(Integer.valueOf(11));
+        client.uploadFile(newRequest(true, false));
+
+        assertEquals(13, partRequests.get());
+        assertArrayEquals(payload, uploadedObject());
+
+        failingParts.add(Integer.valueOf(5));
+        parts.clear();
+        partRequests.set(0);
+        client.uploadFile(newRequest(true, true));
+
+        assertEquals(12, partRequests.get());
+        assertArrayEquals(payload, uploadedObject());
+    }
+
+    @Test
+    public void testRegionStreamLeavesChannelPosition() throws Exception {
+        RandomAccessFile file = new RandomAccessFile(uploadFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            for (boolean memoryMapped : new boolean[] { false, true }) {
+                InputStream in = new FileChannelRegionInputStream(channel, PART_SIZE, PART_SIZE, memoryMapped);
+                assertTrue(in.markSupported());
+                in.mark(0);
+                byte[] first = new byte[PART_SIZE];
+                new DataInputStream(in).readFully(first);
+                assertEquals(-1, in.read());
+
+                in.reset();
+                assertEquals(10, in.skip(10));
+                assertEquals(payload[PART_SIZE + 10] & 0xFF, in.read());
+                in.close();
+
+                byte[] expected = new byte[PART_SIZE];
+                System.arraycopy(payload, PART_SIZE, expected, 0, PART_SIZE);
+                assertArrayEquals(expected, first);
+                assertEquals(0, channel.position());
+            }
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package com.aliyun.oss.common.auth;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
@@ -27,6 +28,9 @@ import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
 import org.junit.Test;
 
 import com.aliyun.oss.common.auth.ServiceSignature;
@@ -69,4 +73,31 @@ public class ServiceSignatureTest {
         signature = sign.computeSignature("csdev", data);
         assertEquals(expected, signature);
     }
+
+    @Test
+    public void testReusedMacWithChangingKeys() throws Exception {
+        String[] algorithms = { "HmacSHA1", "HmacSHA256" };
+        byte[][] keys = { "key-1".getBytes("UTF-8"), "key-2".getBytes("UTF-8"), "key-1".getBytes("UTF-8") };
+        byte[] data = "GET\n\n\n1700000000\n/bucket/key".getBytes("UTF-8");
+
+        for (int round = 0; round < 2; round++) {
+            for (String algorithm : algorithms) {
+                for (byte[] key : keys) {
+                    Mac mac = Mac.getInstance(algorithm);
+                    mac.init(new SecretKeySpec(key, algorithm));
+                    byte[] expected = mac.doFinal(data);
+                    byte[] actual = ServiceSignature.create(algorithm).computeHash(key, data);
+                    assertArrayEquals(algorithm, expected, actual);
+                }
+            }
+        }
+
+        // A key changed in place after signing must not reuse the old key.
+        byte[] key = "key-3".getBytes("UTF-8");
+        ServiceSignature.create("HmacSHA1").computeHash(key, data);
+        key[4] = '4';
+        Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(key, "HmacSHA1"));
+        assertArrayEquals(mac.doFinal(data), ServiceSignature.create("HmacSHA1").computeHash(key, data));
+    }
 }
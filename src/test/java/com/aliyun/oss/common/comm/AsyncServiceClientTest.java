@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.AsyncHandler;
+import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.ClientErrorCode;
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.OSSAsyncClient;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.aliyun.oss.model.GenericRequest;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.HeadObjectRequest;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.PutObjectResult;
+import com.aliyun.oss.model.VoidResult;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.aliyun.oss.utils.StreamUtils;
+import com.sun.net.httpserver.HttpExchange;
+
+public class AsyncServiceClientTest {
+
+    private static final String CONTENT = "hello oss";
+
+    private LoopbackServer server;
+    private OSSAsyncClient client;
+    private final AtomicInteger unavailableResponses = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                drain(exchange);
+                exchange.getResponseHeaders().add("x-oss-request-id", "request-" + requests.get());
+                String method = exchange.getRequestMethod();
+                String path = exchange.getRequestURI().getPath();
+                if (unavailableResponses.getAndDecrement() > 0) {
+                    exchange.sendResponseHeaders(503, -1);
+                } else if (path.endsWith("/missing")) {
+                    byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>NoSuchKey</Code>"
+                            + "<Message>The specified key does not exist.</Message><RequestId>request-"
+                            + requests.get() + "</RequestId><HostId>127.0.0.1</HostId></Error>").getBytes("UTF-8");
+                    exchange.getResponseHeaders().add("Content-Type", "application/xml");
+                    exchange.sendResponseHeaders(404, body.length);
+                    write(exchange, body);
+                } else if (path.endsWith("/chunked")) {
+                    // The content of unknown length, sent in chunks.
+                    exchange.getResponseHeaders().add("ETag", "\"etag\"");
+                    exchange.sendResponseHeaders(200, 0);
+                    write(exchange, (CONTENT + CONTENT + CONTENT).getBytes("UTF-8"));
+                } else if ("GET".equals(method)) {
+                    byte[] body = CONTENT.getBytes("UTF-8");
+                    exchange.getResponseHeaders().add("ETag", "\"etag\"");
+                    exchange.sendResponseHeaders(200, body.length);
+                    write(exchange, body);
+                } else if ("HEAD".equals(method) || "PUT".equals(method)) {
+                    exchange.getResponseHeaders().add("ETag", "\"etag\"");
+                    exchange.sendResponseHeaders(200, -1);
+                } else if ("DELETE".equals(method)) {
+                    exchange.sendResponseHeaders(204, -1);
+                } else {
+                    exchange.sendResponseHeaders(405, -1);
+                }
+            }
+        });
+
+        ClientConfiguration config = new ClientConfiguration();
+        config.setMaxErrorRetry(2);
+        client = new OSSAsyncClient(server.getEndpoint(),
+                new DefaultCredentialProvider("ak", "sk"), config);
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testObjectOperations() throws Exception {
+        PutObjectResult putResult = client
+                .putObjectAsync(new PutObjectRequest("bucket", "key", new ByteArrayInputStream(CONTENT.getBytes())))
+                .get(10, TimeUnit.SECONDS);
+        assertEquals("etag", putResult.getETag());
+
+        ObjectMetadata metadata = client.headObjectAsync(new HeadObjectRequest("bucket", "key")).get(10,
+                TimeUnit.SECONDS);
+        assertEquals("etag", metadata.getETag());
+
+        OSSObject ossObject = client.getObjectAsync(new GetObjectRequest("bucket", "key")).get(10, TimeUnit.SECONDS);
+        assertEquals(CONTENT, StreamUtils.readContent(ossObject.getObjectContent(), "UTF-8"));
+        ossObject.close();
+
+        VoidResult deleteResult = client.deleteObjectAsync(new GenericRequest("bucket", "key")).get(10,
+                TimeUnit.SECONDS);
+        assertNotNull(deleteResult.getRequestId());
+    }
+
+    @Test
+    public void testRetryOnServiceUnavailable() throws Exception {
+        unavailableResponses.set(2);
+        ObjectMetadata metadata = client.headObjectAsync(new HeadObjectRequest("bucket", "key")).get(10,
+                TimeUnit.SECONDS);
+        assertEquals("etag", metadata.getETag());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testErrorNotifiedToHandler() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Exception> error = new AtomicReference<Exception>();
+        Future<ObjectMetadata> future = client.headObjectAsync(new HeadObjectRequest("bucket", "missing"),
+                new AsyncHandler<ObjectMetadata>() {
+                    @Override
+                    public void onSuccess(ObjectMetadata result) {
+                        latch.countDown();
+                    }
+
+                    @Override
+                    public void onError(Exception exception) {
+                        error.set(exception);
+                        latch.countDown();
+                    }
+                });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(error.get() instanceof OSSException);
+
+        try {
+            client.getObjectAsync(new GetObjectRequest("bucket", "missing")).get(10, TimeUnit.SECONDS);
+            fail("get object should fail.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof OSSException);
+            assertEquals("NoSuchKey", ((OSSException) e.getCause()).getErrorCode());
+        }
+        assertTrue(future.isDone());
+    }
+
+    @Test
+    public void testResponseLargerThanMaxAsyncResponseSize() throws Exception {
+        ClientConfiguration config = new ClientConfiguration();
+        config.setMaxErrorRetry(2);
+        config.setMaxAsyncResponseSize(CONTENT.length() + 1);
+        OSSAsyncClient boundedClient = new OSSAsyncClient(server.getEndpoint(),
+                new DefaultCredentialProvider("ak", "sk"), config);
+        try {
+            OSSObject ossObject = boundedClient.getObjectAsync(new GetObjectRequest("bucket", "key")).get(10,
+                    TimeUnit.SECONDS);
+            assertEquals(CONTENT, StreamUtils.readContent(ossObject.getObjectContent(), "UTF-8"));
+            ossObject.close();
+
+            config.setMaxAsyncResponseSize(CONTENT.length() - 1);
+            assertResponseTooLarge(boundedClient, "key");
+            assertResponseTooLarge(boundedClient, "chunked");
+            // The responses too large are not retried.
+            assertEquals(3, requests.get());
+        } finally {
+            boundedClient.shutdown();
+        }
+    }
+
+    private static void assertResponseTooLarge(OSSAsyncClient client, String key) throws Exception {
+        try {
+            client.getObjectAsync(new GetObjectRequest("bucket", key)).get(10, TimeUnit.SECONDS);
+            fail("The response should be too large.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ClientException);
+            assertEquals(ClientErrorCode.RESPONSE_TOO_LARGE, ((ClientException) e.getCause()).getErrorCode());
+        }
+    }
+
+    private static void drain(HttpExchange exchange) throws IOException {
+        byte[] buffer = new byte[1024];
+        while (exchange.getRequestBody().read(buffer) != -1) {
+            // discard the request body
+        }
+    }
+
+    private static void write(HttpExchange exchange, byte[] body) throws IOException {
+        OutputStream os = exchange.getResponseBody();
+        os.write(body);
+        os.close();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BucketAwareConnectionManagerTest {
+
+    private BucketAwareConnectionManager connectionManager;
+
+    @Before
+    public void setUp() {
+        connectionManager = new BucketAwareConnectionManager(RegistryBuilder.<ConnectionSocketFactory> create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory()).build(), null, 1);
+        connectionManager.setMaxTotal(10);
+        connectionManager.setDefaultMaxPerRoute(10);
+    }
+
+    @After
+    public void tearDown() {
+        connectionManager.shutdown();
+    }
+
+    private static HttpClientContext contextOf(String bucket) {
+        HttpClientContext context = HttpClientContext.create();
+        BucketAwareConnectionManager.setBucket(context, bucket);
+        return context;
+    }
+
+    private HttpClientConnection lease(HttpRoute route, String bucket) throws Exception {
+        return connectionManager.requestConnection(route, contextOf(bucket).getUserToken()).get(100,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testGetEndpointHost() {
+        BucketAwareConnectionManager.EndpointRoutePlanner planner = new BucketAwareConnectionManager.EndpointRoutePlanner(
+                Arrays.asList("aliyuncs.com", "aliyun-inc.com"));
+
+        assertEquals("oss-cn-hangzhou.aliyuncs.com",
+                planner.getEndpointHost("bucket.oss-cn-hangzhou.aliyuncs.com", "bucket"));
+        assertEquals("oss-cn-hangzhou-internal.aliyuncs.com",
+                planner.getEndpointHost("Bucket.oss-cn-hangzhou-internal.aliyuncs.com", "bucket"));
+        // The endpoint itself, another bucket, a CName and an IP keep their route.
+        assertNull(planner.getEndpointHost("oss-cn-hangzhou.aliyuncs.com", "bucket"));
+        assertNull(planner.getEndpointHost("other.oss-cn-hangzhou.aliyuncs.com", "bucket"));
+        assertNull(planner.getEndpointHost("bucket.example.com", "bucket"));
+        assertNull(planner.getEndpointHost("bucket.aliyuncs.com", "bucket"));
+        assertNull(planner.getEndpointHost("127.0.0.1", "bucket"));
+    }
+
+    @Test
+    public void testBucketsShareRoute() throws Exception {
+        BucketAwareConnectionManager.EndpointRoutePlanner planner = new BucketAwareConnectionManager.EndpointRoutePlanner(
+                Arrays.asList("aliyuncs.com"));
+
+        HttpRoute route1 = planner.determineRoute(new HttpHost("bucket1.oss-cn-hangzhou.aliyuncs.com", 443, "https"),
+                new HttpGet("https://bucket1.oss-cn-hangzhou.aliyuncs.com/key"), contextOf("bucket1"));
+        HttpRoute route2 = planner.determineRoute(new HttpHost("bucket2.oss-cn-hangzhou.aliyuncs.com", 443, "https"),
+                new HttpGet("https://bucket2.oss-cn-hangzhou.aliyuncs.com/key"), contextOf("bucket2"));
+        assertEquals(route1, route2);
+        assertEquals(new HttpHost("oss-cn-hangzhou.aliyuncs.com", 443, "https"), route1.getTargetHost());
+
+        HttpRoute route3 = planner.determineRoute(new HttpHost("cdn.example.com", 443, "https"),
+                new HttpGet("https://cdn.example.com/key"), contextOf("bucket1"));
+        assertEquals("cdn.example.com", route3.getTargetHost().getHostName());
+    }
+
+    @Test
+    public void testMaxConnectionsPerBucket() throws Exception {
+        HttpRoute route = new HttpRoute(new HttpHost("oss-cn-hangzhou.aliyuncs.com", 80, "http"));
+
+        HttpClientConnection conn = lease(route, "bucket1");
+        try {
+            lease(route, "bucket1");
+            fail("The bucket should be at its max connections.");
+        } catch (ConnectionPoolTimeoutException e) {
+        }
+
+        // Other buckets still get connections of the same route.
+        HttpClientConnection other = lease(route, "bucket2");
+        assertNotNull(other);
+        assertEquals(2, connectionManager.getStats(route).getLeased());
+
+        connectionManager.releaseConnection(conn, contextOf("bucket1").getUserToken(), 0, TimeUnit.MILLISECONDS);
+        connectionManager.releaseConnection(other, null, 0, TimeUnit.MILLISECONDS);
+        assertNotNull(lease(route, "bucket1"));
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.sun.net.httpserver.HttpExchange;
+
+public class CachingDnsResolverTest {
+
+    private InetAddress[] addresses;
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicBoolean unresolvable = new AtomicBoolean();
+    private DnsResolver delegate;
+
+    @Before
+    public void setUp() throws Exception {
+        addresses = new InetAddress[] { InetAddress.getByAddress(new byte[] { 10, 0, 0, 1 }),
+                InetAddress.getByAddress(new byte[] { 10, 0, 0, 2 }),
+                InetAddress.getByAddress(new byte[] { 10, 0, 0, 3 }) };
+        delegate = new DnsResolver() {
+            @Override
+            public InetAddress[] resolve(String host) throws UnknownHostException {
+                lookups.incrementAndGet();
+                if (unresolvable.get()) {
+                    throw new UnknownHostException(host);
+                }
+                return addresses.clone();
+            }
+        };
+    }
+
+    @Test
+    public void testCachedAddresses() throws Exception {
+        CachingDnsResolver resolver = new CachingDnsResolver(delegate, 60 * 1000, 30 * 1000,
+                AddressSelectionMode.ROUND_ROBIN);
+        assertEquals(3, resolver.resolve("oss-test.example").length);
+        assertEquals(3, resolver.resolve("oss-test.example").length);
+        assertEquals(1, lookups.get());
+
+        resolver.resolve("bucket.oss-test.example");
+        assertEquals(2, lookups.get());
+
+        resolver.clear();
+        resolver.resolve("oss-test.example");
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void testExpiredAddressesUsedWhenUnresolvable() throws Exception {
+        CachingDnsResolver resolver = new CachingDnsResolver(delegate, 0, 30 * 1000,
+                AddressSelectionMode.ROUND_ROBIN);
+        resolver.resolve("oss-test.example");
+        resolver.resolve("oss-test.example");
+        assertEquals(2, lookups.get());
+
+        unresolvable.set(true);
+        assertEquals(3, resolver.resolve("oss-test.example").length);
+        try {
+            resolver.resolve("other.example");
+            fail("The host should not be resolved.");
+        } catch (UnknownHostException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        CachingDnsResolver resolver = new CachingDnsResolver(delegate, 60 * 1000, 30 * 1000,
+                AddressSelectionMode.ROUND_ROBIN);
+        for (int i = 0; i < 6; i++) {
+            InetAddress[] resolved = resolver.resolve("oss-test.example");
+            assertEquals(3, resolved.length);
+            for (int j = 0; j < resolved.length; j++) {
+                assertEquals(addresses[(i + j) % 3], resolved[j]);
+            }
+        }
+    }
+
+    @Test
+    public void testBlacklistedAddressLast() throws Exception {
+        CachingDnsResolver resolver = new CachingDnsResolver(delegate, 60 * 1000, 30 * 1000,
+                AddressSelectionMode.ROUND_ROBIN);
+        resolver.blacklist(addresses[0]);
+        assertTrue(resolver.isBlacklisted(addresses[0]));
+        for (int i = 0; i < 3; i++) {
+            InetAddress[] resolved = resolver.resolve("oss-test.example");
+            assertEquals(3, resolved.length);
+            assertEquals(addresses[0], resolved[2]);
+        }
+
+        resolver = new CachingDnsResolver(delegate, 60 * 1000, 0, AddressSelectionMode.ROUND_ROBIN);
+        resolver.blacklist(addresses[0]);
+        assertFalse(resolver.isBlacklisted(addresses[0]));
+        assertEquals(addresses[0], resolver.resolve("oss-test.example")[0]);
+    }
+
+    @Test
+    public void testLeastConnections() throws Exception {
+        addresses = new InetAddress[] { InetAddress.getByName("127.0.0.1"), InetAddress.getByName("127.0.0.2") };
+        CachingDnsResolver resolver = new CachingDnsResolver(delegate, 60 * 1000, 30 * 1000,
+                AddressSelectionMode.LEAST_CONNECTIONS);
+        ConnectionSocketFactory factory = resolver.track(PlainConnectionSocketFactory.getSocketFactory());
+
+        ServerSocket server = new ServerSocket(0, 10, addresses[0]);
+        try {
+            HttpHost host = new HttpHost("oss-test.example", server.getLocalPort());
+            Socket[] sockets = new Socket[2];
+            for (int i = 0; i < sockets.length; i++) {
+                BasicHttpContext context = new BasicHttpContext();
+                sockets[i] = factory.connectSocket(1000, factory.createSocket(context), host,
+                        new InetSocketAddress(addresses[0], server.getLocalPort()), null, context);
+            }
+            assertEquals(Integer.valueOf(2), resolver.getConnectionCounts().get(addresses[0]));
+            assertEquals("addresses [127.0.0.1: 2]", resolver.getConnectionStats());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(addresses[1], resolver.resolve("oss-test.example")[0]);
+            }
+
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            assertTrue(resolver.getConnectionCounts().isEmpty());
+            assertEquals("", resolver.getConnectionStats());
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testClosedConnectionsRemoved() throws Exception {
+        addresses = new InetAddress[] { InetAddress.getByName("127.0.0.1") };
+        CachingDnsResolver resolver = new CachingDnsResolver(delegate, 60 * 1000, 30 * 1000,
+                AddressSelectionMode.ROUND_ROBIN);
+        ConnectionSocketFactory factory = resolver.track(PlainConnectionSocketFactory.getSocketFactory());
+
+        ServerSocket server = new ServerSocket(0, 10, addresses[0]);
+        try {
+            HttpHost host = new HttpHost("oss-test.example", server.getLocalPort());
+            for (int i = 0; i < 200; i++) {
+                BasicHttpContext context = new BasicHttpContext();
+                Socket socket = factory.connectSocket(1000, factory.createSocket(context), host,
+                        new InetSocketAddress(resolver.resolve("oss-test.example")[0], server.getLocalPort()),
+                        null, context);
+                server.accept().close();
+                socket.close();
+                assertTrue(resolver.getTrackedSocketCount() <= 1);
+            }
+        } finally {
+            server.close();
+        }
+        assertTrue(resolver.getConnectionCounts().isEmpty());
+    }
+
+    @Test
+    public void testFailedAddressBlacklisted() throws Exception {
+        LoopbackServer server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(200, 2);
+                OutputStream os = exchange.getResponseBody();
+                os.write("ok".getBytes());
+                os.close();
+            }
+        });
+
+        // Nothing listens on 127.0.0.2, the connections fail over to 127.0.0.1.
+        addresses = new InetAddress[] { InetAddress.getByName("127.0.0.2"), InetAddress.getByName("127.0.0.1") };
+        ClientConfiguration config = new ClientConfiguration();
+        config.setDnsCacheEnabled(true);
+        config.setDnsResolver(delegate);
+        config.setConnectionTimeout(1000);
+        DefaultServiceClient serviceClient = new DefaultServiceClient(config);
+        try {
+            for (int i = 0; i < 3; i++) {
+                CloseableHttpResponse response = serviceClient.httpClient
+                        .execute(new HttpGet("http://oss-test.example:" + server.getPort() + "/"));
+                assertEquals(200, response.getStatusLine().getStatusCode());
+                EntityUtils.consume(response.getEntity());
+                response.close();
+            }
+
+            CachingDnsResolver resolver = serviceClient.getDnsResolver();
+            assertTrue(resolver.isBlacklisted(addresses[0]));
+            assertFalse(resolver.isBlacklisted(addresses[1]));
+            assertEquals(1, lookups.get());
+            String stats = serviceClient.getConnectionPoolStats();
+            assertTrue(stats, stats.contains("addresses [127.0.0.1: 1]"));
+        } finally {
+            serviceClient.shutdown();
+            server.stop();
+        }
+    }
+}
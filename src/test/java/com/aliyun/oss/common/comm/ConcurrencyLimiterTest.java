@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.aliyun.oss.ClientErrorCode;
+import com.aliyun.oss.ClientException;
+
+public class ConcurrencyLimiterTest {
+
+    private static final String KEY = "oss-cn-hangzhou.aliyuncs.com/bucket";
+
+    private static List<ConcurrencyLimiter.Permit> acquireAll(ConcurrencyLimiter limiter, String key) {
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<ConcurrencyLimiter.Permit>();
+        ConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire(key)) != null) {
+            permits.add(permit);
+        }
+        return permits;
+    }
+
+    @Test
+    public void testAdditiveIncrease() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 6);
+
+        List<ConcurrencyLimiter.Permit> permits = acquireAll(limiter, KEY);
+        assertEquals(4, permits.size());
+        assertEquals(4, limiter.getInFlight(KEY));
+        for (ConcurrencyLimiter.Permit permit : permits) {
+            permit.success();
+        }
+        // A window of healthy requests adds about one permit.
+        assertEquals(0, limiter.getInFlight(KEY));
+        for (ConcurrencyLimiter.Permit permit : acquireAll(limiter, KEY)) {
+            permit.success();
+        }
+        assertEquals(5, limiter.getLimit(KEY));
+
+        for (int i = 0; i < 10; i++) {
+            for (ConcurrencyLimiter.Permit permit : acquireAll(limiter, KEY)) {
+                permit.success();
+            }
+        }
+        assertEquals(6, limiter.getLimit(KEY));
+    }
+
+    @Test
+    public void testNoIncreaseWhileIdle() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 100);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(KEY).success();
+        }
+        assertEquals(4, limiter.getLimit(KEY));
+    }
+
+    @Test
+    public void testMultiplicativeDecreaseOncePerWindow() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(16, 100);
+
+        List<ConcurrencyLimiter.Permit> permits = acquireAll(limiter, KEY);
+        for (ConcurrencyLimiter.Permit permit : permits) {
+            permit.dropped();
+        }
+        assertEquals(8, limiter.getLimit(KEY));
+
+        limiter.tryAcquire(KEY).dropped();
+        assertEquals(4, limiter.getLimit(KEY));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(KEY).dropped();
+        }
+        assertEquals(1, limiter.getLimit(KEY));
+    }
+
+    @Test
+    public void testReleaseOnce() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 2);
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire(KEY);
+        permit.dropped();
+        permit.dropped();
+        permit.ignore();
+        assertEquals(1, limiter.getLimit(KEY));
+        assertEquals(0, limiter.getInFlight(KEY));
+    }
+
+    @Test
+    public void testKeysAreIndependent() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1);
+        assertNotNull(limiter.tryAcquire(KEY));
+        assertNull(limiter.tryAcquire(KEY));
+        assertNotNull(limiter.tryAcquire("oss-cn-hangzhou.aliyuncs.com/other"));
+    }
+
+    @Test
+    public void testQueueTimeout() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1);
+        limiter.acquire(KEY, 0);
+        try {
+            limiter.acquire(KEY, 0);
+            fail("The limit should be reached.");
+        } catch (ClientException e) {
+            assertEquals(ClientErrorCode.CONCURRENCY_LIMIT_EXCEEDED, e.getErrorCode());
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            limiter.acquire(KEY, 100);
+            fail("The limit should be reached.");
+        } catch (ClientException e) {
+            assertEquals(ClientErrorCode.CONCURRENCY_LIMIT_EXCEEDED, e.getErrorCode());
+        }
+        assertTrue(System.currentTimeMillis() - start >= 100);
+    }
+
+    @Test
+    public void testQueuedRequestGetsReleasedPermit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1);
+        final ConcurrencyLimiter.Permit permit = limiter.acquire(KEY, 0);
+        Thread releaser = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                }
+                permit.ignore();
+            }
+        };
+        releaser.start();
+        assertNotNull(limiter.acquire(KEY, 10000));
+        releaser.join();
+        assertEquals(1, limiter.getInFlight(KEY));
+    }
+}
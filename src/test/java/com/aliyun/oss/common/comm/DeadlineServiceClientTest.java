@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.ClientException;
+import com.aliyun.oss.HttpMethod;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.utils.LoopbackServer;
+import com.aliyun.oss.utils.StreamUtils;
+import com.sun.net.httpserver.HttpExchange;
+
+public class DeadlineServiceClientTest {
+
+    private LoopbackServer server;
+    private DeadlineServiceClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = LoopbackServer.start(new LoopbackServer.Handler() {
+            @Override
+            public void serve(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath();
+                try {
+                    if (path.equals("/slow-header")) {
+                        Thread.sleep(2000);
+                        exchange.sendResponseHeaders(200, -1);
+                    } else if (path.equals("/slow-body")) {
+                        exchange.sendResponseHeaders(200, 2);
+                        OutputStream os = exchange.getResponseBody();
+                        os.write('a');
+                        os.flush();
+                        Thread.sleep(2000);
+                        os.write('b');
+                        os.close();
+                    } else {
+                        byte[] body = "ok".getBytes();
+                        exchange.sendResponseHeaders(200, body.length);
+                        OutputStream os = exchange.getResponseBody();
+                        os.write(body);
+                        os.close();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    // the client aborted the request
+                }
+            }
+        });
+
+        ClientConfiguration config = new ClientConfiguration();
+        config.setRequestTimeoutEnabled(true);
+        config.setRequestTimeoutMode(RequestTimeoutMode.DEADLINE);
+        config.setRequestTimeout(300);
+        config.setMaxErrorRetry(0);
+        client = new DeadlineServiceClient(config);
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop();
+    }
+
+    private RequestMessage newRequest(String path) throws Exception {
+        RequestMessage request = new RequestMessage(null, null);
+        request.setEndpoint(new URI(server.getEndpoint()));
+        request.setResourcePath(path);
+        request.setMethod(HttpMethod.GET);
+        return request;
+    }
+
+    @Test
+    public void testRequestWithinDeadline() throws Exception {
+        ResponseMessage response = client.sendRequest(newRequest("fast"), new ExecutionContext());
+        assertEquals(200, response.getStatusCode());
+        assertEquals("ok", StreamUtils.readContent(response.getContent(), "UTF-8"));
+        response.close();
+    }
+
+    @Test
+    public void testDeadlineBeforeResponse() throws Exception {
+        long start = System.currentTimeMillis();
+        try {
+            client.sendRequest(newRequest("slow-header"), new ExecutionContext());
+            fail("the request should exceed its deadline.");
+        } catch (ClientException e) {
+            assertEquals(OSSErrorCode.REQUEST_TIMEOUT, e.getErrorCode());
+        }
+        assertTrue(System.currentTimeMillis() - start < 1500);
+    }
+
+    @Test
+    public void testDeadlineWhileReadingBody() throws Exception {
+        ResponseMessage response = client.sendRequest(newRequest("slow-body"), new ExecutionContext());
+        assertEquals(200, response.getStatusCode());
+
+        InputStream content = response.getContent();
+        long start = System.currentTimeMillis();
+        try {
+            while (content.read() != -1) {
+            }
+            fail("reading the body should exceed the deadline.");
+        } catch (SocketTimeoutException e) {
+            // expected
+        }
+        assertTrue(System.currentTimeMillis() - start < 1500);
+        response.close();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.common.comm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RetryBudgetTest {
+
+    @Test
+    public void testAcquireUntilExhausted() {
+        RetryBudget budget = new RetryBudget(5, 0.1);
+        assertEquals(5.0, budget.getAvailableTokens(), 0.0001);
+
+        assertTrue(budget.tryAcquire(false));
+        assertTrue(budget.tryAcquire(true));
+        assertEquals(2.0, budget.getAvailableTokens(), 0.0001);
+
+        assertTrue(budget.tryAcquire(false));
+        assertFalse(budget.tryAcquire(true));
+        assertTrue(budget.tryAcquire(false));
+        assertFalse(budget.tryAcquire(false));
+
+        assertEquals(4, budget.getRetryCount());
+        assertEquals(2, budget.getExhaustedCount());
+    }
+
+    @Test
+    public void testRefillOnSuccess() {
+        RetryBudget budget = new RetryBudget(2, 0.5);
+        budget.onSuccess();
+        assertEquals(2.0, budget.getAvailableTokens(), 0.0001);
+
+        assertTrue(budget.tryAcquire(true));
+        assertFalse(budget.tryAcquire(false));
+        budget.onSuccess();
+        assertFalse(budget.tryAcquire(false));
+        budget.onSuccess();
+        assertTrue(budget.tryAcquire(false));
+
+        for (int i = 0; i < 10; i++) {
+            budget.onSuccess();
+        }
+        assertEquals(2.0, budget.getAvailableTokens(), 0.0001);
+    }
+}
@@ -0,0 +1,317 @@
+package com.aliyun.oss.common.parser;
+
+import com.aliyun.oss.internal.ResponseParsers;
+import com.aliyun.oss.internal.StreamingListParsers;
+import com.aliyun.oss.model.*;
+import junit.framework.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+public class StreamingListParsersTest {
+
+    private static InputStream stream(String body) throws Exception {
+        return new ByteArrayInputStream(body.getBytes("utf-8"));
+    }
+
+    private static void assertSummariesEqual(List<OSSObjectSummary> expected, List<OSSObjectSummary> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            OSSObjectSummary e = expected.get(i);
+            OSSObjectSummary a = actual.get(i);
+            Assert.assertEquals(e.getBucketName(), a.getBucketName());
+            Assert.assertEquals(e.getKey(), a.getKey());
+            Assert.assertEquals(e.getETag(), a.getETag());
+            Assert.assertEquals(e.getLastModified(), a.getLastModified());
+            Assert.assertEquals(e.getSize(), a.getSize());
+            Assert.assertEquals(e.getStorageClass(), a.getStorageClass());
+            Assert.assertEquals(e.getType(), a.getType());
+            Assert.assertEquals(e.getRestoreInfo(), a.getRestoreInfo());
+            Assert.assertEquals(e.getOwner(), a.getOwner());
+        }
+    }
+
+    private static final String LIST_OBJECTS_BODY = "" +
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<ListBucketResult>\n" +
+            "  <Name>oss-example</Name>\n" +
+            "  <Prefix>fun/</Prefix>\n" +
+            "  <Marker></Marker>\n" +
+            "  <MaxKeys>100</MaxKeys>\n" +
+            "  <Delimiter>/</Delimiter>\n" +
+            "  <IsTruncated>true</IsTruncated>\n" +
+            "  <NextMarker>fun/test.jpg</NextMarker>\n" +
+            "  <Contents>\n" +
+            "    <Key>fun/movie/001.avi</Key>\n" +
+            "    <LastModified>2012-02-24T08:43:07.000Z</LastModified>\n" +
+            "    <ETag>\"5B3C1A2E053D763E1B002CC607C5A0FE\"</ETag>\n" +
+            "    <Type>Normal</Type>\n" +
+            "    <Size>344606</Size>\n" +
+            "    <StorageClass>Standard</StorageClass>\n" +
+            "    <Owner>\n" +
+            "      <ID>0022012****</ID>\n" +
+            "      <DisplayName>user-example</DisplayName>\n" +
+            "    </Owner>\n" +
+            "  </Contents>\n" +
+            "  <Contents>\n" +
+            "    <Key>fun/movie/&lt;007&gt;.avi</Key>\n" +
+            "    <LastModified>2012-02-24T08:43:27.000Z</LastModified>\n" +
+            "    <ETag>\"5B3C1A2E053D763E1B002CC607C5A0FF\"</ETag>\n" +
+            "    <Type>Multipart</Type>\n" +
+            "    <Size>344607</Size>\n" +
+            "    <StorageClass>Archive</StorageClass>\n" +
+            "    <RestoreInfo>ongoing-request=\"true\"</RestoreInfo>\n" +
+            "    <Extension><Nested>ignored</Nested></Extension>\n" +
+            "    <Owner>\n" +
+            "      <ID>0022012****</ID>\n" +
+            "      <DisplayName>user-example</DisplayName>\n" +
+            "    </Owner>\n" +
+            "  </Contents>\n" +
+            "  <CommonPrefixes>\n" +
+            "    <Prefix>fun/movie/</Prefix>\n" +
+            "  </CommonPrefixes>\n" +
+            "  <CommonPrefixes>\n" +
+            "    <Prefix></Prefix>\n" +
+            "  </CommonPrefixes>\n" +
+            "</ListBucketResult>";
+
+    @Test
+    public void testParseListObjects() throws Exception {
+        ObjectListing expected = ResponseParsers.parseListObjects(stream(LIST_OBJECTS_BODY));
+        ObjectListing actual = StreamingListParsers.parseListObjects(stream(LIST_OBJECTS_BODY));
+
+        Assert.assertEquals("oss-example", actual.getBucketName());
+        Assert.assertEquals(expected.getPrefix(), actual.getPrefix());
+        Assert.assertNull(actual.getMarker());
+        Assert.assertEquals(expected.getMaxKeys(), actual.getMaxKeys());
+        Assert.assertEquals(expected.getDelimiter(), actual.getDelimiter());
+        Assert.assertTrue(actual.isTruncated());
+        Assert.assertEquals(expected.getNextMarker(), actual.getNextMarker());
+        Assert.assertNull(actual.getEncodingType());
+        Assert.assertEquals(expected.getCommonPrefixes(), actual.getCommonPrefixes());
+        Assert.assertEquals(1, actual.getCommonPrefixes().size());
+        Assert.assertEquals("fun/movie/<007>.avi", actual.getObjectSummaries().get(1).getKey());
+        assertSummariesEqual(expected.getObjectSummaries(), actual.getObjectSummaries());
+    }
+
+    @Test
+    public void testParseListObjectsV2() throws Exception {
+        String body = "" +
+                "<ListBucketResult>\n" +
+                "  <Contents>\n" +
+                "    <Key>a%2Fb</Key>\n" +
+                "    <LastModified>2019-04-24T02:43:45.000Z</LastModified>\n" +
+                "    <ETag>\"A5B8A6A5C4E55D94D9E22BD10B5D8A77\"</ETag>\n" +
+                "    <Size>5</Size>\n" +
+                "    <StorageClass>IA</StorageClass>\n" +
+                "  </Contents>\n" +
+                "  <Name>oss-example</Name>\n" +
+                "  <Prefix></Prefix>\n" +
+                "  <StartAfter>a</StartAfter>\n" +
+                "  <MaxKeys>1</MaxKeys>\n" +
+                "  <Delimiter></Delimiter>\n" +
+                "  <EncodingType>url</EncodingType>\n" +
+                "  <IsTruncated>true</IsTruncated>\n" +
+                "  <ContinuationToken>CgJiYw--</ContinuationToken>\n" +
+                "  <NextContinuationToken>CgJiZQ--</NextContinuationToken>\n" +
+                "  <KeyCount>1</KeyCount>\n" +
+                "</ListBucketResult>";
+
+        ListObjectsV2Result expected = ResponseParsers.parseListObjectsV2(stream(body));
+        ListObjectsV2Result actual = StreamingListParsers.parseListObjectsV2(stream(body));
+
+        Assert.assertEquals(expected.getBucketName(), actual.getBucketName());
+        Assert.assertNull(actual.getPrefix());
+        Assert.assertNull(actual.getDelimiter());
+        Assert.assertEquals(expected.getStartAfter(), actual.getStartAfter());
+        Assert.assertEquals(expected.getMaxKeys(), actual.getMaxKeys());
+        Assert.assertEquals(expected.getKeyCount(), actual.getKeyCount());
+        Assert.assertEquals(expected.getEncodingType(), actual.getEncodingType());
+        Assert.assertEquals(expected.isTruncated(), actual.isTruncated());
+        Assert.assertEquals(expected.getContinuationToken(), actual.getContinuationToken());
+        Assert.assertEquals(expected.getNextContinuationToken(), actual.getNextContinuationToken());
+        Assert.assertNull(actual.getObjectSummaries().get(0).getOwner());
+        // the bucket name is applied even though it follows the contents
+        Assert.assertEquals("oss-example", actual.getObjectSummaries().get(0).getBucketName());
+        assertSummariesEqual(expected.getObjectSummaries(), actual.getObjectSummaries());
+    }
+
+    @Test
+    public void testParseListVersions() throws Exception {
+        String body = "" +
+                "<ListVersionsResult>\n" +
+                "  <Name>oss-example</Name>\n" +
+                "  <Prefix>a%2F</Prefix>\n" +
+                "  <KeyMarker>a%2Fk</KeyMarker>\n" +
+                "  <VersionIdMarker>CAEQ</VersionIdMarker>\n" +
+                "  <MaxKeys>100</MaxKeys>\n" +
+                "  <Delimiter>%2F</Delimiter>\n" +
+                "  <IsTruncated>true</IsTruncated>\n" +
+                "  <NextKeyMarker>a%2Fz</NextKeyMarker>\n" +
+                "  <NextVersionIdMarker>CAEQMx</NextVersionIdMarker>\n" +
+                "  <DeleteMarker>\n" +
+                "    <Key>a%2Fdeleted</Key>\n" +
+                "    <VersionId>CAEQMxiBgICAof2D0BYiIDJhMGE3N2M1YTI1NDQzOGY5NTkyNTI3MGYyMzJm</VersionId>\n" +
+                "    <IsLatest>true</IsLatest>\n" +
+                "    <LastModified>2019-04-09T07:27:28.000Z</LastModified>\n" +
+                "    <Owner>\n" +
+                "      <ID>1234512528586****</ID>\n" +
+                "      <DisplayName>12345125285864390</DisplayName>\n" +
+                "    </Owner>\n" +
+                "  </DeleteMarker>\n" +
+                "  <Version>\n" +
+                "    <Key>a%2Fexample</Key>\n" +
+                "    <VersionId>CAEQMxiBgMDNoP2D0BYiIDE3MWUxNzgxZDQxNTRiODI5OGYwZGMwNGY3MzZjN</VersionId>\n" +
+                "    <IsLatest>false</IsLatest>\n" +
+                "    <LastModified>2019-04-09T07:27:28.000Z</LastModified>\n" +
+                "    <ETag>\"250F8A0AE989679A22926A875F0A2****\"</ETag>\n" +
+                "    <Type>Normal</Type>\n" +
+                "    <Size>93731</Size>\n" +
+                "    <StorageClass>Standard</StorageClass>\n" +
+                "    <Owner>\n" +
+                "      <ID>1234512528586****</ID>\n" +
+                "      <DisplayName>12345125285864390</DisplayName>\n" +
+                "    </Owner>\n" +
+                "  </Version>\n" +
+                "  <CommonPrefixes>\n" +
+                "    <Prefix>a%2Fdir%2F</Prefix>\n" +
+                "  </CommonPrefixes>\n" +
+                "  <EncodingType>url</EncodingType>\n" +
+                "</ListVersionsResult>";
+
+        VersionListing expected = ResponseParsers.parseListVersions(stream(body));
+        VersionListing actual = StreamingListParsers.parseListVersions(stream(body));
+
+        Assert.assertNull(actual.getEncodingType());
+        Assert.assertEquals("a/", actual.getPrefix());
+        Assert.assertEquals("a/k", actual.getKeyMarker());
+        Assert.assertEquals("/", actual.getDelimiter());
+        Assert.assertEquals("a/z", actual.getNextKeyMarker());
+        Assert.assertEquals(expected.getVersionIdMarker(), actual.getVersionIdMarker());
+        Assert.assertEquals(expected.getNextVersionIdMarker(), actual.getNextVersionIdMarker());
+        Assert.assertEquals(expected.getMaxKeys(), actual.getMaxKeys());
+        Assert.assertEquals(expected.isTruncated(), actual.isTruncated());
+        Assert.assertEquals(1, actual.getCommonPrefixes().size());
+        Assert.assertEquals("a/dir/", actual.getCommonPrefixes().get(0));
+
+        List<OSSVersionSummary> summaries = actual.getVersionSummaries();
+        Assert.assertEquals(2, summaries.size());
+        // versions come before delete markers, as with the JDOM parser
+        Assert.assertEquals("a/example", summaries.get(0).getKey());
+        Assert.assertFalse(summaries.get(0).isDeleteMarker());
+        Assert.assertEquals(93731, summaries.get(0).getSize());
+        Assert.assertEquals("a/deleted", summaries.get(1).getKey());
+        Assert.assertTrue(summaries.get(1).isDeleteMarker());
+        Assert.assertTrue(summaries.get(1).isLatest());
+
+        for (int i = 0; i < summaries.size(); i++) {
+            OSSVersionSummary e = expected.getVersionSummaries().get(i);
+            OSSVersionSummary a = summaries.get(i);
+            Assert.assertEquals(e.getBucketName(), a.getBucketName());
+            Assert.assertEquals(e.getVersionId(), a.getVersionId());
+            Assert.assertEquals(e.getETag(), a.getETag());
+            Assert.assertEquals(e.getLastModified(), a.getLastModified());
+            Assert.assertEquals(e.getStorageClass(), a.getStorageClass());
+            Assert.assertEquals(e.getOwner(), a.getOwner());
+        }
+    }
+
+    @Test
+    public void testParseListParts() throws Exception {
+        String body = "" +
+                "<ListPartsResult>\n" +
+                "  <Bucket>multipart_upload</Bucket>\n" +
+                "  <Key>multipart.data</Key>\n" +
+                "  <UploadId>0004B999EF5A239BB9138C6227D69F95</UploadId>\n" +
+                "  <NextPartNumberMarker>5</NextPartNumberMarker>\n" +
+                "  <PartNumberMarker></PartNumberMarker>\n" +
+                "  <MaxParts>1000</MaxParts>\n" +
+                "  <IsTruncated>false</IsTruncated>\n" +
+                "  <StorageClass>Standard</StorageClass>\n" +
+                "  <Part>\n" +
+                "    <PartNumber>1</PartNumber>\n" +
+                "    <LastModified>2012-02-23T07:01:34.000Z</LastModified>\n" +
+                "    <ETag>\"3349DC700140D7F86A0784842780****\"</ETag>\n" +
+                "    <HashCrc64ecma>1234</HashCrc64ecma>\n" +
+                "    <Size>6291456</Size>\n" +
+                "  </Part>\n" +
+                "  <Part>\n" +
+                "    <PartNumber>5</PartNumber>\n" +
+                "    <LastModified>2012-02-23T07:02:03.000Z</LastModified>\n" +
+                "    <ETag>\"7265F4D211B56873A381D321F586****\"</ETag>\n" +
+                "    <Size>1024</Size>\n" +
+                "  </Part>\n" +
+                "</ListPartsResult>";
+
+        PartListing expected = ResponseParsers.parseListParts(stream(body));
+        PartListing actual = StreamingListParsers.parseListParts(stream(body));
+
+        Assert.assertEquals(expected.getBucketName(), actual.getBucketName());
+        Assert.assertEquals(expected.getKey(), actual.getKey());
+        Assert.assertEquals(expected.getUploadId(), actual.getUploadId());
+        Assert.assertEquals(expected.getStorageClass(), actual.getStorageClass());
+        Assert.assertEquals(expected.getMaxParts(), actual.getMaxParts());
+        Assert.assertEquals(expected.isTruncated(), actual.isTruncated());
+        Assert.assertEquals(expected.getPartNumberMarker(), actual.getPartNumberMarker());
+        Assert.assertEquals(5, actual.getNextPartNumberMarker().intValue());
+        Assert.assertEquals(2, actual.getParts().size());
+        for (int i = 0; i < 2; i++) {
+            PartSummary e = expected.getParts().get(i);
+            PartSummary a = actual.getParts().get(i);
+            Assert.assertEquals(e.getPartNumber(), a.getPartNumber());
+            Assert.assertEquals(e.getLastModified(), a.getLastModified());
+            Assert.assertEquals(e.getETag(), a.getETag());
+            Assert.assertEquals(e.getSize(), a.getSize());
+        }
+    }
+
+    @Test
+    public void testParseInvalidResponse() throws Exception {
+        try {
+            StreamingListParsers.parseListObjects(null);
+            Assert.fail("A null body should not be parsed.");
+        } catch (ResponseParseException e) {
+            // expected
+        }
+
+        try {
+            StreamingListParsers.parseListObjectsV2(stream("<ListBucketResult><Name>oss-example</Name>"));
+            Assert.fail("A truncated body should not be parsed.");
+        } catch (ResponseParseException e) {
+            // expected
+        }
+
+        try {
+            StreamingListParsers.parseListParts(stream("<ListPartsResult><MaxParts>abc</MaxParts></ListPartsResult>"));
+            Assert.fail("An invalid number should not be parsed.");
+        } catch (ResponseParseException e) {
+            // expected
+        }
+
+        String xxe = "<?xml version=\"1.0\"?>\n" +
+                "<!DOCTYPE r [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>\n" +
+                "<ListBucketResult><Name>&xxe;</Name></ListBucketResult>";
+        try {
+            ObjectListing listing = StreamingListParsers.parseListObjects(stream(xxe));
+            Assert.assertFalse(String.valueOf(listing.getBucketName()).contains("root"));
+        } catch (ResponseParseException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testToggle() {
+        boolean enabled = StreamingListParsers.isEnabled();
+        try {
+            Assert.assertTrue(enabled);
+            StreamingListParsers.setEnabled(false);
+            Assert.assertFalse(StreamingListParsers.isEnabled());
+            StreamingListParsers.setEnabled(true);
+            Assert.assertTrue(StreamingListParsers.isEnabled());
+        } finally {
+            StreamingListParsers.setEnabled(enabled);
+        }
+    }
+}
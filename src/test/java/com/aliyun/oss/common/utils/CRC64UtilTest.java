@@ -23,6 +23,7 @@ package com.aliyun.oss.common.utils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -152,6 +153,95 @@ public class CRC64UtilTest {
         Assert.assertEquals("oh noes", TESTCRC2, crc.getValue());
     }
 
+    @Test
+    public void testSliceBy16MatchesBytewise()
+    {
+        byte[] b = new byte[1000];
+        new Random(1).nextBytes(b);
+
+        for (int off = 0; off < 17; off++) {
+            for (int len = 0; off + len <= b.length; len += 1 + len / 4) {
+                CRC64 bytewise = new CRC64();
+                for (int i = off; i < off + len; i++) {
+                    bytewise.update(b[i]);
+                }
+                CRC64 crc = new CRC64();
+                crc.update(b, off, len);
+                assertEquals(bytewise.getValue(), crc.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testUpdateByteBuffer()
+    {
+        byte[] b = new byte[4099];
+        new Random(2).nextBytes(b);
+        long expected = new CRC64(Arrays.copyOfRange(b, 3, 4090), 4087).getValue();
+
+        ByteBuffer heap = ByteBuffer.wrap(b);
+        heap.position(3);
+        heap.limit(4090);
+        CRC64 crc = new CRC64();
+        crc.update(heap);
+        assertEquals(expected, crc.getValue());
+        assertEquals(4090, heap.position());
+
+        ByteBuffer slice = ByteBuffer.wrap(b, 1, 4098).slice();
+        slice.position(2);
+        slice.limit(4089);
+        crc = new CRC64();
+        crc.update(slice);
+        assertEquals(expected, crc.getValue());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(b.length);
+        direct.put(b);
+        direct.position(3);
+        direct.limit(4090);
+        crc = new CRC64();
+        crc.update(direct);
+        assertEquals(expected, crc.getValue());
+        assertEquals(4090, direct.position());
+
+        // Updates continue the CRC like the byte array ones.
+        direct.position(3);
+        direct.limit(100);
+        crc = new CRC64();
+        crc.update(direct);
+        crc.update(b, 100, 3990);
+        assertEquals(expected, crc.getValue());
+    }
+
+    @Test
+    public void testCombineLengths()
+    {
+        byte[] b = new byte[70000];
+        new Random(3).nextBytes(b);
+        long total = new CRC64(b, b.length).getValue();
+
+        int[] splits = { 1, 7, 8, 4096, 65536, 69999 };
+        for (int round = 0; round < 2; round++) {
+            for (int split : splits) {
+                long crc1 = new CRC64(b, split).getValue();
+                long crc2 = new CRC64(Arrays.copyOfRange(b, split, b.length), b.length - split).getValue();
+                assertEquals(total, CRC64.combine(crc1, crc2, b.length - split));
+            }
+        }
+
+        // Many parts of the same size, then a last smaller one.
+        long crc = 0;
+        for (int off = 0; off < b.length; off += 1024) {
+            int len = Math.min(1024, b.length - off);
+            crc = CRC64.combine(crc, new CRC64(Arrays.copyOfRange(b, off, off + len), len).getValue(), len);
+        }
+        assertEquals(total, crc);
+
+        // A large length, combining zeros.
+        long zeros = new CRC64(new byte[1 << 20], 1 << 20).getValue();
+        long half = new CRC64(new byte[1 << 19], 1 << 19).getValue();
+        assertEquals(zeros, CRC64.combine(half, half, 1 << 19));
+    }
+
     private void calcAndCheck(byte[] b, int len, long crcValue)
     {
 
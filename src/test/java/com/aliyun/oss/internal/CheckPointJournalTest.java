@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.aliyun.oss.internal.OSSDownloadOperation.DownloadCheckPoint;
+import com.aliyun.oss.internal.OSSDownloadOperation.DownloadPart;
+import com.aliyun.oss.internal.OSSDownloadOperation.ObjectStat;
+import com.aliyun.oss.internal.OSSUploadOperation.FileStat;
+import com.aliyun.oss.internal.OSSUploadOperation.UploadCheckPoint;
+import com.aliyun.oss.internal.OSSUploadOperation.UploadPart;
+import com.aliyun.oss.model.PartETag;
+
+public class CheckPointJournalTest {
+
+    private static final int PARTS = 5;
+
+    private File checkpointFile;
+
+    @Before
+    public void setUp() throws IOException {
+        checkpointFile = File.createTempFile("checkpoint", ".cp");
+    }
+
+    @After
+    public void tearDown() {
+        checkpointFile.delete();
+    }
+
+    private static UploadCheckPoint newUploadCheckPoint() {
+        UploadCheckPoint ucp = new UploadCheckPoint();
+        ucp.magic = "FE8BB4EA-B593-4FAC-AD7A-2459A36E2E62";
+        ucp.uploadFile = "/tmp/file";
+        ucp.uploadFileStat = new FileStat();
+        ucp.uploadFileStat.size = PARTS * 100;
+        ucp.uploadFileStat.lastModified = 1000;
+        ucp.key = "key";
+        ucp.uploadID = "upload-id";
+        ucp.uploadParts = new ArrayList<UploadPart>();
+        for (int i = 0; i < PARTS; i++) {
+            UploadPart part = new UploadPart();
+            part.number = i + 1;
+            part.offset = i * 100;
+            part.size = 100;
+            ucp.uploadParts.add(part);
+        }
+        ucp.partETags = new ArrayList<PartETag>();
+        ucp.originPartSize = 100;
+        return ucp;
+    }
+
+    private void completeUploadPart(UploadCheckPoint ucp, int partIndex) throws IOException {
+        PartETag partETag = new PartETag(partIndex + 1, "etag-" + partIndex);
+        ucp.uploadParts.get(partIndex).crc = 1000 + partIndex;
+        ucp.update(partIndex, partETag, true);
+        ucp.journal(checkpointFile.getPath(), partIndex, partETag);
+    }
+
+    @Test
+    public void testUploadCheckPointReplay() throws Exception {
+        UploadCheckPoint ucp = newUploadCheckPoint();
+        ucp.dump(checkpointFile.getPath());
+        completeUploadPart(ucp, 3);
+        completeUploadPart(ucp, 0);
+        ucp.closeJournal();
+
+        UploadCheckPoint loaded = new UploadCheckPoint();
+        loaded.load(checkpointFile.getPath());
+
+        assertEquals(loaded.hashCode(), loaded.md5);
+        assertEquals(ucp.hashCode(), loaded.hashCode());
+        assertTrue(loaded.uploadParts.get(0).isCompleted);
+        assertTrue(loaded.uploadParts.get(3).isCompleted);
+        assertFalse(loaded.uploadParts.get(1).isCompleted);
+        assertEquals(1003, loaded.uploadParts.get(3).crc);
+        assertEquals(2, loaded.partETags.size());
+        assertEquals(4, loaded.partETags.get(0).getPartNumber());
+        assertEquals("etag-3", loaded.partETags.get(0).getETag());
+    }
+
+    @Test
+    public void testPartCompletionAppendsFixedSizeRecord() throws Exception {
+        UploadCheckPoint ucp = newUploadCheckPoint();
+        ucp.dump(checkpointFile.getPath());
+        long snapshotLength = checkpointFile.length();
+
+        completeUploadPart(ucp, 0);
+        long recordLength = checkpointFile.length() - snapshotLength;
+        for (int i = 1; i < PARTS; i++) {
+            completeUploadPart(ucp, i);
+            assertEquals(snapshotLength + (i + 1) * recordLength, checkpointFile.length());
+        }
+        ucp.closeJournal();
+
+        // Writing the checkpoint again folds the records into the snapshot.
+        ucp.dump(checkpointFile.getPath());
+        UploadCheckPoint loaded = new UploadCheckPoint();
+        loaded.load(checkpointFile.getPath());
+        assertEquals(PARTS, loaded.partETags.size());
+        assertEquals(ucp.hashCode(), loaded.md5);
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws Exception {
+        UploadCheckPoint ucp = newUploadCheckPoint();
+        ucp.dump(checkpointFile.getPath());
+        completeUploadPart(ucp, 1);
+        ucp.closeJournal();
+
+        FileOutputStream out = new FileOutputStream(checkpointFile, true);
+        out.write(new byte[] { 0, 0, 0, 40, 0, 0, 0, 2, 0 });
+        out.close();
+
+        UploadCheckPoint loaded = new UploadCheckPoint();
+        loaded.load(checkpointFile.getPath());
+        assertEquals(1, loaded.partETags.size());
+        assertTrue(loaded.uploadParts.get(1).isCompleted);
+        assertFalse(loaded.uploadParts.get(2).isCompleted);
+        assertEquals(loaded.hashCode(), loaded.md5);
+    }
+
+    @Test
+    public void testLegacyCheckPointIsLoaded() throws Exception {
+        UploadCheckPoint ucp = newUploadCheckPoint();
+        ucp.uploadParts.get(2).isCompleted = true;
+        ucp.partETags.add(new PartETag(3, "etag-2"));
+        ucp.md5 = ucp.hashCode();
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(checkpointFile));
+        out.writeObject(ucp);
+        out.close();
+
+        UploadCheckPoint loaded = new UploadCheckPoint();
+        loaded.load(checkpointFile.getPath());
+        assertEquals(ucp.hashCode(), loaded.hashCode());
+        assertEquals(loaded.hashCode(), loaded.md5);
+        assertTrue(loaded.uploadParts.get(2).isCompleted);
+    }
+
+    @Test
+    public void testDownloadCheckPointReplay() throws Exception {
+        DownloadCheckPoint dcp = new DownloadCheckPoint();
+        dcp.magic = "92611BED-89E2-46B6-89E5-72F273D4B0A3";
+        dcp.downloadFile = "/tmp/file";
+        dcp.bucketName = "bucket";
+        dcp.objectKey = "key";
+        dcp.objectStat = new ObjectStat();
+        dcp.objectStat.size = PARTS * 100;
+        dcp.objectStat.lastModified = new Date(1000);
+        dcp.objectStat.digest = "etag";
+        dcp.downloadParts = new ArrayList<DownloadPart>();
+        for (int i = 0; i < PARTS; i++) {
+            DownloadPart part = new DownloadPart();
+            part.index = i;
+            part.start = i * 100;
+            part.end = part.start + 99;
+            part.fileStart = part.start;
+            dcp.downloadParts.add(part);
+        }
+        dcp.dump(checkpointFile.getPath());
+
+        DownloadPart part = dcp.downloadParts.get(4);
+        part.length = 100;
+        part.crc = 1234;
+        dcp.update(4, true);
+        dcp.journal(checkpointFile.getPath(), 4);
+        dcp.closeJournal();
+
+        DownloadCheckPoint loaded = new DownloadCheckPoint();
+        loaded.load(checkpointFile.getPath());
+        assertEquals(dcp.hashCode(), loaded.hashCode());
+        assertEquals(loaded.hashCode(), loaded.md5);
+        assertTrue(loaded.downloadParts.get(4).isCompleted);
+        assertEquals(1234, loaded.downloadParts.get(4).crc);
+        assertEquals(100, loaded.downloadParts.get(4).length);
+        assertFalse(loaded.downloadParts.get(3).isCompleted);
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TransferSchedulerTest {
+
+    private TransferScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private static Runnable record(final List<String> order, final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+            }
+        };
+    }
+
+    private static Runnable await(final CountDownLatch started, final CountDownLatch release) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private void runConcurrencyTest(int maxConcurrentParts, int transfers, int taskNum, int expectedMax)
+            throws Exception {
+        scheduler = new TransferScheduler(maxConcurrentParts);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        List<ExecutorService> executors = new ArrayList<ExecutorService>();
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        for (int t = 0; t < transfers; t++) {
+            ExecutorService transfer = scheduler.newTransfer(0, taskNum);
+            executors.add(transfer);
+            for (int i = 0; i < 10; i++) {
+                futures.add(transfer.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        int now = running.incrementAndGet();
+                        synchronized (maxRunning) {
+                            maxRunning.set(Math.max(maxRunning.get(), now));
+                        }
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        running.decrementAndGet();
+                    }
+                }));
+            }
+            transfer.shutdown();
+        }
+
+        for (ExecutorService transfer : executors) {
+            assertTrue(transfer.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS));
+            assertTrue(transfer.isTerminated());
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        assertEquals(expectedMax, maxRunning.get());
+        assertEquals(transfers * 10, scheduler.getCompletedParts());
+        assertEquals(0, scheduler.getActiveTransfers());
+        assertEquals(0, scheduler.getActiveParts());
+        assertEquals(0, scheduler.getQueuedParts());
+    }
+
+    @Test
+    public void testGlobalLimit() throws Exception {
+        runConcurrencyTest(3, 4, 4, 3);
+        assertTrue(scheduler.getPoolSize() <= 4);
+    }
+
+    @Test
+    public void testTransferLimit() throws Exception {
+        runConcurrencyTest(16, 1, 2, 2);
+    }
+
+    @Test
+    public void testTransfersTakeTurns() throws Exception {
+        scheduler = new TransferScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService blocker = scheduler.newTransfer(0, 1);
+        blocker.execute(await(started, release));
+        blocker.shutdown();
+        started.await();
+
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        ExecutorService a = scheduler.newTransfer(0, 4);
+        ExecutorService b = scheduler.newTransfer(0, 4);
+        for (int i = 0; i < 3; i++) {
+            a.execute(record(order, "a"));
+        }
+        for (int i = 0; i < 3; i++) {
+            b.execute(record(order, "b"));
+        }
+        a.shutdown();
+        b.shutdown();
+
+        assertEquals(6, scheduler.getQueuedParts());
+        assertEquals(1, scheduler.getActiveParts());
+        assertEquals(3, scheduler.getActiveTransfers());
+
+        release.countDown();
+        assertTrue(a.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(b.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("a", "b", "a", "b", "a", "b"), order);
+    }
+
+    @Test
+    public void testHigherPriorityRunsFirst() throws Exception {
+        scheduler = new TransferScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService blocker = scheduler.newTransfer(0, 1);
+        blocker.execute(await(started, release));
+        blocker.shutdown();
+        started.await();
+
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        ExecutorService low = scheduler.newTransfer(0, 4);
+        ExecutorService high = scheduler.newTransfer(5, 4);
+        low.execute(record(order, "low"));
+        low.execute(record(order, "low"));
+        high.execute(record(order, "high"));
+        high.execute(record(order, "high"));
+        low.shutdown();
+        high.shutdown();
+
+        release.countDown();
+        assertTrue(low.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(high.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("high", "high", "low", "low"), order);
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        scheduler = new TransferScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService transfer = scheduler.newTransfer(0, 1);
+        Future<?> running = transfer.submit(await(started, release));
+        Future<?> queued = transfer.submit(record(new ArrayList<String>(), "queued"));
+        transfer.shutdown();
+        started.await();
+
+        try {
+            transfer.execute(record(new ArrayList<String>(), "late"));
+            fail("RejectedExecutionException expected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        scheduler.shutdown();
+        assertTrue(queued.isCancelled());
+        try {
+            queued.get();
+            fail("CancellationException expected");
+        } catch (CancellationException e) {
+            // expected
+        }
+        assertTrue(!transfer.awaitTermination(10, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        running.get();
+        assertTrue(transfer.awaitTermination(10, TimeUnit.SECONDS));
+
+        try {
+            scheduler.newTransfer(0, 1);
+            fail("RejectedExecutionException expected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+}
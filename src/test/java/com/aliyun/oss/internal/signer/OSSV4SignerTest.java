@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.internal.signer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.SimpleTimeZone;
+
+import org.junit.Test;
+
+import com.aliyun.oss.common.auth.DefaultCredentials;
+import com.aliyun.oss.common.auth.ServiceSignature;
+import com.aliyun.oss.common.utils.BinaryUtil;
+import com.aliyun.oss.common.utils.StringUtils;
+
+public class OSSV4SignerTest {
+
+    private static String expectedPolicySignature(String secret, Date date, String region, String policy) {
+        SimpleDateFormat df = new SimpleDateFormat("yyyyMMdd", Locale.US);
+        df.setTimeZone(new SimpleTimeZone(0, "GMT"));
+        ServiceSignature signature = ServiceSignature.create("HmacSHA256");
+        byte[] key = ("aliyun_v4" + secret).getBytes(StringUtils.UTF8);
+        key = signature.computeHash(key, df.format(date).getBytes(StringUtils.UTF8));
+        key = signature.computeHash(key, region.getBytes(StringUtils.UTF8));
+        key = signature.computeHash(key, "oss".getBytes(StringUtils.UTF8));
+        key = signature.computeHash(key, "aliyun_v4_request".getBytes(StringUtils.UTF8));
+        return BinaryUtil.toHex(signature.computeHash(key, policy.getBytes(StringUtils.UTF8)));
+    }
+
+    private static OSSV4Signer newSigner(String accessKeyId, String secret, String region) {
+        OSSSignerParams params = new OSSSignerParams("/bucket/key", new DefaultCredentials(accessKeyId, secret));
+        params.setProduct("oss");
+        params.setRegion(region);
+        return new OSSV4Signer(params);
+    }
+
+    @Test
+    public void testCachedSigningKey() {
+        Date date = new Date(1700000000000L);
+        String policy = "{\"expiration\":\"2023-11-15T00:00:00.000Z\",\"conditions\":[]}";
+        String expected = expectedPolicySignature("sk", date, "cn-hangzhou", policy);
+
+        assertEquals(expected, newSigner("ak-cache", "sk", "cn-hangzhou").signPolicy(policy, date));
+        assertEquals(expected, newSigner("ak-cache", "sk", "cn-hangzhou").signPolicy(policy, date));
+        assertEquals(expectedPolicySignature("sk", date, "cn-shanghai", policy),
+                newSigner("ak-cache", "sk", "cn-shanghai").signPolicy(policy, date));
+
+        Date nextDay = new Date(date.getTime() + 24 * 3600 * 1000L);
+        assertEquals(expectedPolicySignature("sk", nextDay, "cn-hangzhou", policy),
+                newSigner("ak-cache", "sk", "cn-hangzhou").signPolicy(policy, nextDay));
+    }
+
+    @Test
+    public void testRotatedSecret() {
+        Date date = new Date(1700000000000L);
+        String policy = "policy";
+
+        assertEquals(expectedPolicySignature("old-secret", date, "cn-hangzhou", policy),
+                newSigner("ak-rotate", "old-secret", "cn-hangzhou").signPolicy(policy, date));
+        // The same access key id with a new secret must not use the cached key.
+        assertEquals(expectedPolicySignature("new-secret", date, "cn-hangzhou", policy),
+                newSigner("ak-rotate", "new-secret", "cn-hangzhou").signPolicy(policy, date));
+
+        OSSV4Signer.invalidateSigningKeys("ak-rotate");
+        assertEquals(expectedPolicySignature("new-secret", date, "cn-hangzhou", policy),
+                newSigner("ak-rotate", "new-secret", "cn-hangzhou").signPolicy(policy, date));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.aliyun.oss.utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+import com.aliyun.oss.ClientConfiguration;
+import com.aliyun.oss.OSSClient;
+import com.aliyun.oss.common.auth.DefaultCredentialProvider;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An HTTP server on a free loopback port for the tests which talk to a fake
+ * OSS service. Every request is passed to the handler on a thread of its own
+ * and the exchange is closed after the handler returns.
+ */
+public class LoopbackServer {
+
+    /**
+     * Serves one request of a {@link LoopbackServer}.
+     */
+    public interface Handler {
+        void serve(HttpExchange exchange) throws IOException;
+    }
+
+    private final HttpServer server;
+
+    private LoopbackServer(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts a server which serves every path with the given handler.
+     */
+    public static LoopbackServer start(final Handler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    handler.serve(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        return new LoopbackServer(server);
+    }
+
+    /**
+     * Creates a client configuration which doesn't retry failed requests.
+     */
+    public static ClientConfiguration newConfiguration() {
+        ClientConfiguration config = new ClientConfiguration();
+        config.setMaxErrorRetry(0);
+        return config;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    /**
+     * Creates a client of this server with fake credentials.
+     */
+    public OSSClient newClient(ClientConfiguration config) {
+        return new OSSClient(getEndpoint(), new DefaultCredentialProvider("ak", "sk"), config);
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+}